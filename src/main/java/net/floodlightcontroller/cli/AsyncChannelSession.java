@@ -0,0 +1,84 @@
+package net.floodlightcontroller.cli;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+
+import org.apache.sshd.common.Channel;
+import org.apache.sshd.common.NamedFactory;
+import org.apache.sshd.server.channel.ChannelSession;
+
+/**
+ * A session channel that hands the input of the client directly to
+ * shells that implement {@link IAsyncInput}, instead of piping it to
+ * an input stream that a shell thread blocks on. Other shells get the
+ * input stream as usual.
+ */
+public class AsyncChannelSession extends ChannelSession {
+	
+	/**
+	 * Creates asynchronous session channels. Replaces the default
+	 * factory of session channels.
+	 */
+	public static class Factory implements NamedFactory<Channel> {
+
+		@Override
+		public String getName() {
+			return "session";
+		}
+
+		@Override
+		public Channel create() {
+			return new AsyncChannelSession();
+		}
+		
+	}
+	
+	@Override
+	protected void doWriteData(byte[] data, int off, int len) throws IOException {
+		if (!(this.command instanceof IAsyncInput)) {
+			super.doWriteData(data, off, len);
+			return;
+		}
+		
+		// The input is queued by the shell at once, so the window can be adjusted at once.
+		this.localWindow.consumeAndCheck(len);
+		((IAsyncInput) this.command).input(data, off, len);
+	}
+	
+	@Override
+	public void handleEof() throws IOException {
+		super.handleEof();
+		if (this.command instanceof IAsyncInput)
+			((IAsyncInput) this.command).inputClosed();
+	}
+
+}
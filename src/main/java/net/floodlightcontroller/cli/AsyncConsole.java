@@ -0,0 +1,334 @@
+package net.floodlightcontroller.cli;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import jline.Terminal;
+import jline.console.completer.Completer;
+
+import net.floodlightcontroller.cli.commands.CommandHandler;
+import net.floodlightcontroller.cli.commands.CommandMode;
+
+import org.apache.sshd.server.Environment;
+import org.apache.sshd.server.ExitCallback;
+
+/**
+ * An event-driven console. The input of the SSH channel is queued as
+ * it arrives, and a task on a shared executor feeds it to a line editor
+ * and executes the entered command lines. Thus, idle sessions do not
+ * need a thread. Input that arrives while a command runs is kept and
+ * handled after the command, like type-ahead of a terminal.
+ * 
+ * The thread that delivers the input never writes to the channel. The
+ * output blocks while the client's window is used up, and the window
+ * adjustment that frees it arrives on that very thread. Thus, echo,
+ * help, and command output are all written by the task, one task at a
+ * time per console.
+ */
+public class AsyncConsole implements IConsole, IAsyncInput, LineEditor.Listener {
+	/** The maximum number of input bytes kept until they are handled. */
+	private static final int MAX_PENDING_INPUT = 16 * 1024;
+	/** An SSH terminal representation, to get the width from. */
+	private Terminal terminal;
+	/** The line editor of the command line. */
+	private LineEditor editor;
+	/** The command hander that executes all console commands. */
+	private CommandHandler commander;
+	/** The session this console belongs to. */
+	private CliSession session;
+	/** The output of the console. */
+	private ConsoleOutput output;
+	/** The executor that runs the commands. */
+	private Executor executor;
+	/** The function that is executed when the console is closed. */
+	private ExitCallback callback;
+	/** The prompt string of the command line. */
+	private String prompt;
+	/** The mode of the console. */
+	private volatile CommandMode mode = CommandMode.EXEC;
+	/** The completer of the commands available in the current mode. */
+	private volatile Completer completer;
+	/** The input that arrived and is not handled yet. */
+	private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+	/** Whether a task that handles the input is queued or running. */
+	private boolean scheduled;
+	/** Whether the console is closed. */
+	private volatile boolean closed;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param commander The command handler.
+	 * @param session The session of the console.
+	 * @param out The output stream of the SSH channel.
+	 * @param environment The environment of the SSH session.
+	 * @param encoding The name of the charset, or null to use the default charset.
+	 * @param executor The executor that runs the commands.
+	 * @param callback The function that is executed when the console is closed.
+	 */
+	public AsyncConsole(CommandHandler commander, CliSession session, OutputStream out, Environment environment, String encoding, Executor executor, ExitCallback callback) {
+		this.commander = commander;
+		this.session = session;
+		this.executor = executor;
+		this.callback = callback;
+		this.output = new ConsoleOutput(out, encoding);
+		this.terminal = new SshTerminal(environment);
+		this.editor = new LineEditor(this.output, this, encoding);
+		this.completer = this.commander.getCompleter(session.getRoles(), this.mode);
+		this.editor.setCompleter(this.completer);
+	}
+	
+	/**
+	 * Starts the console, i.e. prints a welcome message and the prompt.
+	 */
+	public synchronized void start() {
+		this.commander.addListener(this);
+		this.scheduled = true;
+		this.submit(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					write("\n   Welcome to Floodlight CLI\n");
+					editor.prompt(getPrompt());
+					flush();
+				} catch (IOException e) {
+					close();
+				}
+				handleInput();
+			}
+		});
+	}
+	
+	/**
+	 * Closes the console, i.e. removes it from the command handler,
+	 * and drops all further input.
+	 */
+	public synchronized void close() {
+		if (this.closed)
+			return;
+		
+		this.closed = true;
+		this.commander.removeListener(this);
+		try {
+			this.terminal.restore();
+		} catch (Exception e) {
+			// Ignore, the session is gone anyway.
+		}
+	}
+	
+	@Override
+	public synchronized void input(byte[] buffer, int offset, int length) {
+		if (this.closed)
+			return;
+		
+		// Keep the input until the task handles it.
+		if (this.pending.size() + length <= MAX_PENDING_INPUT)
+			this.pending.write(buffer, offset, length);
+		if (!this.scheduled) {
+			this.scheduled = true;
+			this.submit(new Runnable() {
+				@Override
+				public void run() {
+					handleInput();
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Handles the queued input until there is none left. Runs on the
+	 * executor, and only one task per console runs at a time.
+	 */
+	private void handleInput() {
+		while (true) {
+			/* The input to handle. */
+			byte[] input;
+			
+			synchronized (this) {
+				if (this.closed || this.pending.size() == 0) {
+					this.scheduled = false;
+					return;
+				}
+				input = this.pending.toByteArray();
+				this.pending.reset();
+			}
+			
+			// The editor stops after each command line, which is executed right away.
+			try {
+				for (int offset = 0; offset < input.length && !this.closed; ) {
+					offset += this.editor.input(input, offset, input.length - offset);
+				}
+				if (!this.closed)
+					this.output.flush();
+			} catch (IOException e) {
+				this.close();
+			}
+		}
+	}
+	
+	/**
+	 * Submits a task to the executor, and closes the console if the
+	 * executor does not take it.
+	 * 
+	 * @param task The task.
+	 */
+	private void submit(Runnable task) {
+		try {
+			this.executor.execute(task);
+		} catch (RejectedExecutionException e) {
+			this.scheduled = false;
+			this.exit();
+		}
+	}
+	
+	@Override
+	public void inputClosed() {
+		this.close();
+	}
+	
+	@Override
+	public void lineRead(String line) {
+		this.execute(line);
+	}
+	
+	@Override
+	public void helpRequested(String line) {
+		try {
+			this.write("\n" + this.commander.getHelp(line, this.session.getRoles(), this.mode));
+			this.editor.redraw();
+		} catch (IOException e) {
+			this.close();
+		}
+	}
+	
+	@Override
+	public void endOfInput() {
+		this.exit();
+	}
+	
+	/**
+	 * Executes a command line and prompts for the next one. The input
+	 * that arrived in the meantime is handled afterwards.
+	 * 
+	 * @param line The command line.
+	 */
+	private void execute(String line) {
+		// Exit leaves the configuration mode first.
+		boolean exec = (this.mode == CommandMode.EXEC);
+		
+		// Execute commands.
+		this.commander.execute(this, line);
+		
+		// Execute special commands
+		if (exec && (line.trim().equalsIgnoreCase("quit") || line.trim().equalsIgnoreCase("exit"))) {
+			this.exit();
+			return;
+		}
+		
+		if (this.closed)
+			return;
+		
+		try {
+			this.editor.prompt(this.getPrompt());
+		} catch (IOException e) {
+			this.close();
+		}
+	}
+	
+	/**
+	 * Closes the console and the SSH channel.
+	 */
+	private void exit() {
+		this.close();
+		this.callback.onExit(0);
+	}
+	
+	@Override
+	public void setPrompt(String prompt) {
+		this.prompt = prompt;
+	}
+	
+	@Override
+	public String getPrompt() {
+		if (this.prompt != null)
+			return this.prompt;
+		
+		return "> ";
+	}
+	
+	@Override
+	public int getWidth() {
+		return this.terminal.getWidth();
+	}
+	
+	@Override
+	public CommandMode getMode() {
+		return this.mode;
+	}
+	
+	@Override
+	public synchronized void setMode(CommandMode mode) {
+		this.mode = mode;
+		
+		// Complete the commands available in the new mode.
+		this.completer = this.commander.getCompleter(this.session.getRoles(), mode);
+		this.editor.setCompleter(this.completer);
+	}
+	
+	@Override
+	public Collection<Completer> getCompleters() {
+		return Collections.singletonList(this.completer);
+	}
+	
+	@Override
+	public CliSession getSession() {
+		return this.session;
+	}
+	
+	@Override
+	public void write(String string) throws IOException {
+		this.output.write(string);
+		this.output.write("\n");
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		this.output.flush();
+	}
+
+}
@@ -31,13 +31,33 @@ package net.floodlightcontroller.cli;
 * written permission.
 */
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.sshd.SshServer;
-import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.common.Channel;
+import org.apache.sshd.common.Compression;
+import org.apache.sshd.common.FactoryManager;
+import org.apache.sshd.common.KeyPairProvider;
+import org.apache.sshd.common.NamedFactory;
+import org.apache.sshd.common.compression.CompressionNone;
+import org.apache.sshd.server.PasswordAuthenticator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,9 +67,29 @@ import net.floodlightcontroller.core.module.FloodlightModuleException;
 import net.floodlightcontroller.core.module.IFloodlightModule;
 import net.floodlightcontroller.core.module.IFloodlightService;
 import net.floodlightcontroller.devicemanager.IDeviceService;
+import net.floodlightcontroller.firewall.IFirewallService;
+import net.floodlightcontroller.linkdiscovery.ILinkDiscoveryService;
 import net.floodlightcontroller.restserver.IRestApiService;
 
+import net.floodlightcontroller.cli.audit.AuditLog;
+import net.floodlightcontroller.cli.auth.AuthorizedKeysAuthenticator;
+import net.floodlightcontroller.cli.auth.AuthorizedKeysStore;
+import net.floodlightcontroller.cli.auth.CredentialStore;
+import net.floodlightcontroller.cli.auth.HashedPasswordAuthenticator;
+import net.floodlightcontroller.cli.auth.LoginRateLimiter;
+import net.floodlightcontroller.cli.auth.Role;
+import net.floodlightcontroller.cli.auth.UserAccount;
+import net.floodlightcontroller.cli.auth.VerifiedCredentialCache;
+import net.floodlightcontroller.cli.audit.RotatingLogFile;
+import net.floodlightcontroller.cli.cluster.ClusterClient;
+import net.floodlightcontroller.cli.cluster.ClusterPeer;
 import net.floodlightcontroller.cli.commands.*;
+import net.floodlightcontroller.cli.config.FlowLoader;
+import net.floodlightcontroller.cli.config.RunningConfig;
+import net.floodlightcontroller.cli.config.StartupConfig;
+import net.floodlightcontroller.cli.stats.ControllerCounters;
+import net.floodlightcontroller.cli.stats.StatisticsCollector;
+import net.floodlightcontroller.cli.topology.AdjacencyView;
 
 /**
  * Command Line Interface (CLI) to Floodlight. The CLI module 
@@ -58,15 +98,51 @@ import net.floodlightcontroller.cli.commands.*;
  * 
  * @author Michael Bredel <michael.bredel@cern.ch>
  */
-public class Cli implements IFloodlightModule {
+public class Cli implements IFloodlightModule, ICliService {
 	/** Default port of the SSH config console. */
 	private static final int DEFAULT_PORT = 55220;
 	/** Default user name: root. */
 	private static final String DEFAULT_USERNAME = "root";
 	/** Default password: password. */
 	private static final String DEFAULT_PASSWORD = "password";	
-	/** Default SSH host key location. */
-	private static final String DEFAULT_HOSTKEY = "ssh_host_dsa_key.pub";
+	/** Default SSH (RSA) host key location. */
+	private static final String DEFAULT_HOSTKEY = "ssh_host_rsa_key";
+	/** Default size in bits of a generated RSA host key. */
+	private static final int DEFAULT_HOSTKEY_SIZE = 3072;
+	/** Default role(s) of users that have no account in the password file: the least privileged role. */
+	private static final String DEFAULT_ROLE = "operator";
+	/** The role of the user that is configured without a password file. */
+	private static final String ADMIN_ROLE = "admin";
+	/** Default role(s) of the users of the local console. Only the controller's user can access it. */
+	private static final String DEFAULT_LOCAL_ROLE = "admin";
+	/** Default time in seconds a verified login is cached. */
+	private static final int DEFAULT_LOGIN_CACHE_TTL = 60;
+	/** Default number of password verifications per minute and source address. */
+	private static final int DEFAULT_LOGIN_RATE = 30;
+	/** Default audit log file. An empty string disables the audit log. */
+	private static final String DEFAULT_AUDITLOG = "cli-audit.log";
+	/** Default size in bytes after which the audit log is rotated: 10 MB. */
+	private static final long DEFAULT_AUDITLOG_SIZE = 10 * 1024 * 1024;
+	/** Default number of rotated (compressed) audit log files to keep. */
+	private static final int DEFAULT_AUDITLOG_FILES = 10;
+	/** Default number of audit records buffered before records are dropped. */
+	private static final int DEFAULT_AUDITLOG_BUFFER = 4096;
+	/** Default time in milliseconds an OpenFlow statistics reply is shared by commands. */
+	private static final long DEFAULT_STATS_CACHE_WINDOW = 1000;
+	/** Default time in milliseconds to wait for switches to answer a statistics request. */
+	private static final long DEFAULT_STATS_TIMEOUT = 5000;
+	/** Default number of flow-mods written to a switch at once when loading a flow file. */
+	private static final int DEFAULT_FLOW_BATCH_SIZE = FlowLoader.DEFAULT_BATCH_SIZE;
+	/** Default startup configuration file. */
+	private static final String DEFAULT_STARTUP_CONFIG = "cli-startup-config.gz";
+	/** The default number of threads that run the commands of event-driven shells. */
+	private static final int DEFAULT_SHELL_THREADS = 4;
+	/** The stack size of the threads that run the commands of event-driven shells. */
+	private static final long SHELL_THREAD_STACK_SIZE = 256 * 1024;
+	/** The default minimum payload size in bytes of SSH packets that are compressed. */
+	private static final int DEFAULT_COMPRESSION_THRESHOLD = 256;
+	/** The default time in milliseconds to wait for the controllers of the cluster. */
+	private static final long DEFAULT_CLUSTER_TIMEOUT = 3000;
 	/** Logger to log ProactiveFlowPusher events. */
 	protected static Logger logger = LoggerFactory.getLogger(Cli.class);
 	/** Ports used by the SSH server to offer the console login. */
@@ -75,8 +151,80 @@ public class Cli implements IFloodlightModule {
 	protected String username;
 	/** Password to log in to the console. */
 	protected String password;
-	/** Host key file where SSHD stores the host key. */
+	/** Password file with hashed passwords and roles of all users. Overrides username and password. */
+	protected String passwdfile;
+	/** The user accounts read from the password file, or null. */
+	protected CredentialStore credentials;
+	/** Roles of users that have no account in the password file. */
+	protected Set<Role> defaultRoles;
+	/** Authorized keys file with the public keys that may log in. */
+	protected String authorizedKeys;
+	/** Time in seconds a verified login is cached. */
+	protected int loginCacheTtl;
+	/** Number of password verifications per minute and source address. */
+	protected int loginRate;
+	/** Host key file where SSHD stores the (RSA) host key. */
 	protected String hostkey;
+	/** Size in bits of a generated RSA host key. */
+	protected int hostkeySize;
+	/** Host key file of an additional, legacy DSA host key, or null. */
+	protected String hostkeyDsa;
+	/** Audit log file that records all executed commands. */
+	protected String auditlog;
+	/** Size in bytes after which the audit log is rotated. */
+	protected long auditlogSize;
+	/** Number of rotated audit log files to keep. */
+	protected int auditlogFiles;
+	/** Number of audit records buffered before records are dropped. */
+	protected int auditlogBuffer;
+	/** Time in milliseconds an OpenFlow statistics reply is shared by commands. */
+	protected long statsCacheWindow;
+	/** Time in milliseconds to wait for switches to answer a statistics request. */
+	protected long statsTimeout;
+	/** Number of flow-mods written to a switch at once when loading a flow file. */
+	protected int flowBatchSize;
+	/** Startup configuration file that is loaded when the controller starts. */
+	protected String startupConfigFile;
+	/** Whether shells are event-driven instead of running a thread per session. */
+	protected boolean asyncShell;
+	/** Number of threads that run the commands of event-driven shells. */
+	protected int shellThreads;
+	/** Size in bytes of the SSH channel window, or null to use the SSHD default. */
+	protected String windowSize;
+	/** Maximum size in bytes of an SSH packet, or null to use the SSHD default. */
+	protected String packetSize;
+	/** Number of SSHD I/O worker threads, or null to use the SSHD default. */
+	protected String nioWorkers;
+	/** Comma-separated SSH ciphers in order of preference, or null to use the SSHD defaults. */
+	protected String ciphers;
+	/** Comma-separated SSH MACs in order of preference, or null to use the SSHD defaults. */
+	protected String macs;
+	/** Comma-separated SSH compressions in order of preference, or null to disable compression. */
+	protected String compression;
+	/** Minimum payload size in bytes of SSH packets that are compressed. */
+	protected int compressionThreshold;
+	/** Path of the Unix domain socket of the local console, or null to disable it. */
+	protected String localSocket;
+	/** Roles of the users of the local console. */
+	protected Set<Role> localRoles;
+	/** The client that queries the other controllers of the cluster, or null if there are none. */
+	protected ClusterClient clusterClient;
+	/** Time in milliseconds to wait for the controllers of the cluster. */
+	protected long clusterTimeout;
+	/** The collector that sends (and coalesces) OpenFlow statistics requests. */
+	protected StatisticsCollector statisticsCollector;
+	/** The aggregate counters of the controller, maintained by listeners. */
+	protected ControllerCounters counters;
+	/** The adjacency view of the topology, maintained from link discovery updates. */
+	protected AdjacencyView adjacencyView;
+	/** The running configuration, i.e. the committed flow entries and settings. */
+	protected RunningConfig runningConfig;
+	/** The startup configuration. */
+	protected StartupConfig startupConfig;
+	/** The loader that provisions flow files in bulk. */
+	protected FlowLoader flowLoader;
+	/** The SSH host key provider. */
+	protected HostKeyProvider hostKeyProvider;
 	/** The command handler that executes CLI commands. */
 	protected CommandHandler commander;
 	/** Required Module: Floodlight Provider Service. */
@@ -85,15 +233,21 @@ public class Cli implements IFloodlightModule {
 	protected IRestApiService restApi;
 	/** Required Module: Floodlight Device Manager Service.*/
 	protected IDeviceService deviceManager;
+	/** Required Module: Floodlight Link Discovery Service.*/
+	protected ILinkDiscoveryService linkDiscovery;
 
 	@Override
 	public Collection<Class<? extends IFloodlightService>> getModuleServices() {
-		return null;
+		Collection<Class<? extends IFloodlightService>> l = new ArrayList<Class<? extends IFloodlightService>>();
+		l.add(ICliService.class);
+		return l;
 	}
 
 	@Override
 	public Map<Class<? extends IFloodlightService>, IFloodlightService> getServiceImpls() {
-		return null;
+		Map<Class<? extends IFloodlightService>, IFloodlightService> m = new HashMap<Class<? extends IFloodlightService>, IFloodlightService>();
+		m.put(ICliService.class, this);
+		return m;
 	}
 
 	@Override
@@ -102,6 +256,7 @@ public class Cli implements IFloodlightModule {
 	    l.add(IFloodlightProviderService.class);
 	    l.add(IRestApiService.class);
 	    l.add(IDeviceService.class);
+	    l.add(ILinkDiscoveryService.class);
 	    return l;
 	}
 
@@ -110,9 +265,25 @@ public class Cli implements IFloodlightModule {
 		floodlightProvider = context.getServiceImpl(IFloodlightProviderService.class);
 		restApi = context.getServiceImpl(IRestApiService.class);
 		deviceManager = context.getServiceImpl(IDeviceService.class);
+		linkDiscovery = context.getServiceImpl(ILinkDiscoveryService.class);
 		
 		// Read our configuration from properties file.
 		this.readConfig(context);
+		
+		// Initialize the statistics collector shared by all commands.
+		statisticsCollector = new StatisticsCollector(this.statsCacheWindow);
+		// Initialize the adjacency view of the topology.
+		adjacencyView = new AdjacencyView();
+		// Initialize the aggregate counters of the controller.
+		counters = new ControllerCounters();
+		// Initialize the running configuration. The firewall is optional.
+		runningConfig = new RunningConfig(this.floodlightProvider, context.getServiceImpl(IFirewallService.class));
+		// Initialize the startup configuration.
+		startupConfig = new StartupConfig(new File(this.startupConfigFile));
+		// Initialize the flow loader.
+		flowLoader = new FlowLoader(this.floodlightProvider, runningConfig, this.flowBatchSize, this.statsTimeout);
+		// Load the SSH host keys, such that an unreadable key file stops the controller.
+		hostKeyProvider = this.createHostKeyProvider();
 	}
 
 	@Override
@@ -120,17 +291,43 @@ public class Cli implements IFloodlightModule {
 		// Initialize command handler;
 		commander = CommandHandler.getInstance();
 		// Add commands to handler.
-		commander.addCommand(new ExitCmd());
-		commander.addCommand(new ShowCmd());
-		commander.addCommand(new ShowSwitchCmd());
-		commander.addCommand(new ShowHostCmd(context));
+		this.registerBuiltinCommands(context);
+		this.registerProvidedCommands(context);
+		
+		// Keep the adjacency view and the counters up to date.
+		adjacencyView.start(this.linkDiscovery);
+		counters.start(this.floodlightProvider, this.deviceManager);
+		// Push committed flow entries to switches when they connect.
+		floodlightProvider.addOFSwitchListener(runningConfig);
+		flowLoader.start();
+		// Load the startup configuration. Switches are not connected yet, so flow entries are pushed as they connect.
+		this.loadStartupConfig();
+		
+		// Initialize the audit log.
+		if (this.auditlog.length() > 0) {
+			AuditLog audit = new AuditLog(new RotatingLogFile(new File(this.auditlog), this.auditlogSize, this.auditlogFiles), this.auditlogBuffer, 256, 1000);
+			audit.start();
+			commander.setAuditLog(audit);
+			Cli.logger.info("Writing CLI audit log to {}", this.auditlog);
+		}
 		
 		// Initialize the SSH server.
 		SshServer sshd = SshServer.setUpDefaultServer();
 		sshd.setPort(this.port);
-		sshd.setKeyPairProvider(new SimpleGeneratorHostKeyProvider(this.hostkey, "DSA"));
-		sshd.setPasswordAuthenticator(new SimplePasswordAuthenticator(this.username, this.password));
-		sshd.setShellFactory(new FloodlightShellFactory());
+		sshd.setKeyPairProvider(hostKeyProvider);
+		sshd.setPasswordAuthenticator(this.createPasswordAuthenticator());
+		this.configureTransport(sshd);
+		if (this.authorizedKeys != null) {
+			AuthorizedKeysStore keyStore = new AuthorizedKeysStore(new File(this.authorizedKeys));
+			keyStore.start();
+			sshd.setPublickeyAuthenticator(new AuthorizedKeysAuthenticator(keyStore, this.credentials));
+		}
+		if (this.asyncShell) {
+			sshd.setChannelFactories(this.createAsyncChannelFactories(sshd.getChannelFactories()));
+			sshd.setShellFactory(new FloodlightShellFactory(this.defaultRoles, this.createShellExecutor()));
+		} else {
+			sshd.setShellFactory(new FloodlightShellFactory(this.defaultRoles));
+		}
 		
 		// Start the SSH server.
 		try {
@@ -140,6 +337,320 @@ public class Cli implements IFloodlightModule {
 			Cli.logger.error("Starting config console (via SSH) on port {} failed", this.port);
 			e.printStackTrace();
 		}
+		
+		// Start the local console.
+		if (this.localSocket != null) {
+			try {
+				new LocalConsoleServer(Paths.get(this.localSocket), this.localRoles).start();
+				Cli.logger.info("Starting local console on {}", this.localSocket);
+			} catch (IOException e) {
+				Cli.logger.error("Starting local console on {} failed: {}", this.localSocket, e.getMessage());
+			}
+		}
+	}
+	
+	/**
+	 * Loads the startup configuration into the running configuration,
+	 * if there is one.
+	 */
+	private void loadStartupConfig() {
+		if (!this.startupConfig.exists())
+			return;
+		
+		try {
+			String report = runningConfig.replace(this.startupConfig.read(), this.statisticsCollector, this.statsTimeout);
+			Cli.logger.info("Loaded CLI startup configuration {}: {}", this.startupConfigFile, report);
+		} catch (IOException e) {
+			Cli.logger.error("Loading CLI startup configuration failed: {}", e.getMessage());
+		}
+	}
+	
+	/**
+	 * Configures the transport of the SSH server, i.e. the channel
+	 * window and packet sizes, the I/O workers, and the preference of
+	 * ciphers, MACs and compressions. Large window and packet sizes let
+	 * big table dumps stream without waiting for window adjustments,
+	 * compression shrinks them on slow links.
+	 * 
+	 * @param sshd The SSH server.
+	 */
+	private void configureTransport(SshServer sshd) {
+		if (this.windowSize != null)
+			sshd.getProperties().put(FactoryManager.WINDOW_SIZE, this.windowSize);
+		if (this.packetSize != null)
+			sshd.getProperties().put(FactoryManager.MAX_PACKET_SIZE, this.packetSize);
+		if (this.nioWorkers != null)
+			sshd.getProperties().put(FactoryManager.NIO_WORKERS, this.nioWorkers);
+		if (this.ciphers != null)
+			sshd.setCipherFactories(this.preferFactories(sshd.getCipherFactories(), this.ciphers, "cipher"));
+		if (this.macs != null)
+			sshd.setMacFactories(this.preferFactories(sshd.getMacFactories(), this.macs, "MAC"));
+		if (this.compression != null) {
+			/* The compressions supported by the CLI. */
+			List<NamedFactory<Compression>> compressions = new ArrayList<NamedFactory<Compression>>();
+			compressions.add(new ZlibCompression.Factory("zlib@openssh.com", true, this.compressionThreshold));
+			compressions.add(new ZlibCompression.Factory("zlib", false, this.compressionThreshold));
+			compressions.add(new CompressionNone.Factory());
+			sshd.setCompressionFactories(this.preferFactories(compressions, this.compression, "compression"));
+		}
+	}
+	
+	/**
+	 * Selects and orders factories by name. Names SSHD does not
+	 * support are logged and skipped.
+	 * 
+	 * @param factories The factories supported by SSHD.
+	 * @param names The comma-separated names of the factories in order of preference.
+	 * @param kind The kind of the factories, for logging.
+	 * @return The factories in order of preference, or all factories if no name is supported.
+	 */
+	private <T> List<NamedFactory<T>> preferFactories(List<NamedFactory<T>> factories, String names, String kind) {
+		/* The selected factories. */
+		List<NamedFactory<T>> preferred = new ArrayList<NamedFactory<T>>();
+		
+		for (String name : names.split(",")) {
+			NamedFactory<T> factory = NamedFactory.Utils.get(factories, name.trim());
+			if (factory != null)
+				preferred.add(factory);
+			else
+				Cli.logger.warn("SSH {} {} is not supported", kind, name.trim());
+		}
+		
+		if (preferred.isEmpty()) {
+			Cli.logger.warn("None of the SSH {}s {} is supported, using the defaults", kind, names);
+			return factories;
+		}
+		
+		// Return.
+		return preferred;
+	}
+	
+	/**
+	 * Replaces the factory of session channels by the factory of
+	 * asynchronous session channels, which hand the input directly
+	 * to event-driven shells.
+	 * 
+	 * @param channelFactories The default channel factories of the SSH server.
+	 * @return The channel factories with asynchronous session channels.
+	 */
+	private List<NamedFactory<Channel>> createAsyncChannelFactories(List<NamedFactory<Channel>> channelFactories) {
+		/* The channel factories. */
+		List<NamedFactory<Channel>> factories = new ArrayList<NamedFactory<Channel>>();
+		
+		for (NamedFactory<Channel> factory : channelFactories) {
+			if (!factory.getName().equals("session"))
+				factories.add(factory);
+		}
+		factories.add(0, new AsyncChannelSession.Factory());
+		
+		// Return.
+		return factories;
+	}
+	
+	/**
+	 * Creates the executor that runs the commands of all event-driven
+	 * shells. The command handler runs the commands of different consoles
+	 * concurrently and serializes only those of the same console, so the
+	 * pool size bounds how many commands run at the same time.
+	 * 
+	 * @return The executor.
+	 */
+	private ExecutorService createShellExecutor() {
+		return Executors.newFixedThreadPool(this.shellThreads, new ThreadFactory() {
+			/** The number of threads created. */
+			private final AtomicInteger count = new AtomicInteger();
+			
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(null, runnable, "CliShell-" + this.count.incrementAndGet(), SHELL_THREAD_STACK_SIZE);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	/**
+	 * Creates the host key provider. Existing host keys are loaded
+	 * now, missing ones are generated in the background.
+	 * 
+	 * @return The host key provider.
+	 * @throws FloodlightModuleException if a host key file exists but cannot be read.
+	 */
+	private HostKeyProvider createHostKeyProvider() throws FloodlightModuleException {
+		/* The host key provider. */
+		HostKeyProvider provider = new HostKeyProvider();
+		
+		try {
+			provider.addKey(new File(this.hostkey), KeyPairProvider.SSH_RSA, this.hostkeySize);
+			if (this.hostkeyDsa != null)
+				provider.addKey(new File(this.hostkeyDsa), KeyPairProvider.SSH_DSS, 1024);
+		} catch (IOException e) {
+			Cli.logger.error(e.getMessage());
+			throw new FloodlightModuleException(e.getMessage());
+		}
+		
+		Cli.logger.info("SSH host key algorithms: {} (loaded: {})", provider.getKeyTypes(), provider.getLoadedKeyTypes());
+		return provider;
+	}
+	
+	/**
+	 * Creates the password authenticator. If a password file is
+	 * configured, passwords are verified against the hashes stored in
+	 * that file. Otherwise, the configured user name and password are
+	 * used.
+	 * 
+	 * @return The password authenticator.
+	 */
+	private PasswordAuthenticator createPasswordAuthenticator() {
+		if (this.passwdfile == null) {
+			// The configured user is the administrator.
+			this.credentials = new CredentialStore(Collections.singletonList(new UserAccount(this.username, Collections.singleton(ADMIN_ROLE), null)));
+			return new SimplePasswordAuthenticator(this.username, this.password, this.credentials);
+		}
+		
+		try {
+			this.credentials = CredentialStore.load(new File(this.passwdfile));
+		} catch (IOException e) {
+			Cli.logger.error("Reading CLI password file {} failed: {}. Password logins are disabled.", this.passwdfile, e.getMessage());
+			this.credentials = new CredentialStore(new ArrayList<UserAccount>());
+		}
+		
+		return new HashedPasswordAuthenticator(this.credentials,
+				new VerifiedCredentialCache(1024, this.loginCacheTtl * 1000L),
+				new LoginRateLimiter(this.loginRate, Math.max(1, this.loginRate / 6)));
+	}
+	
+	@Override
+	public void registerCommand(ICommand command) {
+		CommandHandler.getInstance().addCommand(command);
+	}
+	
+	@Override
+	public void registerCommand(CommandDescriptor descriptor) {
+		CommandHandler.getInstance().addCommand(descriptor);
+	}
+	
+	/**
+	 * Registers the commands that come with the CLI. The commands
+	 * are created the first time they are executed.
+	 * 
+	 * @param context The Floodlight context service.
+	 */
+	private void registerBuiltinCommands(final FloodlightModuleContext context) {
+		this.registerCommand(new ExitCmd());
+		this.registerCommand(new CommandDescriptor("show", (String) null, Permission.SHOW, ShowCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new ShowCmd(); }
+		});
+		this.registerCommand(new CommandDescriptor("show switch", "[SWITCH]", Permission.SHOW, ShowSwitchCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new ShowSwitchCmd(); }
+		});
+		this.registerCommand(new CommandDescriptor("show host", (String) null, Permission.SHOW, ShowHostCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new ShowHostCmd(context); }
+		});
+		this.registerCommand(new CommandDescriptor("show switch ports", ShowSwitchPortsCmd.SCHEMA, Permission.SHOW, ShowSwitchPortsCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new ShowSwitchPortsCmd(context, statisticsCollector, statsTimeout); }
+		});
+		this.registerCommand(new CommandDescriptor("show interface counters", ShowInterfaceCountersCmd.SCHEMA, Permission.SHOW, ShowInterfaceCountersCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new ShowInterfaceCountersCmd(context, statisticsCollector, statsTimeout); }
+		});
+		this.registerCommand(new CommandDescriptor("show flow", ShowFlowCmd.SCHEMA, Permission.SHOW, ShowFlowCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new ShowFlowCmd(context, statisticsCollector, statsTimeout); }
+		});
+		this.registerCommand(new CommandDescriptor("show link", ShowLinkCmd.SCHEMA, Permission.SHOW, ShowLinkCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new ShowLinkCmd(adjacencyView); }
+		});
+		this.registerCommand(new CommandDescriptor("show topology", ShowTopologyCmd.SCHEMA, Permission.SHOW, ShowTopologyCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new ShowTopologyCmd(adjacencyView); }
+		});
+		this.registerCommand(new CommandDescriptor("show summary", ShowSummaryCmd.SCHEMA, Permission.SHOW, ShowSummaryCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new ShowSummaryCmd(counters, adjacencyView); }
+		});
+		this.registerCommand(new CommandDescriptor("cluster show", ClusterShowCmd.SCHEMA, Permission.SHOW, ClusterShowCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new ClusterShowCmd(clusterClient, clusterTimeout); }
+		});
+		
+		// Configuration mode.
+		this.registerCommand(new CommandDescriptor("load flows", LoadFlowsCmd.SCHEMA, Permission.CONFIGURE, LoadFlowsCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new LoadFlowsCmd(flowLoader); }
+		});
+		this.registerCommand(new CommandDescriptor("show running-config", (String) null, Permission.SHOW, ShowRunningConfigCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new ShowRunningConfigCmd(runningConfig); }
+		});
+		this.registerCommand(new CommandDescriptor("copy running-config startup-config", (String) null, Permission.CONFIGURE, CopyRunningConfigCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new CopyRunningConfigCmd(runningConfig, startupConfig); }
+		});
+		this.registerCommand(new CommandDescriptor("load startup-config", (String) null, Permission.CONFIGURE, LoadStartupConfigCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new LoadStartupConfigCmd(runningConfig, startupConfig, statisticsCollector, statsTimeout); }
+		});
+		this.registerCommand(new ConfigureTerminalCmd());
+		this.registerCommand(new CommandDescriptor("flow", FlowCmd.SCHEMA, Permission.CONFIGURE, FlowCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new FlowCmd(); }
+		}.inMode(CommandMode.CONFIGURE));
+		this.registerCommand(new CommandDescriptor("no flow", NoFlowCmd.SCHEMA, Permission.CONFIGURE, NoFlowCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new NoFlowCmd(runningConfig); }
+		}.inMode(CommandMode.CONFIGURE));
+		this.registerCommand(new CommandDescriptor("firewall", FirewallCmd.SCHEMA, Permission.CONFIGURE, FirewallCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new FirewallCmd(); }
+		}.inMode(CommandMode.CONFIGURE));
+		this.registerCommand(new CommandDescriptor("firewall rule", FirewallRuleCmd.SCHEMA, Permission.CONFIGURE, FirewallRuleCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new FirewallRuleCmd(); }
+		}.inMode(CommandMode.CONFIGURE));
+		this.registerCommand(new CommandDescriptor("no firewall rule", NoFirewallRuleCmd.SCHEMA, Permission.CONFIGURE, NoFirewallRuleCmd.HELP) {
+			@Override
+			public ICommand createCommand() { return new NoFirewallRuleCmd(runningConfig); }
+		}.inMode(CommandMode.CONFIGURE));
+		this.registerCommand(new ShowCandidateCmd());
+		this.registerCommand(new CommitCmd(runningConfig));
+		this.registerCommand(new AbortCmd());
+		this.registerCommand(new EndCmd());
+	}
+	
+	/**
+	 * Registers the commands of all command providers found by the
+	 * service loader. A broken provider does not affect the others.
+	 * 
+	 * @param context The Floodlight context service.
+	 */
+	private void registerProvidedCommands(FloodlightModuleContext context) {
+		/* The iterator over all command providers. */
+		Iterator<ICommandProvider> providers = ServiceLoader.load(ICommandProvider.class, Cli.class.getClassLoader()).iterator();
+		
+		while (true) {
+			try {
+				if (!providers.hasNext())
+					break;
+				ICommandProvider provider = providers.next();
+				Collection<CommandDescriptor> descriptors = provider.getCommands(context);
+				if (descriptors != null) {
+					for (CommandDescriptor descriptor : descriptors) {
+						this.registerCommand(descriptor);
+					}
+					Cli.logger.info("Registered {} CLI commands of {}", descriptors.size(), provider.getClass().getName());
+				}
+			} catch (ServiceConfigurationError e) {
+				Cli.logger.error("Could not load CLI command provider: {}", e.getMessage());
+			} catch (RuntimeException e) {
+				Cli.logger.error("Could not register CLI commands: {}", e.getMessage());
+			}
+		}
 	}
 	
 	/**
@@ -152,7 +663,35 @@ public class Cli implements IFloodlightModule {
         this.port = (configOptions.get("port") != null) ? Integer.parseInt(configOptions.get("port")) : DEFAULT_PORT;
         this.username = (configOptions.get("username") != null) ? configOptions.get("username") : DEFAULT_USERNAME;
         this.password = (configOptions.get("password") != null) ? configOptions.get("password") : DEFAULT_PASSWORD;
+        this.passwdfile = configOptions.get("passwdfile");
+        this.authorizedKeys = configOptions.get("authorizedkeys");
+        this.defaultRoles = Role.fromNames(Arrays.asList(((configOptions.get("defaultrole") != null) ? configOptions.get("defaultrole") : DEFAULT_ROLE).split(",")));
+        this.loginCacheTtl = (configOptions.get("logincachettl") != null) ? Integer.parseInt(configOptions.get("logincachettl")) : DEFAULT_LOGIN_CACHE_TTL;
+        this.loginRate = (configOptions.get("loginrate") != null) ? Integer.parseInt(configOptions.get("loginrate")) : DEFAULT_LOGIN_RATE;
         this.hostkey = (configOptions.get("hostkey") != null) ? configOptions.get("hostkey") : DEFAULT_HOSTKEY;
+        this.hostkeySize = (configOptions.get("hostkeysize") != null) ? Integer.parseInt(configOptions.get("hostkeysize")) : DEFAULT_HOSTKEY_SIZE;
+        this.hostkeyDsa = configOptions.get("hostkeydsa");
+        this.auditlog = (configOptions.get("auditlog") != null) ? configOptions.get("auditlog").trim() : DEFAULT_AUDITLOG;
+        this.auditlogSize = (configOptions.get("auditlogsize") != null) ? Long.parseLong(configOptions.get("auditlogsize")) : DEFAULT_AUDITLOG_SIZE;
+        this.auditlogFiles = (configOptions.get("auditlogfiles") != null) ? Integer.parseInt(configOptions.get("auditlogfiles")) : DEFAULT_AUDITLOG_FILES;
+        this.auditlogBuffer = (configOptions.get("auditlogbuffer") != null) ? Integer.parseInt(configOptions.get("auditlogbuffer")) : DEFAULT_AUDITLOG_BUFFER;
+        this.statsCacheWindow = (configOptions.get("statscachewindow") != null) ? Long.parseLong(configOptions.get("statscachewindow")) : DEFAULT_STATS_CACHE_WINDOW;
+        this.statsTimeout = (configOptions.get("statstimeout") != null) ? Long.parseLong(configOptions.get("statstimeout")) : DEFAULT_STATS_TIMEOUT;
+        this.startupConfigFile = (configOptions.get("startupconfig") != null) ? configOptions.get("startupconfig") : DEFAULT_STARTUP_CONFIG;
+        this.flowBatchSize = (configOptions.get("flowbatchsize") != null) ? Integer.parseInt(configOptions.get("flowbatchsize")) : DEFAULT_FLOW_BATCH_SIZE;
+        this.asyncShell = Boolean.parseBoolean(configOptions.get("asyncshell"));
+        this.shellThreads = (configOptions.get("shellthreads") != null) ? Integer.parseInt(configOptions.get("shellthreads")) : DEFAULT_SHELL_THREADS;
+        this.windowSize = configOptions.get("windowsize");
+        this.packetSize = configOptions.get("packetsize");
+        this.nioWorkers = configOptions.get("nioworkers");
+        this.ciphers = configOptions.get("ciphers");
+        this.macs = configOptions.get("macs");
+        this.compression = configOptions.get("compression");
+        this.compressionThreshold = (configOptions.get("compressionthreshold") != null) ? Integer.parseInt(configOptions.get("compressionthreshold")) : DEFAULT_COMPRESSION_THRESHOLD;
+        this.localSocket = configOptions.get("localsocket");
+        this.localRoles = Role.fromNames(Arrays.asList(((configOptions.get("localroles") != null) ? configOptions.get("localroles") : DEFAULT_LOCAL_ROLE).split(",")));
+        this.clusterClient = (configOptions.get("clusterpeers") != null) ? new ClusterClient(ClusterPeer.parseList(configOptions.get("clusterpeers"))) : null;
+        this.clusterTimeout = (configOptions.get("clustertimeout") != null) ? Long.parseLong(configOptions.get("clustertimeout")) : DEFAULT_CLUSTER_TIMEOUT;
 	}
 
 }
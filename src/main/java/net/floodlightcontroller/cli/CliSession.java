@@ -0,0 +1,166 @@
+package net.floodlightcontroller.cli;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collections;
+import java.util.Set;
+
+import net.floodlightcontroller.cli.auth.Role;
+import net.floodlightcontroller.cli.config.CandidateConfig;
+
+/**
+ * Holds the identity of a console session, i.e. the user that
+ * logged in, the user's roles, the session id, and the address
+ * of the remote peer.
+ * It is handed to the console when a shell is started, so that
+ * commands and the command handler know who they work for.
+ */
+public class CliSession {
+	/** The unique id of the session. */
+	private final long id;
+	/** The name of the user that is logged in. */
+	private final String username;
+	/** The address of the remote peer, e.g. "10.0.0.1:53321". */
+	private final String remoteAddress;
+	/** The roles of the user. */
+	private final Set<Role> roles;
+	/** The candidate configuration while the console is in configuration mode, or null. */
+	private volatile CandidateConfig candidateConfig;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param id The unique id of the session.
+	 * @param username The name of the user that is logged in.
+	 * @param remoteAddress The socket address of the remote peer.
+	 * @param roles The roles of the user.
+	 */
+	public CliSession(long id, String username, SocketAddress remoteAddress, Set<Role> roles) {
+		this(id, username, CliSession.addressToString(remoteAddress), roles);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param id The unique id of the session.
+	 * @param username The name of the user that is logged in.
+	 * @param remoteAddress The description of the remote peer, e.g. "local".
+	 * @param roles The roles of the user.
+	 */
+	public CliSession(long id, String username, String remoteAddress, Set<Role> roles) {
+		this.id = id;
+		this.username = username;
+		this.remoteAddress = remoteAddress;
+		this.roles = Collections.unmodifiableSet(roles);
+	}
+	
+	/**
+	 * Getter for the session id.
+	 * 
+	 * @return The unique id of the session.
+	 */
+	public long getId() {
+		return this.id;
+	}
+	
+	/**
+	 * Getter for the user name.
+	 * 
+	 * @return The name of the user that is logged in.
+	 */
+	public String getUsername() {
+		return this.username;
+	}
+	
+	/**
+	 * Getter for the remote address.
+	 * 
+	 * @return The address of the remote peer as a string.
+	 */
+	public String getRemoteAddress() {
+		return this.remoteAddress;
+	}
+	
+	/**
+	 * Getter for the roles of the user.
+	 * 
+	 * @return An unmodifiable set of the user's roles.
+	 */
+	public Set<Role> getRoles() {
+		return this.roles;
+	}
+	
+	/**
+	 * Getter for the candidate configuration.
+	 * 
+	 * @return The candidate configuration of the session, or null if the console is not in configuration mode.
+	 */
+	public CandidateConfig getCandidateConfig() {
+		return this.candidateConfig;
+	}
+	
+	/**
+	 * Setter for the candidate configuration.
+	 * 
+	 * @param candidateConfig The candidate configuration, or null to discard it.
+	 */
+	public void setCandidateConfig(CandidateConfig candidateConfig) {
+		this.candidateConfig = candidateConfig;
+	}
+	
+	@Override
+	public String toString() {
+		return this.username + "@" + this.remoteAddress + " (session " + this.id + ")";
+	}
+	
+	/**
+	 * Converts a socket address into a "host:port" string without
+	 * the leading slash that InetSocketAddress.toString() adds.
+	 * 
+	 * @param address The socket address.
+	 * @return A string representation of the address.
+	 */
+	private static String addressToString(SocketAddress address) {
+		if (address == null)
+			return "unknown";
+		
+		if (address instanceof InetSocketAddress) {
+			InetSocketAddress inetAddress = (InetSocketAddress) address;
+			if (inetAddress.getAddress() != null)
+				return inetAddress.getAddress().getHostAddress() + ":" + inetAddress.getPort();
+		}
+		
+		return address.toString();
+	}
+
+}
@@ -31,25 +31,26 @@ package net.floodlightcontroller.cli;
 * written permission.
 */
 
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PrintStream;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 
 import net.floodlightcontroller.cli.commands.CommandHandler;
-import net.floodlightcontroller.cli.commands.ICommand;
+import net.floodlightcontroller.cli.commands.CommandMode;
 
 import jline.Terminal;
 import jline.console.ConsoleReader;
-import jline.console.completer.AggregateCompleter;
-import jline.console.completer.ArgumentCompleter;
+import jline.console.CursorBuffer;
 import jline.console.completer.Completer;
-import jline.console.completer.NullCompleter;
-import jline.console.completer.StringsCompleter;
+import jline.console.history.MemoryHistory;
+
+import org.apache.sshd.server.Environment;
 
 /**
  * The console abstracts the Jline console reader. It reads
@@ -66,38 +67,54 @@ public class Console implements IConsole {
 	private ConsoleReader reader;
 	/** The command hander that executes all console commands. */
 	private CommandHandler commander;
+	/** The session this console belongs to. */
+	private CliSession session;
 	/** The input stream as read from the command line prompt. */
     private InputStream in;
     /** The output stream to write to the command line prompt. */
-    private PrintStream out;
-    /** The error stream from the command line. */
-    @SuppressWarnings("unused")
-	private PrintStream err;
+    private OutputStream out;
+    /** The direct output path of command results. */
+    private ConsoleOutput output;
     /** The prompt string of the command line. */
     private String prompt;
+    /** The mode of the console. */
+    private volatile CommandMode mode = CommandMode.EXEC;
+    /** The completer of the commands available in the current mode. */
+    private Completer completer;
     /** Boolean that states if the console is running. */
     private boolean running;
-    /** List of command completer. */
-	private List<Completer> completors = new LinkedList<Completer>();
+	
+	/** The maximum number of command lines kept in the history of a session. */
+	private static final int HISTORY_SIZE = 100;
 	
 	/**
 	 * Constructor.
 	 */
-	public Console(CommandHandler commander, InputStream in, OutputStream out, OutputStream err, String encoding) throws Exception {
+	public Console(CommandHandler commander, CliSession session, InputStream in, OutputStream out, Environment environment, String encoding) throws Exception {
 		this.commander = commander;
+		this.session = session;
 		this.in = in;
-		this.out = new PrintStream(new LfToCrLfFilterOutputStream(out), true);
-		this.err = new PrintStream(new LfToCrLfFilterOutputStream(err), true);
-		this.terminal = new SshTerminal(null);
+		this.out = new LfToCrLfFilterOutputStream(out);
+		this.output = new ConsoleOutput(out, encoding);
+		this.terminal = new SshTerminal(environment);
 		
 		// Create and configure a console reader.
 		this.reader = new ConsoleReader("Floodlight", this.in, this.out, this.terminal, encoding);
 		this.reader.setBellEnabled(false);
 		this.reader.setHistoryEnabled(true);
+		((MemoryHistory) this.reader.getHistory()).setMaxSize(HISTORY_SIZE);
 		
-		// Generate completer
-		this.generateCompleters();
-		this.reader.addCompleter(new AggregateCompleter(completors));
+		// Use the completer for all commands the user may execute.
+		this.completer = this.commander.getCompleter(session.getRoles(), this.mode);
+		this.reader.addCompleter(this.completer);
+		
+		// Show context sensitive help when "?" is pressed.
+		this.reader.getKeys().bind("?", new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent event) {
+				showHelp();
+			}
+		});
 		
 		// Add ourself to the CommandHanlder.
 		this.commander.addListener(this);
@@ -105,10 +122,19 @@ public class Console implements IConsole {
 		// TODO: Handle command line history in file. 
 	}
 	
-	@Override
-	protected void finalize() throws Throwable {
-		// Make sure we are removed from the listener
+	/**
+	 * Releases the resources of the console when its session ends,
+	 * i.e. removes it from the command handler and stops the input
+	 * thread of the console reader.
+	 */
+	public void close() {
 		this.commander.removeListener(this);
+		this.reader.shutdown();
+		try {
+			this.terminal.restore();
+		} catch (Exception e) {
+			// Ignore, the session is gone anyway.
+		}
 	}
 	
 	@Override
@@ -124,14 +150,45 @@ public class Console implements IConsole {
 		return "> ";
 	}
 	
+	@Override
+	public int getWidth() {
+		return this.terminal.getWidth();
+	}
+	
+	@Override
+	public CommandMode getMode() {
+		return this.mode;
+	}
+	
+	@Override
+	public void setMode(CommandMode mode) {
+		this.mode = mode;
+		
+		// Complete the commands available in the new mode.
+		this.reader.removeCompleter(this.completer);
+		this.completer = this.commander.getCompleter(this.session.getRoles(), mode);
+		this.reader.addCompleter(this.completer);
+	}
+	
 	@Override
 	public Collection<Completer>  getCompleters() {
 		return this.reader.getCompleters();
 	}
 	
+	@Override
+	public CliSession getSession() {
+		return this.session;
+	}
+	
 	@Override
 	public void write(String string) throws IOException {
-		this.reader.getOutput().write(string + "\n");
+		this.output.write(string);
+		this.output.write("\n");
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		this.output.flush();
 	}
 	
 	/**
@@ -152,11 +209,14 @@ public class Console implements IConsole {
             	// Read command line.
 				line = this.readCommandLine();
 				
+				// Exit leaves the configuration mode first.
+				boolean exec = (this.mode == CommandMode.EXEC);
+				
 	            // Execute commands.
 	            commander.execute(this, line);
 
 	            // Execute special commands
-	            if (line.trim().equalsIgnoreCase("quit") || line.trim().equalsIgnoreCase("exit")) {
+	            if (exec && (line.trim().equalsIgnoreCase("quit") || line.trim().equalsIgnoreCase("exit"))) {
 	            	break;
 	            }
 				
@@ -166,12 +226,32 @@ public class Console implements IConsole {
 		}		
 	}
 	
+	/**
+	 * Shows the context sensitive help for the command line up to the
+	 * cursor, i.e. the next valid tokens and their help texts, and
+	 * redraws the command line.
+	 */
+	private void showHelp() {
+		/* The current command line. */
+		CursorBuffer buffer = this.reader.getCursorBuffer();
+		
+		try {
+			this.reader.println();
+			this.reader.println(this.commander.getHelp(buffer.buffer.substring(0, buffer.cursor), this.session.getRoles(), this.mode));
+			this.reader.drawLine();
+			this.reader.flush();
+		} catch (IOException e) {
+			running = false;
+		}
+	}
+	
 	/**
 	 * Prints a welcome message to the console.
 	 */
 	private void welcome() {
 		try {
 			this.write("\n   Welcome to Floodlight CLI\n");
+			this.flush();
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -214,44 +294,4 @@ public class Console implements IConsole {
 		return line;
 	}
 	
-    /**
-     * Generates the completer list by getting all available
-     * commands from the command Hander, creates completer and
-     * adds them to this consoles completer list.
-     */
-    private void generateCompleters() {
-    	for (ICommand cmd : this.commander.getCommands() ){
-    		this.addCommand(cmd);
-    	}
-    }
-    
-    /**
-     * Creates a (Jline) completer and adds a command and its 
-     * arguments to it.
-     * 
-     * @param cmd Command that is offered by the command handler.
-     */
-    private void addCommand(ICommand cmd) {
-    	/* List of StringCompleters for commands and arguments. */
-    	List<Completer> argCompletorList = new LinkedList<Completer>();
-    	/* Array of command strings. */
-    	String[] commands = (cmd.getCommandString()).split(" ");
-    	
-    	// Decompose command string and add strings to StringsCompleter. 
-    	for (String command : commands) {
-    		argCompletorList.add(new StringsCompleter(command.trim().toLowerCase()));
-    	}
-    	
-    	// Add argument strings to StringsCompleter
-    	if (cmd.getArguments() != null) {
-    		argCompletorList.add(new StringsCompleter(cmd.getArguments().trim().toUpperCase()));
-    	}
-    	
-    	// Add NullCompleter to terminate the completer.
-    	argCompletorList.add(new NullCompleter());
-    	
-    	// Add new ArgumentCompleter to global completer list.
-    	this.completors.add(new ArgumentCompleter(argCompletorList));
-    }
-	
 }
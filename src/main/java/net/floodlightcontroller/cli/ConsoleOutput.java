@@ -0,0 +1,226 @@
+package net.floodlightcontroller.cli;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Writes the output of commands directly to the SSH channel. Strings
+ * are encoded by a re-used charset encoder into pooled byte buffers,
+ * and line feeds are translated to CR/LF while encoding. Thus, large
+ * tables are not encoded, filtered, and flushed line by line, but
+ * sent when a buffer is full or when the output is flushed, i.e.
+ * once per command. Idle consoles do not hold any buffers. Consoles
+ * that are not terminals, e.g. those of local scripts, keep the line
+ * feeds as they are.
+ */
+public class ConsoleOutput {
+	/** The size of the pooled byte buffers. */
+	private static final int BUFFER_SIZE = 8192;
+	/** The size of the char buffer the line feeds are translated in. */
+	private static final int CHAR_BUFFER_SIZE = 4096;
+	/** The maximum number of byte buffers kept in the pool. */
+	private static final int MAX_POOLED_BUFFERS = 64;
+	/** The byte buffers that are not used by any console. */
+	private static final Queue<ByteBuffer> bytePool = new ConcurrentLinkedQueue<ByteBuffer>();
+	/** The char buffers that are not used by any console. */
+	private static final Queue<CharBuffer> charPool = new ConcurrentLinkedQueue<CharBuffer>();
+	/** The output stream of the SSH channel. */
+	private final OutputStream out;
+	/** The charset encoder of the session, re-used for all strings. */
+	private final CharsetEncoder encoder;
+	/** Whether line feeds are translated to CR/LF. */
+	private final boolean translateLineFeeds;
+	/** The translated chars that are not encoded yet, or null if there are none. */
+	private CharBuffer chars;
+	/** The encoded bytes that are not written yet, or null if there are none. */
+	private ByteBuffer bytes;
+	/** States whether the last character was Cr or not. */
+	private boolean lastWasCr;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param out The output stream of the SSH channel.
+	 * @param encoding The name of the charset, or null to use the default charset.
+	 */
+	public ConsoleOutput(OutputStream out, String encoding) {
+		this(out, encoding, true);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param out The output stream of the channel.
+	 * @param encoding The name of the charset, or null to use the default charset.
+	 * @param translateLineFeeds Whether line feeds are translated to CR/LF.
+	 */
+	public ConsoleOutput(OutputStream out, String encoding, boolean translateLineFeeds) {
+		this.out = out;
+		this.translateLineFeeds = translateLineFeeds;
+		this.encoder = ((encoding != null) ? Charset.forName(encoding) : Charset.defaultCharset()).newEncoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+	
+	/**
+	 * Writes a string. Line feeds are translated to CR/LF, if enabled. The bytes
+	 * are buffered until the buffer is full or the output is flushed.
+	 * 
+	 * @param string The string to write.
+	 * @throws IOException If the channel is closed.
+	 */
+	public synchronized void write(CharSequence string) throws IOException {
+		if (this.chars == null) {
+			this.chars = acquireChars();
+			this.bytes = acquireBytes();
+		}
+		
+		/* The backing array of the char buffer. */
+		char[] array = this.chars.array();
+		/* The position in the char buffer. */
+		int position = this.chars.position();
+		/* States whether the last character was Cr or not. */
+		boolean lastWasCr = this.lastWasCr;
+		/* Whether line feeds are translated to CR/LF. */
+		boolean translate = this.translateLineFeeds;
+		
+		for (int i = 0; i < string.length(); i++) {
+			// Keep room for a line feed that becomes two chars.
+			if (position >= array.length - 1) {
+				this.chars.position(position);
+				this.encode(false);
+				position = this.chars.position();
+			}
+			char c = string.charAt(i);
+			if (c == '\n' && !lastWasCr && translate)
+				array[position++] = '\r';
+			array[position++] = c;
+			lastWasCr = (c == '\r');
+		}
+		this.chars.position(position);
+		this.lastWasCr = lastWasCr;
+	}
+	
+	/**
+	 * Writes all buffered output to the channel and flushes it. The
+	 * buffers are returned to the pools until the next write.
+	 * 
+	 * @throws IOException If the channel is closed.
+	 */
+	public synchronized void flush() throws IOException {
+		if (this.chars == null)
+			return;
+		
+		this.encode(true);
+		while (this.encoder.flush(this.bytes).isOverflow()) {
+			this.drain();
+		}
+		this.encoder.reset();
+		this.drain();
+		release(this.chars, this.bytes);
+		this.chars = null;
+		this.bytes = null;
+		this.out.flush();
+	}
+	
+	/**
+	 * Encodes the translated chars into the byte buffer, and writes
+	 * the byte buffer to the channel whenever it is full.
+	 * 
+	 * @param endOfInput Whether no more chars follow before the output is flushed.
+	 * @throws IOException If the channel is closed.
+	 */
+	private void encode(boolean endOfInput) throws IOException {
+		this.chars.flip();
+		for (CoderResult result = this.encoder.encode(this.chars, this.bytes, endOfInput); result.isOverflow(); result = this.encoder.encode(this.chars, this.bytes, endOfInput)) {
+			this.drain();
+		}
+		// A high surrogate without its low surrogate stays in the buffer.
+		this.chars.compact();
+	}
+	
+	/**
+	 * Writes the bytes of the byte buffer to the channel, without flushing it.
+	 * 
+	 * @throws IOException If the channel is closed.
+	 */
+	private void drain() throws IOException {
+		if (this.bytes.position() > 0)
+			this.out.write(this.bytes.array(), this.bytes.arrayOffset(), this.bytes.position());
+		this.bytes.clear();
+	}
+	
+	/**
+	 * Takes a char buffer from the pool, or allocates a new one.
+	 * 
+	 * @return An empty char buffer.
+	 */
+	private static CharBuffer acquireChars() {
+		CharBuffer buffer = charPool.poll();
+		return (buffer != null) ? buffer : CharBuffer.allocate(CHAR_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Takes a byte buffer from the pool, or allocates a new one.
+	 * 
+	 * @return An empty byte buffer.
+	 */
+	private static ByteBuffer acquireBytes() {
+		ByteBuffer buffer = bytePool.poll();
+		return (buffer != null) ? buffer : ByteBuffer.allocate(BUFFER_SIZE);
+	}
+	
+	/**
+	 * Returns the buffers of a console to the pools.
+	 * 
+	 * @param chars The char buffer.
+	 * @param bytes The byte buffer.
+	 */
+	private static void release(CharBuffer chars, ByteBuffer bytes) {
+		chars.clear();
+		bytes.clear();
+		if (charPool.size() < MAX_POOLED_BUFFERS)
+			charPool.offer(chars);
+		if (bytePool.size() < MAX_POOLED_BUFFERS)
+			bytePool.offer(bytes);
+	}
+
+}
@@ -34,13 +34,20 @@ package net.floodlightcontroller.cli;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
+import net.floodlightcontroller.cli.auth.Role;
+import net.floodlightcontroller.cli.auth.UserAccount;
 import net.floodlightcontroller.cli.commands.CommandHandler;
 
 import org.apache.sshd.common.Factory;
 import org.apache.sshd.server.Command;
 import org.apache.sshd.server.Environment;
 import org.apache.sshd.server.ExitCallback;
+import org.apache.sshd.server.SessionAware;
+import org.apache.sshd.server.session.ServerSession;
 
 /**
  * A {@link Factory} of {@link Command} that will create a new shell process
@@ -49,11 +56,65 @@ import org.apache.sshd.server.ExitCallback;
  * @author Michael Bredel <michael.bredel@cern.ch>
  */
 public class FloodlightShellFactory implements Factory<Command> {
+	/** The roles of users that have no account in the credential store. */
+	private final Set<Role> defaultRoles;
+	/** The executor that runs the commands of event-driven shells, or null to run a thread per shell. */
+	private final Executor executor;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param defaultRoles The roles of users that have no account in the credential store.
+	 */
+	public FloodlightShellFactory(Set<Role> defaultRoles) {
+		this(defaultRoles, null);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param defaultRoles The roles of users that have no account in the credential store.
+	 * @param executor The executor that runs the commands of event-driven shells, or null to run a thread per shell.
+	 */
+	public FloodlightShellFactory(Set<Role> defaultRoles, Executor executor) {
+		this.defaultRoles = EnumSet.copyOf(defaultRoles);
+		this.executor = executor;
+	}
 	
 	@Override
     public Command create() {
-        return new FloodlightShell();
+		if (this.executor != null)
+			return new AsyncFloodlightShell(this.defaultRoles, this.executor);
+        return new FloodlightShell(this.defaultRoles);
     }
+	
+	/**
+	 * Gets the encoding of a session from its environment.
+	 * 
+	 * @param environment The environment of the SSH session.
+	 * @return The name of the charset, or null if it is not set.
+	 */
+	private static String getEncoding(Environment environment) {
+        String encoding = environment.getEnv().get("LC_CTYPE");
+        if (encoding != null && encoding.indexOf('.') > 0) {
+            encoding = encoding.substring(encoding.indexOf('.') + 1);
+        }
+        return encoding;
+	}
+	
+	/**
+	 * Creates the CLI session of an SSH session, i.e. looks up the
+	 * roles of the user.
+	 * 
+	 * @param session The SSH session.
+	 * @param defaultRoles The roles of users that have no account in the credential store.
+	 * @return The CLI session.
+	 */
+	private static CliSession createSession(ServerSession session, Set<Role> defaultRoles) {
+        UserAccount user = session.getAttribute(UserAccount.SESSION_ATTRIBUTE);
+        Set<Role> roles = (user != null) ? Role.fromNames(user.getRoles()) : defaultRoles;
+        return new CliSession(session.getIoSession().getId(), session.getUsername(), session.getIoSession().getRemoteAddress(), roles);
+	}
 
     /**
      * The Floodlight shell that is created whenever a new connection to
@@ -61,7 +122,9 @@ public class FloodlightShellFactory implements Factory<Command> {
      * 
      * @author Michael Bredel <michael.bredel@cern.ch>
      */
-    public static class FloodlightShell implements Command, Runnable {
+    public static class FloodlightShell implements Command, SessionAware, Runnable {
+    	/** The stack size of the shell threads. Commands do not recurse deeply, so a small stack suffices. */
+    	private static final long STACK_SIZE = 256 * 1024;
     	/** The (unique) command hander that executes all console commands. */
     	private CommandHandler commander = CommandHandler.getInstance();
     	/** The console of the shell that handles in- and outputs as well as command execution. */
@@ -70,14 +133,25 @@ public class FloodlightShellFactory implements Factory<Command> {
         private InputStream in;
         /** The output stream to write to the shell's command line prompt. */
         private OutputStream out;
-        /** The error stream from the shell's command line. */
-        private OutputStream err;
         /** The function that is executed when the shell is terminated. */
 		private ExitCallback callback;
 		/** Environment to get some user data, like the console encoding, from. */
         private Environment environment;
         /** The thread that runs this Floodlight shell. */
         private Thread thread;
+        /** The SSH session this shell belongs to. */
+        private ServerSession session;
+        /** The roles of users that have no account in the credential store. */
+        private Set<Role> defaultRoles;
+
+        /**
+         * Constructor.
+         * 
+         * @param defaultRoles The roles of users that have no account in the credential store.
+         */
+        public FloodlightShell(Set<Role> defaultRoles) {
+            this.defaultRoles = defaultRoles;
+        }
 
         @Override
         public void setInputStream(InputStream in) {
@@ -91,7 +165,7 @@ public class FloodlightShellFactory implements Factory<Command> {
 
         @Override
         public void setErrorStream(OutputStream err) {
-            this.err = err;
+            // Errors are written to the output stream.
         }
 
         @Override
@@ -99,10 +173,15 @@ public class FloodlightShellFactory implements Factory<Command> {
             this.callback = callback;
         }
 
+        @Override
+        public void setSession(ServerSession session) {
+            this.session = session;
+        }
+
         @Override
         public void start(Environment env) throws IOException {
             environment = env;
-            thread = new Thread(this, "FloodlightShell");
+            thread = new Thread(null, this, "FloodlightShell", STACK_SIZE);
             thread.start();
         }
 
@@ -113,20 +192,102 @@ public class FloodlightShellFactory implements Factory<Command> {
 
         @Override
         public void run() {        	
-            String encoding = environment.getEnv().get("LC_CTYPE");
-            if (encoding != null && encoding.indexOf('.') > 0) {
-                encoding = encoding.substring(encoding.indexOf('.') + 1);
-            }
+            String encoding = getEncoding(environment);
+            CliSession cliSession = createSession(session, this.defaultRoles);
 
         	try {
-				this.console = new Console(commander, in, out, err, encoding);
+				this.console = new Console(commander, cliSession, in, out, environment, encoding);
 				// Blocking call.
 				this.console.run();
 				// End this thread.
 				this.callback.onExit(0);
 			} catch (Exception e) {
 				e.printStackTrace();
-			}			
+			} finally {
+				// Release the console, since the command handler references it until then.
+				if (this.console != null)
+					this.console.close();
+			}
+        }
+    }
+    
+    /**
+     * The event-driven Floodlight shell. It does not run a thread, but
+     * gets its input from an {@link AsyncChannelSession} as it arrives,
+     * and runs the commands on a shared executor.
+     */
+    public static class AsyncFloodlightShell implements Command, SessionAware, IAsyncInput {
+    	/** The console of the shell, or null if the shell is not started. */
+    	private volatile AsyncConsole console;
+        /** The output stream to write to the shell's command line prompt. */
+        private OutputStream out;
+        /** The function that is executed when the shell is terminated. */
+		private ExitCallback callback;
+        /** The SSH session this shell belongs to. */
+        private ServerSession session;
+        /** The roles of users that have no account in the credential store. */
+        private Set<Role> defaultRoles;
+        /** The executor that runs the commands. */
+        private Executor executor;
+
+        /**
+         * Constructor.
+         * 
+         * @param defaultRoles The roles of users that have no account in the credential store.
+         * @param executor The executor that runs the commands.
+         */
+        public AsyncFloodlightShell(Set<Role> defaultRoles, Executor executor) {
+            this.defaultRoles = defaultRoles;
+            this.executor = executor;
+        }
+
+        @Override
+        public void setInputStream(InputStream in) {
+            // The input is handed to the shell as it arrives.
+        }
+
+        @Override
+        public void setOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void setErrorStream(OutputStream err) {
+            // Errors are written to the output stream.
         }
+
+        @Override
+        public void setExitCallback(ExitCallback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void setSession(ServerSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public void start(Environment env) throws IOException {
+        	AsyncConsole console = new AsyncConsole(CommandHandler.getInstance(), createSession(this.session, this.defaultRoles), this.out, env, getEncoding(env), this.executor, this.callback);
+        	console.start();
+        	this.console = console;
+        }
+
+        @Override
+        public void destroy() {
+        	if (this.console != null)
+        		this.console.close();
+        }
+
+		@Override
+		public void input(byte[] buffer, int offset, int length) throws IOException {
+			if (this.console != null)
+				this.console.input(buffer, offset, length);
+		}
+
+		@Override
+		public void inputClosed() {
+			this.destroy();
+		}
     }
 }
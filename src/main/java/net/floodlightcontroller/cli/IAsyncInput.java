@@ -0,0 +1,58 @@
+package net.floodlightcontroller.cli;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+
+/**
+ * A shell that is handed its input as it arrives on the SSH channel,
+ * instead of reading it from a blocking input stream. Thus, a shell
+ * does not need a thread while it waits for input.
+ */
+public interface IAsyncInput {
+
+	/**
+	 * Handles input from the SSH channel. Called by the I/O thread of
+	 * the SSH server, so it must not block.
+	 * 
+	 * @param buffer The buffer that contains the input.
+	 * @param offset The offset of the input in the buffer.
+	 * @param length The length of the input.
+	 * @throws IOException
+	 */
+	public abstract void input(byte[] buffer, int offset, int length) throws IOException;
+	
+	/**
+	 * Handles the end of the input, i.e. the client closed the channel.
+	 */
+	public abstract void inputClosed();
+
+}
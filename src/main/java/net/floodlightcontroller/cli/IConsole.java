@@ -36,6 +36,8 @@ import java.util.Collection;
 
 import jline.console.completer.Completer;
 
+import net.floodlightcontroller.cli.commands.CommandMode;
+
 /**
  * Console interface.
  * 
@@ -58,7 +60,31 @@ public interface IConsole {
 	 * Gets all the completer attached to the current console.
 	 */
 	public abstract Collection<Completer> getCompleters();
+	
+	/**
+	 * Gets the session of the current console, i.e. the user
+	 * that is logged in and the remote address.
+	 */
+	public abstract CliSession getSession();
 
+	/**
+	 * Gets the width of the terminal in columns, such that
+	 * commands can fit their output to it.
+	 */
+	public abstract int getWidth();
+	
+	/**
+	 * Gets the mode of the current console, i.e. exec or
+	 * configuration mode.
+	 */
+	public abstract CommandMode getMode();
+	
+	/**
+	 * Sets the mode of the current console. Thus, commands like
+	 * "configure terminal" can change the available commands.
+	 */
+	public abstract void setMode(CommandMode mode);
+	
 	/**
 	 * Writes a string to the console prompt.
 	 * 
@@ -66,5 +92,14 @@ public interface IConsole {
 	 * @throws IOException 
 	 */
 	public abstract void write(String string) throws IOException;
+	
+	/**
+	 * Sends everything written to the console prompt. Written
+	 * strings are buffered until the command is done, so commands
+	 * only flush to show progress while they wait.
+	 * 
+	 * @throws IOException 
+	 */
+	public abstract void flush() throws IOException;
 
 }
@@ -0,0 +1,498 @@
+package net.floodlightcontroller.cli;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import jline.console.completer.Completer;
+
+/**
+ * Edits the command line of a shell as a state machine that is fed
+ * with the input bytes as they arrive. Supports the usual keys of the
+ * jline console reader: cursor movement, history, tab completion, and
+ * context sensitive help on "?". The editor does not need a thread
+ * while it waits for input.
+ */
+public class LineEditor {
+	/** The maximum number of command lines kept in the history. */
+	private static final int HISTORY_SIZE = 100;
+	/** The escape character. */
+	private static final char ESC = 27;
+	
+	/**
+	 * The state of the escape sequence parser.
+	 */
+	private enum State {
+		/** Plain input. */
+		NORMAL,
+		/** After an escape character. */
+		ESCAPE,
+		/** Within a control sequence, i.e. after "ESC [" or "ESC O". */
+		SEQUENCE;
+	}
+	
+	/**
+	 * Handles the events of a line editor.
+	 */
+	public interface Listener {
+		
+		/**
+		 * Handles a command line that was entered.
+		 * 
+		 * @param line The command line.
+		 */
+		public void lineRead(String line);
+		
+		/**
+		 * Handles a request for help, i.e. "?" was pressed.
+		 * 
+		 * @param line The command line up to the cursor.
+		 */
+		public void helpRequested(String line);
+		
+		/**
+		 * Handles the end of input, i.e. Ctrl-D on an empty line.
+		 */
+		public void endOfInput();
+	}
+	
+	/** The output the line is echoed to. */
+	private ConsoleOutput output;
+	/** The listener of the editor. */
+	private Listener listener;
+	/** The decoder of the input bytes. */
+	private CharsetDecoder decoder;
+	/** The bytes of a multi-byte character that are not decoded yet. */
+	private ByteBuffer bytes = ByteBuffer.allocate(8);
+	/** The decoded characters, i.e. one character or a surrogate pair. */
+	private CharBuffer chars = CharBuffer.allocate(2);
+	/** The completer of the command line, or null. */
+	private Completer completer;
+	/** The prompt. */
+	private String prompt = "";
+	/** The command line. */
+	private StringBuilder line = new StringBuilder();
+	/** The position of the cursor in the command line. */
+	private int cursor;
+	/** The previous command lines. */
+	private List<String> history = new ArrayList<String>();
+	/** The history entry shown, or the size of the history if the new line is shown. */
+	private int historyIndex;
+	/** The state of the escape sequence parser. */
+	private State state = State.NORMAL;
+	/** The parameter of the current control sequence. */
+	private StringBuilder parameter = new StringBuilder();
+	/** Whether the last character was a carriage return. */
+	private boolean lastWasCr;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param output The output the line is echoed to.
+	 * @param listener The listener of the editor.
+	 * @param encoding The name of the charset of the input, or null to use the default charset.
+	 */
+	public LineEditor(ConsoleOutput output, Listener listener, String encoding) {
+		this.output = output;
+		this.listener = listener;
+		this.decoder = ((encoding != null) ? Charset.forName(encoding) : Charset.defaultCharset()).newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+	
+	/**
+	 * Setter for the completer of the command line.
+	 * 
+	 * @param completer The completer, or null.
+	 */
+	public void setCompleter(Completer completer) {
+		this.completer = completer;
+	}
+	
+	/**
+	 * Shows the prompt and starts a new command line.
+	 * 
+	 * @param prompt The prompt.
+	 * @throws IOException
+	 */
+	public void prompt(String prompt) throws IOException {
+		this.prompt = prompt;
+		this.line.setLength(0);
+		this.cursor = 0;
+		this.historyIndex = this.history.size();
+		this.output.write(prompt);
+	}
+	
+	/**
+	 * Draws the prompt and the command line again, e.g. after help
+	 * texts were shown.
+	 * 
+	 * @throws IOException
+	 */
+	public void redraw() throws IOException {
+		this.output.write("\r" + this.prompt + this.line + ESC + "[K");
+		this.moveLeft(this.line.length() - this.cursor);
+	}
+	
+	/**
+	 * Handles input bytes. Stops after a command line was entered,
+	 * such that the remaining input can be handled after the command.
+	 * 
+	 * @param buffer The buffer that contains the input.
+	 * @param offset The offset of the input in the buffer.
+	 * @param length The length of the input.
+	 * @return The number of bytes handled.
+	 * @throws IOException
+	 */
+	public int input(byte[] buffer, int offset, int length) throws IOException {
+		for (int i = 0; i < length; i++) {
+			byte b = buffer[offset + i];
+			
+			// ASCII does not need the decoder.
+			if (b >= 0 && this.bytes.position() == 0) {
+				if (this.handle((char) b))
+					return i + 1;
+				continue;
+			}
+			
+			// Decode multi-byte characters once they are complete.
+			this.bytes.put(b);
+			this.bytes.flip();
+			this.decoder.decode(this.bytes, this.chars, false);
+			this.bytes.compact();
+			if (this.chars.position() == 0 && this.bytes.hasRemaining())
+				continue;
+			this.bytes.clear();
+			this.chars.flip();
+			while (this.chars.hasRemaining()) {
+				this.handle(this.chars.get());
+			}
+			this.chars.clear();
+		}
+		
+		// Return.
+		return length;
+	}
+	
+	/**
+	 * Handles a character.
+	 * 
+	 * @param c The character.
+	 * @return Whether a command line was entered.
+	 * @throws IOException
+	 */
+	private boolean handle(char c) throws IOException {
+		/* Whether the last character was a carriage return. */
+		boolean lastWasCr = this.lastWasCr;
+		
+		this.lastWasCr = (c == '\r');
+		switch (this.state) {
+		case ESCAPE:
+			this.state = (c == '[' || c == 'O') ? State.SEQUENCE : State.NORMAL;
+			this.parameter.setLength(0);
+			return false;
+		case SEQUENCE:
+			if (c >= '0' && c <= '9' || c == ';') {
+				this.parameter.append(c);
+			} else {
+				this.state = State.NORMAL;
+				this.handleSequence(c, this.parameter.toString());
+			}
+			return false;
+		default:
+			break;
+		}
+		
+		switch (c) {
+		case '\r':
+			return this.accept();
+		case '\n':
+			// A line feed after a carriage return ends the same line.
+			return (lastWasCr) ? false : this.accept();
+		case ESC:
+			this.state = State.ESCAPE;
+			break;
+		case 1: // Ctrl-A
+			this.moveTo(0);
+			break;
+		case 2: // Ctrl-B
+			this.moveTo(this.cursor - 1);
+			break;
+		case 3: // Ctrl-C
+			this.output.write("^C\n");
+			this.prompt(this.prompt);
+			break;
+		case 4: // Ctrl-D
+			if (this.line.length() == 0) {
+				this.listener.endOfInput();
+				return true;
+			}
+			this.delete(this.cursor, this.cursor + 1);
+			break;
+		case 5: // Ctrl-E
+			this.moveTo(this.line.length());
+			break;
+		case 6: // Ctrl-F
+			this.moveTo(this.cursor + 1);
+			break;
+		case 8: // Ctrl-H
+		case 127: // Backspace
+			this.delete(this.cursor - 1, this.cursor);
+			break;
+		case '\t':
+			this.complete();
+			break;
+		case 11: // Ctrl-K
+			this.delete(this.cursor, this.line.length());
+			break;
+		case 12: // Ctrl-L
+			this.output.write(ESC + "[2J" + ESC + "[H");
+			this.redraw();
+			break;
+		case 14: // Ctrl-N
+			this.showHistory(this.historyIndex + 1);
+			break;
+		case 16: // Ctrl-P
+			this.showHistory(this.historyIndex - 1);
+			break;
+		case 21: // Ctrl-U
+			this.delete(0, this.cursor);
+			break;
+		case 23: // Ctrl-W
+			int start = this.cursor;
+			while (start > 0 && this.line.charAt(start - 1) == ' ')
+				start--;
+			while (start > 0 && this.line.charAt(start - 1) != ' ')
+				start--;
+			this.delete(start, this.cursor);
+			break;
+		case '?':
+			this.listener.helpRequested(this.line.substring(0, this.cursor));
+			break;
+		default:
+			if (c >= ' ')
+				this.insert(String.valueOf(c));
+			break;
+		}
+		
+		// Return.
+		return false;
+	}
+	
+	/**
+	 * Handles a control sequence, e.g. the cursor keys.
+	 * 
+	 * @param command The final character of the sequence.
+	 * @param parameter The parameter of the sequence.
+	 * @throws IOException
+	 */
+	private void handleSequence(char command, String parameter) throws IOException {
+		switch (command) {
+		case 'A':
+			this.showHistory(this.historyIndex - 1);
+			break;
+		case 'B':
+			this.showHistory(this.historyIndex + 1);
+			break;
+		case 'C':
+			this.moveTo(this.cursor + 1);
+			break;
+		case 'D':
+			this.moveTo(this.cursor - 1);
+			break;
+		case 'H':
+			this.moveTo(0);
+			break;
+		case 'F':
+			this.moveTo(this.line.length());
+			break;
+		case '~':
+			if (parameter.equals("1") || parameter.equals("7"))
+				this.moveTo(0);
+			else if (parameter.equals("4") || parameter.equals("8"))
+				this.moveTo(this.line.length());
+			else if (parameter.equals("3"))
+				this.delete(this.cursor, this.cursor + 1);
+			break;
+		default:
+			break;
+		}
+	}
+	
+	/**
+	 * Accepts the command line and hands it to the listener.
+	 * 
+	 * @return True.
+	 * @throws IOException
+	 */
+	private boolean accept() throws IOException {
+		/* The command line. */
+		String line = this.line.toString();
+		
+		this.output.write("\n");
+		if (line.trim().length() > 0 && (this.history.isEmpty() || !this.history.get(this.history.size() - 1).equals(line))) {
+			if (this.history.size() == HISTORY_SIZE)
+				this.history.remove(0);
+			this.history.add(line);
+		}
+		this.line.setLength(0);
+		this.cursor = 0;
+		this.listener.lineRead(line);
+		
+		// Return.
+		return true;
+	}
+	
+	/**
+	 * Inserts a string at the cursor.
+	 * 
+	 * @param string The string.
+	 * @throws IOException
+	 */
+	private void insert(String string) throws IOException {
+		this.line.insert(this.cursor, string);
+		this.output.write(this.line.substring(this.cursor));
+		this.cursor += string.length();
+		this.moveLeft(this.line.length() - this.cursor);
+	}
+	
+	/**
+	 * Deletes a part of the command line and moves the cursor to its start.
+	 * 
+	 * @param start The start of the part, inclusive.
+	 * @param end The end of the part, exclusive.
+	 * @throws IOException
+	 */
+	private void delete(int start, int end) throws IOException {
+		start = Math.max(0, start);
+		end = Math.min(this.line.length(), end);
+		if (start >= end)
+			return;
+		
+		this.moveTo(start);
+		this.line.delete(start, end);
+		this.output.write(this.line.substring(start) + ESC + "[K");
+		this.moveLeft(this.line.length() - start);
+	}
+	
+	/**
+	 * Moves the cursor.
+	 * 
+	 * @param position The new position of the cursor.
+	 * @throws IOException
+	 */
+	private void moveTo(int position) throws IOException {
+		position = Math.max(0, Math.min(this.line.length(), position));
+		if (position < this.cursor)
+			this.moveLeft(this.cursor - position);
+		else if (position > this.cursor)
+			this.output.write(this.line.substring(this.cursor, position));
+		this.cursor = position;
+	}
+	
+	/**
+	 * Moves the terminal cursor to the left.
+	 * 
+	 * @param count The number of characters.
+	 * @throws IOException
+	 */
+	private void moveLeft(int count) throws IOException {
+		if (count > 0)
+			this.output.write(ESC + "[" + count + "D");
+	}
+	
+	/**
+	 * Replaces the command line by an entry of the history.
+	 * 
+	 * @param index The index of the history entry, or the size of the history for an empty line.
+	 * @throws IOException
+	 */
+	private void showHistory(int index) throws IOException {
+		if (index < 0 || index > this.history.size())
+			return;
+		
+		this.historyIndex = index;
+		this.line.setLength(0);
+		if (index < this.history.size())
+			this.line.append(this.history.get(index));
+		this.cursor = this.line.length();
+		this.redraw();
+	}
+	
+	/**
+	 * Completes the command line at the cursor. A single candidate
+	 * is inserted, otherwise the common prefix of all candidates is
+	 * inserted, or the candidates are shown.
+	 * 
+	 * @throws IOException
+	 */
+	private void complete() throws IOException {
+		/* The completion candidates. */
+		List<CharSequence> candidates = new LinkedList<CharSequence>();
+		
+		if (this.completer == null)
+			return;
+		
+		int position = this.completer.complete(this.line.substring(0, this.cursor), this.cursor, candidates);
+		if (position < 0 || candidates.isEmpty())
+			return;
+		
+		// Find the common prefix of all candidates.
+		String prefix = candidates.get(0).toString();
+		for (CharSequence candidate : candidates) {
+			int length = 0;
+			while (length < prefix.length() && length < candidate.length() && prefix.charAt(length) == candidate.charAt(length))
+				length++;
+			prefix = prefix.substring(0, length);
+		}
+		
+		if (prefix.length() > this.cursor - position) {
+			this.delete(position, this.cursor);
+			this.insert(prefix);
+		} else if (candidates.size() > 1) {
+			StringBuilder stringBuilder = new StringBuilder("\n");
+			for (CharSequence candidate : candidates) {
+				stringBuilder.append(candidate.toString().trim()).append("  ");
+			}
+			this.output.write(stringBuilder.append('\n').toString());
+			this.redraw();
+		}
+	}
+
+}
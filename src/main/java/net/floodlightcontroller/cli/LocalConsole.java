@@ -0,0 +1,166 @@
+package net.floodlightcontroller.cli;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Collections;
+
+import jline.console.completer.Completer;
+
+import net.floodlightcontroller.cli.commands.CommandHandler;
+import net.floodlightcontroller.cli.commands.CommandMode;
+
+/**
+ * A console for local scripts. It reads one command per line and
+ * writes the plain output of each command, without a prompt, line
+ * editing, or CR/LF translation. Tables are not fitted to a terminal
+ * width. The console ends at the end of the input or on "exit".
+ */
+public class LocalConsole implements IConsole {
+	/** The command hander that executes all console commands. */
+	private CommandHandler commander;
+	/** The session this console belongs to. */
+	private CliSession session;
+	/** The input of the console. */
+	private BufferedReader in;
+	/** The output of the console. */
+	private ConsoleOutput output;
+	/** The prompt string, which is kept for commands but never shown. */
+	private String prompt;
+	/** The mode of the console. */
+	private volatile CommandMode mode = CommandMode.EXEC;
+	/** The completer of the commands available in the current mode. */
+	private volatile Completer completer;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param commander The command handler.
+	 * @param session The session of the console.
+	 * @param in The input stream of the connection.
+	 * @param out The output stream of the connection.
+	 * @param encoding The name of the charset, or null to use the default charset.
+	 */
+	public LocalConsole(CommandHandler commander, CliSession session, InputStream in, OutputStream out, String encoding) {
+		Charset charset = (encoding != null) ? Charset.forName(encoding) : Charset.defaultCharset();
+		this.commander = commander;
+		this.session = session;
+		this.in = new BufferedReader(new InputStreamReader(in, charset));
+		this.output = new ConsoleOutput(out, charset.name(), false);
+		this.completer = this.commander.getCompleter(session.getRoles(), this.mode);
+	}
+	
+	/**
+	 * Executes the command lines until the input ends or "exit" is read
+	 * in exec mode. Blocks until then.
+	 * 
+	 * @throws IOException If the connection fails.
+	 */
+	public void run() throws IOException {
+		/* The current command line. */
+		String line;
+		
+		this.commander.addListener(this);
+		try {
+			while ((line = this.in.readLine()) != null) {
+				// Exit leaves the configuration mode first.
+				boolean exec = (this.mode == CommandMode.EXEC);
+				
+				// Execute commands.
+				this.commander.execute(this, line);
+				
+				// Execute special commands
+				if (exec && (line.trim().equalsIgnoreCase("quit") || line.trim().equalsIgnoreCase("exit")))
+					return;
+			}
+		} finally {
+			this.commander.removeListener(this);
+		}
+	}
+	
+	@Override
+	public void setPrompt(String prompt) {
+		this.prompt = prompt;
+	}
+	
+	@Override
+	public String getPrompt() {
+		if (this.prompt != null)
+			return this.prompt;
+		
+		return "> ";
+	}
+	
+	@Override
+	public Collection<Completer> getCompleters() {
+		return Collections.singletonList(this.completer);
+	}
+	
+	@Override
+	public CliSession getSession() {
+		return this.session;
+	}
+	
+	@Override
+	public int getWidth() {
+		// Scripts get complete tables.
+		return 0;
+	}
+	
+	@Override
+	public CommandMode getMode() {
+		return this.mode;
+	}
+	
+	@Override
+	public void setMode(CommandMode mode) {
+		this.mode = mode;
+		this.completer = this.commander.getCompleter(this.session.getRoles(), mode);
+	}
+	
+	@Override
+	public void write(String string) throws IOException {
+		this.output.write(string);
+		this.output.write("\n");
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		this.output.flush();
+	}
+
+}
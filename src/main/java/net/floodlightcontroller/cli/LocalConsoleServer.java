@@ -0,0 +1,233 @@
+package net.floodlightcontroller.cli;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.floodlightcontroller.cli.auth.Role;
+import net.floodlightcontroller.cli.commands.CommandHandler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Offers the console to local scripts on a Unix domain socket. There
+ * is no key exchange and no authentication: only the user that runs
+ * the controller may access the socket file, and connections get the
+ * configured roles. Each connection is served by a {@link LocalConsole}.
+ * Scripts can use the socket from the shell, e.g.
+ * 
+ *   echo "show switch" | nc -U /var/run/floodlight-cli.sock
+ * 
+ * Unix domain socket channels are available from Java 16 on. The
+ * module is built for older releases, so they are looked up at run
+ * time, and the server does not start on older runtimes.
+ */
+public class LocalConsoleServer implements Runnable {
+	/** Logger to log local console events. */
+	protected static Logger logger = LoggerFactory.getLogger(LocalConsoleServer.class);
+	/** The stack size of the connection threads. Commands do not recurse deeply, so a small stack suffices. */
+	private static final long STACK_SIZE = 256 * 1024;
+	/** The ids of the local sessions. They count down, so they do not collide with the ids of SSH sessions. */
+	private static final AtomicLong sessionIds = new AtomicLong();
+	/** The path of the socket file. */
+	private final Path path;
+	/** The roles of local users. */
+	private final Set<Role> roles;
+	/** The server socket channel, or null if the server is not started. */
+	private ServerSocketChannel channel;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param path The path of the socket file.
+	 * @param roles The roles of local users.
+	 */
+	public LocalConsoleServer(Path path, Set<Role> roles) {
+		this.path = path.toAbsolutePath();
+		this.roles = EnumSet.copyOf(roles);
+	}
+	
+	/**
+	 * Creates the socket file and starts a background thread that
+	 * accepts connections. The socket is bound in a private directory
+	 * and moved to its path once only the owner may access it, so no
+	 * other user can connect in between. A stale socket file is replaced.
+	 * 
+	 * @throws IOException If the socket cannot be created, e.g. on runtimes before Java 16.
+	 */
+	public synchronized void start() throws IOException {
+		if (this.channel != null)
+			return;
+		
+		/* The private directory the socket is bound in. */
+		Path directory = Files.createTempDirectory(this.path.getParent(), ".cli", PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+		/* The path the socket is bound to. */
+		Path bound = directory.resolve("socket");
+		
+		try {
+			this.channel = openUnixServerSocket(bound);
+			Files.setPosixFilePermissions(bound, PosixFilePermissions.fromString("rw-------"));
+			Files.move(bound, this.path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			this.path.toFile().deleteOnExit();
+		} catch (IOException e) {
+			if (this.channel != null)
+				this.channel.close();
+			this.channel = null;
+			Files.deleteIfExists(bound);
+			throw e;
+		} finally {
+			Files.deleteIfExists(directory);
+		}
+		
+		Thread thread = new Thread(this, "CliLocalSocket");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Closes the server socket and deletes the socket file. Open
+	 * connections are served until they end.
+	 */
+	public synchronized void stop() {
+		if (this.channel == null)
+			return;
+		
+		try {
+			this.channel.close();
+			Files.deleteIfExists(this.path);
+		} catch (IOException e) {
+			logger.warn("Closing local console socket {} failed: {}", this.path, e.getMessage());
+		}
+		this.channel = null;
+	}
+	
+	@Override
+	public void run() {
+		/* The server socket channel. */
+		ServerSocketChannel channel;
+		
+		synchronized (this) {
+			channel = this.channel;
+		}
+		
+		while (channel.isOpen()) {
+			try {
+				this.serve(channel.accept());
+			} catch (IOException e) {
+				if (channel.isOpen())
+					logger.error("Accepting local console connection failed: {}", e.getMessage());
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Starts a thread that runs a console on a connection.
+	 * 
+	 * @param connection The connection.
+	 */
+	private void serve(final SocketChannel connection) {
+		final CliSession session = new CliSession(sessionIds.decrementAndGet(), System.getProperty("user.name"), "local", this.roles);
+		
+		Thread thread = new Thread(null, new Runnable() {
+			@Override
+			public void run() {
+				LocalConsole console = new LocalConsole(CommandHandler.getInstance(), session, Channels.newInputStream(connection), Channels.newOutputStream(connection), null);
+				try {
+					// Blocking call.
+					console.run();
+				} catch (IOException e) {
+					logger.debug("Local console session {} failed: {}", session, e.getMessage());
+				} finally {
+					try {
+						connection.close();
+					} catch (IOException e) {
+						// Ignore, the connection is gone anyway.
+					}
+				}
+			}
+		}, "CliLocalConsole", STACK_SIZE);
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Opens a server socket channel bound to a Unix domain socket.
+	 * 
+	 * @param path The path of the socket file.
+	 * @return The server socket channel.
+	 * @throws IOException If the socket cannot be bound, or Unix domain sockets are not supported.
+	 */
+	private static ServerSocketChannel openUnixServerSocket(Path path) throws IOException {
+		/* The address of the socket. */
+		SocketAddress address;
+		/* The server socket channel. */
+		ServerSocketChannel channel;
+		
+		try {
+			ProtocolFamily unix = StandardProtocolFamily.valueOf("UNIX");
+			address = (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress").getMethod("of", Path.class).invoke(null, path);
+			channel = (ServerSocketChannel) ServerSocketChannel.class.getMethod("open", ProtocolFamily.class).invoke(null, unix);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof IOException)
+				throw (IOException) e.getCause();
+			throw new IOException("Unix domain sockets are not supported: " + e.getCause());
+		} catch (Exception e) {
+			throw new IOException("Unix domain sockets need Java 16 or newer");
+		}
+		
+		try {
+			channel.bind(address);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		
+		// Return.
+		return channel;
+	}
+
+}
@@ -24,6 +24,9 @@ package net.floodlightcontroller.cli;
 import java.util.HashMap;
 import java.util.Map;
 
+import net.floodlightcontroller.cli.auth.CredentialStore;
+import net.floodlightcontroller.cli.auth.UserAccount;
+
 import org.apache.sshd.server.PasswordAuthenticator;
 import org.apache.sshd.server.session.ServerSession;
 
@@ -37,18 +40,42 @@ import org.apache.sshd.server.session.ServerSession;
 public class SimplePasswordAuthenticator implements PasswordAuthenticator {
 	/** Map containing user name and corresponding password. */
 	private Map<String, String> passwd;
+	/** The accounts that are attached to the sessions of their users, or null. */
+	private CredentialStore accounts;
 	
 	/**
 	 * Constructor
 	 */
 	public SimplePasswordAuthenticator(String username, String password) {
+		this(username, password, null);
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param username The user name.
+	 * @param password The password.
+	 * @param accounts The accounts that are attached to the sessions of their users, such that they get the account's roles, or null.
+	 */
+	public SimplePasswordAuthenticator(String username, String password, CredentialStore accounts) {
 		passwd = new HashMap<String, String>();
-		passwd.put(username, password);
+		this.accounts = accounts;
+		this.addUser(username, password);
 	}
 
 	@Override
 	public boolean authenticate(String username, String password, ServerSession serverSession) {
-		return username != null && passwd.get(username.toLowerCase().trim()).equals(password);
+		if (username == null)
+			return false;
+		
+		/* The password stored for the user, if the user exists. */
+		String expected = passwd.get(username.toLowerCase().trim());
+		if (expected == null || !expected.equals(password))
+			return false;
+		
+		if (this.accounts != null && this.accounts.getUser(username) != null && serverSession != null)
+			serverSession.setAttribute(UserAccount.SESSION_ATTRIBUTE, this.accounts.getUser(username));
+		return true;
 	}
 	
 	/**
@@ -58,7 +85,7 @@ public class SimplePasswordAuthenticator implements PasswordAuthenticator {
 	 * @param password
 	 */
 	public void addUser(String username, String password) {
-		passwd.put(username, password);
+		passwd.put(username.toLowerCase().trim(), password);
 	}
 
 }
@@ -24,23 +24,35 @@ package net.floodlightcontroller.cli;
 import jline.TerminalSupport;
 
 import org.apache.sshd.server.Environment;
+import org.apache.sshd.server.Signal;
+import org.apache.sshd.server.SignalListener;
 
 /**
- * Provides an SSH terminal for Jline. 
+ * Provides an SSH terminal for Jline. The size of the terminal is
+ * taken from the environment of the SSH session, and updated when
+ * the client sends a window-change signal.
  */
-public class SshTerminal extends TerminalSupport {
-	/** */
+public class SshTerminal extends TerminalSupport implements SignalListener {
+	/** The environment of the SSH session, or null. */
     private Environment environment;
+    /** The width of the terminal in columns, or 0 if unknown. */
+    private volatile int width;
+    /** The height of the terminal in lines, or 0 if unknown. */
+    private volatile int height;
 
     /**
      * Constructor.
      * 
-     * @param environment
+     * @param environment The environment of the SSH session, or null.
      */
     public SshTerminal(Environment environment) {
         super(true);
         setAnsiSupported(true);
         this.environment = environment;
+        if (environment != null) {
+            this.signal(Signal.WINCH);
+            environment.addSignalListener(this, Signal.WINCH);
+        }
     }
 
     @Override
@@ -49,28 +61,39 @@ public class SshTerminal extends TerminalSupport {
 
     @Override
     public void restore() throws Exception {
+        if (this.environment != null)
+            this.environment.removeSignalListener(this);
     }
 
     @Override
     public int getWidth() {
-        int width = 0;
-        try {
-            width = Integer.valueOf(this.environment.getEnv().get(Environment.ENV_COLUMNS));
-        } catch (Throwable t) {
-            // Ignore
-        }
-        return width > 0 ? width : super.getWidth();
+        return this.width > 0 ? this.width : super.getWidth();
     }
 
     @Override
     public int getHeight() {
-        int height = 0;
+        return this.height > 0 ? this.height : super.getHeight();
+    }
+
+    @Override
+    public void signal(Signal signal) {
+        // The SSH server updated the environment before signaling.
+        this.width = this.parse(Environment.ENV_COLUMNS);
+        this.height = this.parse(Environment.ENV_LINES);
+    }
+
+    /**
+     * Parses a number from the environment.
+     * 
+     * @param name The name of the environment variable.
+     * @return The number, or 0 if it is missing or invalid.
+     */
+    private int parse(String name) {
         try {
-            height = Integer.valueOf(this.environment.getEnv().get(Environment.ENV_LINES));
-        } catch (Throwable t) {
-            // Ignore
+            return Integer.parseInt(this.environment.getEnv().get(name));
+        } catch (NumberFormatException e) {
+            return 0;
         }
-        return height > 0 ? height : super.getHeight();
     }
 
 }
@@ -0,0 +1,191 @@
+package net.floodlightcontroller.cli;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.sshd.common.Compression;
+import org.apache.sshd.common.NamedFactory;
+import org.apache.sshd.common.SshConstants;
+import org.apache.sshd.common.SshException;
+import org.apache.sshd.common.util.Buffer;
+
+/**
+ * SSH zlib compression based on the zlib of the JDK, since SSHD's own
+ * zlib compression needs JZlib. Packets smaller than a threshold, e.g.
+ * the echo of typed characters, are stored instead of compressed, so
+ * interactive use does not pay for compression. Large table dumps
+ * are compressed, which pays off on slow links.
+ */
+public class ZlibCompression implements Compression {
+	/** The size of the temporary output buffer. */
+	private static final int BUFFER_SIZE = 4096;
+	/** The default compression level. */
+	private static final int DEFAULT_LEVEL = 6;
+	/** Whether compression starts after the user is authenticated. */
+	private final boolean delayed;
+	/** The minimum payload size in bytes of packets that are compressed. */
+	private final int threshold;
+	/** The compression level of packets above the threshold. */
+	private int level;
+	/** The compression level in use, or -1 before the first packet. */
+	private int currentLevel = -1;
+	/** The deflater of outgoing packets, or null. */
+	private Deflater deflater;
+	/** The inflater of incoming packets, or null. */
+	private Inflater inflater;
+	/** The copy of the payload that is compressed. */
+	private byte[] input = new byte[BUFFER_SIZE];
+	/** The temporary output buffer. */
+	private byte[] output = new byte[BUFFER_SIZE];
+	
+	/**
+	 * Creates zlib compressions.
+	 */
+	public static class Factory implements NamedFactory<Compression> {
+		/** The name of the compression, i.e. "zlib" or "zlib@openssh.com". */
+		private final String name;
+		/** Whether compression starts after the user is authenticated. */
+		private final boolean delayed;
+		/** The minimum payload size in bytes of packets that are compressed. */
+		private final int threshold;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param name The name of the compression, i.e. "zlib" or "zlib@openssh.com".
+		 * @param delayed Whether compression starts after the user is authenticated.
+		 * @param threshold The minimum payload size in bytes of packets that are compressed.
+		 */
+		public Factory(String name, boolean delayed, int threshold) {
+			this.name = name;
+			this.delayed = delayed;
+			this.threshold = threshold;
+		}
+
+		@Override
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public Compression create() {
+			return new ZlibCompression(this.delayed, this.threshold);
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param delayed Whether compression starts after the user is authenticated.
+	 * @param threshold The minimum payload size in bytes of packets that are compressed.
+	 */
+	public ZlibCompression(boolean delayed, int threshold) {
+		this.delayed = delayed;
+		this.threshold = threshold;
+	}
+
+	@Override
+	public boolean isDelayed() {
+		return this.delayed;
+	}
+
+	@Override
+	public void init(Type type, int level) {
+		this.level = (level >= 0 && level <= 9) ? level : DEFAULT_LEVEL;
+		if (type == Type.Deflater)
+			this.deflater = new Deflater(this.level);
+		else
+			this.inflater = new Inflater();
+	}
+
+	@Override
+	public void compress(Buffer buffer) throws IOException {
+		/* The size of the payload. */
+		int length = buffer.available();
+		/* The compression level of the payload. */
+		int level = (length < this.threshold) ? Deflater.NO_COMPRESSION : this.level;
+		
+		// The payload is replaced by its compressed form, so copy it first.
+		if (this.input.length < length)
+			this.input = new byte[Math.max(length, 2 * this.input.length)];
+		System.arraycopy(buffer.array(), buffer.rpos(), this.input, 0, length);
+		buffer.wpos(buffer.rpos());
+		
+		// Zlib applies a new level to input that follows, so switch it without input.
+		if (level != this.currentLevel) {
+			this.deflater.setLevel(level);
+			this.deflater.setInput(this.input, 0, 0);
+			this.deflate(buffer, Deflater.NO_FLUSH);
+			this.currentLevel = level;
+		}
+		
+		// Each packet ends with a flush, such that it can be inflated on its own.
+		this.deflater.setInput(this.input, 0, length);
+		this.deflate(buffer, Deflater.SYNC_FLUSH);
+	}
+	
+	/**
+	 * Deflates the current input and appends the output to a buffer.
+	 * 
+	 * @param buffer The buffer.
+	 * @param flush The flush mode.
+	 */
+	private void deflate(Buffer buffer, int flush) {
+		/* The number of bytes deflated. */
+		int count;
+		
+		do {
+			count = this.deflater.deflate(this.output, 0, this.output.length, flush);
+			buffer.putRawBytes(this.output, 0, count);
+		} while (count == this.output.length);
+	}
+
+	@Override
+	public void uncompress(Buffer from, Buffer to) throws IOException {
+		/* The number of bytes inflated. */
+		int count;
+		
+		this.inflater.setInput(from.array(), from.rpos(), from.available());
+		try {
+			do {
+				count = this.inflater.inflate(this.output);
+				to.putRawBytes(this.output, 0, count);
+			} while (count > 0);
+		} catch (DataFormatException e) {
+			throw new SshException(SshConstants.SSH2_DISCONNECT_COMPRESSION_ERROR, "uncompress: " + e.getMessage());
+		}
+	}
+
+}
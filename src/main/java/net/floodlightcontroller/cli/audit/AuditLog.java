@@ -0,0 +1,274 @@
+package net.floodlightcontroller.cli.audit;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The audit log records every command executed on the CLI.
+ * 
+ * Records are put onto a bounded, lock-free ring buffer by the
+ * threads that execute commands (multiple producers) and are
+ * written in batches to a rotating log file by a single background
+ * writer thread (single consumer). Thus, a slow disk never stalls
+ * command execution: if the ring buffer is full, new records are
+ * dropped and counted, and the number of dropped records is written
+ * to the log as soon as the writer catches up.
+ */
+public class AuditLog implements Runnable {
+	/** Logger to log audit log events. */
+	protected static Logger logger = LoggerFactory.getLogger(AuditLog.class);
+	/** The ring buffer that holds records not yet written. Empty slots are null. */
+	private final AtomicReferenceArray<AuditRecord> ring;
+	/** The capacity of the ring buffer, a power of two. */
+	private final int capacity;
+	/** Mask to map a sequence number to a ring buffer slot. */
+	private final int mask;
+	/** The next sequence number to be claimed by a producer. */
+	private final AtomicLong head = new AtomicLong();
+	/** The next sequence number to be consumed. Only written by the writer thread. */
+	private volatile long tail;
+	/** The number of records dropped since the last report. */
+	private final AtomicLong dropped = new AtomicLong();
+	/** The maximum number of records written before the file is flushed. */
+	private final int batchSize;
+	/** The time in nanoseconds the writer waits for new records. */
+	private final long flushInterval;
+	/** The log file the records are written to. */
+	private final RotatingLogFile file;
+	/** The date format used for the record time stamps. Only used by the writer thread. */
+	private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS z");
+	/** The background writer thread. */
+	private volatile Thread writer;
+	/** Boolean that states if the writer is running. */
+	private volatile boolean running;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param file The log file the records are written to.
+	 * @param capacity The minimum capacity of the ring buffer. Rounded up to a power of two.
+	 * @param batchSize The maximum number of records written before the file is flushed.
+	 * @param flushInterval The time in milliseconds the writer waits for new records.
+	 */
+	public AuditLog(RotatingLogFile file, int capacity, int batchSize, long flushInterval) {
+		this.capacity = AuditLog.nextPowerOfTwo(Math.max(capacity, 2));
+		this.mask = this.capacity - 1;
+		this.ring = new AtomicReferenceArray<AuditRecord>(this.capacity);
+		this.batchSize = Math.max(1, Math.min(batchSize, this.capacity));
+		this.flushInterval = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+		this.file = file;
+	}
+	
+	/**
+	 * Starts the background writer thread and registers a shutdown
+	 * hook that writes the remaining records on JVM exit.
+	 */
+	public synchronized void start() {
+		if (this.writer != null)
+			return;
+		
+		this.running = true;
+		this.writer = new Thread(this, "CliAuditWriter");
+		this.writer.setDaemon(true);
+		this.writer.start();
+		
+		Runtime.getRuntime().addShutdownHook(new Thread("CliAuditShutdown") {
+			@Override
+			public void run() {
+				AuditLog.this.stop();
+			}
+		});
+	}
+	
+	/**
+	 * Stops the background writer thread after it has written
+	 * all pending records.
+	 */
+	public void stop() {
+		/* The writer thread to wait for. */
+		Thread thread = this.writer;
+		
+		this.running = false;
+		if (thread == null)
+			return;
+		
+		LockSupport.unpark(thread);
+		try {
+			thread.join(TimeUnit.NANOSECONDS.toMillis(this.flushInterval) + 5000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * Adds a record to the audit log. This method never blocks: if
+	 * the ring buffer is full, the record is dropped.
+	 * 
+	 * @param record The record to add.
+	 * @return True if the record was queued, false if it was dropped.
+	 */
+	public boolean record(AuditRecord record) {
+		/* The sequence number claimed for the record. */
+		long sequence;
+		
+		// Claim a slot, unless the writer lags a full ring behind.
+		do {
+			sequence = this.head.get();
+			if (sequence - this.tail >= this.capacity) {
+				this.dropped.incrementAndGet();
+				return false;
+			}
+		} while (!this.head.compareAndSet(sequence, sequence + 1));
+		
+		// Publish the record. The writer treats an empty slot as not yet published.
+		this.ring.lazySet((int) (sequence & this.mask), record);
+		
+		// Wake the writer early if a full batch is waiting.
+		if (sequence - this.tail == this.batchSize) {
+			Thread thread = this.writer;
+			if (thread != null)
+				LockSupport.unpark(thread);
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * Gets the number of records that have been dropped and not
+	 * yet been reported in the log file.
+	 * 
+	 * @return The number of dropped records.
+	 */
+	public long getDropped() {
+		return this.dropped.get();
+	}
+	
+	@Override
+	public void run() {
+		/* The batch of records to write. */
+		List<AuditRecord> batch = new ArrayList<AuditRecord>(this.batchSize);
+		
+		while (this.running || this.head.get() != this.tail) {
+			batch.clear();
+			this.drain(batch);
+			
+			try {
+				this.writeBatch(batch);
+			} catch (IOException e) {
+				logger.error("Writing the CLI audit log failed: {}", e.getMessage());
+			}
+			
+			// Wait for new records, unless there is more work to do.
+			if (batch.size() < this.batchSize && this.running)
+				LockSupport.parkNanos(this, this.flushInterval);
+		}
+		
+		try {
+			this.file.close();
+		} catch (IOException e) {
+			logger.error("Closing the CLI audit log failed: {}", e.getMessage());
+		}
+	}
+	
+	/**
+	 * Takes up to batch size published records from the ring buffer.
+	 * 
+	 * @param batch The list the records are added to.
+	 */
+	private void drain(List<AuditRecord> batch) {
+		/* The next sequence number to consume. */
+		long sequence = this.tail;
+		
+		while (batch.size() < this.batchSize) {
+			int index = (int) (sequence & this.mask);
+			AuditRecord record = this.ring.get(index);
+			// The slot is claimed but not yet published.
+			if (record == null)
+				break;
+			this.ring.lazySet(index, null);
+			batch.add(record);
+			sequence++;
+		}
+		
+		// Release the consumed slots to the producers.
+		this.tail = sequence;
+	}
+	
+	/**
+	 * Writes a batch of records and a note on dropped records, if
+	 * any, to the log file and flushes it.
+	 * 
+	 * @param batch The records to write.
+	 * @throws IOException
+	 */
+	private void writeBatch(List<AuditRecord> batch) throws IOException {
+		/* The number of records dropped since the last report. */
+		long lost = this.dropped.getAndSet(0);
+		
+		if (batch.isEmpty() && lost == 0)
+			return;
+		
+		for (AuditRecord record : batch) {
+			this.file.writeLine(record.format(this.dateFormat));
+		}
+		
+		if (lost > 0) {
+			this.file.writeLine(this.dateFormat.format(new Date()) + " audit log overflow: " + lost + " records dropped");
+			logger.warn("CLI audit log overflow: {} records dropped", lost);
+		}
+		
+		this.file.flush();
+	}
+	
+	/**
+	 * Rounds a positive integer up to the next power of two.
+	 * 
+	 * @param value The value to round.
+	 * @return The next power of two greater than or equal to the value.
+	 */
+	private static int nextPowerOfTwo(int value) {
+		int highestBit = Integer.highestOneBit(value);
+		return (highestBit == value) ? value : highestBit << 1;
+	}
+
+}
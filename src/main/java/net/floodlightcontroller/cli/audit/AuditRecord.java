@@ -0,0 +1,164 @@
+package net.floodlightcontroller.cli.audit;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * An immutable audit record that describes one command executed
+ * on the CLI: who executed it, from where, how long it took, and
+ * how much output it produced.
+ */
+public class AuditRecord {
+	/** The time the command was started, in milliseconds since the epoch. */
+	private final long timestamp;
+	/** The name of the user that executed the command. */
+	private final String username;
+	/** The id of the session the command was executed in. */
+	private final long sessionId;
+	/** The address of the remote peer. */
+	private final String remoteAddress;
+	/** The command line as entered by the user. */
+	private final String commandLine;
+	/** The execution time of the command in microseconds. */
+	private final long duration;
+	/** The number of characters the command returned. */
+	private final int resultSize;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param timestamp The time the command was started, in milliseconds since the epoch.
+	 * @param username The name of the user that executed the command.
+	 * @param sessionId The id of the session the command was executed in.
+	 * @param remoteAddress The address of the remote peer.
+	 * @param commandLine The command line as entered by the user.
+	 * @param duration The execution time of the command in microseconds.
+	 * @param resultSize The number of characters the command returned.
+	 */
+	public AuditRecord(long timestamp, String username, long sessionId, String remoteAddress, String commandLine, long duration, int resultSize) {
+		this.timestamp = timestamp;
+		this.username = username;
+		this.sessionId = sessionId;
+		this.remoteAddress = remoteAddress;
+		this.commandLine = commandLine;
+		this.duration = duration;
+		this.resultSize = resultSize;
+	}
+	
+	/**
+	 * @return The time the command was started, in milliseconds since the epoch.
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+	
+	/**
+	 * @return The name of the user that executed the command.
+	 */
+	public String getUsername() {
+		return this.username;
+	}
+	
+	/**
+	 * @return The id of the session the command was executed in.
+	 */
+	public long getSessionId() {
+		return this.sessionId;
+	}
+	
+	/**
+	 * @return The address of the remote peer.
+	 */
+	public String getRemoteAddress() {
+		return this.remoteAddress;
+	}
+	
+	/**
+	 * @return The command line as entered by the user.
+	 */
+	public String getCommandLine() {
+		return this.commandLine;
+	}
+	
+	/**
+	 * @return The execution time of the command in microseconds.
+	 */
+	public long getDuration() {
+		return this.duration;
+	}
+	
+	/**
+	 * @return The number of characters the command returned.
+	 */
+	public int getResultSize() {
+		return this.resultSize;
+	}
+	
+	/**
+	 * Formats the record as a single log line in the form:
+	 * 
+	 *   2013-05-02 14:12:01.123 CEST user=root session=3 remote=10.0.0.1:53321 duration=812us size=2048 command="show host"
+	 * 
+	 * @param dateFormat The date format used for the time stamp. Date formats are not thread-safe.
+	 * @return A string that represents the record as one log line.
+	 */
+	public String format(SimpleDateFormat dateFormat) {
+		/* String builder that holds the log line. */
+		StringBuilder stringBuilder = new StringBuilder(128);
+		
+		stringBuilder.append(dateFormat.format(new Date(this.timestamp)));
+		stringBuilder.append(" user=").append(this.username);
+		stringBuilder.append(" session=").append(this.sessionId);
+		stringBuilder.append(" remote=").append(this.remoteAddress);
+		stringBuilder.append(" duration=").append(this.duration).append("us");
+		stringBuilder.append(" size=").append(this.resultSize);
+		stringBuilder.append(" command=\"");
+		
+		// Escape the command line such that one record stays on one line.
+		for (int i = 0; i < this.commandLine.length(); i++) {
+			char c = this.commandLine.charAt(i);
+			switch (c) {
+				case '"':  stringBuilder.append("\\\""); break;
+				case '\\': stringBuilder.append("\\\\"); break;
+				case '\n': stringBuilder.append("\\n"); break;
+				case '\r': stringBuilder.append("\\r"); break;
+				default:   stringBuilder.append(c);
+			}
+		}
+		stringBuilder.append('"');
+		
+		// Return.
+		return stringBuilder.toString();
+	}
+
+}
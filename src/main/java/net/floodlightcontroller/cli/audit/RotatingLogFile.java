@@ -0,0 +1,200 @@
+package net.floodlightcontroller.cli.audit;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A plain text log file that is rotated once it exceeds a given
+ * size. Rotated files are gzip compressed and numbered, i.e.
+ * 
+ *   audit.log, audit.log.1.gz, audit.log.2.gz, ...
+ * 
+ * where the highest number is the oldest file. This class is not
+ * thread-safe; it is meant to be used by a single writer thread.
+ */
+public class RotatingLogFile {
+	/** The current (uncompressed) log file. */
+	private final File file;
+	/** The size in bytes after which the log file is rotated. */
+	private final long maxSize;
+	/** The number of compressed files that are kept. */
+	private final int maxFiles;
+	/** The writer to the current log file. */
+	private Writer writer;
+	/** The (approximate) size of the current log file in bytes. */
+	private long size;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param file The log file.
+	 * @param maxSize The size in bytes after which the log file is rotated.
+	 * @param maxFiles The number of compressed files that are kept.
+	 */
+	public RotatingLogFile(File file, long maxSize, int maxFiles) {
+		this.file = file;
+		this.maxSize = maxSize;
+		this.maxFiles = maxFiles;
+	}
+	
+	/**
+	 * Writes a line to the log file and rotates the file if
+	 * it exceeds its maximum size.
+	 * 
+	 * @param line The line to write, without line terminator.
+	 * @throws IOException
+	 */
+	public void writeLine(String line) throws IOException {
+		if (this.writer == null)
+			this.open();
+		
+		this.writer.write(line);
+		this.writer.write('\n');
+		// Audit lines are mostly ASCII, thus the character count is a good estimate.
+		this.size += line.length() + 1;
+		
+		if (this.size >= this.maxSize)
+			this.rotate();
+	}
+	
+	/**
+	 * Flushes the buffered lines to disk.
+	 * 
+	 * @throws IOException
+	 */
+	public void flush() throws IOException {
+		if (this.writer != null)
+			this.writer.flush();
+	}
+	
+	/**
+	 * Closes the current log file.
+	 * 
+	 * @throws IOException
+	 */
+	public void close() throws IOException {
+		if (this.writer != null) {
+			this.writer.close();
+			this.writer = null;
+		}
+	}
+	
+	/**
+	 * Opens the log file for appending.
+	 * 
+	 * @throws IOException
+	 */
+	private void open() throws IOException {
+		File parent = this.file.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists())
+			parent.mkdirs();
+		
+		this.writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(this.file, true), "UTF-8"), 64 * 1024);
+		this.size = this.file.length();
+	}
+	
+	/**
+	 * Closes the current log file, shifts the compressed files
+	 * by one, compresses the current file to number one, and
+	 * starts a new log file.
+	 * 
+	 * @throws IOException
+	 */
+	private void rotate() throws IOException {
+		this.close();
+		
+		// Shift the existing compressed files, dropping the oldest one.
+		File oldest = this.rotatedFile(this.maxFiles);
+		if (oldest.exists())
+			oldest.delete();
+		for (int i = this.maxFiles - 1; i >= 1; i--) {
+			File rotated = this.rotatedFile(i);
+			if (rotated.exists())
+				rotated.renameTo(this.rotatedFile(i + 1));
+		}
+		
+		// Compress the current file.
+		if (this.maxFiles > 0)
+			this.compress(this.file, this.rotatedFile(1));
+		this.file.delete();
+		
+		this.open();
+	}
+	
+	/**
+	 * Gets the name of a rotated, compressed log file.
+	 * 
+	 * @param index The number of the rotated file.
+	 * @return The rotated file.
+	 */
+	private File rotatedFile(int index) {
+		return new File(this.file.getPath() + "." + index + ".gz");
+	}
+	
+	/**
+	 * Compresses a file using gzip.
+	 * 
+	 * @param source The file to compress.
+	 * @param target The compressed file.
+	 * @throws IOException
+	 */
+	private void compress(File source, File target) throws IOException {
+		/* Buffer to copy the file content. */
+		byte[] buffer = new byte[64 * 1024];
+		/* Number of bytes read. */
+		int read;
+		
+		InputStream in = new FileInputStream(source);
+		try {
+			OutputStream out = new GZIPOutputStream(new FileOutputStream(target), buffer.length);
+			try {
+				while ((read = in.read(buffer)) != -1) {
+					out.write(buffer, 0, read);
+				}
+			} finally {
+				out.close();
+			}
+		} finally {
+			in.close();
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+package net.floodlightcontroller.cli.auth;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.security.PublicKey;
+
+import org.apache.sshd.server.PublickeyAuthenticator;
+import org.apache.sshd.server.session.ServerSession;
+
+/**
+ * A public key authenticator that accepts the keys listed in an
+ * authorized keys file, see {@link AuthorizedKeysStore}. A key that
+ * is restricted to a user logs in as that user only. A key that is
+ * not restricted logs in only as a user with an account, since it
+ * would otherwise allow any user name. The account of the user is
+ * attached to the session, such that the user gets the account's roles.
+ */
+public class AuthorizedKeysAuthenticator implements PublickeyAuthenticator {
+	/** The store containing all authorized keys. */
+	private final AuthorizedKeysStore store;
+	/** The store containing all user accounts, or null. */
+	private final CredentialStore credentials;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param store The store containing all authorized keys.
+	 * @param credentials The store containing all user accounts, or null.
+	 */
+	public AuthorizedKeysAuthenticator(AuthorizedKeysStore store, CredentialStore credentials) {
+		this.store = store;
+		this.credentials = credentials;
+	}
+
+	@Override
+	public boolean authenticate(String username, PublicKey key, ServerSession session) {
+		if (username == null || key == null)
+			return false;
+		
+		/* The user the key is restricted to, or an empty string for any user with an account. */
+		String keyUser = this.store.getUser(key);
+		/* The account of the user, if any. */
+		UserAccount user = (this.credentials != null) ? this.credentials.getUser(username) : null;
+		
+		if (keyUser == null)
+			return false;
+		if ((keyUser.length() > 0) ? !keyUser.equalsIgnoreCase(username) : user == null)
+			return false;
+		
+		if (user != null)
+			HashedPasswordAuthenticator.attachUser(session, user);
+		return true;
+	}
+
+}
@@ -0,0 +1,310 @@
+package net.floodlightcontroller.cli.auth;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.sshd.common.util.Buffer;
+import org.bouncycastle.util.encoders.Base64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the public keys allowed to log in to the CLI. The keys are
+ * read from an OpenSSH authorized_keys style file with one key per
+ * line in the form:
+ * 
+ *   [options] keytype base64-key [comment]
+ * 
+ * The option user="name" restricts a key to a user name. Keys without
+ * this option may only log in as users that have an account in the
+ * credential store. Other options are ignored.
+ * 
+ * The keys are indexed by the SHA-256 fingerprint of their SSH wire
+ * encoding, so a lookup costs one hash, no matter how many keys there
+ * are. The file is watched and reloaded only when it changes on disk.
+ */
+public class AuthorizedKeysStore implements Runnable {
+	/** Logger to log authorized keys events. */
+	protected static Logger logger = LoggerFactory.getLogger(AuthorizedKeysStore.class);
+	/** The authorized keys file. */
+	private final File file;
+	/** Map of key fingerprints and the user the key is restricted to (empty string for any user). */
+	private volatile Map<String, String> keys = Collections.emptyMap();
+	/** The watch service that notifies us on file changes. */
+	private WatchService watchService;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param file The authorized keys file.
+	 */
+	public AuthorizedKeysStore(File file) {
+		this.file = file.getAbsoluteFile();
+	}
+	
+	/**
+	 * Reads the authorized keys file and starts a background thread
+	 * that reloads the file whenever it changes.
+	 */
+	public synchronized void start() {
+		this.reload();
+		
+		if (this.watchService != null)
+			return;
+		
+		try {
+			this.watchService = FileSystems.getDefault().newWatchService();
+			this.file.getParentFile().toPath().register(this.watchService,
+					StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		} catch (IOException e) {
+			logger.error("Watching {} failed: {}. Changes require a restart.", this.file, e.getMessage());
+			return;
+		}
+		
+		Thread thread = new Thread(this, "CliAuthorizedKeysWatcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Gets the user an authorized public key is restricted to.
+	 * 
+	 * @param key The public key offered by the client.
+	 * @return The user name, an empty string if the key is not restricted to a user, or null if the key is not authorized.
+	 */
+	public String getUser(PublicKey key) {
+		/* The SSH wire encoding of the key. */
+		Buffer buffer = new Buffer();
+		
+		buffer.putRawPublicKey(key);
+		return this.keys.get(AuthorizedKeysStore.fingerprint(buffer.getCompactData()));
+	}
+	
+	/**
+	 * Gets the number of authorized keys.
+	 * 
+	 * @return The number of authorized keys.
+	 */
+	public int size() {
+		return this.keys.size();
+	}
+	
+	@Override
+	public void run() {
+		/* The name of the authorized keys file within its directory. */
+		Path name = this.file.toPath().getFileName();
+		
+		while (true) {
+			WatchKey watchKey;
+			try {
+				watchKey = this.watchService.take();
+			} catch (InterruptedException e) {
+				return;
+			} catch (ClosedWatchServiceException e) {
+				return;
+			}
+			
+			boolean changed = false;
+			for (WatchEvent<?> event : watchKey.pollEvents()) {
+				if (event.kind() == StandardWatchEventKinds.OVERFLOW || name.equals(event.context()))
+					changed = true;
+			}
+			
+			if (changed)
+				this.reload();
+			
+			if (!watchKey.reset()) {
+				logger.warn("Stopped watching {}: directory is no longer accessible", this.file);
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Reads the authorized keys file and replaces the key index.
+	 * Keeps the old index if the file cannot be read.
+	 */
+	private void reload() {
+		/* The new key index. */
+		Map<String, String> newKeys = new HashMap<String, String>();
+		/* The current line. */
+		String line;
+		/* The current line number. */
+		int lineNumber = 0;
+		
+		try {
+			BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.file), "UTF-8"));
+			try {
+				while ((line = reader.readLine()) != null) {
+					lineNumber++;
+					line = line.trim();
+					if (line.length() == 0 || line.startsWith("#"))
+						continue;
+					if (!this.parseLine(line, newKeys))
+						logger.warn("Ignoring malformed key in {} line {}", this.file, lineNumber);
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (FileNotFoundException e) {
+			logger.warn("Authorized keys file {} not found. Public key logins are disabled.", this.file);
+		} catch (IOException e) {
+			logger.error("Reading authorized keys file {} failed: {}", this.file, e.getMessage());
+			return;
+		}
+		
+		this.keys = newKeys;
+		logger.info("Read {} authorized key(s) from {}", newKeys.size(), this.file);
+	}
+	
+	/**
+	 * Parses an authorized keys line and adds the key to an index.
+	 * 
+	 * @param line The line.
+	 * @param index The key index.
+	 * @return True if the line was a valid key.
+	 */
+	private boolean parseLine(String line, Map<String, String> index) {
+		/* The user name the key is restricted to. */
+		String user = "";
+		/* The rest of the line after the options. */
+		String rest = line;
+		
+		// The line starts with options, unless it starts with the key type.
+		if (!AuthorizedKeysStore.isKeyType(line.split("\\s+", 2)[0])) {
+			int end = AuthorizedKeysStore.endOfOptions(line);
+			user = AuthorizedKeysStore.getOption(line.substring(0, end), "user");
+			rest = line.substring(end).trim();
+		}
+		
+		String[] elements = rest.split("\\s+");
+		if (elements.length < 2 || !AuthorizedKeysStore.isKeyType(elements[0]))
+			return false;
+		
+		try {
+			byte[] blob = Base64.decode(elements[1]);
+			// Make sure the blob is a key we can compare to keys offered by clients.
+			Buffer buffer = new Buffer(blob);
+			PublicKey key = buffer.getRawPublicKey();
+			Buffer encoded = new Buffer();
+			encoded.putRawPublicKey(key);
+			index.put(AuthorizedKeysStore.fingerprint(encoded.getCompactData()), (user != null) ? user : "");
+			return true;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Checks whether a string is a supported SSH key type.
+	 * 
+	 * @param string The string.
+	 * @return True if the string is "ssh-rsa" or "ssh-dss".
+	 */
+	private static boolean isKeyType(String string) {
+		return string.equals("ssh-rsa") || string.equals("ssh-dss");
+	}
+	
+	/**
+	 * Finds the end of the options field, i.e. the first
+	 * white space that is not quoted.
+	 * 
+	 * @param line The line.
+	 * @return The index of the end of the options field.
+	 */
+	private static int endOfOptions(String line) {
+		/* States whether we are inside quotes. */
+		boolean quoted = false;
+		
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == '"')
+				quoted = !quoted;
+			else if (!quoted && Character.isWhitespace(c))
+				return i;
+		}
+		
+		return line.length();
+	}
+	
+	/**
+	 * Gets the value of an option of the form name="value".
+	 * 
+	 * @param options The options field.
+	 * @param name The option name.
+	 * @return The option value, or an empty string if not present.
+	 */
+	private static String getOption(String options, String name) {
+		/* The option prefix. */
+		String prefix = name + "=\"";
+		
+		for (String option : options.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)")) {
+			if (option.startsWith(prefix) && option.endsWith("\""))
+				return option.substring(prefix.length(), option.length() - 1).trim();
+		}
+		
+		return "";
+	}
+	
+	/**
+	 * Computes the SHA-256 fingerprint of an SSH key blob.
+	 * 
+	 * @param blob The SSH wire encoding of the key.
+	 * @return The fingerprint as hex string.
+	 */
+	private static String fingerprint(byte[] blob) {
+		try {
+			return PasswordHash.toHex(MessageDigest.getInstance("SHA-256").digest(blob));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
@@ -0,0 +1,157 @@
+package net.floodlightcontroller.cli.auth;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stores the CLI user accounts. The accounts are read from a
+ * password file with one user per line in the form:
+ * 
+ *   username:role1,role2:pbkdf2-sha256$iterations$salt$hash
+ * 
+ * Empty lines and lines starting with '#' are ignored. Entries
+ * can be created using {@link PasswordHash}.
+ */
+public class CredentialStore {
+	/** Logger to log credential store events. */
+	protected static Logger logger = LoggerFactory.getLogger(CredentialStore.class);
+	/** Map of user names (lower case) and the corresponding accounts. */
+	private final Map<String, UserAccount> users;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param users A collection of user accounts.
+	 */
+	public CredentialStore(Collection<UserAccount> users) {
+		this.users = new HashMap<String, UserAccount>();
+		for (UserAccount user : users) {
+			this.users.put(user.getUsername().toLowerCase(), user);
+		}
+	}
+	
+	/**
+	 * Reads a password file and creates a credential store.
+	 * Malformed lines are logged and skipped.
+	 * 
+	 * @param file The password file.
+	 * @return The credential store containing all valid accounts.
+	 * @throws IOException if the file cannot be read.
+	 */
+	public static CredentialStore load(File file) throws IOException {
+		/* The user accounts read from file. */
+		Map<String, UserAccount> users = new HashMap<String, UserAccount>();
+		/* The current line. */
+		String line;
+		/* The current line number. */
+		int lineNumber = 0;
+		
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+		try {
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.length() == 0 || line.startsWith("#"))
+					continue;
+				
+				UserAccount user = parseLine(line);
+				if (user == null) {
+					logger.warn("Ignoring malformed entry in {} line {}", file, lineNumber);
+					continue;
+				}
+				users.put(user.getUsername().toLowerCase(), user);
+			}
+		} finally {
+			reader.close();
+		}
+		
+		logger.info("Read {} CLI user(s) from {}", users.size(), file);
+		return new CredentialStore(users.values());
+	}
+	
+	/**
+	 * Gets a user account.
+	 * 
+	 * @param username The user name (case insensitive).
+	 * @return The user account, or null if the user does not exist.
+	 */
+	public UserAccount getUser(String username) {
+		if (username == null)
+			return null;
+		return this.users.get(username.trim().toLowerCase());
+	}
+	
+	/**
+	 * Gets all user accounts.
+	 * 
+	 * @return A collection of all user accounts.
+	 */
+	public Collection<UserAccount> getUsers() {
+		return this.users.values();
+	}
+	
+	/**
+	 * Parses a password file line.
+	 * 
+	 * @param line The line in the form "username:roles:hash".
+	 * @return The user account, or null if the line is malformed.
+	 */
+	private static UserAccount parseLine(String line) {
+		/* The line elements: user name, roles, and password hash. */
+		String[] elements = line.split(":", 3);
+		/* The roles of the user. */
+		Set<String> roles = new LinkedHashSet<String>();
+		
+		if (elements.length != 3 || elements[0].trim().length() == 0 || !PasswordHash.isValid(elements[2].trim()))
+			return null;
+		
+		for (String role : elements[1].split(",")) {
+			if (role.trim().length() > 0)
+				roles.add(role.trim().toLowerCase());
+		}
+		
+		return new UserAccount(elements[0].trim(), roles, elements[2].trim());
+	}
+
+}
@@ -0,0 +1,150 @@
+package net.floodlightcontroller.cli.auth;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
+import org.apache.sshd.server.PasswordAuthenticator;
+import org.apache.sshd.server.session.ServerSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A password authenticator that verifies passwords against the
+ * salted hashes of a {@link CredentialStore}.
+ * 
+ * Since slow hashes are expensive under login storms, recently
+ * verified credentials are cached for a short time, and hash
+ * verifications are rate limited per source address.
+ */
+public class HashedPasswordAuthenticator implements PasswordAuthenticator {
+	/** Logger to log authentication events. */
+	protected static Logger logger = LoggerFactory.getLogger(HashedPasswordAuthenticator.class);
+	/** Hash verified for unknown users, such that they take as long as known users. */
+	private static final String DUMMY_HASH;
+	/** The store containing all user accounts. */
+	private final CredentialStore store;
+	/** The cache of recently verified credentials. */
+	private final VerifiedCredentialCache cache;
+	/** The rate limiter for hash verifications per source address. */
+	private final LoginRateLimiter limiter;
+	
+	static {
+		String dummy;
+		try {
+			dummy = PasswordHash.hash(Long.toString(System.nanoTime()));
+		} catch (Exception e) {
+			dummy = "pbkdf2-sha1$" + PasswordHash.DEFAULT_ITERATIONS + "$00$00";
+		}
+		DUMMY_HASH = dummy;
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param store The store containing all user accounts.
+	 * @param cache The cache of recently verified credentials.
+	 * @param limiter The rate limiter for hash verifications per source address.
+	 */
+	public HashedPasswordAuthenticator(CredentialStore store, VerifiedCredentialCache cache, LoginRateLimiter limiter) {
+		this.store = store;
+		this.cache = cache;
+		this.limiter = limiter;
+	}
+
+	@Override
+	public boolean authenticate(String username, String password, ServerSession session) {
+		/* The account of the user. */
+		UserAccount user = this.store.getUser(username);
+		/* The source address of the login attempt. */
+		String source = HashedPasswordAuthenticator.getSource(session);
+		
+		if (username == null || password == null)
+			return false;
+		
+		// Fast path: the credential was verified recently.
+		if (user != null && this.cache.isVerified(user, password)) {
+			HashedPasswordAuthenticator.attachUser(session, user);
+			return true;
+		}
+		
+		// Reject the attempt without hashing, if the source exceeded its rate.
+		if (!this.limiter.tryAcquire(source)) {
+			logger.warn("Rejecting CLI login of {} from {}: too many attempts", username, source);
+			return false;
+		}
+		
+		if (user == null) {
+			PasswordHash.verify(password, DUMMY_HASH);
+			logger.info("Failed CLI login of unknown user {} from {}", username, source);
+			return false;
+		}
+		
+		if (!PasswordHash.verify(password, user.getPasswordHash())) {
+			logger.info("Failed CLI login of {} from {}", username, source);
+			return false;
+		}
+		
+		this.cache.put(user, password);
+		HashedPasswordAuthenticator.attachUser(session, user);
+		return true;
+	}
+	
+	/**
+	 * Attaches the account of the authenticated user to the session,
+	 * such that the shell can look up the user's roles.
+	 * 
+	 * @param session The SSH session.
+	 * @param user The authenticated user.
+	 */
+	static void attachUser(ServerSession session, UserAccount user) {
+		if (session != null)
+			session.setAttribute(UserAccount.SESSION_ATTRIBUTE, user);
+	}
+	
+	/**
+	 * Gets the source address of a session, without port.
+	 * 
+	 * @param session The SSH session.
+	 * @return The source address as string.
+	 */
+	private static String getSource(ServerSession session) {
+		/* The remote address of the session. */
+		SocketAddress address = (session != null && session.getIoSession() != null) ? session.getIoSession().getRemoteAddress() : null;
+		
+		if (address instanceof InetSocketAddress && ((InetSocketAddress) address).getAddress() != null)
+			return ((InetSocketAddress) address).getAddress().getHostAddress();
+		
+		return String.valueOf(address);
+	}
+
+}
@@ -0,0 +1,148 @@
+package net.floodlightcontroller.cli.auth;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Limits the number of expensive login attempts per source
+ * address using a token bucket per address. Each bucket holds
+ * up to a burst of attempts and is refilled at a constant rate.
+ * Thus, a brute-force attack from one address cannot tie up the
+ * threads that verify slow password hashes.
+ */
+public class LoginRateLimiter {
+	/** The maximum number of tracked source addresses before idle ones are purged. */
+	private static final int MAX_SOURCES = 10000;
+	/** The maximum number of attempts in a burst. */
+	private final int burst;
+	/** The time in nanoseconds it takes to refill one attempt. */
+	private final long refillInterval;
+	/** Map of source addresses and their token buckets. */
+	private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<String, Bucket>();
+	
+	/**
+	 * A token bucket of one source address.
+	 */
+	private class Bucket {
+		/** The number of available tokens. */
+		private double tokens = burst;
+		/** The time of the last refill in nanoseconds. */
+		private long lastRefill = System.nanoTime();
+		
+		/**
+		 * Refills the bucket and takes a token, if available.
+		 * 
+		 * @param now The current time in nanoseconds.
+		 * @return True if a token was taken.
+		 */
+		synchronized boolean tryAcquire(long now) {
+			this.refill(now);
+			if (this.tokens >= 1) {
+				this.tokens -= 1;
+				return true;
+			}
+			return false;
+		}
+		
+		/**
+		 * Checks whether the bucket is full, i.e. the source has been idle.
+		 * 
+		 * @param now The current time in nanoseconds.
+		 * @return True if the bucket is full.
+		 */
+		synchronized boolean isFull(long now) {
+			this.refill(now);
+			return this.tokens >= burst;
+		}
+		
+		/**
+		 * Adds the tokens accumulated since the last refill.
+		 * 
+		 * @param now The current time in nanoseconds.
+		 */
+		private void refill(long now) {
+			this.tokens = Math.min(burst, this.tokens + (double) (now - this.lastRefill) / refillInterval);
+			this.lastRefill = now;
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param attemptsPerMinute The sustained number of attempts per minute and source address.
+	 * @param burst The maximum number of attempts in a burst.
+	 */
+	public LoginRateLimiter(int attemptsPerMinute, int burst) {
+		this.burst = Math.max(1, burst);
+		this.refillInterval = 60L * 1000 * 1000 * 1000 / Math.max(1, attemptsPerMinute);
+	}
+	
+	/**
+	 * Takes an attempt from the bucket of a source address.
+	 * 
+	 * @param source The source address.
+	 * @return True if the attempt is allowed, false if the source exceeded its rate.
+	 */
+	public boolean tryAcquire(String source) {
+		/* The current time. */
+		long now = System.nanoTime();
+		/* The bucket of the source. */
+		Bucket bucket = this.buckets.get(source);
+		
+		if (bucket == null) {
+			if (this.buckets.size() >= MAX_SOURCES)
+				this.purge(now);
+			bucket = new Bucket();
+			Bucket existing = this.buckets.putIfAbsent(source, bucket);
+			if (existing != null)
+				bucket = existing;
+		}
+		
+		return bucket.tryAcquire(now);
+	}
+	
+	/**
+	 * Removes the buckets of idle sources, i.e. full buckets.
+	 * 
+	 * @param now The current time in nanoseconds.
+	 */
+	private void purge(long now) {
+		for (Iterator<Map.Entry<String, Bucket>> it = this.buckets.entrySet().iterator(); it.hasNext(); ) {
+			if (it.next().getValue().isFull(now))
+				it.remove();
+		}
+	}
+
+}
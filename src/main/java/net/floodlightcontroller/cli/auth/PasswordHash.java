@@ -0,0 +1,231 @@
+package net.floodlightcontroller.cli.auth;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Creates and verifies salted PBKDF2 password hashes. A hash is
+ * stored as a string in the form:
+ * 
+ *   pbkdf2-sha256$iterations$salt$hash
+ * 
+ * where salt and hash are hex encoded. The "pbkdf2-sha1" scheme is
+ * accepted as well, for JREs that lack PBKDF2WithHmacSHA256.
+ * 
+ * Run this class to create a password file entry:
+ * 
+ *   java net.floodlightcontroller.cli.auth.PasswordHash USERNAME ROLES PASSWORD
+ */
+public class PasswordHash {
+	/** The default hash scheme. */
+	public static final String DEFAULT_SCHEME = "pbkdf2-sha256";
+	/** The default number of PBKDF2 iterations. */
+	public static final int DEFAULT_ITERATIONS = 64000;
+	/** The salt length in bytes. */
+	private static final int SALT_LENGTH = 16;
+	/** The hash length in bytes. */
+	private static final int HASH_LENGTH = 32;
+	/** Hex digits to encode byte arrays. */
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	/** Source of random salts. */
+	private static final SecureRandom random = new SecureRandom();
+	
+	/**
+	 * Creates a salted hash of a password using the default scheme.
+	 * 
+	 * @param password The password to hash.
+	 * @return The encoded password hash.
+	 * @throws GeneralSecurityException if the JRE does not support the scheme.
+	 */
+	public static String hash(String password) throws GeneralSecurityException {
+		/* A random salt. */
+		byte[] salt = new byte[SALT_LENGTH];
+		
+		random.nextBytes(salt);
+		byte[] hash = pbkdf2(DEFAULT_SCHEME, password, salt, DEFAULT_ITERATIONS, HASH_LENGTH);
+		
+		return DEFAULT_SCHEME + "$" + DEFAULT_ITERATIONS + "$" + toHex(salt) + "$" + toHex(hash);
+	}
+	
+	/**
+	 * Verifies a password against an encoded password hash.
+	 * 
+	 * @param password The password to verify.
+	 * @param encodedHash The encoded password hash.
+	 * @return True if the password matches the hash.
+	 */
+	public static boolean verify(String password, String encodedHash) {
+		/* The elements of the encoded hash: scheme, iterations, salt, and hash. */
+		String[] elements = encodedHash.split("\\$");
+		
+		if (elements.length != 4)
+			return false;
+		
+		try {
+			int iterations = Integer.parseInt(elements[1]);
+			byte[] salt = fromHex(elements[2]);
+			byte[] expected = fromHex(elements[3]);
+			byte[] actual = pbkdf2(elements[0], password, salt, iterations, expected.length);
+			return MessageDigest.isEqual(expected, actual);
+		} catch (NumberFormatException e) {
+			return false;
+		} catch (GeneralSecurityException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Checks whether an encoded password hash is well-formed.
+	 * 
+	 * @param encodedHash The encoded password hash.
+	 * @return True if the hash uses a known scheme and format.
+	 */
+	public static boolean isValid(String encodedHash) {
+		/* The elements of the encoded hash: scheme, iterations, salt, and hash. */
+		String[] elements = encodedHash.split("\\$");
+		
+		if (elements.length != 4 || algorithm(elements[0]) == null)
+			return false;
+		
+		try {
+			return Integer.parseInt(elements[1]) > 0 && fromHex(elements[2]).length > 0 && fromHex(elements[3]).length > 0;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Computes the PBKDF2 hash of a password.
+	 * 
+	 * @param scheme The hash scheme, e.g. "pbkdf2-sha256".
+	 * @param password The password.
+	 * @param salt The salt.
+	 * @param iterations The number of iterations.
+	 * @param length The hash length in bytes.
+	 * @return The hash.
+	 * @throws GeneralSecurityException
+	 */
+	private static byte[] pbkdf2(String scheme, String password, byte[] salt, int iterations, int length) throws GeneralSecurityException {
+		/* The JCE algorithm name. */
+		String algorithm = algorithm(scheme);
+		
+		if (algorithm == null)
+			throw new GeneralSecurityException("Unknown password hash scheme: " + scheme);
+		
+		PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, length * 8);
+		try {
+			return SecretKeyFactory.getInstance(algorithm).generateSecret(spec).getEncoded();
+		} finally {
+			spec.clearPassword();
+		}
+	}
+	
+	/**
+	 * Maps a hash scheme to a JCE algorithm name.
+	 * 
+	 * @param scheme The hash scheme.
+	 * @return The JCE algorithm name, or null if the scheme is unknown.
+	 */
+	private static String algorithm(String scheme) {
+		if (scheme.equals("pbkdf2-sha256"))
+			return "PBKDF2WithHmacSHA256";
+		if (scheme.equals("pbkdf2-sha1"))
+			return "PBKDF2WithHmacSHA1";
+		return null;
+	}
+	
+	/**
+	 * Encodes a byte array as hex string.
+	 * 
+	 * @param bytes The byte array.
+	 * @return The hex string.
+	 */
+	static String toHex(byte[] bytes) {
+		/* The hex characters. */
+		char[] chars = new char[bytes.length * 2];
+		
+		for (int i = 0; i < bytes.length; i++) {
+			chars[2 * i] = HEX[(bytes[i] >> 4) & 0x0f];
+			chars[2 * i + 1] = HEX[bytes[i] & 0x0f];
+		}
+		
+		return new String(chars);
+	}
+	
+	/**
+	 * Decodes a hex string.
+	 * 
+	 * @param hex The hex string.
+	 * @return The byte array.
+	 * @throws NumberFormatException if the string is not valid hex.
+	 */
+	static byte[] fromHex(String hex) {
+		/* The decoded bytes. */
+		byte[] bytes = new byte[hex.length() / 2];
+		
+		if (hex.length() % 2 != 0)
+			throw new NumberFormatException("Odd number of hex digits");
+		
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+		}
+		
+		return bytes;
+	}
+	
+	/**
+	 * Prints a password file entry for a new user.
+	 * 
+	 * @param args User name, comma separated roles, and password.
+	 * @throws GeneralSecurityException
+	 */
+	public static void main(String[] args) throws GeneralSecurityException {
+		if (args.length != 3) {
+			System.err.println("Usage: PasswordHash USERNAME ROLES PASSWORD");
+			System.exit(1);
+		}
+		System.out.println(args[0] + ":" + args[1] + ":" + hash(args[2]));
+	}
+	
+	/**
+	 * Private constructor to avoid instantiation.
+	 */
+	private PasswordHash() {
+		// do nothing;
+	}
+
+}
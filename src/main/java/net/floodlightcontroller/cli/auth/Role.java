@@ -0,0 +1,92 @@
+package net.floodlightcontroller.cli.auth;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+import net.floodlightcontroller.cli.commands.Permission;
+
+/**
+ * The roles a CLI user can have. A role grants a set of
+ * permissions, and a user may execute all commands whose
+ * permission is granted by one of the user's roles.
+ */
+public enum Role {
+	/** Read-only operators that may only show information. */
+	OPERATOR(EnumSet.of(Permission.SHOW)),
+	/** Administrators that may execute all commands. */
+	ADMIN(EnumSet.allOf(Permission.class));
+	
+	/** The permissions granted by the role. */
+	private final Set<Permission> permissions;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param permissions The permissions granted by the role.
+	 */
+	private Role(Set<Permission> permissions) {
+		this.permissions = permissions;
+	}
+	
+	/**
+	 * Checks whether the role grants a permission.
+	 * 
+	 * @param permission The permission.
+	 * @return True if the role grants the permission.
+	 */
+	public boolean grants(Permission permission) {
+		return this.permissions.contains(permission);
+	}
+	
+	/**
+	 * Converts role names, e.g. as read from the password file,
+	 * into roles. Unknown role names are ignored.
+	 * 
+	 * @param names The role names (case insensitive).
+	 * @return A set of roles.
+	 */
+	public static Set<Role> fromNames(Collection<String> names) {
+		/* The resulting roles. */
+		Set<Role> roles = EnumSet.noneOf(Role.class);
+		
+		for (String name : names) {
+			for (Role role : Role.values()) {
+				if (role.name().equalsIgnoreCase(name.trim()))
+					roles.add(role);
+			}
+		}
+		
+		return roles;
+	}
+}
@@ -0,0 +1,97 @@
+package net.floodlightcontroller.cli.auth;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.apache.sshd.common.Session;
+
+/**
+ * A user account of the CLI as read from the password file:
+ * the user name, the user's roles, and the password hash.
+ */
+public class UserAccount {
+	/** The SSH session attribute that holds the account of the logged in user. */
+	public static final Session.AttributeKey<UserAccount> SESSION_ATTRIBUTE = new Session.AttributeKey<UserAccount>();
+	/** The user name. */
+	private final String username;
+	/** The roles of the user. */
+	private final Set<String> roles;
+	/** The encoded password hash. */
+	private final String passwordHash;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param username The user name.
+	 * @param roles The roles of the user.
+	 * @param passwordHash The encoded password hash, see {@link PasswordHash}.
+	 */
+	public UserAccount(String username, Set<String> roles, String passwordHash) {
+		this.username = username;
+		this.roles = Collections.unmodifiableSet(roles);
+		this.passwordHash = passwordHash;
+	}
+	
+	/**
+	 * Getter for the user name.
+	 * 
+	 * @return The user name.
+	 */
+	public String getUsername() {
+		return this.username;
+	}
+	
+	/**
+	 * Getter for the roles of the user.
+	 * 
+	 * @return An unmodifiable set of role names.
+	 */
+	public Set<String> getRoles() {
+		return this.roles;
+	}
+	
+	/**
+	 * Getter for the password hash.
+	 * 
+	 * @return The encoded password hash.
+	 */
+	public String getPasswordHash() {
+		return this.passwordHash;
+	}
+	
+	@Override
+	public String toString() {
+		return this.username + " " + this.roles;
+	}
+
+}
@@ -0,0 +1,179 @@
+package net.floodlightcontroller.cli.auth;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * A bounded cache of recently verified credentials. It avoids
+ * re-computing slow password hashes when automation logs in
+ * repeatedly with the same credentials.
+ * 
+ * Passwords are never stored. Instead, the cache keeps an HMAC
+ * of user name, password, and stored password hash, keyed with
+ * a random secret that only lives in memory. Including the stored
+ * hash invalidates an entry as soon as the password is changed.
+ * Entries expire after a short time to live.
+ */
+public class VerifiedCredentialCache {
+	/** The HMAC algorithm. */
+	private static final String ALGORITHM = "HmacSHA256";
+	/** The random, in-memory secret key of the HMAC. */
+	private final SecretKeySpec key;
+	/** The maximum number of entries. */
+	private final int maxSize;
+	/** The time to live of an entry in milliseconds. */
+	private final long ttl;
+	/** Map of user names and verified credentials in LRU order. */
+	private final Map<String, Credential> entries;
+	
+	/**
+	 * A verified credential.
+	 */
+	private static class Credential {
+		/** The HMAC of the verified credential. */
+		final byte[] digest;
+		/** The time the entry expires, in milliseconds since the epoch. */
+		final long expires;
+		
+		Credential(byte[] digest, long expires) {
+			this.digest = digest;
+			this.expires = expires;
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxSize The maximum number of cached credentials.
+	 * @param ttl The time to live of a cached credential in milliseconds.
+	 */
+	public VerifiedCredentialCache(final int maxSize, long ttl) {
+		/* The random secret. */
+		byte[] secret = new byte[32];
+		
+		new SecureRandom().nextBytes(secret);
+		this.key = new SecretKeySpec(secret, ALGORITHM);
+		this.maxSize = maxSize;
+		this.ttl = ttl;
+		this.entries = new LinkedHashMap<String, Credential>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Credential> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+	
+	/**
+	 * Checks whether a credential has been verified recently.
+	 * 
+	 * @param user The user account.
+	 * @param password The password to check.
+	 * @return True if the credential is cached and not expired.
+	 */
+	public boolean isVerified(UserAccount user, String password) {
+		/* The cached entry. */
+		Credential entry;
+		
+		if (this.maxSize <= 0 || this.ttl <= 0)
+			return false;
+		
+		synchronized (this.entries) {
+			entry = this.entries.get(user.getUsername());
+		}
+		
+		if (entry == null)
+			return false;
+		
+		if (entry.expires < System.currentTimeMillis()) {
+			synchronized (this.entries) {
+				this.entries.remove(user.getUsername());
+			}
+			return false;
+		}
+		
+		byte[] digest = this.digest(user, password);
+		return digest != null && MessageDigest.isEqual(entry.digest, digest);
+	}
+	
+	/**
+	 * Adds a verified credential to the cache.
+	 * 
+	 * @param user The user account.
+	 * @param password The verified password.
+	 */
+	public void put(UserAccount user, String password) {
+		if (this.maxSize <= 0 || this.ttl <= 0)
+			return;
+		
+		byte[] digest = this.digest(user, password);
+		if (digest == null)
+			return;
+		
+		synchronized (this.entries) {
+			this.entries.put(user.getUsername(), new Credential(digest, System.currentTimeMillis() + this.ttl));
+		}
+	}
+	
+	/**
+	 * Computes the HMAC of a credential.
+	 * 
+	 * @param user The user account.
+	 * @param password The password.
+	 * @return The HMAC, or null if the HMAC algorithm is unavailable.
+	 */
+	private byte[] digest(UserAccount user, String password) {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(this.key);
+			mac.update(user.getUsername().getBytes("UTF-8"));
+			mac.update((byte) 0);
+			mac.update(password.getBytes("UTF-8"));
+			mac.update((byte) 0);
+			return mac.doFinal(user.getPasswordHash().getBytes("UTF-8"));
+		} catch (GeneralSecurityException e) {
+			return null;
+		} catch (UnsupportedEncodingException e) {
+			return null;
+		}
+	}
+
+}
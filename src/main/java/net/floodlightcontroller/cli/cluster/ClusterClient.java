@@ -0,0 +1,260 @@
+package net.floodlightcontroller.cli.cluster;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Queries the REST APIs of all controllers of the cluster in parallel.
+ * The answers are handed to a listener in the order they arrive, such
+ * that the answers of fast controllers can be shown while slow ones
+ * are still awaited. All controllers share a common deadline, so a
+ * cluster-wide query takes at most one timeout.
+ */
+public class ClusterClient {
+	/** The stack size of the request threads. */
+	private static final long STACK_SIZE = 256 * 1024;
+	/** The controllers of the cluster. */
+	private final List<ClusterPeer> peers;
+	/** The executor that sends the requests. */
+	private final ExecutorService executor;
+	/** The object mapper that parses the JSON answers. */
+	private final ObjectMapper mapper = new ObjectMapper();
+	
+	/**
+	 * Receives the answers of the controllers of a query.
+	 */
+	public interface Listener {
+		
+		/**
+		 * Is called when a controller answered. The entries of a JSON
+		 * array are given as list, a single JSON object as list of one
+		 * entry.
+		 * 
+		 * @param peer The controller.
+		 * @param entries The JSON objects of the answer.
+		 * @throws IOException If the answer cannot be handled, e.g. the console is closed.
+		 */
+		public void answered(ClusterPeer peer, List<Map<String, Object>> entries) throws IOException;
+		
+		/**
+		 * Is called when a controller failed to answer in time.
+		 * 
+		 * @param peer The controller.
+		 * @param reason The reason, e.g. "timed out after 3000 ms".
+		 * @throws IOException If the failure cannot be handled, e.g. the console is closed.
+		 */
+		public void failed(ClusterPeer peer, String reason) throws IOException;
+		
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param peers The controllers of the cluster.
+	 */
+	public ClusterClient(List<ClusterPeer> peers) {
+		this.peers = Collections.unmodifiableList(new ArrayList<ClusterPeer>(peers));
+		this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+			/** The number of threads created. */
+			private final AtomicInteger count = new AtomicInteger();
+			
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(null, runnable, "CliCluster-" + this.count.incrementAndGet(), STACK_SIZE);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	/**
+	 * Gets the controllers of the cluster.
+	 * 
+	 * @return The controllers of the cluster.
+	 */
+	public List<ClusterPeer> getPeers() {
+		return this.peers;
+	}
+	
+	/**
+	 * Queries a resource of the REST API of all controllers in parallel,
+	 * and hands the answers to a listener as they arrive. Blocks until
+	 * all controllers answered or the timeout expired. The connections
+	 * of the controllers that did not answer in time are closed, since
+	 * cancelling a request does not interrupt a blocked connection.
+	 * 
+	 * @param path The path of the resource, e.g. "/wm/core/controller/switches/json".
+	 * @param timeout The time in milliseconds to wait for the controllers.
+	 * @param listener The listener that receives the answers.
+	 * @throws IOException If the listener fails.
+	 */
+	public void query(final String path, final long timeout, Listener listener) throws IOException {
+		/* The completion service that returns the requests as they complete. */
+		CompletionService<List<Map<String, Object>>> completionService = new ExecutorCompletionService<List<Map<String, Object>>>(this.executor);
+		/* Map of the requests and the controllers they are sent to. */
+		Map<Future<List<Map<String, Object>>>, ClusterPeer> requests = new HashMap<Future<List<Map<String, Object>>>, ClusterPeer>();
+		/* Map of the requests and their connections. */
+		Map<Future<List<Map<String, Object>>>, HttpURLConnection> connections = new HashMap<Future<List<Map<String, Object>>>, HttpURLConnection>();
+		/* The common deadline of all requests in nanoseconds. */
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		
+		// Send all requests at once.
+		for (ClusterPeer peer : this.peers) {
+			/* The connection to the controller, which is not connected yet. */
+			final HttpURLConnection connection;
+			try {
+				connection = (HttpURLConnection) peer.getUrl(path).openConnection();
+			} catch (IOException e) {
+				listener.failed(peer, (e.getMessage() != null) ? e.getMessage() : e.toString());
+				continue;
+			}
+			
+			Future<List<Map<String, Object>>> future = completionService.submit(new Callable<List<Map<String, Object>>>() {
+				@Override
+				public List<Map<String, Object>> call() throws IOException {
+					return get(connection, (int) timeout);
+				}
+			});
+			requests.put(future, peer);
+			connections.put(future, connection);
+		}
+		
+		try {
+			// Hand the answers to the listener as they arrive.
+			while (!requests.isEmpty()) {
+				Future<List<Map<String, Object>>> future = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+				if (future == null)
+					break;
+				
+				ClusterPeer peer = requests.remove(future);
+				try {
+					listener.answered(peer, future.get());
+				} catch (ExecutionException e) {
+					Throwable cause = (e.getCause() != null) ? e.getCause() : e;
+					listener.failed(peer, (cause.getMessage() != null) ? cause.getMessage() : cause.toString());
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			// Give up on the controllers that did not answer in time.
+			for (Future<List<Map<String, Object>>> request : requests.keySet()) {
+				request.cancel(true);
+				this.disconnect(connections.get(request));
+			}
+		}
+		
+		for (ClusterPeer peer : this.peers) {
+			if (requests.containsValue(peer))
+				listener.failed(peer, "timed out after " + timeout + " ms");
+		}
+	}
+	
+	/**
+	 * Closes a connection in the background. Closing waits until a
+	 * pending read on the connection returns, so the caller does not.
+	 * 
+	 * @param connection The connection.
+	 */
+	private void disconnect(final HttpURLConnection connection) {
+		this.executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				connection.disconnect();
+			}
+		});
+	}
+	
+	/**
+	 * Gets and parses a JSON resource of the REST API of a controller.
+	 * 
+	 * @param connection The connection to the resource, which is not connected yet.
+	 * @param timeout The connect and read timeout in milliseconds.
+	 * @return The JSON objects of the answer.
+	 * @throws IOException If the request fails or the answer is not JSON.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<Map<String, Object>> get(HttpURLConnection connection, int timeout) throws IOException {
+		/* The parsed answer. */
+		Object json;
+		
+		connection.setConnectTimeout(timeout);
+		connection.setReadTimeout(timeout);
+		connection.setRequestProperty("Accept", "application/json");
+		try {
+			if (connection.getResponseCode() != HttpURLConnection.HTTP_OK)
+				throw new IOException("HTTP " + connection.getResponseCode() + " " + connection.getResponseMessage());
+			
+			InputStream in = connection.getInputStream();
+			try {
+				json = this.mapper.readValue(in, Object.class);
+			} finally {
+				in.close();
+			}
+		} finally {
+			connection.disconnect();
+		}
+		
+		// Return.
+		if (json instanceof Map)
+			return Collections.singletonList((Map<String, Object>) json);
+		if (!(json instanceof List))
+			throw new IOException("Expected a JSON array or object");
+		
+		List<Map<String, Object>> entries = new ArrayList<Map<String, Object>>();
+		for (Object entry : (List<Object>) json) {
+			if (entry instanceof Map)
+				entries.add((Map<String, Object>) entry);
+		}
+		return entries;
+	}
+
+}
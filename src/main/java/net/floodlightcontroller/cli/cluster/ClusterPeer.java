@@ -0,0 +1,119 @@
+package net.floodlightcontroller.cli.cluster;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A controller of the cluster, i.e. its name and the base URL of its
+ * REST API.
+ */
+public class ClusterPeer {
+	/** The name of the controller, shown in cluster-wide tables. */
+	private final String name;
+	/** The base URL of the REST API, e.g. http://10.0.0.1:8080. */
+	private final URL url;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param name The name of the controller, shown in cluster-wide tables.
+	 * @param url The base URL of the REST API, e.g. http://10.0.0.1:8080.
+	 */
+	public ClusterPeer(String name, URL url) {
+		this.name = name;
+		this.url = url;
+	}
+	
+	/**
+	 * Parses a comma-separated list of controllers. Each controller is
+	 * given as "name=url", or just as URL, e.g.
+	 * 
+	 *   c1=http://10.0.0.1:8080,c2=http://10.0.0.2:8080
+	 * 
+	 * A controller that is given just as URL is named by its host and port.
+	 * 
+	 * @param peers The comma-separated list of controllers.
+	 * @return The controllers.
+	 * @throws IllegalArgumentException If a URL is malformed.
+	 */
+	public static List<ClusterPeer> parseList(String peers) {
+		/* The controllers. */
+		List<ClusterPeer> list = new ArrayList<ClusterPeer>();
+		
+		for (String peer : peers.split(",")) {
+			peer = peer.trim();
+			if (peer.length() == 0)
+				continue;
+			
+			int index = peer.indexOf('=');
+			try {
+				URL url = new URL((index > 0) ? peer.substring(index + 1).trim() : peer);
+				String name = (index > 0) ? peer.substring(0, index).trim() : url.getHost() + ":" + url.getPort();
+				list.add(new ClusterPeer(name, url));
+			} catch (MalformedURLException e) {
+				throw new IllegalArgumentException("Malformed cluster peer " + peer + ": " + e.getMessage());
+			}
+		}
+		
+		// Return.
+		return list;
+	}
+	
+	/**
+	 * Gets the name of the controller.
+	 * 
+	 * @return The name of the controller.
+	 */
+	public String getName() {
+		return this.name;
+	}
+	
+	/**
+	 * Gets the URL of a resource of the REST API.
+	 * 
+	 * @param path The path of the resource, e.g. "/wm/core/controller/switches/json".
+	 * @return The URL of the resource.
+	 * @throws MalformedURLException If the path does not form a valid URL.
+	 */
+	public URL getUrl(String path) throws MalformedURLException {
+		return new URL(this.url, path);
+	}
+	
+	@Override
+	public String toString() {
+		return this.name + " (" + this.url + ")";
+	}
+
+}
@@ -0,0 +1,237 @@
+package net.floodlightcontroller.cli.cluster;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import net.floodlightcontroller.cli.utils.StringTable;
+import net.floodlightcontroller.cli.utils.StringTable.ColumnType;
+
+/**
+ * The cluster-wide views of show commands. A view names the resource
+ * of the Floodlight REST API it is built from, and the columns its JSON
+ * objects are shown in. The first column of every view is the name of
+ * the controller a row comes from.
+ */
+public enum ClusterView {
+	/** The switches connected to the controllers. */
+	SWITCH("/wm/core/controller/switches/json",
+			Arrays.asList("Controller", "Switch DPID", "IP Address", "Port", "Connected Since"),
+			new ColumnType[] {ColumnType.STRING, ColumnType.STRING, ColumnType.STRING, ColumnType.NUMBER, ColumnType.TIMESTAMP},
+			new int[] {0, 0, 1, 2, 1}) {
+		@Override
+		void fill(StringTable table, Map<String, Object> entry) {
+			/* The Internet address of the switch, e.g. "/10.0.0.1:53344". */
+			String inetAddress = string(entry.get("inetAddress"));
+			
+			table.set(1, string(entry.get("dpid")));
+			if (inetAddress != null) {
+				int index = inetAddress.lastIndexOf(':');
+				table.set(2, inetAddress.substring(inetAddress.startsWith("/") ? 1 : 0, (index > 0) ? index : inetAddress.length()));
+				if (index > 0)
+					setNumber(table, 3, inetAddress.substring(index + 1));
+			}
+			setNumber(table, 4, entry.get("connectedSince"));
+		}
+	},
+	/** The hosts known to the controllers. */
+	HOST("/wm/device/",
+			Arrays.asList("Controller", "MAC Address", "VLAN", "IP Address", "Switch/OF Port", "Last Seen"),
+			new ColumnType[] {ColumnType.STRING, ColumnType.STRING, ColumnType.NUMBER, ColumnType.STRING, ColumnType.STRING, ColumnType.TIMESTAMP},
+			new int[] {0, 0, 2, 0, 1, 3}) {
+		@Override
+		void fill(StringTable table, Map<String, Object> entry) {
+			/* The attachment points of the host. */
+			StringBuilder attachmentPoints = new StringBuilder();
+			
+			table.set(1, string(first(entry.get("mac"))));
+			setNumber(table, 2, first(entry.get("vlan")));
+			table.set(3, string(first(entry.get("ipv4"))));
+			if (entry.get("attachmentPoint") instanceof List) {
+				for (Object attachmentPoint : (List<?>) entry.get("attachmentPoint")) {
+					if (!(attachmentPoint instanceof Map))
+						continue;
+					if (attachmentPoints.length() > 0)
+						attachmentPoints.append(", ");
+					attachmentPoints.append(((Map<?, ?>) attachmentPoint).get("switchDPID")).append('/').append(((Map<?, ?>) attachmentPoint).get("port"));
+				}
+			}
+			table.set(4, attachmentPoints.toString());
+			setNumber(table, 5, entry.get("lastSeen"));
+		}
+	},
+	/** The links between the switches of the controllers. */
+	LINK("/wm/topology/links/json",
+			Arrays.asList("Controller", "Source Switch", "Source Port", "Destination Switch", "Destination Port", "Type"),
+			new ColumnType[] {ColumnType.STRING, ColumnType.STRING, ColumnType.NUMBER, ColumnType.STRING, ColumnType.NUMBER, ColumnType.STRING},
+			new int[] {0, 0, 0, 0, 0, 1}) {
+		@Override
+		void fill(StringTable table, Map<String, Object> entry) {
+			table.set(1, string(entry.get("src-switch")));
+			setNumber(table, 2, entry.get("src-port"));
+			table.set(3, string(entry.get("dst-switch")));
+			setNumber(table, 4, entry.get("dst-port"));
+			table.set(5, string(entry.get("type")));
+		}
+	},
+	/** A summary of the controllers. */
+	SUMMARY("/wm/core/controller/summary/json",
+			Arrays.asList("Controller", "Switches", "Hosts", "Links", "Quarantine Ports"),
+			new ColumnType[] {ColumnType.STRING, ColumnType.NUMBER, ColumnType.NUMBER, ColumnType.NUMBER, ColumnType.NUMBER},
+			new int[] {0, 0, 0, 0, 1}) {
+		@Override
+		void fill(StringTable table, Map<String, Object> entry) {
+			setNumber(table, 1, entry.get("# Switches"));
+			setNumber(table, 2, entry.get("# hosts"));
+			setNumber(table, 3, entry.get("# inter-switch links"));
+			setNumber(table, 4, entry.get("# quarantine ports"));
+		}
+	};
+	
+	/** The path of the REST resource the view is built from. */
+	private final String path;
+	/** The header of the view. */
+	private final List<String> header;
+	/** The types of the columns. */
+	private final ColumnType[] columnTypes;
+	/** The priorities of the columns on narrow terminals. */
+	private final int[] columnPriorities;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param path The path of the REST resource the view is built from.
+	 * @param header The header of the view.
+	 * @param columnTypes The types of the columns.
+	 * @param columnPriorities The priorities of the columns on narrow terminals.
+	 */
+	private ClusterView(String path, List<String> header, ColumnType[] columnTypes, int[] columnPriorities) {
+		this.path = path;
+		this.header = header;
+		this.columnTypes = columnTypes;
+		this.columnPriorities = columnPriorities;
+	}
+	
+	/**
+	 * Gets the path of the REST resource the view is built from.
+	 * 
+	 * @return The path of the REST resource, e.g. "/wm/core/controller/switches/json".
+	 */
+	public String getPath() {
+		return this.path;
+	}
+	
+	/**
+	 * Creates an empty table with the header and the column types of the view.
+	 * 
+	 * @param width The width of the terminal, or 0 if the table is not fitted.
+	 * @return The table.
+	 */
+	public StringTable createTable(int width) {
+		/* The table. */
+		StringTable table = new StringTable();
+		
+		table.setHeader(this.header);
+		table.setColumnTypes(this.columnTypes);
+		table.setColumnPriorities(this.columnPriorities);
+		table.setMaxWidth(width);
+		
+		// Return.
+		return table;
+	}
+	
+	/**
+	 * Adds a row for a JSON object of a controller to a table.
+	 * 
+	 * @param table The table.
+	 * @param controller The name of the controller.
+	 * @param entry The JSON object.
+	 */
+	public void addRow(StringTable table, String controller, Map<String, Object> entry) {
+		table.addRow();
+		table.set(0, controller);
+		this.fill(table, entry);
+	}
+	
+	/**
+	 * Sets the cells of the last row of a table from a JSON object.
+	 * 
+	 * @param table The table.
+	 * @param entry The JSON object.
+	 */
+	abstract void fill(StringTable table, Map<String, Object> entry);
+	
+	/**
+	 * Converts a JSON value to a string.
+	 * 
+	 * @param value The JSON value.
+	 * @return The string, or null if the value is null.
+	 */
+	private static String string(Object value) {
+		return (value != null) ? value.toString() : null;
+	}
+	
+	/**
+	 * Gets the first element of a JSON array.
+	 * 
+	 * @param value The JSON array.
+	 * @return The first element, or null if the value is not an array or empty.
+	 */
+	private static Object first(Object value) {
+		if (value instanceof List && !((List<?>) value).isEmpty())
+			return ((List<?>) value).get(0);
+		
+		return null;
+	}
+	
+	/**
+	 * Sets a numeric cell of the last row of a table. Values that
+	 * are not numbers leave the cell empty.
+	 * 
+	 * @param table The table.
+	 * @param column The index of the column.
+	 * @param value The JSON number, or a string of a number.
+	 */
+	private static void setNumber(StringTable table, int column, Object value) {
+		if (value instanceof Number) {
+			table.set(column, ((Number) value).longValue());
+		} else if (value != null) {
+			try {
+				table.set(column, Long.parseLong(value.toString().trim()));
+			} catch (NumberFormatException e) {
+				// Leave the cell empty.
+			}
+		}
+	}
+
+}
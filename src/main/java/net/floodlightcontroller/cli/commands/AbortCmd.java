@@ -0,0 +1,88 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.config.CandidateConfig;
+
+/**
+ * The "abort" command discards all changes of the candidate
+ * configuration and leaves the configuration mode.
+ */
+public class AbortCmd implements ICommand {
+	/** The command string. */
+	private String commandString = "abort";
+	/** The command's arguments. */
+	private String arguments = null;
+	/** The command's help text. */
+	private String help = "Discard the uncommitted changes and leave the configuration mode";
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return arguments;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.CONFIGURE;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.CONFIGURE;
+	}
+
+	@Override
+	public String getHelpText() {
+		return help;
+	}
+
+	@Override
+	public String execute(IConsole console, String arguments) {
+		/* The candidate configuration. */
+		CandidateConfig candidate = ConfigureTerminalCmd.getCandidateConfig(console);
+		/* The number of discarded changes. */
+		int discarded = (candidate != null) ? candidate.size() : 0;
+		
+		if (candidate != null)
+			console.getSession().setCandidateConfig(new CandidateConfig());
+		ConfigureTerminalCmd.leave(console);
+		
+		// Return.
+		return (discarded > 0) ? discarded + " uncommitted changes discarded." : null;
+	}
+
+}
@@ -0,0 +1,167 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.cluster.ClusterClient;
+import net.floodlightcontroller.cli.cluster.ClusterPeer;
+import net.floodlightcontroller.cli.cluster.ClusterView;
+import net.floodlightcontroller.cli.commands.arguments.Argument;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+import net.floodlightcontroller.cli.commands.arguments.ParsedArguments;
+import net.floodlightcontroller.cli.utils.StringTable;
+import net.floodlightcontroller.cli.utils.StringTableWriter;
+
+/**
+ * The "cluster show" command runs a show command on all controllers
+ * of the cluster, e.g.
+ * 
+ *   cluster show switch
+ * 
+ * The controllers are queried in parallel using their REST API. The
+ * rows of all controllers are merged into one table with a controller
+ * column. The rows of each controller are written as soon as it
+ * answers, with the column widths fixed by the first answer.
+ * Controllers that fail or do not answer in time are listed below.
+ */
+public class ClusterShowCmd extends ArgumentCommand {
+	/** The command's argument schema. */
+	public static final ArgumentSchema SCHEMA = new ArgumentSchema(Argument.oneOf("VIEW", "switch", "host", "link", "summary").help("The show command to run on all controllers"));
+	/** The client that queries the controllers of the cluster. */
+	private ClusterClient client;
+	/** The time in milliseconds to wait for the controllers. */
+	private long timeout;
+	/** The command string. */
+	private String commandString = "cluster show";
+	/** The command's help text. */
+	public static final String HELP = "Show information of all controllers of the cluster";
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param client The client that queries the controllers of the cluster.
+	 * @param timeout The time in milliseconds to wait for the controllers.
+	 */
+	public ClusterShowCmd(ClusterClient client, long timeout) {
+		this.client = client;
+		this.timeout = timeout;
+	}
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return SCHEMA.getUsage();
+	}
+	
+	@Override
+	public ArgumentSchema getArgumentSchema() {
+		return SCHEMA;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.SHOW;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
+	@Override
+	public String getHelpText() {
+		return HELP;
+	}
+
+	@Override
+	public String execute(final IConsole console, ParsedArguments arguments) {
+		/* The view that is shown. */
+		final ClusterView view = ClusterView.valueOf(arguments.getString("VIEW").toUpperCase());
+		/* The string table that is re-used for each chunk. */
+		final StringTable stringTable = view.createTable(console.getWidth());
+		/* The writer that writes the table answer by answer. */
+		final StringTableWriter writer = new StringTableWriter(console, stringTable);
+		/* The controllers that failed and the reasons. */
+		final List<String> failures = new ArrayList<String>();
+		/* The number of controllers that answered so far. */
+		final int[] answers = new int[1];
+		
+		if (this.client == null || this.client.getPeers().isEmpty())
+			return "No cluster peers configured.";
+		
+		try {
+			this.client.query(view.getPath(), this.timeout, new ClusterClient.Listener() {
+				@Override
+				public void answered(ClusterPeer peer, List<Map<String, Object>> entries) throws IOException {
+					for (Map<String, Object> entry : entries) {
+						view.addRow(stringTable, peer.getName(), entry);
+						writer.writeIfFull();
+					}
+					if (stringTable.getRowLength() > 0)
+						writer.writeRows();
+					// Show the answer while other controllers are still awaited.
+					console.flush();
+					answers[0]++;
+				}
+				
+				@Override
+				public void failed(ClusterPeer peer, String reason) {
+					failures.add(peer.getName() + ": " + reason);
+				}
+			});
+		} catch (IOException e) {
+			return null;
+		}
+		
+		/* The resulting string. */
+		StringBuilder result = new StringBuilder();
+		
+		if (writer.getRows() == 0)
+			result.append(stringTable.toString());
+		result.append(writer.getRows()).append(" rows from ").append(answers[0]).append(" of ").append(this.client.getPeers().size()).append(" controllers");
+		for (String failure : failures) {
+			result.append('\n').append(failure);
+		}
+		
+		// Return.
+		return result.toString();
+	}
+
+}
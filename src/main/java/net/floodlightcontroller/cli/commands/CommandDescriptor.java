@@ -0,0 +1,161 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+
+/**
+ * A lightweight description of a command, i.e. its command string,
+ * arguments, permission, and help text. The command itself is only
+ * created the first time it is executed, such that registering
+ * commands is cheap, no matter how many commands there are.
+ */
+public abstract class CommandDescriptor {
+	/** The command string. */
+	private final String commandString;
+	/** The command's arguments. */
+	private final String arguments;
+	/** The command's argument schema, or null. */
+	private final ArgumentSchema schema;
+	/** The permission a user needs to execute the command. */
+	private final Permission permission;
+	/** The command's help text. */
+	private final String help;
+	/** The mode the command is available in. */
+	private CommandMode mode = CommandMode.EXEC;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param commandString The command string, e.g. "show switch".
+	 * @param arguments The command's arguments, or null.
+	 * @param permission The permission a user needs to execute the command.
+	 * @param help The command's help text, or null.
+	 */
+	public CommandDescriptor(String commandString, String arguments, Permission permission, String help) {
+		this.commandString = commandString;
+		this.arguments = arguments;
+		this.schema = null;
+		this.permission = permission;
+		this.help = help;
+	}
+	
+	/**
+	 * Constructor for commands that implement IArgumentCommand.
+	 * 
+	 * @param commandString The command string, e.g. "show switch".
+	 * @param schema The command's argument schema.
+	 * @param permission The permission a user needs to execute the command.
+	 * @param help The command's help text, or null.
+	 */
+	public CommandDescriptor(String commandString, ArgumentSchema schema, Permission permission, String help) {
+		this.commandString = commandString;
+		this.arguments = (schema.getUsage().length() > 0) ? schema.getUsage() : null;
+		this.schema = schema;
+		this.permission = permission;
+		this.help = help;
+	}
+	
+	/**
+	 * Gets the command (id) string.
+	 * 
+	 * @return The command as a string.
+	 */
+	public String getCommandString() {
+		return this.commandString;
+	}
+	
+	/**
+	 * Gets the command argument string.
+	 * 
+	 * @return The command's argument as a string.
+	 */
+	public String getArguments() {
+		return this.arguments;
+	}
+	
+	/**
+	 * Gets the command's argument schema.
+	 * 
+	 * @return The command's argument schema, or null.
+	 */
+	public ArgumentSchema getArgumentSchema() {
+		return this.schema;
+	}
+	
+	/**
+	 * Gets the permission a user needs to execute the command.
+	 * 
+	 * @return The command's permission.
+	 */
+	public Permission getPermission() {
+		return this.permission;
+	}
+	
+	/**
+	 * Sets the mode the command is available in. Commands are
+	 * available in exec mode by default.
+	 * 
+	 * @param mode The command's mode.
+	 * @return This descriptor.
+	 */
+	public CommandDescriptor inMode(CommandMode mode) {
+		this.mode = mode;
+		return this;
+	}
+	
+	/**
+	 * Gets the mode the command is available in.
+	 * 
+	 * @return The command's mode.
+	 */
+	public CommandMode getMode() {
+		return this.mode;
+	}
+	
+	/**
+	 * Gets the command help string
+	 * 
+	 * @return The command's help text as a string.
+	 */
+	public String getHelpText() {
+		return this.help;
+	}
+	
+	/**
+	 * Creates the command. Called once, the first time the command
+	 * is executed.
+	 * 
+	 * @return The command.
+	 */
+	public abstract ICommand createCommand();
+	
+}
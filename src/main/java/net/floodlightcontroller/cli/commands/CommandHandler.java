@@ -33,11 +33,32 @@ package net.floodlightcontroller.cli.commands;
 
 import java.io.IOException;
 import java.util.AbstractMap;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import jline.console.completer.AggregateCompleter;
+import jline.console.completer.ArgumentCompleter;
+import jline.console.completer.Completer;
+import jline.console.completer.NullCompleter;
+import jline.console.completer.StringsCompleter;
+
+import net.floodlightcontroller.cli.CliSession;
 import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.audit.AuditLog;
+import net.floodlightcontroller.cli.audit.AuditRecord;
+import net.floodlightcontroller.cli.auth.Role;
+import net.floodlightcontroller.cli.commands.arguments.Argument;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentType;
+import net.floodlightcontroller.cli.commands.arguments.ParsedArguments;
 
 /**
  * 
@@ -48,8 +69,30 @@ public class CommandHandler {
 	private static CommandHandler commander;
 	/** Map of all commands handled by the command handler. */
 	private Map<String, ICommand> commands = new HashMap<String, ICommand>();
+	/** Map of all command strings and the argument schemas of commands that declare one. */
+	private Map<String, ArgumentSchema> argumentSchemas = new HashMap<String, ArgumentSchema>();
+	/** Set of all proper prefixes of multi-word command strings, e.g. "show interface". */
+	private Set<String> commandPrefixes = new HashSet<String>();
+	/** Map of all command strings and the command's index in the role bitsets. */
+	private Map<String, Integer> commandIndexes = new HashMap<String, Integer>();
+	/** Map of all roles and the bitset of commands (indexes) they may execute. */
+	private Map<Role, BitSet> allowedCommands = new EnumMap<Role, BitSet>(Role.class);
+	/** Copy of the allowed commands of all roles that is read without locking the command handler. */
+	private volatile Map<Role, BitSet> allowedCommandsSnapshot = new EnumMap<Role, BitSet>(Role.class);
+	/** Map of all console modes and the bitset of commands (indexes) available in them. */
+	private Map<CommandMode, BitSet> modeCommands = new EnumMap<CommandMode, BitSet>(CommandMode.class);
+	/** Copy of the available commands of all modes that is read without locking the command handler. */
+	private volatile Map<CommandMode, BitSet> modeCommandsSnapshot = new EnumMap<CommandMode, BitSet>(CommandMode.class);
+	/** Map of bitsets of allowed commands and the completer shared by all consoles with that bitset. */
+	private Map<BitSet, Completer> completers = new HashMap<BitSet, Completer>();
+	/** The index of the help texts of all commands. */
+	private HelpIndex helpIndex = new HelpIndex();
 	/** Map of all consoles connected to the command handler. */
-	private Map<Integer, IConsole> consoles = new HashMap<Integer, IConsole>();
+	private Map<Integer, IConsole> consoles = new ConcurrentHashMap<Integer, IConsole>();
+	/** Map of the locks that serialize the commands of each console. */
+	private Map<Integer, Object> consoleLocks = new ConcurrentHashMap<Integer, Object>();
+	/** The audit log that records all executed commands, or null if auditing is disabled. */
+	private volatile AuditLog auditLog;
 	
 	/**
 	 * Provides access to the singleton instance of the command handler.
@@ -67,8 +110,80 @@ public class CommandHandler {
 	 * 
 	 * @param command The new command that is added.
 	 */
-	public void addCommand(ICommand command) {
-		this.commands.put(command.getCommandString().trim().toLowerCase(), command);
+	public synchronized void addCommand(ICommand command) {
+		/* The key of the command. */
+		String key = command.getCommandString().trim().toLowerCase();
+		/* The index of the command in the role bitsets. */
+		Integer index = this.commandIndexes.get(key);
+		
+		if (index == null) {
+			index = this.commandIndexes.size();
+			this.commandIndexes.put(key, index);
+		}
+		this.commands.put(key, command);
+		
+		// Remember the command's argument schema to parse its arguments.
+		ArgumentSchema schema = (command instanceof IArgumentCommand) ? ((IArgumentCommand) command).getArgumentSchema() : null;
+		if (schema != null) {
+			this.argumentSchemas.put(key, schema);
+		} else {
+			this.argumentSchemas.remove(key);
+		}
+		
+		// Remember the command's prefixes to parse multi-word commands.
+		for (int i = key.indexOf(' '); i > 0; i = key.indexOf(' ', i + 1)) {
+			this.commandPrefixes.add(key.substring(0, i).trim());
+		}
+		
+		// Resolve the command's permission for every role once.
+		for (Role role : Role.values()) {
+			BitSet allowed = this.allowedCommands.get(role);
+			if (allowed == null) {
+				allowed = new BitSet();
+				this.allowedCommands.put(role, allowed);
+			}
+			allowed.set(index, role.grants(command.getPermission()));
+		}
+		
+		// Resolve the modes the command is available in once.
+		for (CommandMode mode : CommandMode.values()) {
+			if (mode == CommandMode.ANY)
+				continue;
+			BitSet available = this.modeCommands.get(mode);
+			if (available == null) {
+				available = new BitSet();
+				this.modeCommands.put(mode, available);
+			}
+			available.set(index, command.getMode() == mode || command.getMode() == CommandMode.ANY);
+		}
+		
+		// Publish a copy of the allowed and available commands for readers that do not lock.
+		Map<Role, BitSet> snapshot = new EnumMap<Role, BitSet>(Role.class);
+		for (Map.Entry<Role, BitSet> entry : this.allowedCommands.entrySet()) {
+			snapshot.put(entry.getKey(), (BitSet) entry.getValue().clone());
+		}
+		this.allowedCommandsSnapshot = snapshot;
+		Map<CommandMode, BitSet> modeSnapshot = new EnumMap<CommandMode, BitSet>(CommandMode.class);
+		for (Map.Entry<CommandMode, BitSet> entry : this.modeCommands.entrySet()) {
+			modeSnapshot.put(entry.getKey(), (BitSet) entry.getValue().clone());
+		}
+		this.modeCommandsSnapshot = modeSnapshot;
+		
+		// Index the command's help.
+		this.helpIndex.add(command, index);
+		
+		// The shared completers need to be rebuilt.
+		this.completers.clear();
+	}
+	
+	/**
+	 * Adds a new command to the command handler by its descriptor.
+	 * The command is created the first time it is executed.
+	 * 
+	 * @param descriptor The descriptor of the new command.
+	 */
+	public void addCommand(CommandDescriptor descriptor) {
+		this.addCommand(new LazyCommand(descriptor));
 	}
 	
 	/**
@@ -80,6 +195,74 @@ public class CommandHandler {
 		return this.commands.values();
 	}
 	
+	/**
+	 * Gets a completer that completes all commands a user with
+	 * the given roles may execute in the given mode. Completers are
+	 * built once and shared by all consoles with the same set of
+	 * allowed commands.
+	 * 
+	 * @param roles The roles of the user.
+	 * @param mode The mode of the console.
+	 * @return A completer for all allowed commands.
+	 */
+	public synchronized Completer getCompleter(Set<Role> roles, CommandMode mode) {
+		/* The commands the user may execute. */
+		BitSet allowed = this.getAllowedCommands(roles);
+		
+		// Only complete the commands available in the mode.
+		allowed.and(this.getModeCommands(this.modeCommands, mode));
+		/* The shared completer. */
+		Completer completer = this.completers.get(allowed);
+		
+		if (completer == null) {
+			List<Completer> commandCompleters = new LinkedList<Completer>();
+			for (Map.Entry<String, ICommand> entry : this.commands.entrySet()) {
+				if (allowed.get(this.commandIndexes.get(entry.getKey())))
+					commandCompleters.add(this.createCompleter(entry.getValue()));
+			}
+			completer = new AggregateCompleter(commandCompleters);
+			this.completers.put(allowed, completer);
+		}
+		
+		return completer;
+	}
+	
+	/**
+	 * Gets the context sensitive help for a (partial) command line,
+	 * i.e. the next valid tokens and their help texts. Only shows the
+	 * commands a user with the given roles may execute in the given mode.
+	 * 
+	 * @param line The command line up to the cursor.
+	 * @param roles The roles of the user.
+	 * @param mode The mode of the console.
+	 * @return The help as formated string.
+	 */
+	public String getHelp(String line, Set<Role> roles, CommandMode mode) {
+		/* The allowed commands of all roles. */
+		Map<Role, BitSet> snapshot = this.allowedCommandsSnapshot;
+		/* The commands the user may execute. */
+		BitSet allowed = new BitSet();
+		
+		for (Role role : roles) {
+			BitSet roleAllowed = snapshot.get(role);
+			if (roleAllowed != null)
+				allowed.or(roleAllowed);
+		}
+		allowed.and(this.getModeCommands(this.modeCommandsSnapshot, mode));
+		
+		// Return.
+		return this.helpIndex.getHelp(line, allowed);
+	}
+	
+	/**
+	 * Sets the audit log that records all executed commands.
+	 * 
+	 * @param auditLog The audit log, or null to disable auditing.
+	 */
+	public void setAuditLog(AuditLog auditLog) {
+		this.auditLog = auditLog;
+	}
+	
 	/**
 	 * Adds a console that shows the result of executed commands.
 	 * 
@@ -87,6 +270,7 @@ public class CommandHandler {
 	 */
 	public void addListener(IConsole console) {
 		this.consoles.put(console.hashCode(), console);
+		this.consoleLocks.put(console.hashCode(), new Object());
 	}
 	
 	/**
@@ -96,57 +280,255 @@ public class CommandHandler {
 	 */
 	public void removeListener(IConsole console) {
 		this.consoles.remove(console.hashCode());
+		this.consoleLocks.remove(console.hashCode());
 	}
 	
 	/**
 	 * Executes a command as given in the command string. Allows for
 	 * results to be written back to the console.
 	 * 
+	 * Only the lookup of the command in the shared registries holds the
+	 * handler lock. The command itself runs under a lock of its own per
+	 * console, so commands of one console run in order while different
+	 * consoles run their commands concurrently. The console's monitor is
+	 * not used, as consoles hold it to take input while a command runs.
+	 * 
 	 * TODO: Make is asynchronous using a producer/consumer pattern.
 	 * 
 	 * @param console IConsole that allows the command to access the console directly.
 	 * @param commandString the command string as read from the command line.
 	 */
-	public synchronized void execute(IConsole console, String commandString) {
+	public void execute(IConsole console, String commandString) {
 		/* Return string (if any) displayed at the output of the console. */
-		String string;
+		String string = null;
 		/* Arguments string that is interpreted by the command. */
 		String arguments;
 		/* Command that is executed. */
 		ICommand command;
+		/* The argument schema of the command, if any. */
+		ArgumentSchema schema;
+		/* Whether the command exists in the console's mode and may be executed by its user. */
+		boolean available, allowed;
+		/* The lock that serializes the commands of the console. */
+		Object consoleLock = this.consoleLocks.get(console.hashCode());
+		/* The start time of the command execution. */
+		long startTime = System.currentTimeMillis();
+		/* The start time of the command execution in nanoseconds, to measure its duration. */
+		long startNanos = System.nanoTime();
 		
-		// Parse commandString to get the actual commandString and arguments.
-		Map.Entry<String, String> commandEntry = this.parseCommand(commandString);
+		synchronized (this) {
+			// Parse commandString to get the actual commandString and arguments.
+			Map.Entry<String, String> commandEntry = this.parseCommand(commandString);
+			/* The key of the command. */
+			String key = commandEntry.getKey().trim().toLowerCase();
+			
+			// get command and arguments
+			command = this.commands.get(key);
+			schema = this.argumentSchemas.get(key);
+			arguments = commandEntry.getValue();
+			available = command != null && this.isAvailable(console, key);
+			allowed = available && this.isAllowed(console, key);
+		}
 		
-		// get command and arguments
-		command = this.commands.get(commandEntry.getKey().trim().toLowerCase());
-		arguments = commandEntry.getValue();
+		// A console that is not registered has no other commands to wait for.
+		if (consoleLock == null)
+			consoleLock = new Object();
 		
-		if ((command) == null) {
-			if (arguments.length() > 0)
-				this.write("Command not found: " + arguments, console.hashCode());
-			return;
+		synchronized (consoleLock) {
+			if (!available) {
+				string = (commandString.trim().length() > 0) ? "Command not found: " + commandString.trim() : null;
+			} else if (!allowed) {
+				string = "Permission denied: " + command.getCommandString();
+			} else if (schema != null) {
+				// Parse and validate the arguments before the command is executed.
+				ParsedArguments parsedArguments = null;
+				try {
+					parsedArguments = schema.parse(arguments);
+				} catch (IllegalArgumentException e) {
+					string = e.getMessage() + "\nUsage: " + command.getCommandString() + " " + schema.getUsage();
+				}
+				
+				// Execute command.
+				if (parsedArguments != null && command instanceof IArgumentCommand) {
+					string = ((IArgumentCommand) command).execute(console, parsedArguments);
+				} else if (parsedArguments != null) {
+					string = command.execute(console, arguments);
+				}
+			} else {
+				// Execute command.
+				string = command.execute(console, arguments);
+			}
+			
+			// Write result to console.
+			if (string != null) {
+				this.write(string, console);
+			}
+			
+			// Send the output of the command at once.
+			try {
+				console.flush();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		
+		// Record the command in the audit log.
+		this.audit(console, commandString, startTime, startNanos, string);
+	}
+	
+	/**
+	 * Checks whether the user of a console may execute a command.
+	 * 
+	 * @param console IConsole the command is executed on.
+	 * @param key The key of the command.
+	 * @return True if one of the user's roles allows the command.
+	 */
+	private boolean isAllowed(IConsole console, String key) {
+		/* The session of the console. */
+		CliSession session = console.getSession();
+		/* The index of the command in the role bitsets. */
+		Integer index = this.commandIndexes.get(key);
+		
+		if (session == null || index == null)
+			return false;
+		
+		for (Role role : session.getRoles()) {
+			if (this.allowedCommands.get(role).get(index))
+				return true;
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Checks whether a command is available in the mode of a console.
+	 * 
+	 * @param console IConsole the command is executed on.
+	 * @param key The key of the command.
+	 * @return True if the command is available in the console's mode.
+	 */
+	private boolean isAvailable(IConsole console, String key) {
+		/* The index of the command in the mode bitsets. */
+		Integer index = this.commandIndexes.get(key);
+		
+		// Return.
+		return index != null && this.getModeCommands(this.modeCommands, console.getMode()).get(index);
+	}
+	
+	/**
+	 * Gets the commands available in a mode.
+	 * 
+	 * @param modeCommands Map of modes and their available commands.
+	 * @param mode The mode.
+	 * @return A bitset of available command indexes.
+	 */
+	private BitSet getModeCommands(Map<CommandMode, BitSet> modeCommands, CommandMode mode) {
+		/* The commands available in the mode. */
+		BitSet available = modeCommands.get(mode);
+		
+		// Return.
+		return (available != null) ? available : new BitSet();
+	}
+	
+	/**
+	 * Gets the union of the commands the given roles may execute.
+	 * 
+	 * @param roles The roles of the user.
+	 * @return A bitset of allowed command indexes.
+	 */
+	private BitSet getAllowedCommands(Set<Role> roles) {
+		/* The union of allowed commands. */
+		BitSet allowed = new BitSet();
+		
+		for (Role role : roles) {
+			BitSet roleAllowed = this.allowedCommands.get(role);
+			if (roleAllowed != null)
+				allowed.or(roleAllowed);
 		}
 		
-		// Execute command.
-		string = command.execute(console, arguments);
+		return allowed;
+	}
+	
+    /**
+     * Creates a (Jline) completer and adds a command and its 
+     * arguments to it.
+     * 
+     * @param cmd Command that is offered by the command handler.
+     * @return The completer for the command.
+     */
+    private Completer createCompleter(ICommand cmd) {
+    	/* List of StringCompleters for commands and arguments. */
+    	List<Completer> argCompletorList = new LinkedList<Completer>();
+    	/* Array of command strings. */
+    	String[] commands = (cmd.getCommandString()).split(" ");
+    	
+    	// Decompose command string and add strings to StringsCompleter. 
+    	for (String command : commands) {
+    		argCompletorList.add(new StringsCompleter(command.trim().toLowerCase()));
+    	}
+    	
+    	// Add argument strings to StringsCompleter, driven by the argument schema if available.
+    	ArgumentSchema schema = (cmd instanceof IArgumentCommand) ? ((IArgumentCommand) cmd).getArgumentSchema() : null;
+    	if (schema != null) {
+    		for (Argument argument : schema.getArguments()) {
+    			if (argument.getKeyword() != null) {
+    				argCompletorList.add(new StringsCompleter(argument.getKeyword()));
+    			} else if (argument.getType() == ArgumentType.ENUM) {
+    				argCompletorList.add(new StringsCompleter(argument.getValues()));
+    			} else {
+    				argCompletorList.add(new StringsCompleter(argument.getUsage().toUpperCase()));
+    			}
+    		}
+    	} else if (cmd.getArguments() != null) {
+    		argCompletorList.add(new StringsCompleter(cmd.getArguments().trim().toUpperCase()));
+    	}
+    	
+    	// Add NullCompleter to terminate the completer.
+    	argCompletorList.add(new NullCompleter());
+    	
+    	// Return.
+    	return new ArgumentCompleter(argCompletorList);
+    }
+	
+	/**
+	 * Adds a record of an executed command to the audit log. Does
+	 * not block, since the audit log is written asynchronously.
+	 * 
+	 * @param console IConsole the command was executed on.
+	 * @param commandString the command string as read from the command line.
+	 * @param startTime The start time of the command execution in milliseconds since the epoch.
+	 * @param startNanos The start time of the command execution in nanoseconds.
+	 * @param result The result of the command, or null.
+	 */
+	private void audit(IConsole console, String commandString, long startTime, long startNanos, String result) {
+		/* The audit log to record to. */
+		AuditLog log = this.auditLog;
 		
-		// Write result to console.
-		if (string != null) {
-			this.write(string, console.hashCode());
+		if (log == null || commandString.trim().length() == 0)
+			return;
+		
+		CliSession session = console.getSession();
+		long duration = (System.nanoTime() - startNanos) / 1000;
+		int resultSize = (result != null) ? result.length() : 0;
+		
+		if (session != null) {
+			log.record(new AuditRecord(startTime, session.getUsername(), session.getId(), session.getRemoteAddress(), commandString.trim(), duration, resultSize));
+		} else {
+			log.record(new AuditRecord(startTime, "unknown", -1, "unknown", commandString.trim(), duration, resultSize));
 		}
 	}
 	
 	/**
-	 * Writes a string to a given console.
+	 * Writes a string to a given console. The console may have been
+	 * removed while the command ran, e.g. if the client disconnected,
+	 * so it is not looked up among the registered consoles.
 	 * 
 	 * @param string String to be written to the console.
-	 * @param consoleHash Integer that identifies the console.
+	 * @param console IConsole the command was executed on.
 	 */
-	@Deprecated
-	private void write(String string, int consoleHash) {
-		try {			
-			this.consoles.get(consoleHash).write(string);
+	private void write(String string, IConsole console) {
+		try {
+			console.write(string);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -161,19 +543,33 @@ public class CommandHandler {
 	 */
 	private Map.Entry<String, String> parseCommand(String commandString) {
 		/* All (sub) string elements in a string command. */
-		String[] commandElements = commandString.split(" ");
+		String[] commandElements = commandString.trim().split(" +");
+		/* Whether an element is part of the command (or an argument). */
+		boolean[] isCommand = new boolean[commandElements.length];
 		/* New command string (without arguments). */
 		String command = "";
 		/* Argument string. */
 		String arguments = "";
 		
 		for (int i=0; i<commandElements.length; i++) {
-			if (this.commands.get( (command + " " + commandElements[i].trim()).trim() ) != null) {
-				command = (command + " " + commandElements[i].trim()).trim();
-			} else {
-				arguments = (arguments + " " + commandElements[i].trim()).trim();
+			String candidate = (command + " " + commandElements[i].trim().toLowerCase()).trim();
+			if (this.commands.get(candidate) != null || this.commandPrefixes.contains(candidate)) {
+				command = candidate;
+				isCommand[i] = true;
 			}
-			
+		}
+		
+		// Hand trailing elements that do not complete a command back to the arguments.
+		for (int i=commandElements.length-1; i>=0 && command.length() > 0 && this.commands.get(command) == null; i--) {
+			if (isCommand[i]) {
+				isCommand[i] = false;
+				command = (command.lastIndexOf(' ') > 0) ? command.substring(0, command.lastIndexOf(' ')) : "";
+			}
+		}
+		
+		for (int i=0; i<commandElements.length; i++) {
+			if (!isCommand[i])
+				arguments = (arguments + " " + commandElements[i].trim()).trim();
 		}
 		
 		// Return.
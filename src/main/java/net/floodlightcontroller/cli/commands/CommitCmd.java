@@ -0,0 +1,109 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.config.CandidateConfig;
+import net.floodlightcontroller.cli.config.RunningConfig;
+
+/**
+ * The "commit" command applies all changes of the candidate
+ * configuration as one batch, i.e. with one flow-push burst per
+ * switch, and starts a new, empty candidate.
+ */
+public class CommitCmd implements ICommand {
+	/** The running configuration. */
+	private RunningConfig runningConfig;
+	/** The command string. */
+	private String commandString = "commit";
+	/** The command's arguments. */
+	private String arguments = null;
+	/** The command's help text. */
+	private String help = "Apply the uncommitted changes";
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param runningConfig The running configuration.
+	 */
+	public CommitCmd(RunningConfig runningConfig) {
+		this.runningConfig = runningConfig;
+	}
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return arguments;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.CONFIGURE;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.CONFIGURE;
+	}
+
+	@Override
+	public String getHelpText() {
+		return help;
+	}
+
+	@Override
+	public String execute(IConsole console, String arguments) {
+		/* The candidate configuration. */
+		CandidateConfig candidate = ConfigureTerminalCmd.getCandidateConfig(console);
+		/* The report of the commit. */
+		String report;
+		
+		if (candidate == null)
+			return "Not in configuration mode.";
+		if (candidate.isEmpty())
+			return "No uncommitted changes.";
+		
+		try {
+			report = this.runningConfig.commit(candidate);
+		} catch (IllegalArgumentException e) {
+			return "Commit failed: " + e.getMessage();
+		}
+		console.getSession().setCandidateConfig(new CandidateConfig());
+		
+		// Return.
+		return report;
+	}
+
+}
@@ -0,0 +1,126 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import net.floodlightcontroller.cli.CliSession;
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.config.CandidateConfig;
+
+/**
+ * The "configure terminal" command enters the configuration mode.
+ * In configuration mode, changes are staged in a candidate
+ * configuration of the session and applied as one batch by "commit".
+ */
+public class ConfigureTerminalCmd implements ICommand {
+	/** The prompt of the configuration mode. */
+	public static final String CONFIG_PROMPT = "(config)> ";
+	/** The command string. */
+	private String commandString = "configure terminal";
+	/** The command's arguments. */
+	private String arguments = null;
+	/** The command's help text. */
+	private String help = "Enter the configuration mode";
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return arguments;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.CONFIGURE;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
+	@Override
+	public String getHelpText() {
+		return help;
+	}
+
+	@Override
+	public String execute(IConsole console, String arguments) {
+		/* The session of the console. */
+		CliSession session = console.getSession();
+		
+		if (session == null)
+			return "The configuration mode is not available.";
+		
+		session.setCandidateConfig(new CandidateConfig());
+		console.setMode(CommandMode.CONFIGURE);
+		console.setPrompt(CONFIG_PROMPT);
+		
+		// Return.
+		return "Enter configuration commands. Use \"commit\" to apply them and \"end\" to leave.";
+	}
+	
+	/**
+	 * Gets the candidate configuration of a console.
+	 * 
+	 * @param console The console.
+	 * @return The candidate configuration, or null if the console is not in configuration mode.
+	 */
+	static CandidateConfig getCandidateConfig(IConsole console) {
+		return (console.getSession() != null) ? console.getSession().getCandidateConfig() : null;
+	}
+	
+	/**
+	 * Leaves the configuration mode, unless there are uncommitted
+	 * changes.
+	 * 
+	 * @param console The console.
+	 * @return A message why the configuration mode was not left, or null.
+	 */
+	static String leave(IConsole console) {
+		/* The candidate configuration. */
+		CandidateConfig candidate = getCandidateConfig(console);
+		
+		if (candidate != null && !candidate.isEmpty())
+			return "There are " + candidate.size() + " uncommitted changes. Use \"commit\" or \"abort\" first.";
+		
+		if (console.getSession() != null)
+			console.getSession().setCandidateConfig(null);
+		console.setMode(CommandMode.EXEC);
+		console.setPrompt(null);
+		
+		// Return.
+		return null;
+	}
+
+}
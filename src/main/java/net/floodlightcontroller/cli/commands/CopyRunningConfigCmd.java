@@ -0,0 +1,108 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.util.List;
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.config.RunningConfig;
+import net.floodlightcontroller.cli.config.StartupConfig;
+
+/**
+ * The "copy running-config startup-config" command saves the running
+ * configuration as startup configuration, which is loaded when the
+ * controller starts.
+ */
+public class CopyRunningConfigCmd implements ICommand {
+	/** The running configuration. */
+	private RunningConfig runningConfig;
+	/** The startup configuration. */
+	private StartupConfig startupConfig;
+	/** The command string. */
+	private String commandString = "copy running-config startup-config";
+	/** The command's arguments. */
+	private String arguments = null;
+	/** The command's help text. */
+	public static final String HELP = "Save the running configuration as startup configuration";
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param runningConfig The running configuration.
+	 * @param startupConfig The startup configuration.
+	 */
+	public CopyRunningConfigCmd(RunningConfig runningConfig, StartupConfig startupConfig) {
+		this.runningConfig = runningConfig;
+		this.startupConfig = startupConfig;
+	}
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return arguments;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.CONFIGURE;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
+	@Override
+	public String getHelpText() {
+		return HELP;
+	}
+
+	@Override
+	public String execute(IConsole console, String arguments) {
+		/* The configuration commands. */
+		List<String> lines = this.runningConfig.getLines();
+		
+		try {
+			this.startupConfig.save(lines);
+		} catch (IOException e) {
+			return "Could not save the startup configuration: " + e.getMessage();
+		}
+		
+		// Return.
+		return "Saved " + lines.size() + " lines to " + this.startupConfig.getFile() + ".";
+	}
+
+}
@@ -37,7 +37,8 @@ import net.floodlightcontroller.cli.IConsole;
  * The Exit command is used for the command handler to
  * have "Exit" in the completer lists. Exit (and Quit)
  * are directly implemented as fixed commands to the 
- * console.
+ * console. In configuration mode, exit leaves the
+ * configuration mode instead.
  * 
  * @author Michael Bredel <michael.bredel@cern.ch>
  */
@@ -57,13 +58,26 @@ public class ExitCmd implements ICommand {
 		return arguments;
 	}
 
+	@Override
+	public Permission getPermission() {
+		return Permission.SHOW;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.ANY;
+	}
+
 	@Override
 	public String getHelpText() {
-		return "";
+		return "Exit the CLI";
 	}
 
 	@Override
 	public synchronized String execute(IConsole console, String arguments) {
+		if (console.getMode() == CommandMode.CONFIGURE)
+			return ConfigureTerminalCmd.leave(console);
+		
 		// Do nothing but exit. This is handled by the console directly.
 		return null;
 	}
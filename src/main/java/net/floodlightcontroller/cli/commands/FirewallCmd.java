@@ -0,0 +1,97 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.commands.arguments.Argument;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+import net.floodlightcontroller.cli.commands.arguments.ParsedArguments;
+import net.floodlightcontroller.cli.config.CandidateConfig;
+
+/**
+ * The "firewall" command stages enabling or disabling the firewall
+ * in the candidate configuration, e.g.
+ * 
+ *   firewall enable
+ */
+public class FirewallCmd extends ArgumentCommand {
+	/** The command's argument schema. */
+	public static final ArgumentSchema SCHEMA = new ArgumentSchema(Argument.oneOf("STATE", "enable", "disable").help("Enable or disable the firewall"));
+	/** The command string. */
+	private String commandString = "firewall";
+	/** The command's help text. */
+	public static final String HELP = "Stage enabling or disabling the firewall";
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return SCHEMA.getUsage();
+	}
+	
+	@Override
+	public ArgumentSchema getArgumentSchema() {
+		return SCHEMA;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.CONFIGURE;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.CONFIGURE;
+	}
+
+	@Override
+	public String getHelpText() {
+		return HELP;
+	}
+
+	@Override
+	public String execute(IConsole console, ParsedArguments arguments) {
+		/* The candidate configuration. */
+		CandidateConfig candidate = ConfigureTerminalCmd.getCandidateConfig(console);
+		
+		if (candidate == null)
+			return "Not in configuration mode.";
+		
+		candidate.setFirewall(arguments.getString("STATE").equals("enable"));
+		
+		// Return.
+		return null;
+	}
+
+}
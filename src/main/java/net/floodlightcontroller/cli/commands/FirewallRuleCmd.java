@@ -0,0 +1,114 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.commands.arguments.Argument;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentType;
+import net.floodlightcontroller.cli.commands.arguments.ParsedArguments;
+import net.floodlightcontroller.cli.config.CandidateConfig;
+import net.floodlightcontroller.cli.config.FirewallRuleEntry;
+
+/**
+ * The "firewall rule" command stages a firewall rule in the candidate
+ * configuration, e.g.
+ * 
+ *   firewall rule ssh priority 10 match dst-ip=10.0.0.0/8,nw-proto=tcp,tp-dst=22 action allow
+ * 
+ * The match uses the keys of the firewall's REST API. A rule with the
+ * same name is replaced on commit.
+ */
+public class FirewallRuleCmd extends ArgumentCommand {
+	/** The command's argument schema. */
+	public static final ArgumentSchema SCHEMA = new ArgumentSchema(
+			Argument.of("NAME", ArgumentType.STRING).help("Name of the firewall rule"),
+			Argument.of("PRIORITY", ArgumentType.INTEGER).keyword("priority").optional().help("Priority, higher rules are matched first"),
+			Argument.of("MATCH", ArgumentType.STRING).keyword("match").optional().help("Match, e.g. nw-proto=tcp,tp-dst=22"),
+			Argument.oneOf("ACTION", "allow", "deny").keyword("action").help("Allow or deny matching packets"));
+	/** The command string. */
+	private String commandString = "firewall rule";
+	/** The command's help text. */
+	public static final String HELP = "Stage a firewall rule";
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return SCHEMA.getUsage();
+	}
+	
+	@Override
+	public ArgumentSchema getArgumentSchema() {
+		return SCHEMA;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.CONFIGURE;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.CONFIGURE;
+	}
+
+	@Override
+	public String getHelpText() {
+		return HELP;
+	}
+
+	@Override
+	public String execute(IConsole console, ParsedArguments arguments) {
+		/* The candidate configuration. */
+		CandidateConfig candidate = ConfigureTerminalCmd.getCandidateConfig(console);
+		
+		if (candidate == null)
+			return "Not in configuration mode.";
+		
+		try {
+			candidate.setRule(new FirewallRuleEntry(
+					arguments.getString("NAME"),
+					(arguments.has("PRIORITY")) ? arguments.getInteger("PRIORITY") : 0,
+					arguments.getString("MATCH"),
+					arguments.getString("ACTION").equals("allow")));
+		} catch (IllegalArgumentException e) {
+			return e.getMessage();
+		}
+		
+		// Return.
+		return null;
+	}
+
+}
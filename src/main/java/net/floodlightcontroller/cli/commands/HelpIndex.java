@@ -0,0 +1,204 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import net.floodlightcontroller.cli.commands.arguments.Argument;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentType;
+
+/**
+ * An index of the help texts of all commands, i.e. a tree of command
+ * tokens, e.g. "show" - "switch" - "ports". The index is built when
+ * commands are added to the command handler, such that context
+ * sensitive help ("?") is a walk down the tree, no matter how many
+ * commands there are. Each node knows the (indexes of the) commands
+ * below it, such that users only see the commands they may execute.
+ */
+public class HelpIndex {
+	/** The token shown if the command line can be executed as is. */
+	private static final String EXECUTE = "<cr>";
+	/** The root of the tree of command tokens. */
+	private final Node root = new Node();
+	
+	/**
+	 * A node in the tree of command tokens.
+	 */
+	private static class Node {
+		/** Map of the next tokens and their nodes, sorted. */
+		final Map<String, Node> children = new TreeMap<String, Node>();
+		/** The indexes of all commands at or below this node. */
+		final BitSet commands = new BitSet();
+		/** The command that ends at this node, or null. */
+		ICommand command;
+		/** The index of the command that ends at this node. */
+		int index = -1;
+	}
+	
+	/**
+	 * Adds (or replaces) a command.
+	 * 
+	 * @param command The command.
+	 * @param index The index of the command in the role bitsets.
+	 */
+	public synchronized void add(ICommand command, int index) {
+		/* The current node. */
+		Node node = this.root;
+		
+		node.commands.set(index);
+		for (String token : command.getCommandString().trim().toLowerCase().split(" +")) {
+			Node child = node.children.get(token);
+			if (child == null) {
+				child = new Node();
+				node.children.put(token, child);
+			}
+			node = child;
+			node.commands.set(index);
+		}
+		node.command = command;
+		node.index = index;
+	}
+	
+	/**
+	 * Gets the help for a (partial) command line, i.e. the next valid
+	 * tokens and their help texts. If the line ends within a token, only
+	 * the tokens that start with it are shown, like IOS does.
+	 * 
+	 * @param line The command line up to the cursor.
+	 * @param allowed The indexes of the commands the user may execute.
+	 * @return The help as formated string.
+	 */
+	public synchronized String getHelp(String line, BitSet allowed) {
+		/* The tokens of the command line. */
+		String[] tokens = (line.trim().length() > 0) ? line.trim().toLowerCase().split(" +") : new String[0];
+		/* The token the line ends within, or null if the line ends with a blank. */
+		String partial = (tokens.length > 0 && !line.endsWith(" ")) ? tokens[tokens.length - 1] : null;
+		/* The number of complete tokens. */
+		int complete = (partial != null) ? tokens.length - 1 : tokens.length;
+		/* The help entries: the token and its help text. */
+		List<String[]> entries = new ArrayList<String[]>();
+		/* The current node. */
+		Node node = this.root;
+		/* The number of tokens that are part of the command. */
+		int depth = 0;
+		
+		// Walk down the tree.
+		while (depth < complete) {
+			Node child = node.children.get(tokens[depth]);
+			if (child == null || !child.commands.intersects(allowed))
+				break;
+			node = child;
+			depth++;
+		}
+		
+		// Offer the next command tokens.
+		if (depth == complete) {
+			for (Map.Entry<String, Node> child : node.children.entrySet()) {
+				if (child.getValue().commands.intersects(allowed) && (partial == null || child.getKey().startsWith(partial)))
+					entries.add(new String[] {child.getKey(), this.getHelpText(child.getValue(), allowed)});
+			}
+		}
+		
+		// Offer the arguments of the command, unless the line ends within a command token.
+		if (node.command != null && allowed.get(node.index) && (partial == null || depth < complete || entries.isEmpty()))
+			this.addArgumentEntries(node.command, complete - depth, entries);
+		
+		if (entries.isEmpty())
+			return "% Unrecognized command";
+		
+		// Return.
+		return this.format(entries);
+	}
+	
+	/**
+	 * Adds the arguments of a command and the execute token to the help entries.
+	 * 
+	 * @param command The command.
+	 * @param given The number of arguments already given on the command line.
+	 * @param entries The help entries.
+	 */
+	private void addArgumentEntries(ICommand command, int given, List<String[]> entries) {
+		/* The argument schema of the command, if any. */
+		ArgumentSchema schema = (command instanceof IArgumentCommand) ? ((IArgumentCommand) command).getArgumentSchema() : null;
+		
+		if (schema != null) {
+			for (Argument argument : schema.getArguments()) {
+				// Skip the positional arguments already given.
+				if (argument.getKeyword() == null && argument.getType() != ArgumentType.REST && given-- > 0)
+					continue;
+				entries.add(new String[] {argument.getUsage(), (argument.getHelpText() != null) ? argument.getHelpText() : ""});
+			}
+		} else if (command.getArguments() != null) {
+			entries.add(new String[] {command.getArguments(), ""});
+		}
+		entries.add(new String[] {EXECUTE, ""});
+	}
+	
+	/**
+	 * Gets the help text of a node, i.e. of the command that ends at it.
+	 * 
+	 * @param node The node.
+	 * @param allowed The indexes of the commands the user may execute.
+	 * @return The help text, or an empty string.
+	 */
+	private String getHelpText(Node node, BitSet allowed) {
+		return (node.command != null && allowed.get(node.index) && node.command.getHelpText() != null) ? node.command.getHelpText() : "";
+	}
+	
+	/**
+	 * Formats the help entries as two aligned columns.
+	 * 
+	 * @param entries The help entries.
+	 * @return The formated help entries.
+	 */
+	private String format(List<String[]> entries) {
+		/* String builder that contains the formated entries. */
+		StringBuilder stringBuilder = new StringBuilder();
+		/* The width of the token column. */
+		int width = 0;
+		
+		for (String[] entry : entries) {
+			width = Math.max(width, entry[0].length());
+		}
+		for (String[] entry : entries) {
+			stringBuilder.append(String.format("  %-" + width + "s  %s", entry[0], entry[1]).replaceAll("\\s+$", "")).append("\n");
+		}
+		
+		// Return.
+		return stringBuilder.substring(0, stringBuilder.length() - 1);
+	}
+	
+}
@@ -62,6 +62,20 @@ public interface ICommand {
 	 */
 	public String getHelpText();
 	
+	/**
+	 * Gets the permission a user needs to execute the command.
+	 * 
+	 * @return The command's permission.
+	 */
+	public Permission getPermission();
+	
+	/**
+	 * Gets the mode the command is available in.
+	 * 
+	 * @return The command's mode.
+	 */
+	public CommandMode getMode();
+	
 	/**
 	 * Executes the command and perfoms its actuall action.
 	 * 
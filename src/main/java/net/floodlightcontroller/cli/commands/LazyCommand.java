@@ -0,0 +1,127 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+import net.floodlightcontroller.cli.commands.arguments.ParsedArguments;
+
+/**
+ * A command that is described by a command descriptor and
+ * created the first time it is executed. If the descriptor has an
+ * argument schema but the command does not implement
+ * IArgumentCommand, the command is given the arguments as string.
+ */
+class LazyCommand implements IArgumentCommand {
+	/** The descriptor of the command. */
+	private final CommandDescriptor descriptor;
+	/** The command, or null if it has not been created yet. */
+	private volatile ICommand command;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param descriptor The descriptor of the command.
+	 */
+	LazyCommand(CommandDescriptor descriptor) {
+		this.descriptor = descriptor;
+	}
+
+	@Override
+	public String getCommandString() {
+		return this.descriptor.getCommandString();
+	}
+
+	@Override
+	public String getArguments() {
+		return this.descriptor.getArguments();
+	}
+
+	@Override
+	public String getHelpText() {
+		return this.descriptor.getHelpText();
+	}
+
+	@Override
+	public Permission getPermission() {
+		return this.descriptor.getPermission();
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return this.descriptor.getMode();
+	}
+
+	@Override
+	public ArgumentSchema getArgumentSchema() {
+		return this.descriptor.getArgumentSchema();
+	}
+
+	@Override
+	public String execute(IConsole console, String arguments) {
+		return this.getCommand().execute(console, arguments);
+	}
+
+	@Override
+	public String execute(IConsole console, ParsedArguments arguments) {
+		/* The command. */
+		ICommand command = this.getCommand();
+		
+		// Return.
+		if (command instanceof IArgumentCommand)
+			return ((IArgumentCommand) command).execute(console, arguments);
+		return command.execute(console, arguments.getLine());
+	}
+	
+	/**
+	 * Gets the command, and creates it if necessary.
+	 * 
+	 * @return The command.
+	 */
+	private ICommand getCommand() {
+		/* The command. */
+		ICommand result = this.command;
+		
+		if (result == null) {
+			synchronized (this) {
+				result = this.command;
+				if (result == null) {
+					result = this.descriptor.createCommand();
+					this.command = result;
+				}
+			}
+		}
+		
+		// Return.
+		return result;
+	}
+
+}
@@ -0,0 +1,125 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.File;
+import java.io.IOException;
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.commands.arguments.Argument;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+import net.floodlightcontroller.cli.commands.arguments.ParsedArguments;
+import net.floodlightcontroller.cli.config.FlowFileReader;
+import net.floodlightcontroller.cli.config.FlowLoader;
+
+/**
+ * The "load flows" command provisions the static flow entries of a
+ * CSV or JSON flow file in bulk, e.g.
+ * 
+ *   load flows /etc/floodlight/flows.csv
+ * 
+ * The file is streamed, and flow-mods are pipelined per switch. The
+ * loaded entries become part of the running configuration.
+ */
+public class LoadFlowsCmd extends ArgumentCommand {
+	/** The command's argument schema. */
+	public static final ArgumentSchema SCHEMA = new ArgumentSchema(Argument.rest("FILE").help("Path of a CSV or JSON flow file on the controller"));
+	/** The flow loader. */
+	private FlowLoader flowLoader;
+	/** The command string. */
+	private String commandString = "load flows";
+	/** The command's help text. */
+	public static final String HELP = "Load static flow entries from a file";
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param flowLoader The flow loader.
+	 */
+	public LoadFlowsCmd(FlowLoader flowLoader) {
+		this.flowLoader = flowLoader;
+	}
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return SCHEMA.getUsage();
+	}
+	
+	@Override
+	public ArgumentSchema getArgumentSchema() {
+		return SCHEMA;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.CONFIGURE;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
+	@Override
+	public String getHelpText() {
+		return HELP;
+	}
+
+	@Override
+	public String execute(IConsole console, ParsedArguments arguments) {
+		/* The flow file. */
+		File file = new File(arguments.getString("FILE"));
+		/* The reader of the flow file. */
+		FlowFileReader reader;
+		
+		try {
+			reader = new FlowFileReader(file);
+		} catch (IOException e) {
+			return "Could not read flow file " + file + ": " + e.getMessage();
+		}
+		
+		try {
+			return this.flowLoader.load(reader, console);
+		} finally {
+			try {
+				reader.close();
+			} catch (IOException e) {
+				// do nothing.
+			}
+		}
+	}
+
+}
@@ -31,17 +31,12 @@ package net.floodlightcontroller.cli.commands;
 * written permission.
 */
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-
+import net.floodlightcontroller.cli.CliSession;
 import net.floodlightcontroller.cli.IConsole;
 
-import jline.console.completer.Completer;
-
 /**
- * The show command is used to present the completer of
- * "show", i.e. all commands that start with a "show" string.
+ * The show command is used to present the help of "show",
+ * i.e. all commands that start with a "show" string.
  * 
  * @author Michael Bredel <michael.bredel@cern.ch>
  */
@@ -51,7 +46,7 @@ public class ShowCmd implements ICommand {
 	/** The command's arguments. */
 	private String arguments = null;
 	/** The command's help text. */
-	private String help = null;
+	public static final String HELP = "Show running system information";
 
 	@Override
 	public String getCommandString() {
@@ -63,38 +58,31 @@ public class ShowCmd implements ICommand {
 		return arguments;
 	}
 
+	@Override
+	public Permission getPermission() {
+		return Permission.SHOW;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
 	@Override
 	public String getHelpText() {
-		return help;
+		return HELP;
 	}
 
 	@Override
-	public synchronized String execute(IConsole console, String arguments) {
-		/* The String builder that hold the resulting string. */
-		StringBuilder result = new StringBuilder();
-		/* A list of command completion candidates. */
-		List<CharSequence> candidates = new ArrayList<CharSequence>();
-		/* Since Completer.complete needs a blank at the end of the command, we need to add one. */
-		String line = this.commandString + " ";
+	public String execute(IConsole console, String arguments) {
+		/* The session of the console. */
+		CliSession session = console.getSession();
 		
-		// Find possible command completions.
-		for (Completer comp : console.getCompleters()) {
-			if (comp.complete(line, line.length(), candidates) == -1) {
-				break;
-			}
-		}
+		if (session == null)
+			return "Command not found: show " + arguments;
 		
-		// Make sure the list is unique.
-		candidates = new ArrayList<CharSequence>(new HashSet<CharSequence>(candidates)); 
-		
-		// Create the result string.
-		result.append("Command not found. Use:");
-		for (CharSequence candidate : candidates) {
-			result.append("\n  show " + candidate);
-		}
-	
 		// Return.
-		return result.toString();
+		return "Command not found. Use:\n" + CommandHandler.getInstance().getHelp(this.commandString + " ", session.getRoles(), console.getMode());
 	}
 
 }
@@ -0,0 +1,269 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.commands.arguments.Argument;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+import net.floodlightcontroller.cli.commands.arguments.ParsedArguments;
+import net.floodlightcontroller.cli.stats.StatisticsCollector;
+import net.floodlightcontroller.cli.stats.StatisticsStream;
+import net.floodlightcontroller.cli.utils.StringTable;
+import net.floodlightcontroller.cli.utils.StringTableWriter;
+import net.floodlightcontroller.core.IFloodlightProviderService;
+import net.floodlightcontroller.core.IOFSwitch;
+import net.floodlightcontroller.core.module.FloodlightModuleContext;
+
+import org.openflow.protocol.OFMatch;
+import org.openflow.protocol.OFPort;
+import org.openflow.protocol.action.OFAction;
+import org.openflow.protocol.statistics.OFFlowStatisticsReply;
+import org.openflow.protocol.statistics.OFFlowStatisticsRequest;
+import org.openflow.protocol.statistics.OFStatistics;
+import org.openflow.protocol.statistics.OFStatisticsType;
+import org.openflow.util.HexString;
+
+/**
+ * The "show flow" command shows the flow table of a switch,
+ * optionally filtered by a match, e.g.
+ * 
+ *   show flow 00:00:00:00:00:00:00:01 in_port=1,nw_dst=10.0.0.1
+ * 
+ * The match is sent to the switch within the flow statistics
+ * request, such that the switch only sends matching flow entries.
+ * The (multipart) replies are written to the console as they are
+ * received, such that large flow tables are neither collected in
+ * memory nor delay the first line of output.
+ */
+public class ShowFlowCmd extends ArgumentCommand {
+	/** The command's argument schema. */
+	public static final ArgumentSchema SCHEMA = new ArgumentSchema(Argument.dpid("SWITCH").help("Switch DPID, e.g. 00:00:00:00:00:00:00:01"), Argument.rest("MATCH").optional().help("Match, e.g. in_port=1,nw_dst=10.0.0.1"));
+	/** The column widths. Fixed, since the table is written in chunks. */
+	private static final int[] COLUMN_WIDTHS = {5, 8, 18, 10, 5, 5, 12, 14, 40, 5};
+	/** Floodlight Context Service. */
+	private FloodlightModuleContext context;
+	/** The collector that sends statistics requests. */
+	private StatisticsCollector collector;
+	/** The time in milliseconds to wait for the next reply of the switch. */
+	private long timeout;
+	/** The command string. */
+	private String commandString = "show flow";
+	/** The command's help text. */
+	public static final String HELP = "Show the flow table of a switch";
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param context The Floodlight context service.
+	 * @param collector The collector that sends statistics requests.
+	 * @param timeout The time in milliseconds to wait for the next reply of the switch.
+	 */
+	public ShowFlowCmd(FloodlightModuleContext context, StatisticsCollector collector, long timeout) {
+		this.context = context;
+		this.collector = collector;
+		this.timeout = timeout;
+	}
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return SCHEMA.getUsage();
+	}
+	
+	@Override
+	public ArgumentSchema getArgumentSchema() {
+		return SCHEMA;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.SHOW;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
+	@Override
+	public String getHelpText() {
+		return HELP;
+	}
+
+	@Override
+	public String execute(IConsole console, ParsedArguments arguments) {
+		/* The Floodlight provider to access the switches. */
+		IFloodlightProviderService floodlightProvider = context.getServiceImpl(IFloodlightProviderService.class);
+		/* The switch to show. */
+		IOFSwitch sw;
+		/* The match the flow entries are filtered by. */
+		OFMatch match = new OFMatch();
+		
+		sw = floodlightProvider.getSwitches().get(arguments.getLong("SWITCH"));
+		if (sw == null)
+			return "Switch not found: " + HexString.toHexString(arguments.getLong("SWITCH"));
+		
+		if (arguments.has("MATCH")) {
+			try {
+				match.fromString(arguments.getString("MATCH").replaceAll(" +", ","));
+			} catch (IllegalArgumentException e) {
+				return "Invalid match: " + e.getMessage();
+			}
+		}
+		
+		// Let the switch filter the flow entries.
+		OFFlowStatisticsRequest specification = new OFFlowStatisticsRequest();
+		specification.setMatch(match);
+		specification.setTableId((byte) 0xff);
+		specification.setOutPort(OFPort.OFPP_NONE.getValue());
+		
+		// Return.
+		return this.streamFlows(console, sw, specification);
+	}
+	
+	/**
+	 * Requests the flow entries of a switch and writes them to the
+	 * console reply by reply.
+	 * 
+	 * @param console The console to write to.
+	 * @param sw The switch.
+	 * @param specification The flow statistics request specification.
+	 * @return A summary of the flow entries shown.
+	 */
+	private String streamFlows(IConsole console, IOFSwitch sw, OFFlowStatisticsRequest specification) {
+		/* The string table that is re-used for each reply. */
+		StringTable stringTable = new StringTable();
+		/* The writer that writes the table reply by reply. */
+		StringTableWriter writer = new StringTableWriter(console, stringTable);
+		/* The stream of flow statistics replies. */
+		StatisticsStream stream;
+		
+		try {
+			stream = this.collector.streamStatistics(sw, OFStatisticsType.FLOW, specification);
+		} catch (IOException e) {
+			return "Flow request to switch " + sw.getStringId() + " failed: " + e.getMessage();
+		}
+		
+		try {
+			// Generate header data.
+			List<String> header = new LinkedList<String>();
+			header.add("Table");
+			header.add("Priority");
+			header.add("Cookie");
+			header.add("Duration");
+			header.add("Idle");
+			header.add("Hard");
+			header.add("Packets");
+			header.add("Bytes");
+			header.add("Match");
+			header.add("Actions");
+			
+			// Add header to string table.
+			stringTable.setHeader(header);
+			stringTable.setColumnWidths(COLUMN_WIDTHS);
+			
+			writer.writeHeader();
+			
+			for (List<? extends OFStatistics> reply = stream.next(this.timeout); reply != null; reply = stream.next(this.timeout)) {
+				// Generate table entries of this reply and write them.
+				for (OFStatistics statistic : reply) {
+					stringTable.addRow(this.flowToRow((OFFlowStatisticsReply) statistic));
+				}
+				if (!reply.isEmpty()) {
+					writer.writeRows();
+					console.flush();
+				}
+			}
+			
+			// Return.
+			return writer.finish("flow entries");
+		} catch (TimeoutException e) {
+			return "Switch " + sw.getStringId() + " timed out after " + writer.getRows() + " flow entries";
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return "Interrupted after " + writer.getRows() + " flow entries";
+		} catch (IOException e) {
+			return null;
+		} finally {
+			stream.close();
+		}
+	}
+	
+	/**
+	 * Converts a flow entry to a table row.
+	 * 
+	 * @param flow The flow entry.
+	 * @return The table row.
+	 */
+	private List<String> flowToRow(OFFlowStatisticsReply flow) {
+		/* The table row. */
+		List<String> row = new LinkedList<String>();
+		
+		row.add(Integer.toString(flow.getTableId() & 0xff));
+		row.add(Integer.toString(flow.getPriority() & 0xffff));
+		row.add("0x" + Long.toHexString(flow.getCookie()));
+		row.add(flow.getDurationSeconds() + "s");
+		row.add(Integer.toString(flow.getIdleTimeout() & 0xffff));
+		row.add(Integer.toString(flow.getHardTimeout() & 0xffff));
+		row.add(Long.toString(flow.getPacketCount()));
+		row.add(Long.toString(flow.getByteCount()));
+		row.add(flow.getMatch().toString());
+		row.add(this.actionsToString(flow.getActions()));
+		
+		// Return.
+		return row;
+	}
+	
+	/**
+	 * Converts a list of actions to a string.
+	 * 
+	 * @param actions The actions of a flow entry.
+	 * @return The actions as comma separated string, or "drop" if there are none.
+	 */
+	private String actionsToString(List<OFAction> actions) {
+		if (actions == null || actions.isEmpty())
+			return "drop";
+		
+		String string = Arrays.toString(actions.toArray());
+		return string.substring(1, string.length() - 1);
+	}
+
+}
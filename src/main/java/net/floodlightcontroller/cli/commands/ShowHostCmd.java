@@ -32,9 +32,8 @@ package net.floodlightcontroller.cli.commands;
 */
 
 import java.io.IOException;
-import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -43,6 +42,8 @@ import net.floodlightcontroller.devicemanager.IDevice;
 import net.floodlightcontroller.devicemanager.IDeviceService;
 import net.floodlightcontroller.cli.IConsole;
 import net.floodlightcontroller.cli.utils.StringTable;
+import net.floodlightcontroller.cli.utils.StringTable.ColumnType;
+import net.floodlightcontroller.cli.utils.StringTableWriter;
 
 /**
  * The "show host" command shows information about hosts
@@ -62,7 +63,7 @@ public class ShowHostCmd implements ICommand  {
 	/** The command's arguments. */
 	private String arguments = null;
 	/** The command's help text. */
-	private String help = null;
+	public static final String HELP = "Show hosts known to the controller";
 	
 	/**
 	 * Constructor.
@@ -83,9 +84,19 @@ public class ShowHostCmd implements ICommand  {
 		return arguments;
 	}
 
+	@Override
+	public Permission getPermission() {
+		return Permission.SHOW;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
 	@Override
 	public String getHelpText() {
-		return help;
+		return HELP;
 	}
 
 	@Override
@@ -98,7 +109,7 @@ public class ShowHostCmd implements ICommand  {
 		Collection<? extends IDevice> devices = deviceManager.getAllDevices();
 		
 		try {
-			result = this.devicesToTableString(devices);
+			result = this.devicesToTableString(console, devices);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
@@ -108,13 +119,18 @@ public class ShowHostCmd implements ICommand  {
 	
 	/**
 	 * Creates a string table and returns a formated string that
-	 * shows the device information as a table.
+	 * shows the device information as a table. Large tables are
+	 * written to the console chunk by chunk, with the column widths
+	 * fixed from the first chunk, such that the first hosts are shown
+	 * without formating all of them first.
 	 * 
+	 * @param console The console to write large tables to.
 	 * @param devices A collection of devices.
-	 * @return A formated string that shows the device information as a table.
+	 * @return A formated string that shows the device information as a table,
+	 *         or the number of hosts if the table was written chunk by chunk.
 	 * @throws IOException
 	 */
-	private String devicesToTableString(Collection<? extends IDevice> devices) throws IOException {
+	private String devicesToTableString(IConsole console, Collection<? extends IDevice> devices) throws IOException {
 		/* The string table that contains all the device information as strings. */
         StringTable stringTable = new StringTable();
         
@@ -128,37 +144,30 @@ public class ShowHostCmd implements ICommand  {
         header.add("Tag");
         header.add("Last Seen");
         
-        // Add header to string table.
+        // Add header to string table. Numeric columns are stored as primitives.
         stringTable.setHeader(header);
+        stringTable.setColumnTypes(ColumnType.MAC, ColumnType.NUMBER, ColumnType.STRING, ColumnType.IP, ColumnType.STRING, ColumnType.STRING, ColumnType.TIMESTAMP);
+        stringTable.setColumnPriorities(0, 2, 3, 0, 0, 3, 1);
+        stringTable.setMaxWidth(console.getWidth());
+        /* The writer that writes large tables chunk by chunk. */
+        StringTableWriter writer = new StringTableWriter(console, stringTable);
 
 		// Generate table entries and add them to string table.
 		for (IDevice entry : devices) {
-			List<String> row = new LinkedList<String>();
-			row.add(entry.getMACAddressString());
-			row.add(entry.getVlanId().toString());
-			row.add("unknown");
-			row.add(entry.getIPv4Addresses()[0].toString());
-			row.add(entry.getAttachmentPoints().toString());
-			row.add("");
-			row.add(this.parseDate(entry.getLastSeen()));
-
-			stringTable.addRow(row);
+			stringTable.addRow();
+			stringTable.set(0, entry.getMACAddress());
+			if (entry.getVlanId().length > 0)
+				stringTable.set(1, entry.getVlanId()[0]);
+			stringTable.set(2, "unknown");
+			if (entry.getIPv4Addresses().length > 0)
+				stringTable.set(3, entry.getIPv4Addresses()[0] & 0xffffffffL);
+			stringTable.set(4, Arrays.toString(entry.getAttachmentPoints()));
+			stringTable.set(6, entry.getLastSeen().getTime());
+			writer.writeIfFull();
 		}
-        
-		// Return string table as a string.
-        return stringTable.toString();
-	}
-	
-	/**
-	 * Parses a date and returns a formated date string in the
-	 * form: "yyyy-MM-dd HH:mm:ss z", where z is the time zone.
-	 * 
-	 * @param date The date that needs to be converted into a formated string.
-	 * @return A formated date string.
-	 */
-	private String parseDate(Date date) {
-		SimpleDateFormat dateformat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss z");
-		return dateformat.format(date);
+		
+		// Return the whole table, if it fits into one chunk, or the number of hosts.
+		return writer.finish("hosts");
 	}
 
 }
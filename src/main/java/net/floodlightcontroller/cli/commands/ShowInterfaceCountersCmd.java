@@ -0,0 +1,206 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.commands.arguments.Argument;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+import net.floodlightcontroller.cli.commands.arguments.ParsedArguments;
+import net.floodlightcontroller.cli.stats.StatisticsCollector;
+import net.floodlightcontroller.cli.utils.StringTable;
+import net.floodlightcontroller.core.IFloodlightProviderService;
+import net.floodlightcontroller.core.IOFSwitch;
+import net.floodlightcontroller.core.module.FloodlightModuleContext;
+
+import org.openflow.protocol.statistics.OFPortStatisticsReply;
+import org.openflow.protocol.statistics.OFStatistics;
+import org.openflow.util.HexString;
+
+/**
+ * The "show interface counters" command shows the packet, byte,
+ * drop, and error counters of all ports of all switches, or of
+ * one switch if a DPID is given.
+ * 
+ * The port statistics requests are sent to all switches at once,
+ * such that the command takes one round trip time, no matter how
+ * many switches are connected.
+ */
+public class ShowInterfaceCountersCmd extends ArgumentCommand {
+	/** The command's argument schema. */
+	public static final ArgumentSchema SCHEMA = new ArgumentSchema(Argument.dpid("SWITCH").or("all").optional().help("Switch DPID, or all switches"));
+	/** Floodlight Context Service. */
+	private FloodlightModuleContext context;
+	/** The collector that sends (and coalesces) statistics requests. */
+	private StatisticsCollector collector;
+	/** The time in milliseconds to wait for each switch to answer. */
+	private long timeout;
+	/** The command string. */
+	private String commandString = "show interface counters";
+	/** The command's help text. */
+	public static final String HELP = "Show the port counters of all switches";
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param context The Floodlight context service.
+	 * @param collector The collector that sends statistics requests.
+	 * @param timeout The time in milliseconds to wait for each switch to answer.
+	 */
+	public ShowInterfaceCountersCmd(FloodlightModuleContext context, StatisticsCollector collector, long timeout) {
+		this.context = context;
+		this.collector = collector;
+		this.timeout = timeout;
+	}
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return SCHEMA.getUsage();
+	}
+	
+	@Override
+	public ArgumentSchema getArgumentSchema() {
+		return SCHEMA;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.SHOW;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
+	@Override
+	public String getHelpText() {
+		return HELP;
+	}
+
+	@Override
+	public String execute(IConsole console, ParsedArguments arguments) {
+		/* The Floodlight provider to access the switches. */
+		IFloodlightProviderService floodlightProvider = context.getServiceImpl(IFloodlightProviderService.class);
+		/* The switches to query. */
+		Collection<IOFSwitch> switches;
+		/* Switches that failed to answer. */
+		Map<Long, String> failures = new LinkedHashMap<Long, String>();
+		
+		if (arguments.getLong("SWITCH") == null) {
+			switches = new ArrayList<IOFSwitch>(floodlightProvider.getSwitches().values());
+		} else {
+			IOFSwitch sw = floodlightProvider.getSwitches().get(arguments.getLong("SWITCH"));
+			if (sw == null)
+				return "Switch not found: " + HexString.toHexString(arguments.getLong("SWITCH"));
+			switches = new ArrayList<IOFSwitch>();
+			switches.add(sw);
+		}
+		
+		Map<Long, List<OFStatistics>> statistics = this.collector.getPortStatistics(switches, this.timeout, failures);
+		
+		// Return.
+		return this.countersToTableString(statistics, failures);
+	}
+	
+	/**
+	 * Creates a string table and returns a formated string that
+	 * shows the port counters of all switches as a table.
+	 * 
+	 * @param statistics A map of switch DPIDs and their port statistics.
+	 * @param failures A map of switch DPIDs that failed to answer and the reason.
+	 * @return A formated string that shows the port counters as a table.
+	 */
+	private String countersToTableString(Map<Long, List<OFStatistics>> statistics, Map<Long, String> failures) {
+		/* The string table that contains all the counters as strings. */
+		StringTable stringTable = new StringTable();
+		/* The string builder that holds the resulting string. */
+		StringBuilder result = new StringBuilder();
+		
+		// Generate header data.
+		List<String> header = new LinkedList<String>();
+		header.add("Switch DPID");
+		header.add("Port");
+		header.add("Rx Packets");
+		header.add("Tx Packets");
+		header.add("Rx Bytes");
+		header.add("Tx Bytes");
+		header.add("Rx Dropped");
+		header.add("Tx Dropped");
+		header.add("Rx Errors");
+		header.add("Tx Errors");
+		
+		// Add header to string table.
+		stringTable.setHeader(header);
+		
+		// Generate table entries and add them to string table.
+		for (Map.Entry<Long, List<OFStatistics>> entry : statistics.entrySet()) {
+			String dpid = HexString.toHexString(entry.getKey());
+			for (OFStatistics statistic : entry.getValue()) {
+				OFPortStatisticsReply reply = (OFPortStatisticsReply) statistic;
+				List<String> row = new LinkedList<String>();
+				row.add(dpid);
+				row.add(Integer.toString(reply.getPortNumber() & 0xffff));
+				row.add(Long.toString(reply.getreceivePackets()));
+				row.add(Long.toString(reply.getTransmitPackets()));
+				row.add(Long.toString(reply.getReceiveBytes()));
+				row.add(Long.toString(reply.getTransmitBytes()));
+				row.add(Long.toString(reply.getReceiveDropped()));
+				row.add(Long.toString(reply.getTransmitDropped()));
+				row.add(Long.toString(reply.getreceiveErrors()));
+				row.add(Long.toString(reply.getTransmitErrors()));
+				
+				stringTable.addRow(row);
+			}
+		}
+		result.append(stringTable.toString());
+		
+		// Report switches that did not answer.
+		for (Map.Entry<Long, String> failure : failures.entrySet()) {
+			result.append("Switch " + HexString.toHexString(failure.getKey()) + " " + failure.getValue() + "\n");
+		}
+		
+		// Return.
+		return result.toString();
+	}
+
+}
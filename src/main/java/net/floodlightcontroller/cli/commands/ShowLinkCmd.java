@@ -0,0 +1,155 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+import net.floodlightcontroller.cli.commands.arguments.ParsedArguments;
+import net.floodlightcontroller.cli.topology.AdjacencyView;
+import net.floodlightcontroller.cli.utils.StringTable;
+import net.floodlightcontroller.cli.utils.StringTableWriter;
+import net.floodlightcontroller.routing.Link;
+
+import org.openflow.util.HexString;
+
+/**
+ * The "show link" command shows all links between switches
+ * as discovered by Floodlight's link discovery.
+ * 
+ * The links are read from the CLI's adjacency view and written
+ * to the console in chunks, such that the link map is neither
+ * copied nor serialized as a whole.
+ */
+public class ShowLinkCmd extends ArgumentCommand {
+	/** The command's argument schema. */
+	public static final ArgumentSchema SCHEMA = ArgumentSchema.NONE;
+	/** The column widths. Fixed, since the table is written in chunks. */
+	private static final int[] COLUMN_WIDTHS = {23, 8, 23, 8, 13, 23};
+	/** The adjacency view of the topology. */
+	private AdjacencyView adjacencyView;
+	/** The command string. */
+	private String commandString = "show link";
+	/** The command's help text. */
+	public static final String HELP = "Show the links between switches";
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param adjacencyView The adjacency view of the topology.
+	 */
+	public ShowLinkCmd(AdjacencyView adjacencyView) {
+		this.adjacencyView = adjacencyView;
+	}
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return null;
+	}
+	
+	@Override
+	public ArgumentSchema getArgumentSchema() {
+		return SCHEMA;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.SHOW;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
+	@Override
+	public String getHelpText() {
+		return HELP;
+	}
+
+	@Override
+	public String execute(IConsole console, ParsedArguments arguments) {
+		/* The string table that is re-used for each chunk. */
+		StringTable stringTable = new StringTable();
+		/* The date format of the discovery time. */
+		SimpleDateFormat dateformat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss z");
+		/* The writer that writes the table chunk by chunk. */
+		StringTableWriter writer = new StringTableWriter(console, stringTable);
+		
+		// Generate header data.
+		List<String> header = new LinkedList<String>();
+		header.add("Source Switch");
+		header.add("Src Port");
+		header.add("Destination Switch");
+		header.add("Dst Port");
+		header.add("Type");
+		header.add("Since");
+		
+		// Add header to string table.
+		stringTable.setHeader(header);
+		stringTable.setColumnWidths(COLUMN_WIDTHS);
+		
+		try {
+			writer.writeHeader();
+			
+			// Generate table entries and write them chunk by chunk.
+			for (AdjacencyView.LinkEntry entry : this.adjacencyView.getLinks()) {
+				Link link = entry.getLink();
+				List<String> row = new LinkedList<String>();
+				row.add(HexString.toHexString(link.getSrc()));
+				row.add(Integer.toString(link.getSrcPort() & 0xffff));
+				row.add(HexString.toHexString(link.getDst()));
+				row.add(Integer.toString(link.getDstPort() & 0xffff));
+				row.add((entry.getType() != null) ? entry.getType().toString().toLowerCase() : "");
+				row.add(dateformat.format(new Date(entry.getSince())));
+				
+				stringTable.addRow(row);
+				writer.writeIfFull();
+			}
+			
+			// Return.
+			return writer.finish("links");
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,117 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.util.List;
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.config.RunningConfig;
+
+/**
+ * The "show running-config" command shows the running configuration
+ * as the configuration commands that create it. Large configurations
+ * are written to the console chunk by chunk.
+ */
+public class ShowRunningConfigCmd implements ICommand {
+	/** The number of lines written to the console at once. */
+	private static final int CHUNK_SIZE = 256;
+	/** The running configuration. */
+	private RunningConfig runningConfig;
+	/** The command string. */
+	private String commandString = "show running-config";
+	/** The command's arguments. */
+	private String arguments = null;
+	/** The command's help text. */
+	public static final String HELP = "Show the running configuration";
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param runningConfig The running configuration.
+	 */
+	public ShowRunningConfigCmd(RunningConfig runningConfig) {
+		this.runningConfig = runningConfig;
+	}
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return arguments;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.SHOW;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
+	@Override
+	public String getHelpText() {
+		return HELP;
+	}
+
+	@Override
+	public String execute(IConsole console, String arguments) {
+		/* The configuration commands. */
+		List<String> lines = this.runningConfig.getLines();
+		/* The chunk of lines to write. */
+		StringBuilder sb = new StringBuilder();
+		
+		try {
+			for (int i = 0; i < lines.size(); i++) {
+				if (sb.length() > 0)
+					sb.append("\n");
+				sb.append(lines.get(i));
+				if ((i + 1) % CHUNK_SIZE == 0) {
+					console.write(sb.toString());
+					sb.setLength(0);
+				}
+			}
+			if (sb.length() > 0)
+				console.write(sb.toString());
+		} catch (IOException e) {
+			return null;
+		}
+		
+		// Return.
+		return (lines.isEmpty()) ? "The running configuration is empty." : null;
+	}
+
+}
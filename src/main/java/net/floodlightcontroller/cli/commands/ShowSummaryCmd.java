@@ -0,0 +1,154 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedList;
+import java.util.List;
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+import net.floodlightcontroller.cli.commands.arguments.ParsedArguments;
+import net.floodlightcontroller.cli.stats.ControllerCounters;
+import net.floodlightcontroller.cli.topology.AdjacencyView;
+import net.floodlightcontroller.cli.utils.StringTable;
+
+/**
+ * The "show summary" command shows aggregate information about
+ * the controller: the number of switches, hosts, and links, the
+ * rates of packet-ins and flow-mods, and memory and thread usage.
+ * 
+ * All numbers are read from counters that are maintained by
+ * listeners, thus the command takes constant time.
+ */
+public class ShowSummaryCmd extends ArgumentCommand {
+	/** The command's argument schema. */
+	public static final ArgumentSchema SCHEMA = ArgumentSchema.NONE;
+	/** The number of bytes per megabyte. */
+	private static final long MB = 1024 * 1024;
+	/** The aggregate counters of the controller. */
+	private ControllerCounters counters;
+	/** The adjacency view of the topology. */
+	private AdjacencyView adjacencyView;
+	/** The command string. */
+	private String commandString = "show summary";
+	/** The command's help text. */
+	public static final String HELP = "Show a summary of the controller";
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param counters The aggregate counters of the controller.
+	 * @param adjacencyView The adjacency view of the topology.
+	 */
+	public ShowSummaryCmd(ControllerCounters counters, AdjacencyView adjacencyView) {
+		this.counters = counters;
+		this.adjacencyView = adjacencyView;
+	}
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return null;
+	}
+	
+	@Override
+	public ArgumentSchema getArgumentSchema() {
+		return SCHEMA;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.SHOW;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
+	@Override
+	public String getHelpText() {
+		return HELP;
+	}
+
+	@Override
+	public String execute(IConsole console, ParsedArguments arguments) {
+		/* The string table that contains all the summary information as strings. */
+		StringTable stringTable = new StringTable();
+		/* The Java runtime to read the memory usage. */
+		Runtime runtime = Runtime.getRuntime();
+		/* The thread bean to read the thread usage. */
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		
+		// Generate header data.
+		List<String> header = new LinkedList<String>();
+		header.add("Counter");
+		header.add("Value");
+		
+		// Add header to string table.
+		stringTable.setHeader(header);
+		
+		// Generate table entries and add them to string table.
+		this.addRow(stringTable, "Switches", Integer.toString(this.counters.getSwitchCount()));
+		this.addRow(stringTable, "Hosts", Integer.toString(this.counters.getHostCount()));
+		this.addRow(stringTable, "Links", Integer.toString(this.adjacencyView.getLinkCount()));
+		this.addRow(stringTable, "Packet-ins", String.format("%.1f/s (%d total)", this.counters.getPacketIns().getRate(), this.counters.getPacketIns().getTotal()));
+		this.addRow(stringTable, "Flow-mods", String.format("%.1f/s (%d total)", this.counters.getFlowMods().getRate(), this.counters.getFlowMods().getTotal()));
+		this.addRow(stringTable, "Memory", String.format("%d MB used, %d MB allocated, %d MB max", (runtime.totalMemory() - runtime.freeMemory()) / MB, runtime.totalMemory() / MB, runtime.maxMemory() / MB));
+		this.addRow(stringTable, "Threads", String.format("%d (%d daemon, %d peak)", threads.getThreadCount(), threads.getDaemonThreadCount(), threads.getPeakThreadCount()));
+		
+		// Return.
+		return stringTable.toString();
+	}
+	
+	/**
+	 * Adds a row with a counter and its value to a string table.
+	 * 
+	 * @param stringTable The string table.
+	 * @param counter The name of the counter.
+	 * @param value The value of the counter.
+	 */
+	private void addRow(StringTable stringTable, String counter, String value) {
+		/* The table row. */
+		List<String> row = new LinkedList<String>();
+		
+		row.add(counter);
+		row.add(value);
+		stringTable.addRow(row);
+	}
+
+}
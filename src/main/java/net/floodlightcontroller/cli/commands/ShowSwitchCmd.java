@@ -66,7 +66,7 @@ public class ShowSwitchCmd implements ICommand {
 	/** The command's arguments. */
 	private String arguments = "[SWITCH]";
 	/** The command's help text. */
-	private String help = null;
+	public static final String HELP = "Show switches connected to the controller";
 
 	@Override
 	public String getCommandString() {
@@ -78,9 +78,19 @@ public class ShowSwitchCmd implements ICommand {
 		return arguments;
 	}
 
+	@Override
+	public Permission getPermission() {
+		return Permission.SHOW;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
 	@Override
 	public String getHelpText() {
-		return help;
+		return HELP;
 	}
 
 	@Override
@@ -98,7 +108,7 @@ public class ShowSwitchCmd implements ICommand {
 		
 		try {	
 			jsonData = this.filterJsonData(this.parseJson(cr.get().getText()), arguments);
-			result = this.jsonToTableString(jsonData);
+			result = this.jsonToTableString(jsonData, console.getWidth());
 		} catch (ResourceException e) {
 			System.out.println("Resource not found");
 			e.printStackTrace();
@@ -125,7 +135,7 @@ public class ShowSwitchCmd implements ICommand {
 		
 		try {	
 			jsonData = this.parseJson(clientResource.get().getText());			
-			result = this.jsonToTableString(jsonData);
+			result = this.jsonToTableString(jsonData, console.getWidth());
 		} catch (ResourceException e) {
 			System.out.println("Resource not found");
 			e.printStackTrace();
@@ -182,10 +192,11 @@ public class ShowSwitchCmd implements ICommand {
 	 * shows the device information as a table.
 	 * 
 	 * @param jsonData A map of nested JSON data strings.
+	 * @param width The width of the terminal, or 0 if unknown.
 	 * @return A formated string that shows the device information as a table.
 	 * @throws IOException
 	 */
-	private String jsonToTableString(List<Map<String,Object>> jsonData) throws IOException {
+	private String jsonToTableString(List<Map<String,Object>> jsonData, int width) throws IOException {
 		/* The string table that contains all the device information as strings. */
         StringTable stringTable = new StringTable();
         
@@ -202,8 +213,10 @@ public class ShowSwitchCmd implements ICommand {
         header.add("Max Packets");
         header.add("Max Tables");
         
-        // Add header to string table.
+        // Add header to string table. Columns that are not filled yet are hidden first on narrow terminals.
         stringTable.setHeader(header);
+        stringTable.setColumnPriorities(0, 3, 1, 3, 2, 0, 0, 3, 4, 4);
+        stringTable.setMaxWidth(width);
         
         // Generate table entries and add them to string table.
 		for (Map<String, Object> entry : jsonData) {
@@ -0,0 +1,199 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.commands.arguments.Argument;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+import net.floodlightcontroller.cli.commands.arguments.ParsedArguments;
+import net.floodlightcontroller.cli.stats.StatisticsCollector;
+import net.floodlightcontroller.cli.utils.StringTable;
+import net.floodlightcontroller.core.IFloodlightProviderService;
+import net.floodlightcontroller.core.IOFSwitch;
+import net.floodlightcontroller.core.module.FloodlightModuleContext;
+
+import org.openflow.protocol.OFPhysicalPort;
+import org.openflow.protocol.statistics.OFPortStatisticsReply;
+import org.openflow.protocol.statistics.OFStatistics;
+import org.openflow.util.HexString;
+
+/**
+ * The "show switch ports" command shows the ports of a switch
+ * together with their packet and byte counters, e.g.
+ * 
+ *   show switch 00:00:00:00:00:00:00:01 ports
+ * 
+ * The counters are retrieved by an OpenFlow port statistics request
+ * through the Floodlight provider service.
+ */
+public class ShowSwitchPortsCmd extends ArgumentCommand {
+	/** The command's argument schema. */
+	public static final ArgumentSchema SCHEMA = new ArgumentSchema(Argument.dpid("SWITCH").help("Switch DPID, e.g. 00:00:00:00:00:00:00:01"));
+	/** Floodlight Context Service. */
+	private FloodlightModuleContext context;
+	/** The collector that sends (and coalesces) statistics requests. */
+	private StatisticsCollector collector;
+	/** The time in milliseconds to wait for the switch to answer. */
+	private long timeout;
+	/** The command string. */
+	private String commandString = "show switch ports";
+	/** The command's help text. */
+	public static final String HELP = "Show the ports and port counters of a switch";
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param context The Floodlight context service.
+	 * @param collector The collector that sends statistics requests.
+	 * @param timeout The time in milliseconds to wait for the switch to answer.
+	 */
+	public ShowSwitchPortsCmd(FloodlightModuleContext context, StatisticsCollector collector, long timeout) {
+		this.context = context;
+		this.collector = collector;
+		this.timeout = timeout;
+	}
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return SCHEMA.getUsage();
+	}
+	
+	@Override
+	public ArgumentSchema getArgumentSchema() {
+		return SCHEMA;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.SHOW;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
+	@Override
+	public String getHelpText() {
+		return HELP;
+	}
+
+	@Override
+	public String execute(IConsole console, ParsedArguments arguments) {
+		/* The Floodlight provider to access the switches. */
+		IFloodlightProviderService floodlightProvider = context.getServiceImpl(IFloodlightProviderService.class);
+		/* The switch to show. */
+		IOFSwitch sw;
+		/* Switches that failed to answer. */
+		Map<Long, String> failures = new HashMap<Long, String>();
+		
+		sw = floodlightProvider.getSwitches().get(arguments.getLong("SWITCH"));
+		if (sw == null)
+			return "Switch not found: " + HexString.toHexString(arguments.getLong("SWITCH"));
+		
+		Map<Long, List<OFStatistics>> statistics = this.collector.getPortStatistics(Collections.singletonList(sw), this.timeout, failures);
+		
+		// Return.
+		return this.portsToTableString(sw, statistics.get(sw.getId()), failures.get(sw.getId()));
+	}
+	
+	/**
+	 * Creates a string table and returns a formated string that
+	 * shows the ports and their counters as a table.
+	 * 
+	 * @param sw The switch.
+	 * @param statistics The port statistics of the switch, or null.
+	 * @param failure The reason why no statistics are available, or null.
+	 * @return A formated string that shows the port information as a table.
+	 */
+	private String portsToTableString(IOFSwitch sw, List<OFStatistics> statistics, String failure) {
+		/* The string table that contains all the port information as strings. */
+		StringTable stringTable = new StringTable();
+		/* Map of port numbers and their statistics. */
+		Map<Short, OFPortStatisticsReply> counters = new HashMap<Short, OFPortStatisticsReply>();
+		
+		if (statistics != null) {
+			for (OFStatistics entry : statistics) {
+				OFPortStatisticsReply reply = (OFPortStatisticsReply) entry;
+				counters.put(reply.getPortNumber(), reply);
+			}
+		}
+		
+		// Generate header data.
+		List<String> header = new LinkedList<String>();
+		header.add("Port");
+		header.add("Name");
+		header.add("MAC Address");
+		header.add("Link");
+		header.add("Admin");
+		header.add("Rx Packets");
+		header.add("Tx Packets");
+		header.add("Rx Bytes");
+		header.add("Tx Bytes");
+		
+		// Add header to string table.
+		stringTable.setHeader(header);
+		
+		// Generate table entries and add them to string table.
+		for (OFPhysicalPort port : sw.getPorts()) {
+			OFPortStatisticsReply reply = counters.get(port.getPortNumber());
+			List<String> row = new LinkedList<String>();
+			row.add(Integer.toString(port.getPortNumber() & 0xffff));
+			row.add(port.getName());
+			row.add(HexString.toHexString(port.getHardwareAddress()));
+			row.add(((port.getState() & OFPhysicalPort.OFPortState.OFPPS_LINK_DOWN.getValue()) != 0) ? "down" : "up");
+			row.add(((port.getConfig() & OFPhysicalPort.OFPortConfig.OFPPC_PORT_DOWN.getValue()) != 0) ? "down" : "up");
+			row.add((reply != null) ? Long.toString(reply.getreceivePackets()) : "-");
+			row.add((reply != null) ? Long.toString(reply.getTransmitPackets()) : "-");
+			row.add((reply != null) ? Long.toString(reply.getReceiveBytes()) : "-");
+			row.add((reply != null) ? Long.toString(reply.getTransmitBytes()) : "-");
+			
+			stringTable.addRow(row);
+		}
+		
+		// Return.
+		if (failure != null)
+			return stringTable.toString() + "Counters of switch " + sw.getStringId() + " unavailable: " + failure;
+		return stringTable.toString();
+	}
+
+}
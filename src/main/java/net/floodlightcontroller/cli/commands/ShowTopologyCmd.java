@@ -0,0 +1,197 @@
+package net.floodlightcontroller.cli.commands;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.commands.arguments.Argument;
+import net.floodlightcontroller.cli.commands.arguments.ArgumentSchema;
+import net.floodlightcontroller.cli.commands.arguments.ParsedArguments;
+import net.floodlightcontroller.cli.topology.AdjacencyView;
+import net.floodlightcontroller.cli.utils.StringTable;
+import net.floodlightcontroller.routing.Link;
+
+import org.openflow.util.HexString;
+
+/**
+ * The "show topology" command shows the switches of the topology
+ * and their number of neighbors and links, or the neighbors of one
+ * switch if a DPID is given, e.g.
+ * 
+ *   show topology 00:00:00:00:00:00:00:01
+ * 
+ * The neighbors are read from the CLI's adjacency view, which
+ * takes O(degree) for a single switch.
+ */
+public class ShowTopologyCmd extends ArgumentCommand {
+	/** The command's argument schema. */
+	public static final ArgumentSchema SCHEMA = new ArgumentSchema(Argument.dpid("SWITCH").optional().help("Switch DPID, e.g. 00:00:00:00:00:00:00:01"));
+	/** The adjacency view of the topology. */
+	private AdjacencyView adjacencyView;
+	/** The command string. */
+	private String commandString = "show topology";
+	/** The command's help text. */
+	public static final String HELP = "Show the switches and their neighbors";
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param adjacencyView The adjacency view of the topology.
+	 */
+	public ShowTopologyCmd(AdjacencyView adjacencyView) {
+		this.adjacencyView = adjacencyView;
+	}
+
+	@Override
+	public String getCommandString() {
+		return commandString;
+	}
+	
+	@Override
+	public String getArguments() {
+		return SCHEMA.getUsage();
+	}
+	
+	@Override
+	public ArgumentSchema getArgumentSchema() {
+		return SCHEMA;
+	}
+
+	@Override
+	public Permission getPermission() {
+		return Permission.SHOW;
+	}
+
+	@Override
+	public CommandMode getMode() {
+		return CommandMode.EXEC;
+	}
+
+	@Override
+	public String getHelpText() {
+		return HELP;
+	}
+
+	@Override
+	public String execute(IConsole console, ParsedArguments arguments) {
+		if (!arguments.has("SWITCH"))
+			return this.switchesToTableString();
+		
+		// Return.
+		return this.neighborsToTableString(arguments.getLong("SWITCH"));
+	}
+	
+	/**
+	 * Creates a string table and returns a formated string that
+	 * shows all switches and their number of neighbors and links.
+	 * 
+	 * @return A formated string that shows the switches as a table.
+	 */
+	private String switchesToTableString() {
+		/* The string table that contains all the switch information as strings. */
+		StringTable stringTable = new StringTable();
+		
+		// Generate header data.
+		List<String> header = new LinkedList<String>();
+		header.add("Switch DPID");
+		header.add("Neighbors");
+		header.add("Links");
+		
+		// Add header to string table.
+		stringTable.setHeader(header);
+		
+		// Generate table entries and add them to string table.
+		for (long dpid : this.adjacencyView.getSwitches()) {
+			Set<Long> neighbors = new HashSet<Long>();
+			int links = 0;
+			for (AdjacencyView.LinkEntry entry : this.adjacencyView.getLinks(dpid)) {
+				Link link = entry.getLink();
+				neighbors.add((link.getSrc() == dpid) ? link.getDst() : link.getSrc());
+				links++;
+			}
+			
+			List<String> row = new LinkedList<String>();
+			row.add(HexString.toHexString(dpid));
+			row.add(Integer.toString(neighbors.size()));
+			row.add(Integer.toString(links));
+			
+			stringTable.addRow(row);
+		}
+		
+		// Return.
+		return stringTable.toString();
+	}
+	
+	/**
+	 * Creates a string table and returns a formated string that
+	 * shows the neighbors of a switch.
+	 * 
+	 * @param dpid The switch DPID.
+	 * @return A formated string that shows the neighbors as a table.
+	 */
+	private String neighborsToTableString(long dpid) {
+		/* The string table that contains all the neighbor information as strings. */
+		StringTable stringTable = new StringTable();
+		
+		// Generate header data.
+		List<String> header = new LinkedList<String>();
+		header.add("Port");
+		header.add("Direction");
+		header.add("Neighbor Switch");
+		header.add("Neighbor Port");
+		header.add("Type");
+		
+		// Add header to string table.
+		stringTable.setHeader(header);
+		
+		// Generate table entries and add them to string table.
+		for (AdjacencyView.LinkEntry entry : this.adjacencyView.getLinks(dpid)) {
+			Link link = entry.getLink();
+			boolean outgoing = (link.getSrc() == dpid);
+			List<String> row = new LinkedList<String>();
+			row.add(Integer.toString(((outgoing) ? link.getSrcPort() : link.getDstPort()) & 0xffff));
+			row.add((outgoing) ? "out" : "in");
+			row.add(HexString.toHexString((outgoing) ? link.getDst() : link.getSrc()));
+			row.add(Integer.toString(((outgoing) ? link.getDstPort() : link.getSrcPort()) & 0xffff));
+			row.add((entry.getType() != null) ? entry.getType().toString().toLowerCase() : "");
+			
+			stringTable.addRow(row);
+		}
+		
+		// Return.
+		return stringTable.toString();
+	}
+
+}
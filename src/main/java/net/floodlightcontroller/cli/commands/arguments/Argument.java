@@ -0,0 +1,227 @@
+package net.floodlightcontroller.cli.commands.arguments;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The declaration of a command argument, i.e. its name, type, and
+ * whether it is optional. Arguments are positional, unless they are
+ * introduced by a keyword, e.g. "table 0". Arguments are immutable,
+ * the modifiers return new arguments, e.g.
+ * 
+ *   Argument.dpid("SWITCH").optional().help("The switch DPID")
+ */
+public class Argument {
+	/** The name of the argument, used to access its value. */
+	private final String name;
+	/** The type of the argument. */
+	private final ArgumentType type;
+	/** Whether the argument is optional. */
+	private final boolean optional;
+	/** The keyword that introduces the argument, or null if it is positional. */
+	private final String keyword;
+	/** The values of enum arguments, or literals accepted in place of a typed value. */
+	private final List<String> values;
+	/** The argument's help text, or null. */
+	private final String help;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param name The name of the argument.
+	 * @param type The type of the argument.
+	 * @param optional Whether the argument is optional.
+	 * @param keyword The keyword that introduces the argument, or null.
+	 * @param values The values of enum arguments, or accepted literals.
+	 * @param help The argument's help text, or null.
+	 */
+	private Argument(String name, ArgumentType type, boolean optional, String keyword, List<String> values, String help) {
+		this.name = name;
+		this.type = type;
+		this.optional = optional;
+		this.keyword = keyword;
+		this.values = values;
+		this.help = help;
+	}
+	
+	/**
+	 * Creates a (required, positional) argument.
+	 * 
+	 * @param name The name of the argument.
+	 * @param type The type of the argument.
+	 * @return The argument.
+	 */
+	public static Argument of(String name, ArgumentType type) {
+		return new Argument(name, type, false, null, Collections.<String>emptyList(), null);
+	}
+	
+	/**
+	 * Creates a switch DPID argument.
+	 * 
+	 * @param name The name of the argument.
+	 * @return The argument.
+	 */
+	public static Argument dpid(String name) {
+		return of(name, ArgumentType.DPID);
+	}
+	
+	/**
+	 * Creates an enum argument, i.e. an argument that is one of a set of values.
+	 * 
+	 * @param name The name of the argument.
+	 * @param values The values of the argument.
+	 * @return The argument.
+	 */
+	public static Argument oneOf(String name, String... values) {
+		return new Argument(name, ArgumentType.ENUM, false, null, Arrays.asList(values), null);
+	}
+	
+	/**
+	 * Creates an argument that takes the rest of the command line.
+	 * 
+	 * @param name The name of the argument.
+	 * @return The argument.
+	 */
+	public static Argument rest(String name) {
+		return of(name, ArgumentType.REST);
+	}
+	
+	/**
+	 * Makes the argument optional.
+	 * 
+	 * @return The optional argument.
+	 */
+	public Argument optional() {
+		return new Argument(this.name, this.type, true, this.keyword, this.values, this.help);
+	}
+	
+	/**
+	 * Introduces the argument by a keyword, e.g. "table" in "table 0".
+	 * 
+	 * @param keyword The keyword.
+	 * @return The keyword argument.
+	 */
+	public Argument keyword(String keyword) {
+		return new Argument(this.name, this.type, this.optional, keyword.toLowerCase(), this.values, this.help);
+	}
+	
+	/**
+	 * Accepts literals in place of a typed value, e.g. "all" in place of a DPID.
+	 * 
+	 * @param literals The literals.
+	 * @return The argument.
+	 */
+	public Argument or(String... literals) {
+		return new Argument(this.name, this.type, this.optional, this.keyword, Arrays.asList(literals), this.help);
+	}
+	
+	/**
+	 * Sets the argument's help text.
+	 * 
+	 * @param help The help text.
+	 * @return The argument.
+	 */
+	public Argument help(String help) {
+		return new Argument(this.name, this.type, this.optional, this.keyword, this.values, help);
+	}
+	
+	public String getName() {
+		return this.name;
+	}
+	
+	public ArgumentType getType() {
+		return this.type;
+	}
+	
+	public boolean isOptional() {
+		return this.optional;
+	}
+	
+	public String getKeyword() {
+		return this.keyword;
+	}
+	
+	public List<String> getValues() {
+		return this.values;
+	}
+	
+	public String getHelpText() {
+		return this.help;
+	}
+	
+	/**
+	 * Parses a token of the command line. Accepts the enum values
+	 * and literals (case insensitive) or a valid value of the type.
+	 * 
+	 * @param token The token.
+	 * @return The typed value.
+	 * @throws IllegalArgumentException if the token is not valid.
+	 */
+	public Object parse(String token) {
+		for (String value : this.values) {
+			if (value.equalsIgnoreCase(token))
+				return value;
+		}
+		if (this.type == ArgumentType.ENUM)
+			throw new IllegalArgumentException("Invalid " + this.name + ": " + token + " (use " + this.getUsage() + ")");
+		
+		// Return.
+		return this.type.parse(token);
+	}
+	
+	/**
+	 * Gets the usage string of the argument, e.g. "[SWITCH]" or "all|SWITCH".
+	 * 
+	 * @return The usage string.
+	 */
+	public String getUsage() {
+		/* String builder that contains the usage string. */
+		StringBuilder usage = new StringBuilder();
+		
+		if (this.keyword != null)
+			usage.append(this.keyword).append(" ");
+		for (String value : this.values) {
+			usage.append(value).append("|");
+		}
+		if (this.type != ArgumentType.ENUM) {
+			usage.append(this.name.toUpperCase());
+		} else if (usage.length() > 0) {
+			usage.setLength(usage.length() - 1);
+		}
+		
+		// Return.
+		return (this.optional) ? "[" + usage + "]" : usage.toString();
+	}
+	
+}
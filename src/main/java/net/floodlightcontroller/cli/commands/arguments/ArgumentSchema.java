@@ -0,0 +1,201 @@
+package net.floodlightcontroller.cli.commands.arguments;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The declarative argument schema of a command. The schema is
+ * compiled when it is created, i.e. the arguments are checked and
+ * split into positional and keyword arguments once, such that parsing
+ * a command line is a single pass over its tokens. The same schema
+ * provides the usage string, completion, and help of a command.
+ */
+public class ArgumentSchema {
+	/** The schema of commands without arguments. */
+	public static final ArgumentSchema NONE = new ArgumentSchema();
+	/** All arguments, in the order of declaration. */
+	private final List<Argument> arguments;
+	/** The positional arguments, in order. */
+	private final Argument[] positional;
+	/** Map of keywords and the arguments they introduce. */
+	private final Map<String, Argument> keywords = new HashMap<String, Argument>();
+	/** The number of required positional arguments. */
+	private final int required;
+	/** The usage string, e.g. "SWITCH [MATCH]". */
+	private final String usage;
+	
+	/**
+	 * Constructor. Compiles the schema.
+	 * 
+	 * @param arguments The arguments of the command.
+	 * @throws IllegalArgumentException if the schema is inconsistent.
+	 */
+	public ArgumentSchema(Argument... arguments) {
+		/* The positional arguments. */
+		List<Argument> positional = new ArrayList<Argument>();
+		/* The names of all arguments. */
+		Set<String> names = new HashSet<String>();
+		/* String builder that contains the usage string. */
+		StringBuilder usage = new StringBuilder();
+		/* The number of required positional arguments. */
+		int required = 0;
+		
+		for (Argument argument : arguments) {
+			if (!names.add(argument.getName()))
+				throw new IllegalArgumentException("Duplicate argument: " + argument.getName());
+			
+			if (argument.getKeyword() != null) {
+				this.keywords.put(argument.getKeyword(), argument);
+			} else {
+				if (!positional.isEmpty() && positional.get(positional.size() - 1).getType() == ArgumentType.REST)
+					throw new IllegalArgumentException("Argument after rest argument: " + argument.getName());
+				if (!argument.isOptional()) {
+					if (required < positional.size())
+						throw new IllegalArgumentException("Required argument after optional argument: " + argument.getName());
+					required++;
+				}
+				positional.add(argument);
+			}
+			usage.append(argument.getUsage()).append(" ");
+		}
+		
+		this.arguments = Collections.unmodifiableList(Arrays.asList(arguments));
+		this.positional = positional.toArray(new Argument[positional.size()]);
+		this.required = required;
+		this.usage = usage.toString().trim();
+	}
+	
+	/**
+	 * Parses the arguments of a command line into typed values.
+	 * 
+	 * @param line The arguments of the command line.
+	 * @return The typed values.
+	 * @throws IllegalArgumentException if an argument is missing, unexpected, or invalid.
+	 */
+	public ParsedArguments parse(String line) {
+		/* The tokens of the command line. */
+		String[] tokens = (line.trim().length() > 0) ? line.trim().split(" +") : new String[0];
+		/* Map of argument names and their typed values. */
+		Map<String, Object> values = new LinkedHashMap<String, Object>();
+		/* The index of the next positional argument. */
+		int position = 0;
+		
+		for (int i = 0; i < tokens.length; i++) {
+			Argument keyword = this.keywords.get(tokens[i].toLowerCase());
+			if (keyword != null && !values.containsKey(keyword.getName())) {
+				if (i + 1 >= tokens.length)
+					throw new IllegalArgumentException("Missing value: " + keyword.getUsage());
+				values.put(keyword.getName(), keyword.parse(tokens[++i]));
+				continue;
+			}
+			
+			if (position >= this.positional.length)
+				throw new IllegalArgumentException("Unexpected argument: " + tokens[i]);
+			
+			Argument argument = this.positional[position++];
+			
+			// Skip optional arguments the token is not valid for.
+			while (argument.isOptional() && position < this.positional.length && !this.isValid(argument, tokens[i])) {
+				argument = this.positional[position++];
+			}
+			
+			if (argument.getType() == ArgumentType.REST) {
+				StringBuilder rest = new StringBuilder(tokens[i]);
+				while (++i < tokens.length) {
+					rest.append(" ").append(tokens[i]);
+				}
+				values.put(argument.getName(), rest.toString());
+			} else {
+				values.put(argument.getName(), argument.parse(tokens[i]));
+			}
+		}
+		
+		// Check for missing arguments.
+		if (position < this.required)
+			throw new IllegalArgumentException("Missing argument: " + this.positional[position].getUsage());
+		for (Argument keyword : this.keywords.values()) {
+			if (!keyword.isOptional() && !values.containsKey(keyword.getName()))
+				throw new IllegalArgumentException("Missing argument: " + keyword.getUsage());
+		}
+		
+		// Return.
+		return new ParsedArguments(line, values);
+	}
+	
+	/**
+	 * Checks whether a token is valid for an argument.
+	 * 
+	 * @param argument The argument.
+	 * @param token The token.
+	 * @return True if the token is valid.
+	 */
+	private boolean isValid(Argument argument, String token) {
+		try {
+			argument.parse(token);
+			return true;
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Gets all arguments, in the order of declaration.
+	 * 
+	 * @return The arguments.
+	 */
+	public List<Argument> getArguments() {
+		return this.arguments;
+	}
+	
+	/**
+	 * Gets the usage string, e.g. "SWITCH [MATCH]".
+	 * 
+	 * @return The usage string, or an empty string if there are no arguments.
+	 */
+	public String getUsage() {
+		return this.usage;
+	}
+	
+	@Override
+	public String toString() {
+		return this.usage;
+	}
+	
+}
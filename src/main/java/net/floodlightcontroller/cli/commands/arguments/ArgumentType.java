@@ -0,0 +1,118 @@
+package net.floodlightcontroller.cli.commands.arguments;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.regex.Pattern;
+
+import org.openflow.util.HexString;
+
+/**
+ * The types of command arguments. Each type parses and validates
+ * a token of the command line into a typed value.
+ */
+public enum ArgumentType {
+	/** Any token, parsed as string. */
+	STRING {
+		@Override
+		public Object parse(String token) {
+			return token;
+		}
+	},
+	/** A decimal integer, parsed as Integer. */
+	INTEGER {
+		@Override
+		public Object parse(String token) {
+			try {
+				return Integer.valueOf(token);
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid number: " + token);
+			}
+		}
+	},
+	/** A switch DPID, e.g. 00:00:00:00:00:00:00:01, parsed as Long. */
+	DPID {
+		@Override
+		public Object parse(String token) {
+			if (!DPID_PATTERN.matcher(token).matches())
+				throw new IllegalArgumentException("Invalid switch DPID: " + token);
+			return HexString.toLong(token);
+		}
+	},
+	/** A MAC address, e.g. 00:00:00:00:00:01, parsed as (lower case) string. */
+	MAC {
+		@Override
+		public Object parse(String token) {
+			if (!MAC_PATTERN.matcher(token).matches())
+				throw new IllegalArgumentException("Invalid MAC address: " + token);
+			return token.toLowerCase();
+		}
+	},
+	/** An IPv4 address, e.g. 10.0.0.1, parsed as string. */
+	IP {
+		@Override
+		public Object parse(String token) {
+			if (!IP_PATTERN.matcher(token).matches())
+				throw new IllegalArgumentException("Invalid IP address: " + token);
+			return token;
+		}
+	},
+	/** One of a set of values, parsed as (the canonical) string. */
+	ENUM {
+		@Override
+		public Object parse(String token) {
+			return token;
+		}
+	},
+	/** The rest of the command line, parsed as string. */
+	REST {
+		@Override
+		public Object parse(String token) {
+			return token;
+		}
+	};
+	
+	/** The pattern of switch DPIDs: up to eight colon separated hex bytes. */
+	private static final Pattern DPID_PATTERN = Pattern.compile("([0-9a-fA-F]{1,2}:){0,7}[0-9a-fA-F]{1,2}");
+	/** The pattern of MAC addresses: six colon separated hex bytes. */
+	private static final Pattern MAC_PATTERN = Pattern.compile("([0-9a-fA-F]{2}:){5}[0-9a-fA-F]{2}");
+	/** The pattern of IPv4 addresses. */
+	private static final Pattern IP_PATTERN = Pattern.compile("((25[0-5]|2[0-4][0-9]|1[0-9][0-9]|[1-9]?[0-9])\\.){3}(25[0-5]|2[0-4][0-9]|1[0-9][0-9]|[1-9]?[0-9])");
+	
+	/**
+	 * Parses and validates a token of the command line.
+	 * 
+	 * @param token The token.
+	 * @return The typed value.
+	 * @throws IllegalArgumentException if the token is not valid for the type.
+	 */
+	public abstract Object parse(String token);
+	
+}
@@ -0,0 +1,133 @@
+package net.floodlightcontroller.cli.commands.arguments;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The typed values of the arguments of a command line, as parsed
+ * by an argument schema. Values are accessed by argument name.
+ */
+public class ParsedArguments {
+	/** The arguments of the command line as a string. */
+	private final String line;
+	/** Map of argument names and their typed values. */
+	private final Map<String, Object> values;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param line The arguments of the command line as a string.
+	 * @param values Map of argument names and their typed values.
+	 */
+	ParsedArguments(String line, Map<String, Object> values) {
+		this.line = line;
+		this.values = Collections.unmodifiableMap(values);
+	}
+	
+	/**
+	 * Gets the arguments of the command line as they were given.
+	 * 
+	 * @return The arguments of the command line as a string.
+	 */
+	public String getLine() {
+		return this.line;
+	}
+	
+	/**
+	 * Checks whether an (optional) argument is given.
+	 * 
+	 * @param name The name of the argument.
+	 * @return True if the argument is given.
+	 */
+	public boolean has(String name) {
+		return this.values.containsKey(name);
+	}
+	
+	/**
+	 * Gets the value of an argument.
+	 * 
+	 * @param name The name of the argument.
+	 * @return The value of the argument, or null if it is not given.
+	 */
+	public Object get(String name) {
+		return this.values.get(name);
+	}
+	
+	/**
+	 * Gets the value of a string, MAC, IP, enum, or rest argument.
+	 * 
+	 * @param name The name of the argument.
+	 * @return The value of the argument, or null if it is not given.
+	 */
+	public String getString(String name) {
+		/* The value of the argument. */
+		Object value = this.values.get(name);
+		
+		// Return.
+		return (value != null) ? value.toString() : null;
+	}
+	
+	/**
+	 * Gets the value of a DPID argument.
+	 * 
+	 * @param name The name of the argument.
+	 * @return The value of the argument, or null if it is not given or a literal.
+	 */
+	public Long getLong(String name) {
+		/* The value of the argument. */
+		Object value = this.values.get(name);
+		
+		// Return.
+		return (value instanceof Long) ? (Long) value : null;
+	}
+	
+	/**
+	 * Gets the value of an integer argument.
+	 * 
+	 * @param name The name of the argument.
+	 * @return The value of the argument, or null if it is not given or a literal.
+	 */
+	public Integer getInteger(String name) {
+		/* The value of the argument. */
+		Object value = this.values.get(name);
+		
+		// Return.
+		return (value instanceof Integer) ? (Integer) value : null;
+	}
+	
+	@Override
+	public String toString() {
+		return this.values.toString();
+	}
+	
+}
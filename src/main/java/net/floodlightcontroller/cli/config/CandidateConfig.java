@@ -0,0 +1,176 @@
+package net.floodlightcontroller.cli.config;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The candidate configuration of a console session. Changes made in
+ * configuration mode are staged here, and nothing is sent to the
+ * controller or the switches until the candidate is committed. Then,
+ * all staged changes are applied as one batch by the running
+ * configuration.
+ * 
+ * A candidate belongs to exactly one console session, hence it is
+ * not thread-safe.
+ */
+public class CandidateConfig {
+	/** The staged flow entries by name, in the order of staging. A null value removes the flow entry. */
+	private final Map<String, FlowEntry> flows = new LinkedHashMap<String, FlowEntry>();
+	/** The staged firewall state, or null if unchanged. */
+	private Boolean firewall;
+	/** The staged firewall rules by name, in the order of staging. A null value removes the firewall rule. */
+	private final Map<String, FirewallRuleEntry> rules = new LinkedHashMap<String, FirewallRuleEntry>();
+	
+	/**
+	 * Stages a flow entry. An entry with the same name is replaced.
+	 * 
+	 * @param flow The flow entry.
+	 */
+	public void setFlow(FlowEntry flow) {
+		this.flows.remove(flow.getName());
+		this.flows.put(flow.getName(), flow);
+	}
+	
+	/**
+	 * Stages the removal of a flow entry.
+	 * 
+	 * @param name The name of the flow entry.
+	 */
+	public void removeFlow(String name) {
+		this.flows.remove(name);
+		this.flows.put(name, null);
+	}
+	
+	/**
+	 * Gets the staged flow entries by name. A null value means that
+	 * the flow entry is removed.
+	 * 
+	 * @return An unmodifiable map of the staged flow entries.
+	 */
+	public Map<String, FlowEntry> getFlows() {
+		return Collections.unmodifiableMap(this.flows);
+	}
+	
+	/**
+	 * Stages enabling or disabling the firewall.
+	 * 
+	 * @param enable True to enable the firewall.
+	 */
+	public void setFirewall(boolean enable) {
+		this.firewall = enable;
+	}
+	
+	/**
+	 * Gets the staged firewall state.
+	 * 
+	 * @return True or false to enable or disable the firewall, or null if unchanged.
+	 */
+	public Boolean getFirewall() {
+		return this.firewall;
+	}
+	
+	/**
+	 * Stages a firewall rule. A rule with the same name is replaced.
+	 * 
+	 * @param rule The firewall rule.
+	 */
+	public void setRule(FirewallRuleEntry rule) {
+		this.rules.remove(rule.getName());
+		this.rules.put(rule.getName(), rule);
+	}
+	
+	/**
+	 * Stages the removal of a firewall rule.
+	 * 
+	 * @param name The name of the firewall rule.
+	 */
+	public void removeRule(String name) {
+		this.rules.remove(name);
+		this.rules.put(name, null);
+	}
+	
+	/**
+	 * Gets the staged firewall rules by name. A null value means that
+	 * the firewall rule is removed.
+	 * 
+	 * @return An unmodifiable map of the staged firewall rules.
+	 */
+	public Map<String, FirewallRuleEntry> getRules() {
+		return Collections.unmodifiableMap(this.rules);
+	}
+	
+	/**
+	 * Gets the number of staged changes.
+	 * 
+	 * @return The number of changes.
+	 */
+	public int size() {
+		return this.flows.size() + this.rules.size() + ((this.firewall != null) ? 1 : 0);
+	}
+	
+	/**
+	 * Checks whether no changes are staged.
+	 * 
+	 * @return True if the candidate is empty.
+	 */
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+	
+	/**
+	 * Gets the staged changes as configuration commands, in the order
+	 * they were staged.
+	 * 
+	 * @return The configuration commands.
+	 */
+	public List<String> getLines() {
+		/* The configuration commands. */
+		List<String> lines = new ArrayList<String>(this.size());
+		
+		if (this.firewall != null)
+			lines.add((this.firewall) ? "firewall enable" : "firewall disable");
+		for (Map.Entry<String, FirewallRuleEntry> entry : this.rules.entrySet()) {
+			lines.add((entry.getValue() != null) ? entry.getValue().toString() : "no firewall rule " + entry.getKey());
+		}
+		for (Map.Entry<String, FlowEntry> entry : this.flows.entrySet()) {
+			lines.add((entry.getValue() != null) ? entry.getValue().toString() : "no flow " + entry.getKey());
+		}
+		
+		// Return.
+		return lines;
+	}
+
+}
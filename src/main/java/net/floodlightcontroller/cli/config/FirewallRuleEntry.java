@@ -0,0 +1,356 @@
+package net.floodlightcontroller.cli.config;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.regex.Pattern;
+
+import net.floodlightcontroller.firewall.FirewallRule;
+import net.floodlightcontroller.packet.Ethernet;
+import net.floodlightcontroller.packet.IPv4;
+
+import org.openflow.util.HexString;
+
+/**
+ * A firewall rule as configured by the CLI, i.e. the rule's name, its
+ * priority, its match in the keys of the firewall's REST API, and
+ * whether matching packets are allowed or denied, e.g.
+ * 
+ *   firewall rule ssh priority 10 match dst-ip=10.0.0.0/8,nw-proto=tcp,tp-dst=22 action allow
+ * 
+ * The firewall identifies rules by an ID that is derived from the
+ * rule's fields, so the CLI keeps the names and computes the ID of
+ * each entry to delete it again. Like flow entries, firewall rule
+ * entries are immutable, validated when they are created, and their
+ * names must not contain whitespace.
+ */
+public class FirewallRuleEntry {
+	/** The pattern of whitespace, which separates the values of the configuration command. */
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	/** The name of the firewall rule. */
+	private final String name;
+	/** The priority of the firewall rule. */
+	private final int priority;
+	/** The match as a string, e.g. "nw-proto=tcp,tp-dst=22", or null to match all packets. */
+	private final String match;
+	/** Whether matching packets are allowed, or denied. */
+	private final boolean allow;
+	/** The ID of the rule in the firewall. */
+	private final int ruleId;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param name The name of the firewall rule.
+	 * @param priority The priority of the firewall rule.
+	 * @param match The match as a string, or null to match all packets. Whitespace is removed.
+	 * @param allow True to allow matching packets, false to deny them.
+	 * @throws IllegalArgumentException if the name, the match or the priority is invalid.
+	 */
+	public FirewallRuleEntry(String name, int priority, String match, boolean allow) {
+		if (name == null || name.length() == 0)
+			throw new IllegalArgumentException("Missing name of firewall rule");
+		if (WHITESPACE.matcher(name).find())
+			throw new IllegalArgumentException("Invalid firewall rule name: \"" + name + "\" (must not contain whitespace)");
+		if (priority < 0)
+			throw new IllegalArgumentException("Invalid priority: " + priority);
+		
+		match = (match != null) ? WHITESPACE.matcher(match).replaceAll("") : null;
+		
+		this.name = name;
+		this.priority = priority;
+		this.match = (match != null && match.length() > 0) ? match : null;
+		this.allow = allow;
+		this.ruleId = this.toFirewallRule().genID();
+	}
+	
+	/**
+	 * Getter for the name of the firewall rule.
+	 * 
+	 * @return The name of the firewall rule.
+	 */
+	public String getName() {
+		return this.name;
+	}
+	
+	/**
+	 * Getter for the priority.
+	 * 
+	 * @return The priority of the firewall rule.
+	 */
+	public int getPriority() {
+		return this.priority;
+	}
+	
+	/**
+	 * Getter for the match string.
+	 * 
+	 * @return The match as a string, or null to match all packets.
+	 */
+	public String getMatch() {
+		return this.match;
+	}
+	
+	/**
+	 * Checks whether matching packets are allowed.
+	 * 
+	 * @return True if matching packets are allowed, false if they are denied.
+	 */
+	public boolean isAllow() {
+		return this.allow;
+	}
+	
+	/**
+	 * Gets the ID of the rule in the firewall.
+	 * 
+	 * @return The rule ID.
+	 */
+	public int getRuleId() {
+		return this.ruleId;
+	}
+	
+	/**
+	 * Creates the firewall rule. The fields are set the way the
+	 * firewall's REST API sets them, e.g. matching an IP address or
+	 * an IP protocol implies matching IPv4 packets. The rule ID is left
+	 * to the firewall, which derives it from the fields when the rule
+	 * is added.
+	 * 
+	 * @return A new firewall rule.
+	 * @throws IllegalArgumentException if the match is invalid.
+	 */
+	public FirewallRule toFirewallRule() {
+		/* The firewall rule. */
+		FirewallRule rule = new FirewallRule();
+		
+		rule.priority = this.priority;
+		rule.action = (this.allow) ? FirewallRule.FirewallAction.ALLOW : FirewallRule.FirewallAction.DENY;
+		if (this.match != null) {
+			for (String field : this.match.split(",")) {
+				/* The key and the value of the field. */
+				String[] keyValue = field.split("=", 2);
+				if (keyValue.length != 2 || keyValue[1].length() == 0)
+					throw new IllegalArgumentException("Invalid match field: " + field);
+				try {
+					setField(rule, keyValue[0], keyValue[1].toLowerCase());
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid match field: " + field);
+				}
+			}
+		}
+		
+		// Return.
+		return rule;
+	}
+	
+	/**
+	 * Sets a field of a firewall rule.
+	 * 
+	 * @param rule The firewall rule.
+	 * @param key The key of the field, e.g. "tp-dst".
+	 * @param value The value of the field, e.g. "22".
+	 * @throws IllegalArgumentException if the key or the value is invalid.
+	 */
+	private static void setField(FirewallRule rule, String key, String value) {
+		if (key.equals("switchid")) {
+			rule.dpid = HexString.toLong(value);
+			rule.wildcard_dpid = false;
+		} else if (key.equals("src-inport")) {
+			rule.in_port = Short.parseShort(value);
+			rule.wildcard_in_port = false;
+		} else if (key.equals("src-mac")) {
+			rule.dl_src = Ethernet.toLong(Ethernet.toMACAddress(value));
+			rule.wildcard_dl_src = false;
+		} else if (key.equals("dst-mac")) {
+			rule.dl_dst = Ethernet.toLong(Ethernet.toMACAddress(value));
+			rule.wildcard_dl_dst = false;
+		} else if (key.equals("dl-type")) {
+			if (value.equals("arp")) {
+				rule.dl_type = Ethernet.TYPE_ARP;
+			} else if (value.equals("ipv4")) {
+				rule.dl_type = Ethernet.TYPE_IPv4;
+			} else {
+				throw new IllegalArgumentException("Invalid dl-type: " + value + " (arp or ipv4)");
+			}
+			rule.wildcard_dl_type = false;
+		} else if (key.equals("src-ip")) {
+			int[] prefix = parsePrefix(value);
+			rule.nw_src_prefix = prefix[0];
+			rule.nw_src_maskbits = prefix[1];
+			rule.wildcard_nw_src = false;
+			rule.dl_type = Ethernet.TYPE_IPv4;
+			rule.wildcard_dl_type = false;
+		} else if (key.equals("dst-ip")) {
+			int[] prefix = parsePrefix(value);
+			rule.nw_dst_prefix = prefix[0];
+			rule.nw_dst_maskbits = prefix[1];
+			rule.wildcard_nw_dst = false;
+			rule.dl_type = Ethernet.TYPE_IPv4;
+			rule.wildcard_dl_type = false;
+		} else if (key.equals("nw-proto")) {
+			if (value.equals("tcp")) {
+				rule.nw_proto = IPv4.PROTOCOL_TCP;
+			} else if (value.equals("udp")) {
+				rule.nw_proto = IPv4.PROTOCOL_UDP;
+			} else if (value.equals("icmp")) {
+				rule.nw_proto = IPv4.PROTOCOL_ICMP;
+			} else {
+				throw new IllegalArgumentException("Invalid nw-proto: " + value + " (tcp, udp or icmp)");
+			}
+			rule.wildcard_nw_proto = false;
+			rule.dl_type = Ethernet.TYPE_IPv4;
+			rule.wildcard_dl_type = false;
+		} else if (key.equals("tp-src")) {
+			rule.tp_src = (short) parsePort(value);
+			rule.wildcard_tp_src = false;
+		} else if (key.equals("tp-dst")) {
+			rule.tp_dst = (short) parsePort(value);
+			rule.wildcard_tp_dst = false;
+		} else {
+			throw new IllegalArgumentException("Unknown match field: " + key
+					+ " (switchid, src-inport, src-mac, dst-mac, dl-type, src-ip, dst-ip, nw-proto, tp-src or tp-dst)");
+		}
+	}
+	
+	/**
+	 * Parses an IPv4 prefix in CIDR notation.
+	 * 
+	 * @param value The prefix, e.g. "10.0.0.0/8", or an address.
+	 * @return The address and the number of mask bits.
+	 * @throws IllegalArgumentException if the prefix is invalid.
+	 */
+	private static int[] parsePrefix(String value) {
+		/* The address and the mask bits. */
+		String[] parts = value.split("/", 2);
+		int maskBits = (parts.length == 2) ? Integer.parseInt(parts[1]) : 32;
+		
+		if (maskBits < 0 || maskBits > 32)
+			throw new IllegalArgumentException("Invalid prefix length: " + value);
+		
+		// Return.
+		return new int[] {IPv4.toIPv4Address(parts[0]), maskBits};
+	}
+	
+	/**
+	 * Parses a transport port.
+	 * 
+	 * @param value The port.
+	 * @return The port, 0 to 65535.
+	 * @throws IllegalArgumentException if the port is invalid.
+	 */
+	private static int parsePort(String value) {
+		/* The port. */
+		int port = Integer.parseInt(value);
+		
+		if (port < 0 || port > 0xffff)
+			throw new IllegalArgumentException("Invalid port: " + value);
+		
+		// Return.
+		return port;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof FirewallRuleEntry))
+			return false;
+		
+		FirewallRuleEntry other = (FirewallRuleEntry) obj;
+		return this.priority == other.priority && this.allow == other.allow && this.name.equals(other.name)
+				&& ((this.match != null) ? this.match.equals(other.match) : other.match == null);
+	}
+	
+	@Override
+	public int hashCode() {
+		int result = this.name.hashCode();
+		result = 31 * result + this.priority;
+		result = 31 * result + ((this.match != null) ? this.match.hashCode() : 0);
+		return 31 * result + ((this.allow) ? 1 : 0);
+	}
+	
+	/**
+	 * Parses a firewall rule from the configuration command that
+	 * creates it, i.e. the inverse of toString().
+	 * 
+	 * @param line The configuration command, e.g. "firewall rule ssh match nw-proto=tcp,tp-dst=22 action allow".
+	 * @return The firewall rule entry.
+	 * @throws IllegalArgumentException if the line is not a valid firewall rule.
+	 */
+	public static FirewallRuleEntry parse(String line) {
+		/* The tokens of the line. */
+		String[] tokens = line.trim().split(" +");
+		/* The values of the firewall rule. */
+		String match = null, action = null;
+		int priority = 0;
+		
+		if (tokens.length < 3 || !tokens[0].equals("firewall") || !tokens[1].equals("rule"))
+			throw new IllegalArgumentException("Not a firewall rule: " + line);
+		if (tokens.length % 2 != 1)
+			throw new IllegalArgumentException("Missing value: " + tokens[tokens.length - 1]);
+		
+		try {
+			for (int i = 3; i < tokens.length; i += 2) {
+				if (tokens[i].equals("priority")) {
+					priority = Integer.parseInt(tokens[i + 1]);
+				} else if (tokens[i].equals("match")) {
+					match = tokens[i + 1];
+				} else if (tokens[i].equals("action")) {
+					action = tokens[i + 1];
+				} else {
+					throw new IllegalArgumentException("Unexpected argument: " + tokens[i]);
+				}
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+		}
+		if (action == null || !(action.equals("allow") || action.equals("deny")))
+			throw new IllegalArgumentException("Missing or invalid action of firewall rule " + tokens[2]);
+		
+		// Return.
+		return new FirewallRuleEntry(tokens[2], priority, match, action.equals("allow"));
+	}
+	
+	/**
+	 * Returns the firewall rule as the configuration command that
+	 * creates it.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("firewall rule ").append(this.name);
+		if (this.priority != 0)
+			sb.append(" priority ").append(this.priority);
+		if (this.match != null)
+			sb.append(" match ").append(this.match);
+		sb.append(" action ").append((this.allow) ? "allow" : "deny");
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,348 @@
+package net.floodlightcontroller.cli.config;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import net.floodlightcontroller.staticflowentry.StaticFlowEntries;
+
+import org.openflow.protocol.OFFlowMod;
+import org.openflow.protocol.OFMatch;
+import org.openflow.protocol.action.OFAction;
+import org.openflow.util.HexString;
+import org.slf4j.helpers.NOPLogger;
+
+/**
+ * A static flow entry as configured by the CLI, i.e. the flow's
+ * name, the switch it is pushed to, its priority and timeouts, and
+ * its match and actions in the string format of the static flow
+ * pusher, e.g.
+ * 
+ *   flow web switch 00:00:00:00:00:00:00:01 priority 100 match in_port=1,dl_type=0x800 actions output=2
+ * 
+ * Flow entries are immutable. The match and the actions are parsed
+ * once, when the entry is created, such that invalid matches and
+ * actions are rejected before they are staged. Since the configuration
+ * command separates its values by spaces, names must not contain
+ * whitespace, and whitespace is removed from the match and the actions,
+ * e.g. of flow files. Thus, each flow entry can be read back from the
+ * startup configuration.
+ */
+public class FlowEntry {
+	/** The default priority of flow entries. */
+	public static final int DEFAULT_PRIORITY = 32767;
+	/** The pattern of whitespace, which separates the values of the configuration command. */
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+	/** The name of the flow entry. */
+	private final String name;
+	/** The DPID of the switch the flow entry is pushed to. */
+	private final long dpid;
+	/** The priority of the flow entry. */
+	private final int priority;
+	/** The idle timeout in seconds, or 0. */
+	private final int idleTimeout;
+	/** The hard timeout in seconds, or 0. */
+	private final int hardTimeout;
+	/** The match as a string, e.g. "in_port=1,dl_type=0x800". */
+	private final String match;
+	/** The parsed match. */
+	private final OFMatch ofMatch;
+	/** The actions as a string, e.g. "output=2". */
+	private final String actions;
+	/** The parsed actions. */
+	private final List<OFAction> ofActions;
+	/** The length of the parsed actions in bytes. */
+	private final int ofActionsLength;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param name The name of the flow entry.
+	 * @param dpid The DPID of the switch the flow entry is pushed to.
+	 * @param priority The priority of the flow entry.
+	 * @param idleTimeout The idle timeout in seconds, or 0.
+	 * @param hardTimeout The hard timeout in seconds, or 0.
+	 * @param match The match as a string, or null to match all packets. Whitespace is removed.
+	 * @param actions The actions as a string. Whitespace is removed.
+	 * @throws IllegalArgumentException if the name, the match, an action or a value is invalid.
+	 */
+	public FlowEntry(String name, long dpid, int priority, int idleTimeout, int hardTimeout, String match, String actions) {
+		if (name == null || name.length() == 0)
+			throw new IllegalArgumentException("Missing name of flow entry");
+		if (WHITESPACE.matcher(name).find())
+			throw new IllegalArgumentException("Invalid flow entry name: \"" + name + "\" (must not contain whitespace)");
+		if (priority < 0 || priority > 0xffff)
+			throw new IllegalArgumentException("Invalid priority: " + priority);
+		if (idleTimeout < 0 || idleTimeout > 0xffff)
+			throw new IllegalArgumentException("Invalid idle timeout: " + idleTimeout);
+		if (hardTimeout < 0 || hardTimeout > 0xffff)
+			throw new IllegalArgumentException("Invalid hard timeout: " + hardTimeout);
+		
+		// Remove whitespace, e.g. "in_port=1, dl_type=0x800" of a flow file.
+		match = (match != null) ? WHITESPACE.matcher(match).replaceAll("") : null;
+		actions = (actions != null) ? WHITESPACE.matcher(actions).replaceAll("") : null;
+		if (actions == null || actions.length() == 0)
+			throw new IllegalArgumentException("Missing actions of flow entry " + name);
+		
+		this.name = name;
+		this.dpid = dpid;
+		this.priority = priority;
+		this.idleTimeout = idleTimeout;
+		this.hardTimeout = hardTimeout;
+		this.match = (match != null && match.length() > 0) ? match : null;
+		this.actions = actions;
+		this.ofMatch = new OFMatch();
+		if (this.match != null) {
+			this.ofMatch.fromString(this.match);
+		} else {
+			this.ofMatch.setWildcards(OFMatch.OFPFW_ALL);
+		}
+		this.ofActions = parseActions(actions);
+		int length = 0;
+		for (OFAction action : this.ofActions) {
+			length += action.getLengthU();
+		}
+		this.ofActionsLength = length;
+	}
+	
+	/**
+	 * Parses an actions string with the parser of the static flow pusher.
+	 * That parser logs and skips invalid actions, so each action is parsed
+	 * on its own and rejected if it does not result in an OpenFlow action.
+	 * 
+	 * @param actions The actions as a string, e.g. "output=2,set-vlan-id=5".
+	 * @return The parsed actions.
+	 * @throws IllegalArgumentException if an action is invalid.
+	 */
+	private static List<OFAction> parseActions(String actions) {
+		/* The parsed actions. */
+		List<OFAction> ofActions = new ArrayList<OFAction>();
+		
+		for (String action : actions.split(",", -1)) {
+			/* The flow-mod the action is parsed into. */
+			OFFlowMod flowMod = new OFFlowMod();
+			
+			StaticFlowEntries.parseActionString(flowMod, action, NOPLogger.NOP_LOGGER);
+			if (action.trim().length() == 0 || flowMod.getActions() == null || flowMod.getActions().size() != 1)
+				throw new IllegalArgumentException("Invalid action: " + action);
+			ofActions.add(flowMod.getActions().get(0));
+		}
+		
+		// Return.
+		return Collections.unmodifiableList(ofActions);
+	}
+	
+	/**
+	 * Getter for the name of the flow entry.
+	 * 
+	 * @return The name of the flow entry.
+	 */
+	public String getName() {
+		return this.name;
+	}
+	
+	/**
+	 * Getter for the switch DPID.
+	 * 
+	 * @return The DPID of the switch the flow entry is pushed to.
+	 */
+	public long getDpid() {
+		return this.dpid;
+	}
+	
+	/**
+	 * Getter for the priority.
+	 * 
+	 * @return The priority of the flow entry.
+	 */
+	public int getPriority() {
+		return this.priority;
+	}
+	
+	/**
+	 * Getter for the idle timeout.
+	 * 
+	 * @return The idle timeout in seconds, or 0.
+	 */
+	public int getIdleTimeout() {
+		return this.idleTimeout;
+	}
+	
+	/**
+	 * Getter for the hard timeout.
+	 * 
+	 * @return The hard timeout in seconds, or 0.
+	 */
+	public int getHardTimeout() {
+		return this.hardTimeout;
+	}
+	
+	/**
+	 * Getter for the match string.
+	 * 
+	 * @return The match as a string, or null to match all packets.
+	 */
+	public String getMatch() {
+		return this.match;
+	}
+	
+	/**
+	 * Gets a copy of the parsed match.
+	 * 
+	 * @return The OpenFlow match of the flow entry.
+	 */
+	public OFMatch getOFMatch() {
+		return this.ofMatch.clone();
+	}
+	
+	/**
+	 * Getter for the actions string.
+	 * 
+	 * @return The actions as a string.
+	 */
+	public String getActions() {
+		return this.actions;
+	}
+	
+	/**
+	 * Gets the parsed actions. The actions are shared by all flow-mods
+	 * of the flow entry and must not be modified.
+	 * 
+	 * @return The OpenFlow actions of the flow entry.
+	 */
+	public List<OFAction> getOFActions() {
+		return this.ofActions;
+	}
+	
+	/**
+	 * Gets the length of the parsed actions.
+	 * 
+	 * @return The length of the OpenFlow actions in bytes.
+	 */
+	public int getOFActionsLength() {
+		return this.ofActionsLength;
+	}
+	
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof FlowEntry))
+			return false;
+		
+		FlowEntry other = (FlowEntry) obj;
+		return this.dpid == other.dpid && this.priority == other.priority
+				&& this.idleTimeout == other.idleTimeout && this.hardTimeout == other.hardTimeout
+				&& this.name.equals(other.name) && this.actions.equals(other.actions)
+				&& ((this.match != null) ? this.match.equals(other.match) : other.match == null);
+	}
+	
+	@Override
+	public int hashCode() {
+		int result = this.name.hashCode();
+		result = 31 * result + (int) (this.dpid ^ (this.dpid >>> 32));
+		result = 31 * result + this.priority;
+		result = 31 * result + ((this.match != null) ? this.match.hashCode() : 0);
+		return 31 * result + this.actions.hashCode();
+	}
+	
+	/**
+	 * Parses a flow entry from the configuration command that creates
+	 * it, i.e. the inverse of toString().
+	 * 
+	 * @param line The configuration command, e.g. "flow web switch 00:00:00:00:00:00:00:01 actions output=2".
+	 * @return The flow entry.
+	 * @throws IllegalArgumentException if the line is not a valid flow entry.
+	 */
+	public static FlowEntry parse(String line) {
+		/* The tokens of the line. */
+		String[] tokens = line.trim().split(" +");
+		/* The values of the flow entry. */
+		String dpid = null, match = null, actions = null;
+		int priority = DEFAULT_PRIORITY, idleTimeout = 0, hardTimeout = 0;
+		
+		if (tokens.length < 2 || !tokens[0].equals("flow"))
+			throw new IllegalArgumentException("Not a flow entry: " + line);
+		if (tokens.length % 2 != 0)
+			throw new IllegalArgumentException("Missing value: " + tokens[tokens.length - 1]);
+		
+		try {
+			for (int i = 2; i < tokens.length; i += 2) {
+				if (tokens[i].equals("switch")) {
+					dpid = tokens[i + 1];
+				} else if (tokens[i].equals("priority")) {
+					priority = Integer.parseInt(tokens[i + 1]);
+				} else if (tokens[i].equals("idle")) {
+					idleTimeout = Integer.parseInt(tokens[i + 1]);
+				} else if (tokens[i].equals("hard")) {
+					hardTimeout = Integer.parseInt(tokens[i + 1]);
+				} else if (tokens[i].equals("match")) {
+					match = tokens[i + 1];
+				} else if (tokens[i].equals("actions")) {
+					actions = tokens[i + 1];
+				} else {
+					throw new IllegalArgumentException("Unexpected argument: " + tokens[i]);
+				}
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid number: " + e.getMessage());
+		}
+		if (dpid == null || actions == null)
+			throw new IllegalArgumentException("Missing switch or actions of flow entry " + tokens[1]);
+		
+		// Return.
+		return new FlowEntry(tokens[1], HexString.toLong(dpid), priority, idleTimeout, hardTimeout, match, actions);
+	}
+	
+	/**
+	 * Returns the flow entry as the configuration command that
+	 * creates it.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("flow ").append(this.name);
+		sb.append(" switch ").append(HexString.toHexString(this.dpid));
+		if (this.priority != DEFAULT_PRIORITY)
+			sb.append(" priority ").append(this.priority);
+		if (this.idleTimeout != 0)
+			sb.append(" idle ").append(this.idleTimeout);
+		if (this.hardTimeout != 0)
+			sb.append(" hard ").append(this.hardTimeout);
+		if (this.match != null)
+			sb.append(" match ").append(this.match);
+		sb.append(" actions ").append(this.actions);
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,306 @@
+package net.floodlightcontroller.cli.config;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.openflow.util.HexString;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads static flow entries from a CSV or JSON flow file, one entry
+ * at a time, such that arbitrarily large files are never held in
+ * memory. The format is detected from the first character of the
+ * file: a JSON file is an array of objects, e.g.
+ * 
+ *   [{"name": "web", "switch": "00:00:00:00:00:00:00:01", "priority": 100,
+ *     "idle-timeout": 0, "hard-timeout": 0, "match": "in_port=1,dl_type=0x800", "actions": "output=2"}]
+ * 
+ * A CSV file has one entry per line with the columns name, switch,
+ * priority, idle-timeout, hard-timeout, match, and actions. Fields
+ * that contain commas are quoted, empty fields use the defaults, and
+ * lines starting with "#" as well as a header line are skipped, e.g.
+ * 
+ *   web,00:00:00:00:00:00:00:01,100,,,"in_port=1,dl_type=0x800",output=2
+ */
+public class FlowFileReader implements Closeable {
+	/** The columns of a CSV flow file. */
+	public static final String[] COLUMNS = {"name", "switch", "priority", "idle-timeout", "hard-timeout", "match", "actions"};
+	/** The buffered reader of the file. */
+	private final BufferedReader reader;
+	/** The JSON parser, or null if the file is a CSV file. */
+	private final JsonParser jsonParser;
+	/** The Jackson object mapper, or null if the file is a CSV file. */
+	private final ObjectMapper mapper;
+	/** The number of the line read last. */
+	private int lineNumber = 0;
+	/** Whether no CSV line was read yet, i.e. whether the next line may be a header. */
+	private boolean first = true;
+	
+	/**
+	 * Constructor. Opens the file and detects its format.
+	 * 
+	 * @param file The flow file.
+	 * @throws IOException if the file cannot be opened or is not a flow file.
+	 */
+	public FlowFileReader(File file) throws IOException {
+		this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), Charset.forName("UTF-8")), 64 * 1024);
+		
+		try {
+			if (this.peek() == '[') {
+				this.jsonParser = new JsonFactory().createJsonParser(this.reader);
+				this.mapper = new ObjectMapper();
+				if (this.jsonParser.nextToken() != JsonToken.START_ARRAY)
+					throw new IOException("Expected START_ARRAY instead of " + this.jsonParser.getCurrentToken());
+			} else {
+				this.jsonParser = null;
+				this.mapper = null;
+			}
+		} catch (IOException e) {
+			this.reader.close();
+			throw e;
+		}
+	}
+	
+	/**
+	 * Reads the next flow entry.
+	 * 
+	 * @return The next flow entry, or null at the end of the file.
+	 * @throws IOException if reading the file fails or the file is malformed.
+	 * @throws IllegalArgumentException if the entry is invalid. The next call continues with the next entry.
+	 */
+	public FlowEntry next() throws IOException {
+		return (this.jsonParser != null) ? this.nextJson() : this.nextCsv();
+	}
+	
+	/**
+	 * Gets the number of the line read last, for error messages.
+	 * 
+	 * @return The line number.
+	 */
+	public int getLineNumber() {
+		return (this.jsonParser != null) ? this.lineNumber + this.jsonParser.getCurrentLocation().getLineNr() : this.lineNumber;
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (this.jsonParser != null)
+			this.jsonParser.close();
+		this.reader.close();
+	}
+	
+	/**
+	 * Reads the next flow entry of a JSON file.
+	 * 
+	 * @return The next flow entry, or null at the end of the array.
+	 * @throws IOException if the file is malformed.
+	 */
+	@SuppressWarnings("unchecked")
+	private FlowEntry nextJson() throws IOException {
+		/* The next token of the array. */
+		JsonToken token = this.jsonParser.nextToken();
+		
+		if (token == JsonToken.END_ARRAY || token == null)
+			return null;
+		if (token != JsonToken.START_OBJECT)
+			throw new IOException("Expected START_OBJECT instead of " + token);
+		
+		/* The fields of the flow entry. */
+		Map<String, Object> fields = this.mapper.readValue(this.jsonParser, Map.class);
+		/* The values of the flow entry in the order of the CSV columns. */
+		String[] values = new String[COLUMNS.length];
+		
+		for (int i = 0; i < COLUMNS.length; i++) {
+			Object value = fields.get(COLUMNS[i]);
+			values[i] = (value != null) ? value.toString() : null;
+		}
+		
+		// Return.
+		return this.createFlowEntry(values);
+	}
+	
+	/**
+	 * Reads the next flow entry of a CSV file.
+	 * 
+	 * @return The next flow entry, or null at the end of the file.
+	 * @throws IOException if reading the file fails.
+	 */
+	private FlowEntry nextCsv() throws IOException {
+		/* The next line of the file. */
+		String line;
+		
+		while ((line = this.reader.readLine()) != null) {
+			this.lineNumber++;
+			line = line.trim();
+			if (line.length() == 0 || line.startsWith("#"))
+				continue;
+			
+			List<String> fields = this.split(line);
+			if (this.first) {
+				this.first = false;
+				if (fields.get(0).equalsIgnoreCase(COLUMNS[0]))
+					continue;
+			}
+			if (fields.size() > COLUMNS.length)
+				throw new IllegalArgumentException("Too many fields: " + fields.size() + " (expected " + COLUMNS.length + ")");
+			
+			return this.createFlowEntry(fields.toArray(new String[COLUMNS.length]));
+		}
+		
+		// Return.
+		return null;
+	}
+	
+	/**
+	 * Creates a flow entry from the values of its columns.
+	 * 
+	 * @param values The values in the order of the CSV columns. Missing values are null or empty.
+	 * @return The flow entry.
+	 * @throws IllegalArgumentException if a value is missing or invalid.
+	 */
+	private FlowEntry createFlowEntry(String[] values) {
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (values[i] != null && values[i].trim().length() > 0) ? values[i].trim() : null;
+		}
+		if (values[0] == null)
+			throw new IllegalArgumentException("Missing name");
+		if (values[1] == null)
+			throw new IllegalArgumentException("Missing switch of flow entry " + values[0]);
+		if (values[6] == null)
+			throw new IllegalArgumentException("Missing actions of flow entry " + values[0]);
+		
+		// Return.
+		return new FlowEntry(values[0], HexString.toLong(values[1]),
+				this.parseInt(COLUMNS[2], values[2], FlowEntry.DEFAULT_PRIORITY),
+				this.parseInt(COLUMNS[3], values[3], 0),
+				this.parseInt(COLUMNS[4], values[4], 0),
+				values[5], values[6]);
+	}
+	
+	/**
+	 * Parses an integer value of a flow entry.
+	 * 
+	 * @param column The column of the value.
+	 * @param value The value, or null.
+	 * @param defaultValue The value used if the value is null.
+	 * @return The integer value.
+	 * @throws IllegalArgumentException if the value is not an integer.
+	 */
+	private int parseInt(String column, String value, int defaultValue) {
+		if (value == null)
+			return defaultValue;
+		
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid " + column + ": " + value);
+		}
+	}
+	
+	/**
+	 * Splits a CSV line into its fields. Fields may be quoted with
+	 * double quotes, and a quote in a quoted field is escaped by
+	 * another quote.
+	 * 
+	 * @param line The CSV line.
+	 * @return The fields of the line.
+	 */
+	private List<String> split(String line) {
+		/* The fields of the line. */
+		List<String> fields = new ArrayList<String>(COLUMNS.length);
+		/* The current field. */
+		StringBuilder field = new StringBuilder();
+		/* Whether the current position is within quotes. */
+		boolean quoted = false;
+		
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (quoted) {
+				if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+					field.append('"');
+					i++;
+				} else if (c == '"') {
+					quoted = false;
+				} else {
+					field.append(c);
+				}
+			} else if (c == '"') {
+				quoted = true;
+			} else if (c == ',') {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		
+		// Return.
+		return fields;
+	}
+	
+	/**
+	 * Gets the first non-whitespace character of the file without
+	 * consuming it.
+	 * 
+	 * @return The first character, or -1 if the file is empty.
+	 * @throws IOException if reading the file fails.
+	 */
+	private int peek() throws IOException {
+		/* The character read. */
+		int c;
+		
+		do {
+			this.reader.mark(1);
+			c = this.reader.read();
+			if (c == '\n')
+				this.lineNumber++;
+		} while (c != -1 && Character.isWhitespace(c));
+		this.reader.reset();
+		
+		// Return.
+		return c;
+	}
+
+}
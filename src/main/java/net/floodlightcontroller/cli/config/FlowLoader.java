@@ -0,0 +1,514 @@
+package net.floodlightcontroller.cli.config;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.utils.StringTable;
+import net.floodlightcontroller.core.FloodlightContext;
+import net.floodlightcontroller.core.IFloodlightProviderService;
+import net.floodlightcontroller.core.IOFMessageListener;
+import net.floodlightcontroller.core.IOFSwitch;
+
+import org.openflow.protocol.OFFlowMod;
+import org.openflow.protocol.OFMessage;
+import org.openflow.protocol.OFType;
+import org.openflow.util.HexString;
+
+/**
+ * Loads static flow entries from a flow file in bulk. Entries are
+ * streamed from the file and collected in batches per switch. Each
+ * full batch is written at once, followed by a barrier request, and
+ * up to WINDOW batches per switch are in flight before the loader
+ * waits for a barrier reply. Thus, flow-mods are pipelined instead
+ * of being pushed one by one, while the switch's send buffer stays
+ * bounded.
+ * 
+ * Each flow-mod has its own transaction id, such that an error of a
+ * switch is attributed to the flow entry it rejects. Loaded entries
+ * become part of the running configuration. Entries a switch rejects,
+ * and entries of batches a switch does not acknowledge, are taken out
+ * again, such that loading the file again retries them. Entries that
+ * were written but not acknowledged are deleted from the switch, since
+ * it may have installed them. Accepted entries stay.
+ */
+public class FlowLoader implements IOFMessageListener {
+	/** Default number of flow-mods written to a switch at once. */
+	public static final int DEFAULT_BATCH_SIZE = 1024;
+	/** The number of batches per switch that may be unacknowledged. */
+	private static final int WINDOW = 4;
+	/** The maximum number of invalid entries that are reported. */
+	private static final int MAX_ERRORS = 10;
+	/** The time in milliseconds between two progress reports. */
+	private static final long PROGRESS_INTERVAL = 1000;
+	/** The Floodlight provider service. */
+	private final IFloodlightProviderService floodlightProvider;
+	/** The running configuration. */
+	private final RunningConfig runningConfig;
+	/** The number of flow-mods written to a switch at once. */
+	private final int batchSize;
+	/** The time in milliseconds to wait for a barrier reply. */
+	private final long timeout;
+	/** The switches of the current load by DPID. */
+	private final ConcurrentMap<Long, SwitchLoad> loads = new ConcurrentHashMap<Long, SwitchLoad>();
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param floodlightProvider The Floodlight provider service.
+	 * @param runningConfig The running configuration.
+	 * @param batchSize The number of flow-mods written to a switch at once.
+	 * @param timeout The time in milliseconds to wait for a barrier reply.
+	 */
+	public FlowLoader(IFloodlightProviderService floodlightProvider, RunningConfig runningConfig, int batchSize, long timeout) {
+		this.floodlightProvider = floodlightProvider;
+		this.runningConfig = runningConfig;
+		this.batchSize = batchSize;
+		this.timeout = timeout;
+	}
+	
+	/**
+	 * Starts listening for barrier replies and errors. Must be called
+	 * at module start-up.
+	 */
+	public void start() {
+		this.floodlightProvider.addOFMessageListener(OFType.BARRIER_REPLY, this);
+		this.floodlightProvider.addOFMessageListener(OFType.ERROR, this);
+	}
+	
+	/**
+	 * Loads all flow entries of a flow file. Unchanged entries are
+	 * skipped, replaced ones are deleted first.
+	 * 
+	 * @param reader The reader of the flow file.
+	 * @param console The console progress is reported to, or null.
+	 * @return A report of the load, including the failures per switch.
+	 */
+	public synchronized String load(FlowFileReader reader, IConsole console) {
+		/* The switches connected to the controller. */
+		Map<Long, IOFSwitch> switches = this.floodlightProvider.getSwitches();
+		/* The switches of this load, in order of appearance. */
+		Map<Long, SwitchLoad> loads = new LinkedHashMap<Long, SwitchLoad>();
+		/* The messages of invalid entries. */
+		List<String> errors = new LinkedList<String>();
+		/* The time the load started. */
+		long started = System.currentTimeMillis();
+		/* The time of the next progress report. */
+		long nextProgress = started + PROGRESS_INTERVAL;
+		/* The number of entries read, unchanged and invalid. */
+		int entries = 0, unchanged = 0, invalid = 0;
+		
+		try {
+			while (true) {
+				FlowEntry flow;
+				try {
+					flow = reader.next();
+				} catch (IllegalArgumentException e) {
+					if (++invalid <= MAX_ERRORS)
+						errors.add("Line " + reader.getLineNumber() + ": " + e.getMessage());
+					continue;
+				} catch (IOException e) {
+					errors.add("Line " + reader.getLineNumber() + ": " + e.getMessage() + ". Stopped reading.");
+					break;
+				}
+				if (flow == null)
+					break;
+				entries++;
+				
+				FlowEntry oldFlow = this.runningConfig.put(flow);
+				if (flow.equals(oldFlow)) {
+					unchanged++;
+					continue;
+				}
+				if (oldFlow != null)
+					this.getLoad(loads, switches, oldFlow.getDpid()).add(this.runningConfig.createFlowMod(oldFlow, OFFlowMod.OFPFC_DELETE_STRICT));
+				this.getLoad(loads, switches, flow.getDpid()).add(this.runningConfig.createFlowMod(flow, OFFlowMod.OFPFC_ADD), flow, oldFlow);
+				
+				if (console != null && System.currentTimeMillis() >= nextProgress) {
+					try {
+						console.write("Loaded " + entries + " flow entries (" + this.rate(entries, started) + " flows/s)");
+						console.flush();
+					} catch (IOException e) {
+						// The console is gone, but the load goes on.
+						console = null;
+					}
+					nextProgress = System.currentTimeMillis() + PROGRESS_INTERVAL;
+				}
+			}
+			
+			// Write the remaining batches and wait for all barrier replies.
+			for (SwitchLoad load : loads.values()) {
+				load.flush();
+			}
+			for (SwitchLoad load : loads.values()) {
+				load.await();
+			}
+			for (SwitchLoad load : loads.values()) {
+				load.rollback();
+			}
+		} finally {
+			this.loads.clear();
+		}
+		
+		/* The report of the load. */
+		StringBuilder report = new StringBuilder();
+		report.append("Loaded ").append(entries).append(" flow entries in ").append(System.currentTimeMillis() - started).append(" ms (");
+		report.append(this.rate(entries, started)).append(" flows/s), ").append(unchanged).append(" unchanged, ").append(invalid).append(" invalid.");
+		for (String error : errors) {
+			report.append("\n").append(error);
+		}
+		if (!loads.isEmpty())
+			report.append("\n").append(this.loadsToTableString(loads.values()));
+		
+		// Return.
+		return report.toString();
+	}
+
+	@Override
+	public Command receive(IOFSwitch sw, OFMessage msg, FloodlightContext cntx) {
+		/* The load of the switch, if any. */
+		SwitchLoad load = this.loads.get(sw.getId());
+		
+		if (load == null)
+			return Command.CONTINUE;
+		
+		if (msg.getType() == OFType.BARRIER_REPLY) {
+			Integer acknowledged = load.barriers.remove(msg.getXid());
+			if (acknowledged != null) {
+				load.acknowledge(acknowledged);
+				load.window.release();
+			}
+		} else if (msg.getType() == OFType.ERROR) {
+			Integer index = load.xids.get(msg.getXid());
+			if (index != null) {
+				load.rejected.incrementAndGet();
+				if (index >= 0)
+					load.rejectedFlows.add(index);
+			}
+		}
+		
+		// Return.
+		return Command.CONTINUE;
+	}
+
+	@Override
+	public boolean isCallbackOrderingPrereq(OFType type, String name) {
+		return false;
+	}
+
+	@Override
+	public boolean isCallbackOrderingPostreq(OFType type, String name) {
+		return false;
+	}
+
+	@Override
+	public String getName() {
+		return "cliflowloader";
+	}
+	
+	/**
+	 * Gets the load of a switch, or creates it.
+	 * 
+	 * @param loads The switches of this load.
+	 * @param switches The switches connected to the controller.
+	 * @param dpid The switch DPID.
+	 * @return The load of the switch.
+	 */
+	private SwitchLoad getLoad(Map<Long, SwitchLoad> loads, Map<Long, IOFSwitch> switches, long dpid) {
+		SwitchLoad load = loads.get(dpid);
+		if (load == null) {
+			load = new SwitchLoad(dpid, switches.get(dpid));
+			loads.put(dpid, load);
+			this.loads.put(dpid, load);
+		}
+		return load;
+	}
+	
+	/**
+	 * Computes the rate of loaded entries.
+	 * 
+	 * @param entries The number of entries.
+	 * @param started The time the load started.
+	 * @return The number of entries per second.
+	 */
+	private long rate(int entries, long started) {
+		return entries * 1000L / Math.max(1, System.currentTimeMillis() - started);
+	}
+	
+	/**
+	 * Creates a string table and returns a formated string that
+	 * shows the result of the load per switch.
+	 * 
+	 * @param loads The switches of the load.
+	 * @return A formated string that shows the result as a table.
+	 */
+	private String loadsToTableString(Iterable<SwitchLoad> loads) {
+		/* The string table that contains the result of all switches. */
+		StringTable stringTable = new StringTable();
+		
+		// Generate header data.
+		List<String> header = new LinkedList<String>();
+		header.add("Switch DPID");
+		header.add("Flow-mods");
+		header.add("Rejected");
+		header.add("Status");
+		
+		// Add header to string table.
+		stringTable.setHeader(header);
+		
+		// Generate table entries and add them to string table.
+		for (SwitchLoad load : loads) {
+			List<String> row = new LinkedList<String>();
+			row.add(HexString.toHexString(load.dpid));
+			row.add(Integer.toString(load.sent));
+			row.add(Integer.toString(load.rejected.get()));
+			if (load.rolledBack > 0)
+				row.add(((load.failure != null) ? load.failure : "flow-mods rejected") + ", " + load.rolledBack + " entries not committed");
+			else
+				row.add((load.failure != null) ? load.failure : "ok");
+			
+			stringTable.addRow(row);
+		}
+		
+		// Return.
+		return stringTable.toString();
+	}
+	
+	/**
+	 * The load of one switch, i.e. its pending batch, its barriers in
+	 * flight, and its counters.
+	 */
+	private class SwitchLoad {
+		/** The switch DPID. */
+		private final long dpid;
+		/** The switch, or null if it is not connected. */
+		private final IOFSwitch sw;
+		/** The pending batch of flow-mods. */
+		private final List<OFMessage> batch = new ArrayList<OFMessage>(batchSize + 1);
+		/** The permits of unacknowledged batches. */
+		private final Semaphore window = new Semaphore(WINDOW);
+		/** The transaction ids of the barriers in flight, and the number of flow entries written before each barrier. */
+		private final ConcurrentMap<Integer, Integer> barriers = new ConcurrentHashMap<Integer, Integer>();
+		/** The transaction ids of the flow-mods, and the index of the flow entry each flow-mod adds, or -1 for deletes. */
+		private final ConcurrentMap<Integer, Integer> xids = new ConcurrentHashMap<Integer, Integer>();
+		/** The number of flow-mods rejected by the switch. */
+		private final AtomicInteger rejected = new AtomicInteger();
+		/** The indexes of the flow entries whose flow-mods the switch rejected. */
+		private final Set<Integer> rejectedFlows = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+		/** The flow entries added to the running configuration for this switch. */
+		private final List<FlowEntry> flows = new ArrayList<FlowEntry>();
+		/** The flow entries they replaced, or null entries. */
+		private final List<FlowEntry> oldFlows = new ArrayList<FlowEntry>();
+		/** The number of flow entries written to the switch. */
+		private int written;
+		/** The number of flow entries acknowledged by a barrier reply. */
+		private volatile int acknowledged;
+		/** The number of flow-mods written. */
+		private int sent;
+		/** The number of flow entries taken out of the running configuration again. */
+		private int rolledBack;
+		/** The reason the load of the switch failed, or null. */
+		private String failure;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param dpid The switch DPID.
+		 * @param sw The switch, or null if it is not connected.
+		 */
+		private SwitchLoad(long dpid, IOFSwitch sw) {
+			this.dpid = dpid;
+			this.sw = sw;
+			this.failure = (sw == null) ? "not connected, pushed when it connects" : null;
+		}
+		
+		/**
+		 * Adds a flow-mod that deletes a flow entry to the batch, and
+		 * writes the batch if it is full.
+		 * 
+		 * @param flowMod The flow-mod.
+		 */
+		private void add(OFFlowMod flowMod) {
+			this.add(flowMod, -1);
+		}
+		
+		/**
+		 * Adds a flow-mod that adds a flow entry to the batch, and writes
+		 * the batch if it is full. The flow entry was added to the running
+		 * configuration and is recorded, such that it can be taken out
+		 * again if the switch rejects it or fails.
+		 * 
+		 * @param flowMod The flow-mod.
+		 * @param flow The flow entry.
+		 * @param oldFlow The flow entry it replaced, or null.
+		 */
+		private void add(OFFlowMod flowMod, FlowEntry flow, FlowEntry oldFlow) {
+			if (this.sw == null)
+				return;
+			
+			this.flows.add(flow);
+			this.oldFlows.add(oldFlow);
+			this.add(flowMod, this.flows.size() - 1);
+		}
+		
+		/**
+		 * Adds a flow-mod to the batch with its own transaction id, and
+		 * writes the batch if it is full.
+		 * 
+		 * @param flowMod The flow-mod.
+		 * @param index The index of the flow entry the flow-mod adds, or -1.
+		 */
+		private void add(OFFlowMod flowMod, int index) {
+			if (this.failure != null)
+				return;
+			
+			flowMod.setXid(this.sw.getNextTransactionId());
+			this.xids.put(flowMod.getXid(), index);
+			this.batch.add(flowMod);
+			if (this.batch.size() >= batchSize)
+				this.flush();
+		}
+		
+		/**
+		 * Records that the switch acknowledged the flow entries written
+		 * before a barrier. Barrier replies arrive in order.
+		 * 
+		 * @param written The number of flow entries written before the barrier.
+		 */
+		private synchronized void acknowledge(int written) {
+			if (written > this.acknowledged)
+				this.acknowledged = written;
+		}
+		
+		/**
+		 * Writes the batch followed by a barrier request. Waits for a
+		 * barrier reply first if WINDOW batches are unacknowledged.
+		 */
+		private void flush() {
+			if (this.batch.isEmpty() || this.failure != null)
+				return;
+			
+			/* The barrier request at the end of the batch. */
+			OFMessage barrier = floodlightProvider.getOFMessageFactory().getMessage(OFType.BARRIER_REQUEST);
+			/* The number of flow-mods in the batch. */
+			int size = this.batch.size();
+			
+			barrier.setXid(this.sw.getNextTransactionId());
+			this.batch.add(barrier);
+			
+			try {
+				if (!this.window.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+					this.failure = "no barrier reply within " + timeout + " ms";
+				} else {
+					this.barriers.put(barrier.getXid(), this.flows.size());
+					this.written = this.flows.size();
+					this.sw.write(this.batch, null);
+					this.sw.flush();
+					this.sent += size;
+				}
+			} catch (IOException e) {
+				this.failure = "write failed: " + e.getMessage();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				this.failure = "interrupted";
+			}
+			this.batch.clear();
+		}
+		
+		/**
+		 * Waits until all batches are acknowledged by a barrier reply.
+		 */
+		private void await() {
+			if (this.sw == null || this.failure != null)
+				return;
+			
+			try {
+				if (!this.window.tryAcquire(WINDOW, timeout, TimeUnit.MILLISECONDS))
+					this.failure = "no barrier reply within " + timeout + " ms";
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				this.failure = "interrupted";
+			}
+		}
+		
+		/**
+		 * Takes the flow entries the switch did not install out of the
+		 * running configuration again, i.e. the entries it rejected, and
+		 * the entries of batches it did not acknowledge. Entries that were
+		 * written but not acknowledged are deleted from the switch, since
+		 * it may have installed them. Acknowledged entries that were not
+		 * rejected stay.
+		 */
+		private void rollback() {
+			if (this.sw == null || (this.failure == null && this.rejected.get() == 0))
+				return;
+			
+			/* The flow-mods that delete written but unacknowledged entries. */
+			List<OFMessage> deletes = new ArrayList<OFMessage>();
+			/* The number of acknowledged flow entries. */
+			int acknowledged = this.acknowledged;
+			
+			for (int i = this.flows.size() - 1; i >= 0; i--) {
+				if (i < acknowledged && !this.rejectedFlows.contains(i))
+					continue;
+				runningConfig.restore(this.flows.get(i), this.oldFlows.get(i));
+				if (i >= acknowledged && i < this.written)
+					deletes.add(runningConfig.createFlowMod(this.flows.get(i), OFFlowMod.OFPFC_DELETE_STRICT));
+				this.rolledBack++;
+			}
+			this.flows.clear();
+			this.oldFlows.clear();
+			
+			if (deletes.isEmpty())
+				return;
+			try {
+				this.sw.write(deletes, null);
+				this.sw.flush();
+			} catch (IOException e) {
+				// The switch is gone, and so are its flow entries.
+			}
+		}
+	}
+
+}
@@ -0,0 +1,726 @@
+package net.floodlightcontroller.cli.config;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.floodlightcontroller.cli.stats.StatisticsCollector;
+
+import net.floodlightcontroller.core.IFloodlightProviderService;
+import net.floodlightcontroller.core.IOFSwitch;
+import net.floodlightcontroller.core.IOFSwitchListener;
+import net.floodlightcontroller.firewall.IFirewallService;
+
+import org.openflow.protocol.OFFlowMod;
+import org.openflow.protocol.OFMatch;
+import org.openflow.protocol.OFMessage;
+import org.openflow.protocol.OFPacketOut;
+import org.openflow.protocol.OFPort;
+import org.openflow.protocol.OFType;
+import org.openflow.protocol.statistics.OFFlowStatisticsReply;
+import org.openflow.protocol.statistics.OFFlowStatisticsRequest;
+import org.openflow.protocol.statistics.OFStatistics;
+import org.openflow.protocol.statistics.OFStatisticsType;
+import org.openflow.util.HexString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The running configuration of the CLI, i.e. the flow entries and
+ * settings that were committed and are active on the controller and
+ * the switches.
+ * 
+ * A commit computes the difference between the running configuration
+ * and a candidate, and writes all resulting flow-mods of a switch as
+ * one batch followed by a single flush. Thus, a hundred staged flow
+ * entries cause one flow-push burst per switch instead of a hundred
+ * separate controller updates. Flow entries of switches that are not
+ * connected are pushed as soon as the switch connects.
+ * 
+ * Replacing the running configuration, e.g. by the startup
+ * configuration, compares the flow entries with the flow tables of
+ * the switches instead. Flow entries pushed by the CLI carry the CLI
+ * cookie, so only entries that are missing or differ are pushed, and
+ * only stale CLI entries are deleted.
+ */
+public class RunningConfig implements IOFSwitchListener {
+	/** The cookie of all flow entries pushed by the CLI. */
+	public static final long CLI_COOKIE = 0xC1L << 52;
+	/** Logger to log running configuration events. */
+	protected static Logger logger = LoggerFactory.getLogger(RunningConfig.class);
+	/** The Floodlight provider service. */
+	private final IFloodlightProviderService floodlightProvider;
+	/** The firewall service, or null if the firewall module is not loaded. */
+	private final IFirewallService firewall;
+	/** The committed flow entries by name, in the order of commits. */
+	private final Map<String, FlowEntry> flows = new LinkedHashMap<String, FlowEntry>();
+	/** The committed firewall rules by name, in the order of commits. */
+	private final Map<String, FirewallRuleEntry> rules = new LinkedHashMap<String, FirewallRuleEntry>();
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param floodlightProvider The Floodlight provider service.
+	 * @param firewall The firewall service, or null.
+	 */
+	public RunningConfig(IFloodlightProviderService floodlightProvider, IFirewallService firewall) {
+		this.floodlightProvider = floodlightProvider;
+		this.firewall = firewall;
+	}
+	
+	/**
+	 * Gets a snapshot of the committed flow entries.
+	 * 
+	 * @return The committed flow entries, in the order of commits.
+	 */
+	public synchronized List<FlowEntry> getFlows() {
+		return new ArrayList<FlowEntry>(this.flows.values());
+	}
+	
+	/**
+	 * Gets a committed flow entry.
+	 * 
+	 * @param name The name of the flow entry.
+	 * @return The flow entry, or null if there is no such entry.
+	 */
+	public synchronized FlowEntry getFlow(String name) {
+		return this.flows.get(name);
+	}
+	
+	/**
+	 * Gets a snapshot of the committed firewall rules.
+	 * 
+	 * @return The committed firewall rules, in the order of commits.
+	 */
+	public synchronized List<FirewallRuleEntry> getRules() {
+		return new ArrayList<FirewallRuleEntry>(this.rules.values());
+	}
+	
+	/**
+	 * Gets a committed firewall rule.
+	 * 
+	 * @param name The name of the firewall rule.
+	 * @return The firewall rule, or null if there is no such rule.
+	 */
+	public synchronized FirewallRuleEntry getRule(String name) {
+		return this.rules.get(name);
+	}
+	
+	/**
+	 * Adds or replaces a committed flow entry without pushing it. The
+	 * caller pushes the flow entry, e.g. as part of a bulk load.
+	 * 
+	 * @param flow The flow entry.
+	 * @return The replaced flow entry, or null.
+	 */
+	synchronized FlowEntry put(FlowEntry flow) {
+		/* The replaced flow entry. */
+		FlowEntry oldFlow = this.flows.get(flow.getName());
+		
+		if (!flow.equals(oldFlow)) {
+			this.flows.remove(flow.getName());
+			this.flows.put(flow.getName(), flow);
+		}
+		
+		// Return.
+		return oldFlow;
+	}
+	
+	/**
+	 * Undoes the replacement of a committed flow entry, e.g. because
+	 * the switch failed to install it. Does nothing if the flow entry
+	 * was replaced again in the meantime.
+	 * 
+	 * @param flow The flow entry that was put.
+	 * @param oldFlow The flow entry it replaced, or null.
+	 */
+	synchronized void restore(FlowEntry flow, FlowEntry oldFlow) {
+		if (this.flows.get(flow.getName()) != flow)
+			return;
+		
+		this.flows.remove(flow.getName());
+		if (oldFlow != null)
+			this.flows.put(oldFlow.getName(), oldFlow);
+	}
+	
+	/**
+	 * Gets the running configuration as configuration commands, i.e.
+	 * the firewall state and rules followed by all flow entries.
+	 * 
+	 * @return The configuration commands.
+	 */
+	public List<String> getLines() {
+		/* The committed flow entries. */
+		List<FlowEntry> flows = this.getFlows();
+		/* The committed firewall rules. */
+		List<FirewallRuleEntry> rules = this.getRules();
+		/* The configuration commands. */
+		List<String> lines = new ArrayList<String>(flows.size() + rules.size() + 1);
+		/* The firewall state. */
+		Boolean firewallEnabled = this.isFirewallEnabled();
+		
+		if (firewallEnabled != null)
+			lines.add((firewallEnabled) ? "firewall enable" : "firewall disable");
+		for (FirewallRuleEntry rule : rules) {
+			lines.add(rule.toString());
+		}
+		for (FlowEntry flow : flows) {
+			lines.add(flow.toString());
+		}
+		
+		// Return.
+		return lines;
+	}
+	
+	/**
+	 * Checks whether the firewall is enabled.
+	 * 
+	 * @return True if the firewall is enabled, false if it is disabled, or null if there is no firewall.
+	 */
+	public Boolean isFirewallEnabled() {
+		return (this.firewall != null) ? this.firewall.isEnabled() : null;
+	}
+	
+	/**
+	 * Commits a candidate configuration. Unchanged flow entries are
+	 * skipped, replaced and removed ones are deleted first, and all
+	 * flow-mods of a switch are written as one batch. The changes a
+	 * switch failed to take are rolled back, such that the next commit
+	 * of the same candidate retries them. Changed firewall rules are
+	 * deleted from and added to the firewall.
+	 * 
+	 * @param candidate The candidate configuration.
+	 * @return A report of the commit.
+	 * @throws IllegalArgumentException if the candidate changes the firewall, but there is no firewall.
+	 */
+	public synchronized String commit(CandidateConfig candidate) {
+		/* The flow-mods to write, by switch DPID. */
+		Map<Long, List<OFMessage>> batches = new HashMap<Long, List<OFMessage>>();
+		/* The changed flow entries, i.e. pairs of the old and the new flow entry. */
+		List<FlowEntry[]> changes = new ArrayList<FlowEntry[]>();
+		/* The switches that failed to take their batch. */
+		Set<Long> failed = new HashSet<Long>();
+		/* The number of changed flow entries. */
+		int changed = 0;
+		
+		if ((candidate.getFirewall() != null || !candidate.getRules().isEmpty()) && this.firewall == null)
+			throw new IllegalArgumentException("The firewall module is not loaded.");
+		
+		for (Map.Entry<String, FlowEntry> entry : candidate.getFlows().entrySet()) {
+			FlowEntry oldFlow = this.flows.get(entry.getKey());
+			FlowEntry newFlow = entry.getValue();
+			
+			if (newFlow != null && newFlow.equals(oldFlow))
+				continue;
+			if (oldFlow != null) {
+				this.getBatch(batches, oldFlow.getDpid()).add(this.createFlowMod(oldFlow, OFFlowMod.OFPFC_DELETE_STRICT));
+				this.flows.remove(oldFlow.getName());
+			}
+			if (newFlow != null) {
+				this.getBatch(batches, newFlow.getDpid()).add(this.createFlowMod(newFlow, OFFlowMod.OFPFC_ADD));
+				this.flows.put(newFlow.getName(), newFlow);
+			}
+			if (oldFlow != null || newFlow != null) {
+				changes.add(new FlowEntry[] {oldFlow, newFlow});
+				changed++;
+			}
+		}
+		
+		/* The report of the commit. */
+		StringBuilder report = new StringBuilder();
+		report.append(changed).append(" flow entries changed on ").append(batches.size()).append(" switches.");
+		
+		// Write one batch per switch.
+		Map<Long, IOFSwitch> switches = this.floodlightProvider.getSwitches();
+		for (Map.Entry<Long, List<OFMessage>> batch : batches.entrySet()) {
+			IOFSwitch sw = switches.get(batch.getKey());
+			if (sw == null) {
+				report.append("\nSwitch ").append(HexString.toHexString(batch.getKey())).append(" is not connected, its flow entries are pushed when it connects.");
+				continue;
+			}
+			try {
+				this.write(sw, batch.getValue());
+			} catch (IOException e) {
+				report.append("\nFailed to write to switch ").append(sw.getStringId()).append(": ").append(e.getMessage());
+				failed.add(batch.getKey());
+			}
+		}
+		
+		// Roll back the changes the failed switches did not take.
+		if (!failed.isEmpty())
+			report.append("\n").append(this.rollback(changes, failed)).append(" flow entries not committed.");
+		
+		// Apply the firewall state once.
+		if (candidate.getFirewall() != null && candidate.getFirewall() != this.firewall.isEnabled()) {
+			this.firewall.enableFirewall(candidate.getFirewall());
+			report.append("\nFirewall ").append((candidate.getFirewall()) ? "enabled." : "disabled.");
+		}
+		
+		// Apply the firewall rules.
+		int rulesChanged = 0;
+		for (Map.Entry<String, FirewallRuleEntry> entry : candidate.getRules().entrySet()) {
+			if (this.changeRule(entry.getKey(), entry.getValue(), report))
+				rulesChanged++;
+		}
+		if (rulesChanged > 0)
+			report.append("\n").append(rulesChanged).append(" firewall rules changed.");
+		
+		// Return.
+		return report.toString();
+	}
+	
+	/**
+	 * Rolls back the changes of a commit that failed switches did not
+	 * take. A flow entry whose add failed is removed, or reverted to its
+	 * old entry if the delete of the old entry failed as well. A removed
+	 * flow entry whose delete failed is put back. A flow entry whose add
+	 * succeeded is kept, even if the delete of its old entry on another
+	 * switch failed.
+	 * 
+	 * @param changes The changes of the commit, i.e. pairs of the old and the new flow entry.
+	 * @param failed The DPIDs of the switches that failed to take their batch.
+	 * @return The number of flow entries rolled back.
+	 */
+	private int rollback(List<FlowEntry[]> changes, Set<Long> failed) {
+		/* The number of flow entries rolled back. */
+		int rolledBack = 0;
+		
+		for (FlowEntry[] change : changes) {
+			boolean deleted = change[0] == null || !failed.contains(change[0].getDpid());
+			boolean added = change[1] == null || !failed.contains(change[1].getDpid());
+			if (added && (deleted || change[1] != null))
+				continue;
+			
+			if (change[1] != null)
+				this.flows.remove(change[1].getName());
+			if (!deleted)
+				this.flows.put(change[0].getName(), change[0]);
+			rolledBack++;
+		}
+		
+		// Return.
+		return rolledBack;
+	}
+	
+	/**
+	 * Adds, replaces or removes a committed firewall rule in the
+	 * firewall. Unchanged rules are skipped, and a rule is rejected if
+	 * another committed rule has the same fields, since the firewall
+	 * identifies rules by an ID that is derived from their fields.
+	 * 
+	 * @param name The name of the firewall rule.
+	 * @param newRule The new firewall rule, or null to remove the rule.
+	 * @param report The report to append a rejected rule to.
+	 * @return True if the firewall rule changed.
+	 */
+	private boolean changeRule(String name, FirewallRuleEntry newRule, StringBuilder report) {
+		/* The committed firewall rule. */
+		FirewallRuleEntry oldRule = this.rules.get(name);
+		
+		if ((newRule != null) ? newRule.equals(oldRule) : oldRule == null)
+			return false;
+		if (newRule != null) {
+			for (FirewallRuleEntry rule : this.rules.values()) {
+				if (rule.getRuleId() == newRule.getRuleId() && !rule.getName().equals(name)) {
+					report.append("\nFirewall rule ").append(name).append(" equals firewall rule ").append(rule.getName()).append(", not committed.");
+					return false;
+				}
+			}
+		}
+		
+		if (oldRule != null) {
+			this.firewall.deleteRule(oldRule.getRuleId());
+			this.rules.remove(name);
+		}
+		if (newRule != null) {
+			this.firewall.addRule(newRule.toFirewallRule());
+			this.rules.put(name, newRule);
+		}
+		
+		// Return.
+		return true;
+	}
+	
+	/**
+	 * Replaces the running configuration by a complete configuration,
+	 * e.g. the startup configuration. The flow tables of all connected
+	 * switches are requested once, and only the difference is written:
+	 * missing or different CLI flow entries are added, and CLI flow
+	 * entries that are not part of the configuration are deleted.
+	 * Switches that do not answer get all their flow entries pushed.
+	 * Firewall rules that are not part of the configuration are deleted
+	 * from the firewall, and missing or different ones are added.
+	 * 
+	 * @param config The configuration, i.e. all flow entries and the firewall state and rules.
+	 * @param collector The statistics collector to request the flow tables.
+	 * @param timeout The time in milliseconds to wait for the flow tables.
+	 * @return A report of the replacement.
+	 */
+	public String replace(CandidateConfig config, StatisticsCollector collector, long timeout) {
+		/* The flow entries of the configuration, by switch DPID. */
+		Map<Long, List<FlowEntry>> flowsBySwitch = new HashMap<Long, List<FlowEntry>>();
+		/* The flow tables of the connected switches. */
+		Map<Long, List<OFStatistics>> flowTables;
+		/* The switches that did not answer. */
+		Map<Long, String> failures = new HashMap<Long, String>();
+		/* The number of unchanged, added, and deleted flow entries. */
+		int unchanged = 0, added = 0, deleted = 0;
+		
+		synchronized (this) {
+			this.flows.clear();
+			for (FlowEntry flow : config.getFlows().values()) {
+				if (flow == null)
+					continue;
+				this.flows.put(flow.getName(), flow);
+				List<FlowEntry> switchFlows = flowsBySwitch.get(flow.getDpid());
+				if (switchFlows == null) {
+					switchFlows = new ArrayList<FlowEntry>();
+					flowsBySwitch.put(flow.getDpid(), switchFlows);
+				}
+				switchFlows.add(flow);
+			}
+		}
+		
+		// Request the flow tables without holding the lock, since switches may connect meanwhile.
+		OFFlowStatisticsRequest specification = new OFFlowStatisticsRequest();
+		specification.setMatch(new OFMatch().setWildcards(OFMatch.OFPFW_ALL));
+		specification.setTableId((byte) 0xff);
+		specification.setOutPort(OFPort.OFPP_NONE.getValue());
+		Collection<IOFSwitch> switches = this.floodlightProvider.getSwitches().values();
+		flowTables = collector.getStatistics(switches, OFStatisticsType.FLOW, specification, "clirunningconfig", timeout, failures);
+		
+		/* The report of the replacement. */
+		StringBuilder report = new StringBuilder();
+		
+		for (IOFSwitch sw : switches) {
+			/* The flow entries of the switch in the configuration. */
+			List<FlowEntry> switchFlows = flowsBySwitch.remove(sw.getId());
+			/* The CLI flow entries installed on the switch. */
+			Map<FlowKey, OFFlowStatisticsReply> installed = new HashMap<FlowKey, OFFlowStatisticsReply>();
+			/* The flow-mods that add missing or changed flow entries. */
+			List<OFMessage> adds = new ArrayList<OFMessage>();
+			/* The keys of the added flow entries. */
+			Set<FlowKey> addedKeys = new HashSet<FlowKey>();
+			/* The flow-mods to write, i.e. the deletes followed by the adds. */
+			List<OFMessage> batch = new ArrayList<OFMessage>();
+			
+			if (flowTables.get(sw.getId()) != null) {
+				for (OFStatistics statistics : flowTables.get(sw.getId())) {
+					OFFlowStatisticsReply reply = (OFFlowStatisticsReply) statistics;
+					if (reply.getCookie() == CLI_COOKIE)
+						installed.put(new FlowKey(reply.getMatch(), reply.getPriority()), reply);
+				}
+			}
+			if (switchFlows != null) {
+				for (FlowEntry flow : switchFlows) {
+					OFFlowMod flowMod = this.createFlowMod(flow, OFFlowMod.OFPFC_ADD);
+					FlowKey key = new FlowKey(flowMod.getMatch(), flowMod.getPriority());
+					OFFlowStatisticsReply reply = installed.remove(key);
+					if (reply != null && reply.getIdleTimeout() == flowMod.getIdleTimeout() && reply.getHardTimeout() == flowMod.getHardTimeout()
+							&& reply.getActions() != null && reply.getActions().equals(flowMod.getActions())) {
+						unchanged++;
+					} else {
+						adds.add(flowMod);
+						addedKeys.add(key);
+						added++;
+					}
+				}
+			}
+			// Delete stale entries first, such that a delete never removes an entry pushed by the same batch.
+			for (Map.Entry<FlowKey, OFFlowStatisticsReply> entry : installed.entrySet()) {
+				if (addedKeys.contains(entry.getKey()))
+					continue;
+				batch.add(this.createFlowMod(entry.getValue().getMatch(), entry.getValue().getPriority(), OFFlowMod.OFPFC_DELETE_STRICT));
+				deleted++;
+			}
+			batch.addAll(adds);
+			
+			if (failures.containsKey(sw.getId()))
+				report.append("\nSwitch ").append(sw.getStringId()).append(" did not send its flow table (").append(failures.get(sw.getId())).append("), all its flow entries are pushed.");
+			if (batch.isEmpty())
+				continue;
+			try {
+				this.write(sw, batch);
+			} catch (IOException e) {
+				report.append("\nFailed to write to switch ").append(sw.getStringId()).append(": ").append(e.getMessage());
+			}
+		}
+		for (long dpid : flowsBySwitch.keySet()) {
+			report.append("\nSwitch ").append(HexString.toHexString(dpid)).append(" is not connected, its flow entries are pushed when it connects.");
+		}
+		
+		// Apply the firewall state.
+		if (config.getFirewall() != null && this.firewall != null && config.getFirewall() != this.firewall.isEnabled()) {
+			this.firewall.enableFirewall(config.getFirewall());
+			report.append("\nFirewall ").append((config.getFirewall()) ? "enabled." : "disabled.");
+		}
+		
+		// Replace the firewall rules, deleting stale ones first.
+		if (this.firewall != null) {
+			synchronized (this) {
+				for (String name : new ArrayList<String>(this.rules.keySet())) {
+					if (config.getRules().get(name) == null)
+						this.changeRule(name, null, report);
+				}
+				for (FirewallRuleEntry rule : config.getRules().values()) {
+					if (rule != null)
+						this.changeRule(rule.getName(), rule, report);
+				}
+			}
+		} else if (!config.getRules().isEmpty()) {
+			report.append("\nThe firewall module is not loaded, the firewall rules are skipped.");
+		}
+		
+		// Return.
+		return unchanged + " flow entries unchanged, " + added + " pushed, " + deleted + " stale entries deleted." + report;
+	}
+	
+	/**
+	 * Gets the batch of flow-mods of a switch, or creates it.
+	 * 
+	 * @param batches The flow-mods by switch DPID.
+	 * @param dpid The switch DPID.
+	 * @return The batch of flow-mods of the switch.
+	 */
+	private List<OFMessage> getBatch(Map<Long, List<OFMessage>> batches, long dpid) {
+		List<OFMessage> batch = batches.get(dpid);
+		if (batch == null) {
+			batch = new ArrayList<OFMessage>();
+			batches.put(dpid, batch);
+		}
+		return batch;
+	}
+	
+	/**
+	 * Creates a flow-mod for a flow entry.
+	 * 
+	 * @param flow The flow entry.
+	 * @param command The flow-mod command, i.e. OFPFC_ADD or OFPFC_DELETE_STRICT.
+	 * @return The flow-mod.
+	 */
+	OFFlowMod createFlowMod(FlowEntry flow, short command) {
+		/* The flow-mod. */
+		OFFlowMod flowMod = this.createFlowMod(flow.getOFMatch(), (short) flow.getPriority(), command);
+		
+		flowMod.setIdleTimeout((short) flow.getIdleTimeout());
+		flowMod.setHardTimeout((short) flow.getHardTimeout());
+		if (command == OFFlowMod.OFPFC_ADD) {
+			flowMod.setActions(flow.getOFActions());
+			flowMod.setLengthU(OFFlowMod.MINIMUM_LENGTH + flow.getOFActionsLength());
+		}
+		
+		// Return.
+		return flowMod;
+	}
+	
+	/**
+	 * Creates a flow-mod without actions, e.g. to delete a flow entry.
+	 * 
+	 * @param match The match of the flow entry.
+	 * @param priority The priority of the flow entry.
+	 * @param command The flow-mod command.
+	 * @return The flow-mod.
+	 */
+	private OFFlowMod createFlowMod(OFMatch match, short priority, short command) {
+		/* The flow-mod. */
+		OFFlowMod flowMod = (OFFlowMod) this.floodlightProvider.getOFMessageFactory().getMessage(OFType.FLOW_MOD);
+		
+		flowMod.setMatch(match);
+		flowMod.setCommand(command);
+		flowMod.setPriority(priority);
+		flowMod.setBufferId(OFPacketOut.BUFFER_ID_NONE);
+		flowMod.setCookie(CLI_COOKIE);
+		flowMod.setOutPort(OFPort.OFPP_NONE);
+		flowMod.setLengthU(OFFlowMod.MINIMUM_LENGTH);
+		
+		// Return.
+		return flowMod;
+	}
+	
+	/**
+	 * Writes a batch of flow-mods to a switch and flushes it once.
+	 * 
+	 * @param sw The switch.
+	 * @param batch The flow-mods.
+	 * @throws IOException if writing to the switch fails.
+	 */
+	private void write(IOFSwitch sw, List<OFMessage> batch) throws IOException {
+		sw.write(batch, null);
+		sw.flush();
+	}
+
+	@Override
+	public void addedSwitch(IOFSwitch sw) {
+		/* The flow-mods of the switch. */
+		List<OFMessage> batch = new ArrayList<OFMessage>();
+		
+		synchronized (this) {
+			for (FlowEntry flow : this.flows.values()) {
+				if (flow.getDpid() == sw.getId())
+					batch.add(this.createFlowMod(flow, OFFlowMod.OFPFC_ADD));
+			}
+		}
+		
+		if (batch.isEmpty())
+			return;
+		
+		try {
+			this.write(sw, batch);
+			RunningConfig.logger.info("Pushed {} CLI flow entries to switch {}", batch.size(), sw.getStringId());
+		} catch (IOException e) {
+			RunningConfig.logger.error("Failed to push CLI flow entries to switch {}: {}", sw.getStringId(), e.getMessage());
+		}
+	}
+
+	@Override
+	public void removedSwitch(IOFSwitch sw) {
+		// do nothing.
+	}
+
+	@Override
+	public void switchPortChanged(Long switchId) {
+		// do nothing.
+	}
+
+	@Override
+	public String getName() {
+		return "clirunningconfig";
+	}
+	
+	/**
+	 * Identifies a flow entry in a flow table, i.e. its match and
+	 * priority. The match is normalized the way switches report it,
+	 * such that a match parsed from the configuration equals the match
+	 * of the installed flow entry.
+	 */
+	private static class FlowKey {
+		/** The match of the flow entry. */
+		private final OFMatch match;
+		/** The priority of the flow entry. */
+		private final short priority;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param match The match of the flow entry.
+		 * @param priority The priority of the flow entry.
+		 */
+		private FlowKey(OFMatch match, short priority) {
+			this.match = FlowKey.normalize(match);
+			this.priority = priority;
+		}
+		
+		/**
+		 * Normalizes a match: fields that do not apply to the data link
+		 * or network protocol are wildcarded, IP prefix lengths beyond 32
+		 * bits are clamped to 32, and wildcarded fields are cleared.
+		 * 
+		 * @param match The match.
+		 * @return A normalized copy of the match.
+		 */
+		private static OFMatch normalize(OFMatch match) {
+			/* The normalized match. */
+			OFMatch normalized = match.clone();
+			/* The wildcards of the match. */
+			int wildcards = match.getWildcards();
+			/* Whether the match is on IP packets, or on ARP packets. */
+			boolean ip = (wildcards & OFMatch.OFPFW_DL_TYPE) == 0 && match.getDataLayerType() == 0x0800;
+			boolean arp = (wildcards & OFMatch.OFPFW_DL_TYPE) == 0 && match.getDataLayerType() == 0x0806;
+			/* Whether the match is on TCP, UDP, or ICMP packets. */
+			boolean transport = ip && (wildcards & OFMatch.OFPFW_NW_PROTO) == 0
+					&& (match.getNetworkProtocol() == 6 || match.getNetworkProtocol() == 17 || match.getNetworkProtocol() == 1);
+			
+			// Wildcard the fields that do not apply.
+			if (!ip && !arp)
+				wildcards |= OFMatch.OFPFW_NW_PROTO | OFMatch.OFPFW_NW_SRC_MASK | OFMatch.OFPFW_NW_DST_MASK;
+			if (!ip)
+				wildcards |= OFMatch.OFPFW_NW_TOS;
+			if (!transport)
+				wildcards |= OFMatch.OFPFW_TP_SRC | OFMatch.OFPFW_TP_DST;
+			
+			// Clamp the IP prefix wildcards to 32 bits, i.e. all bits.
+			int srcBits = Math.min((wildcards & OFMatch.OFPFW_NW_SRC_MASK) >> OFMatch.OFPFW_NW_SRC_SHIFT, 32);
+			int dstBits = Math.min((wildcards & OFMatch.OFPFW_NW_DST_MASK) >> OFMatch.OFPFW_NW_DST_SHIFT, 32);
+			wildcards = (wildcards & ~OFMatch.OFPFW_NW_SRC_MASK & ~OFMatch.OFPFW_NW_DST_MASK)
+					| (srcBits << OFMatch.OFPFW_NW_SRC_SHIFT) | (dstBits << OFMatch.OFPFW_NW_DST_SHIFT);
+			normalized.setWildcards(wildcards);
+			
+			// Clear the wildcarded fields and the wildcarded bits of IP addresses.
+			if ((wildcards & OFMatch.OFPFW_IN_PORT) != 0)
+				normalized.setInputPort((short) 0);
+			if ((wildcards & OFMatch.OFPFW_DL_VLAN) != 0)
+				normalized.setDataLayerVirtualLan((short) 0);
+			if ((wildcards & OFMatch.OFPFW_DL_VLAN_PCP) != 0)
+				normalized.setDataLayerVirtualLanPriorityCodePoint((byte) 0);
+			if ((wildcards & OFMatch.OFPFW_DL_SRC) != 0)
+				normalized.setDataLayerSource(new byte[6]);
+			if ((wildcards & OFMatch.OFPFW_DL_DST) != 0)
+				normalized.setDataLayerDestination(new byte[6]);
+			if ((wildcards & OFMatch.OFPFW_DL_TYPE) != 0)
+				normalized.setDataLayerType((short) 0);
+			if ((wildcards & OFMatch.OFPFW_NW_PROTO) != 0)
+				normalized.setNetworkProtocol((byte) 0);
+			if ((wildcards & OFMatch.OFPFW_NW_TOS) != 0)
+				normalized.setNetworkTypeOfService((byte) 0);
+			if ((wildcards & OFMatch.OFPFW_TP_SRC) != 0)
+				normalized.setTransportSource((short) 0);
+			if ((wildcards & OFMatch.OFPFW_TP_DST) != 0)
+				normalized.setTransportDestination((short) 0);
+			normalized.setNetworkSource((srcBits == 32) ? 0 : match.getNetworkSource() & (-1 << srcBits));
+			normalized.setNetworkDestination((dstBits == 32) ? 0 : match.getNetworkDestination() & (-1 << dstBits));
+			
+			// Return.
+			return normalized;
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof FlowKey))
+				return false;
+			FlowKey other = (FlowKey) obj;
+			return this.priority == other.priority && this.match.equals(other.match);
+		}
+		
+		@Override
+		public int hashCode() {
+			return 31 * this.match.hashCode() + this.priority;
+		}
+	}
+
+}
@@ -0,0 +1,159 @@
+package net.floodlightcontroller.cli.config;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The startup configuration of the CLI, i.e. a saved copy of the
+ * running configuration that is loaded when the controller starts.
+ * 
+ * The file holds the configuration commands of the running
+ * configuration, one per line, GZIP compressed. Since the commands
+ * of thousands of flow entries differ in little more than their
+ * names and matches, they compress well, and the file can still be
+ * read with zcat. A new copy is written to a temporary file first
+ * and then renamed, such that a crash never leaves a partial file.
+ */
+public class StartupConfig {
+	/** The character set of the file. */
+	private static final Charset CHARSET = Charset.forName("UTF-8");
+	/** The startup configuration file. */
+	private final File file;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param file The startup configuration file.
+	 */
+	public StartupConfig(File file) {
+		this.file = file;
+	}
+	
+	/**
+	 * Getter for the startup configuration file.
+	 * 
+	 * @return The startup configuration file.
+	 */
+	public File getFile() {
+		return this.file;
+	}
+	
+	/**
+	 * Checks whether a startup configuration was saved.
+	 * 
+	 * @return True if the startup configuration file exists.
+	 */
+	public boolean exists() {
+		return this.file.isFile();
+	}
+	
+	/**
+	 * Saves the configuration commands of a configuration.
+	 * 
+	 * @param lines The configuration commands.
+	 * @throws IOException if the file cannot be written.
+	 */
+	public synchronized void save(Iterable<String> lines) throws IOException {
+		/* The temporary file that is renamed when complete. */
+		File tmpFile = new File(this.file.getPath() + ".tmp");
+		/* The writer of the temporary file. */
+		Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(tmpFile), 64 * 1024), CHARSET));
+		
+		try {
+			for (String line : lines) {
+				writer.write(line);
+				writer.write('\n');
+			}
+		} finally {
+			writer.close();
+		}
+		
+		// Replace the old file.
+		if (!tmpFile.renameTo(this.file)) {
+			this.file.delete();
+			if (!tmpFile.renameTo(this.file))
+				throw new IOException("Could not rename " + tmpFile + " to " + this.file);
+		}
+	}
+	
+	/**
+	 * Reads the startup configuration.
+	 * 
+	 * @return The startup configuration as a candidate with all its flow entries.
+	 * @throws IOException if the file cannot be read or is invalid.
+	 */
+	public synchronized CandidateConfig read() throws IOException {
+		/* The configuration read. */
+		CandidateConfig config = new CandidateConfig();
+		/* The reader of the file. */
+		BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(this.file), 64 * 1024), CHARSET));
+		/* The current line and its number. */
+		String line;
+		int lineNumber = 0;
+		
+		try {
+			while ((line = reader.readLine()) != null) {
+				lineNumber++;
+				line = line.trim();
+				if (line.length() == 0 || line.startsWith("!"))
+					continue;
+				
+				if (line.equals("firewall enable") || line.equals("firewall disable")) {
+					config.setFirewall(line.equals("firewall enable"));
+				} else if (line.startsWith("firewall rule ")) {
+					config.setRule(FirewallRuleEntry.parse(line));
+				} else {
+					config.setFlow(FlowEntry.parse(line));
+				}
+			}
+		} catch (IllegalArgumentException e) {
+			throw new IOException(this.file + ", line " + lineNumber + ": " + e.getMessage());
+		} finally {
+			reader.close();
+		}
+		
+		// Return.
+		return config;
+	}
+
+}
@@ -0,0 +1,205 @@
+package net.floodlightcontroller.cli.stats;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.floodlightcontroller.core.FloodlightContext;
+import net.floodlightcontroller.core.IFloodlightProviderService;
+import net.floodlightcontroller.core.IOFMessageListener;
+import net.floodlightcontroller.core.IOFSwitch;
+import net.floodlightcontroller.core.IOFSwitchListener;
+import net.floodlightcontroller.devicemanager.IDevice;
+import net.floodlightcontroller.devicemanager.IDeviceListener;
+import net.floodlightcontroller.devicemanager.IDeviceService;
+
+import org.openflow.protocol.OFMessage;
+import org.openflow.protocol.OFType;
+
+/**
+ * Aggregate counters of the controller, i.e. the number of switches
+ * and hosts and the rates of packet-ins and flow-mods. The counters
+ * are maintained incrementally by listeners, such that reading them
+ * takes constant time, no matter how large the network is.
+ * 
+ * Flow-mods are counted as they are written to the switches, since
+ * Floodlight hands outgoing messages to the message listeners, too.
+ */
+public class ControllerCounters implements IOFSwitchListener, IOFMessageListener {
+	/** The number of seconds the rates are averaged over. */
+	private static final int RATE_WINDOW = 10;
+	/** The number of connected switches. */
+	private final AtomicInteger switches = new AtomicInteger();
+	/** The number of known hosts. */
+	private final AtomicInteger hosts = new AtomicInteger();
+	/** The rate of packet-in messages. */
+	private final RateMeter packetIns = new RateMeter(RATE_WINDOW);
+	/** The rate of flow-mod messages. */
+	private final RateMeter flowMods = new RateMeter(RATE_WINDOW);
+	
+	/**
+	 * Starts maintaining the counters. Registers the listeners and
+	 * counts the switches and hosts already known once. Must be called
+	 * at module start-up, i.e. before switches connect.
+	 * 
+	 * @param floodlightProvider The Floodlight provider service.
+	 * @param deviceManager The device manager service.
+	 */
+	public void start(IFloodlightProviderService floodlightProvider, IDeviceService deviceManager) {
+		floodlightProvider.addOFSwitchListener(this);
+		floodlightProvider.addOFMessageListener(OFType.PACKET_IN, this);
+		floodlightProvider.addOFMessageListener(OFType.FLOW_MOD, this);
+		deviceManager.addListener(new DeviceCounter());
+		
+		this.switches.set(floodlightProvider.getSwitches().size());
+		this.hosts.set(deviceManager.getAllDevices().size());
+	}
+	
+	/**
+	 * Gets the number of connected switches.
+	 * 
+	 * @return The number of switches.
+	 */
+	public int getSwitchCount() {
+		return this.switches.get();
+	}
+	
+	/**
+	 * Gets the number of known hosts.
+	 * 
+	 * @return The number of hosts.
+	 */
+	public int getHostCount() {
+		return this.hosts.get();
+	}
+	
+	/**
+	 * Gets the rate meter of packet-in messages.
+	 * 
+	 * @return The packet-in rate meter.
+	 */
+	public RateMeter getPacketIns() {
+		return this.packetIns;
+	}
+	
+	/**
+	 * Gets the rate meter of flow-mod messages.
+	 * 
+	 * @return The flow-mod rate meter.
+	 */
+	public RateMeter getFlowMods() {
+		return this.flowMods;
+	}
+
+	@Override
+	public Command receive(IOFSwitch sw, OFMessage msg, FloodlightContext cntx) {
+		if (msg.getType() == OFType.PACKET_IN) {
+			this.packetIns.mark();
+		} else if (msg.getType() == OFType.FLOW_MOD) {
+			this.flowMods.mark();
+		}
+		return Command.CONTINUE;
+	}
+
+	@Override
+	public boolean isCallbackOrderingPrereq(OFType type, String name) {
+		return false;
+	}
+
+	@Override
+	public boolean isCallbackOrderingPostreq(OFType type, String name) {
+		return false;
+	}
+
+	@Override
+	public void addedSwitch(IOFSwitch sw) {
+		this.switches.incrementAndGet();
+	}
+
+	@Override
+	public void removedSwitch(IOFSwitch sw) {
+		this.switches.decrementAndGet();
+	}
+
+	@Override
+	public void switchPortChanged(Long switchId) {
+		// do nothing.
+	}
+
+	@Override
+	public String getName() {
+		return "clicounters";
+	}
+	
+	/**
+	 * Counts the hosts known to the device manager.
+	 */
+	private class DeviceCounter implements IDeviceListener {
+		
+		@Override
+		public void deviceAdded(IDevice device) {
+			hosts.incrementAndGet();
+		}
+		
+		@Override
+		public void deviceRemoved(IDevice device) {
+			hosts.decrementAndGet();
+		}
+		
+		@Override
+		public void deviceMoved(IDevice device) {
+			// do nothing.
+		}
+		
+		@Override
+		public void deviceIPV4AddrChanged(IDevice device) {
+			// do nothing.
+		}
+		
+		@Override
+		public void deviceVlanChanged(IDevice device) {
+			// do nothing.
+		}
+		
+		public String getName() {
+			return "clihostcounter";
+		}
+		
+		public boolean isCallbackOrderingPrereq(String type, String name) {
+			return false;
+		}
+		
+		public boolean isCallbackOrderingPostreq(String type, String name) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,121 @@
+package net.floodlightcontroller.cli.stats;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures the rate of events per second over a sliding window of
+ * one-second buckets. Marking an event is lock-free and takes a few
+ * atomic operations, thus the meter can be used on the packet path.
+ * 
+ * Concurrent marks that race with a bucket being recycled may be
+ * lost, i.e. the rate is an approximation.
+ */
+public class RateMeter {
+	/** The number of nanoseconds per second. */
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+	/** The seconds the buckets count events for. */
+	private final AtomicLongArray seconds;
+	/** The number of events per bucket. */
+	private final AtomicLongArray counts;
+	/** The total number of events. */
+	private final AtomicLong total = new AtomicLong();
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param window The number of (complete) seconds the rate is averaged over.
+	 */
+	public RateMeter(int window) {
+		// One more bucket for the current, incomplete second.
+		this.seconds = new AtomicLongArray(window + 1);
+		this.counts = new AtomicLongArray(window + 1);
+		for (int i = 0; i < this.seconds.length(); i++) {
+			this.seconds.set(i, -1);
+		}
+	}
+	
+	/**
+	 * Marks the occurrence of an event.
+	 */
+	public void mark() {
+		/* The current second. */
+		long second = System.nanoTime() / NANOS_PER_SECOND;
+		/* The bucket of the current second. */
+		int bucket = (int) Math.abs(second % this.seconds.length());
+		/* The second the bucket currently counts events for. */
+		long stamp = this.seconds.get(bucket);
+		
+		// Recycle the bucket for the current second.
+		if (stamp != second && this.seconds.compareAndSet(bucket, stamp, second))
+			this.counts.set(bucket, 0);
+		
+		this.counts.incrementAndGet(bucket);
+		this.total.incrementAndGet();
+	}
+	
+	/**
+	 * Gets the average number of events per second over the window,
+	 * excluding the current, incomplete second.
+	 * 
+	 * @return The rate in events per second.
+	 */
+	public double getRate() {
+		/* The current second. */
+		long second = System.nanoTime() / NANOS_PER_SECOND;
+		/* The number of complete seconds in the window. */
+		int window = this.seconds.length() - 1;
+		/* The number of events in the window. */
+		long events = 0;
+		
+		for (long s = second - window; s < second; s++) {
+			int bucket = (int) Math.abs(s % this.seconds.length());
+			if (this.seconds.get(bucket) == s)
+				events += this.counts.get(bucket);
+		}
+		
+		// Return.
+		return (double) events / window;
+	}
+	
+	/**
+	 * Gets the total number of events.
+	 * 
+	 * @return The total number of events.
+	 */
+	public long getTotal() {
+		return this.total.get();
+	}
+
+}
@@ -0,0 +1,266 @@
+package net.floodlightcontroller.cli.stats;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import net.floodlightcontroller.core.IOFSwitch;
+
+import org.openflow.protocol.OFPort;
+import org.openflow.protocol.OFStatisticsRequest;
+import org.openflow.protocol.statistics.OFPortStatisticsRequest;
+import org.openflow.protocol.statistics.OFStatistics;
+import org.openflow.protocol.statistics.OFStatisticsType;
+
+/**
+ * Collects OpenFlow statistics from switches.
+ * 
+ * Concurrent requests for the same statistics of the same switch are
+ * coalesced into one in-flight request, and replies are re-used for a
+ * short cache window. Requests to many switches are sent out at once
+ * and then awaited with a common deadline, such that a fleet-wide dump
+ * takes one round trip time instead of one per switch.
+ */
+public class StatisticsCollector {
+	/** The time in nanoseconds an in-flight request is shared before it is considered lost. */
+	private static final long MAX_IN_FLIGHT = TimeUnit.SECONDS.toNanos(30);
+	/** The time in nanoseconds a completed reply is re-used. */
+	private final long cacheWindow;
+	/** Map of request keys and the requests that are in-flight or cached. */
+	private final Map<String, Request> requests = new HashMap<String, Request>();
+	
+	/**
+	 * A request that is in-flight or completed.
+	 */
+	private static class Request {
+		/** The future of the statistics reply. */
+		final Future<List<OFStatistics>> future;
+		/** The time the request was sent in nanoseconds. */
+		final long sent;
+		
+		Request(Future<List<OFStatistics>> future, long sent) {
+			this.future = future;
+			this.sent = sent;
+		}
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param cacheWindow The time in milliseconds a completed reply is re-used.
+	 */
+	public StatisticsCollector(long cacheWindow) {
+		this.cacheWindow = TimeUnit.MILLISECONDS.toNanos(cacheWindow);
+	}
+	
+	/**
+	 * Gets the port statistics of all ports of a set of switches.
+	 * 
+	 * @param switches The switches to query.
+	 * @param timeout The time in milliseconds to wait for each switch.
+	 * @param failures A map that is filled with the switches that failed to answer and the reason.
+	 * @return A map of switch DPIDs and their port statistics, in the order of the given switches.
+	 */
+	public Map<Long, List<OFStatistics>> getPortStatistics(Collection<IOFSwitch> switches, long timeout, Map<Long, String> failures) {
+		/* The port statistics request specification for all ports. */
+		OFPortStatisticsRequest specification = new OFPortStatisticsRequest();
+		
+		specification.setPortNumber(OFPort.OFPP_NONE.getValue());
+		return this.getStatistics(switches, OFStatisticsType.PORT, specification, "port:all", timeout, failures);
+	}
+	
+	/**
+	 * Gets statistics from a set of switches. All requests are sent
+	 * before the first reply is awaited.
+	 * 
+	 * @param switches The switches to query.
+	 * @param type The statistics type.
+	 * @param specification The statistics request specification.
+	 * @param key A string that identifies the specification, used to coalesce requests.
+	 * @param timeout The time in milliseconds to wait for each switch.
+	 * @param failures A map that is filled with the switches that failed to answer and the reason.
+	 * @return A map of switch DPIDs and their statistics, in the order of the given switches.
+	 */
+	public Map<Long, List<OFStatistics>> getStatistics(Collection<IOFSwitch> switches, OFStatisticsType type, OFStatistics specification, String key, long timeout, Map<Long, String> failures) {
+		/* The futures of all requests. */
+		Map<Long, Future<List<OFStatistics>>> futures = new LinkedHashMap<Long, Future<List<OFStatistics>>>();
+		/* The statistics of all switches that answered. */
+		Map<Long, List<OFStatistics>> statistics = new LinkedHashMap<Long, List<OFStatistics>>();
+		
+		// Fan out: send all requests.
+		for (IOFSwitch sw : switches) {
+			try {
+				futures.put(sw.getId(), this.getStatistics(sw, type, specification, key));
+			} catch (IOException e) {
+				failures.put(sw.getId(), "request failed: " + e.getMessage());
+			}
+		}
+		
+		// Collect all replies with a common deadline.
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		for (Map.Entry<Long, Future<List<OFStatistics>>> entry : futures.entrySet()) {
+			try {
+				List<OFStatistics> reply = entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+				if (reply != null) {
+					statistics.put(entry.getKey(), reply);
+				} else {
+					failures.put(entry.getKey(), "no reply");
+				}
+			} catch (TimeoutException e) {
+				failures.put(entry.getKey(), "timed out");
+			} catch (ExecutionException e) {
+				failures.put(entry.getKey(), "failed: " + e.getCause().getMessage());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				failures.put(entry.getKey(), "interrupted");
+			} catch (CancellationException e) {
+				failures.put(entry.getKey(), "cancelled");
+			}
+		}
+		
+		// Return.
+		return statistics;
+	}
+	
+	/**
+	 * Gets statistics from a switch. Returns the in-flight request if
+	 * there is one, or the cached reply if it is recent enough.
+	 * Otherwise, sends a new request. Does not block.
+	 * 
+	 * @param sw The switch to query.
+	 * @param type The statistics type.
+	 * @param specification The statistics request specification.
+	 * @param key A string that identifies the specification, used to coalesce requests.
+	 * @return The future of the statistics reply.
+	 * @throws IOException if the request cannot be sent.
+	 */
+	public Future<List<OFStatistics>> getStatistics(IOFSwitch sw, OFStatisticsType type, OFStatistics specification, String key) throws IOException {
+		/* The key that identifies the request. */
+		String requestKey = sw.getId() + "/" + type + "/" + key;
+		/* The current time. */
+		long now = System.nanoTime();
+		
+		synchronized (this.requests) {
+			Request request = this.requests.get(requestKey);
+			if (request != null && this.isReusable(request, now))
+				return request.future;
+			
+			// Sending only queues the request on the switch channel.
+			request = new Request(sw.getStatistics(this.createRequest(type, specification)), now);
+			this.requests.put(requestKey, request);
+			
+			// Forget requests of switches that are gone or have not been asked for a while.
+			if (this.requests.size() > 1024)
+				this.purge(now);
+			
+			return request.future;
+		}
+	}
+	
+	/**
+	 * Streams statistics from a switch, i.e. hands out the replies
+	 * as they are received. Streams are never coalesced or cached.
+	 * 
+	 * @param sw The switch to query.
+	 * @param type The statistics type.
+	 * @param specification The statistics request specification.
+	 * @return The stream of statistics replies. Needs to be closed after use.
+	 * @throws IOException if the request cannot be sent.
+	 */
+	public StatisticsStream streamStatistics(IOFSwitch sw, OFStatisticsType type, OFStatistics specification) throws IOException {
+		return new StatisticsStream(sw, this.createRequest(type, specification));
+	}
+	
+	/**
+	 * Creates a statistics request.
+	 * 
+	 * @param type The statistics type.
+	 * @param specification The statistics request specification.
+	 * @return The statistics request.
+	 */
+	private OFStatisticsRequest createRequest(OFStatisticsType type, OFStatistics specification) {
+		/* The statistics request. */
+		OFStatisticsRequest statisticsRequest = new OFStatisticsRequest();
+		
+		statisticsRequest.setStatisticType(type);
+		statisticsRequest.setStatistics(Collections.singletonList(specification));
+		statisticsRequest.setLengthU(statisticsRequest.getLengthU() + specification.getLength());
+		
+		// Return.
+		return statisticsRequest;
+	}
+	
+	/**
+	 * Checks whether a request can be re-used, i.e. whether it is
+	 * in-flight or has completed successfully within the cache window.
+	 * 
+	 * @param request The request.
+	 * @param now The current time in nanoseconds.
+	 * @return True if the request can be re-used.
+	 */
+	private boolean isReusable(Request request, long now) {
+		if (!request.future.isDone())
+			return now - request.sent < MAX_IN_FLIGHT;
+		if (request.future.isCancelled() || now - request.sent >= this.cacheWindow)
+			return false;
+		
+		try {
+			return request.future.get() != null;
+		} catch (Exception e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * Removes all requests that cannot be re-used anymore.
+	 * 
+	 * @param now The current time in nanoseconds.
+	 */
+	private void purge(long now) {
+		for (Iterator<Request> it = this.requests.values().iterator(); it.hasNext(); ) {
+			if (!this.isReusable(it.next(), now))
+				it.remove();
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+package net.floodlightcontroller.cli.stats;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import net.floodlightcontroller.core.FloodlightContext;
+import net.floodlightcontroller.core.IOFMessageListener;
+import net.floodlightcontroller.core.IOFSwitch;
+
+import org.openflow.protocol.OFMessage;
+import org.openflow.protocol.OFStatisticsReply;
+import org.openflow.protocol.OFStatisticsRequest;
+import org.openflow.protocol.OFType;
+import org.openflow.protocol.statistics.OFStatistics;
+
+/**
+ * A stream of the (multipart) replies to an OpenFlow statistics
+ * request. Each reply is handed to the reader as soon as it is
+ * received from the switch, instead of collecting all replies
+ * first. Thus, large replies, e.g. flow tables with many entries,
+ * can be shown while the switch is still sending.
+ * 
+ * The replies are queued by the switch's I/O thread, which must
+ * never block. Streams need to be closed after use.
+ */
+public class StatisticsStream implements IOFMessageListener {
+	/** The flag that indicates more replies to follow (OFPSF_REPLY_MORE). */
+	private static final short REPLY_MORE = 0x1;
+	/** The switch the request is sent to. */
+	private final IOFSwitch sw;
+	/** The transaction id of the request. */
+	private final int xid;
+	/** The replies received, but not yet read. */
+	private final BlockingQueue<OFStatisticsReply> replies = new LinkedBlockingQueue<OFStatisticsReply>();
+	/** Whether the last reply has been read. */
+	private boolean finished = false;
+	
+	/**
+	 * Constructor. Sends the request to the switch.
+	 * 
+	 * @param sw The switch to query.
+	 * @param request The statistics request.
+	 * @throws IOException if the request cannot be sent.
+	 */
+	StatisticsStream(IOFSwitch sw, OFStatisticsRequest request) throws IOException {
+		this.sw = sw;
+		this.xid = sw.getNextTransactionId();
+		request.setXid(this.xid);
+		sw.sendStatsQuery(request, this.xid, this);
+	}
+	
+	/**
+	 * Gets the statistics of the next reply. Blocks until the next
+	 * reply is received.
+	 * 
+	 * @param timeout The time in milliseconds to wait for the next reply.
+	 * @return The statistics of the next reply, or null if the last reply has been read.
+	 * @throws TimeoutException if no reply is received in time.
+	 * @throws InterruptedException if the thread is interrupted while waiting.
+	 */
+	public List<? extends OFStatistics> next(long timeout) throws TimeoutException, InterruptedException {
+		if (this.finished)
+			return null;
+		
+		OFStatisticsReply reply = this.replies.poll(timeout, TimeUnit.MILLISECONDS);
+		if (reply == null)
+			throw new TimeoutException();
+		
+		this.finished = (reply.getFlags() & REPLY_MORE) == 0;
+		
+		// Return.
+		return (reply.getStatistics() != null) ? reply.getStatistics() : Collections.<OFStatistics>emptyList();
+	}
+	
+	/**
+	 * Closes the stream, i.e. stops receiving replies.
+	 */
+	public void close() {
+		this.sw.cancelStatisticsReply(this.xid);
+		this.replies.clear();
+	}
+
+	@Override
+	public Command receive(IOFSwitch sw, OFMessage msg, FloodlightContext cntx) {
+		if (msg.getXid() == this.xid && msg instanceof OFStatisticsReply)
+			this.replies.offer((OFStatisticsReply) msg);
+		return Command.CONTINUE;
+	}
+
+	@Override
+	public String getName() {
+		return "clistatisticsstream";
+	}
+
+	@Override
+	public boolean isCallbackOrderingPrereq(OFType type, String name) {
+		return false;
+	}
+
+	@Override
+	public boolean isCallbackOrderingPostreq(OFType type, String name) {
+		return false;
+	}
+
+}
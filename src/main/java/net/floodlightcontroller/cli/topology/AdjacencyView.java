@@ -0,0 +1,328 @@
+package net.floodlightcontroller.cli.topology;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.floodlightcontroller.linkdiscovery.ILinkDiscovery.LDUpdate;
+import net.floodlightcontroller.linkdiscovery.ILinkDiscovery.LinkType;
+import net.floodlightcontroller.linkdiscovery.ILinkDiscoveryListener;
+import net.floodlightcontroller.linkdiscovery.ILinkDiscoveryService;
+import net.floodlightcontroller.linkdiscovery.LinkInfo;
+import net.floodlightcontroller.routing.Link;
+
+/**
+ * An adjacency view of the topology that is maintained incrementally
+ * from link discovery updates. Every link is stored at both its source
+ * and its destination switch, such that the links of a switch can be
+ * found in O(degree). 
+ * 
+ * All maps are concurrent, thus iterators are weakly consistent and
+ * listing all links neither copies nor locks the view. Updates are
+ * serialized, since they come from the link discovery thread anyway.
+ */
+public class AdjacencyView implements ILinkDiscoveryListener {
+	/** Map of switch DPIDs and the links that start or end at the switch. */
+	private final ConcurrentMap<Long, ConcurrentMap<Link, LinkEntry>> adjacency = new ConcurrentHashMap<Long, ConcurrentMap<Link, LinkEntry>>();
+	/** The number of links. */
+	private final AtomicInteger linkCount = new AtomicInteger();
+	
+	/**
+	 * A link and its attributes.
+	 */
+	public static class LinkEntry {
+		/** The link. */
+		private final Link link;
+		/** The type of the link. */
+		private final LinkType type;
+		/** The time in milliseconds since the epoch the link was discovered. */
+		private final long since;
+		
+		LinkEntry(Link link, LinkType type, long since) {
+			this.link = link;
+			this.type = type;
+			this.since = since;
+		}
+		
+		public Link getLink() {
+			return this.link;
+		}
+		
+		public LinkType getType() {
+			return this.type;
+		}
+		
+		public long getSince() {
+			return this.since;
+		}
+	}
+	
+	/**
+	 * Starts maintaining the view. Registers for link discovery
+	 * updates first and then adds the links already known, such
+	 * that no update is missed.
+	 * 
+	 * @param linkDiscovery The link discovery service.
+	 */
+	public void start(ILinkDiscoveryService linkDiscovery) {
+		linkDiscovery.addListener(this);
+		
+		for (Map.Entry<Link, LinkInfo> entry : linkDiscovery.getLinks().entrySet()) {
+			Long firstSeen = entry.getValue().getFirstSeenTime();
+			LinkType type = linkDiscovery.getLinkType(entry.getKey(), entry.getValue());
+			this.addLink(entry.getKey(), type, (firstSeen != null) ? firstSeen : System.currentTimeMillis(), false);
+		}
+	}
+
+	@Override
+	public void linkDiscoveryUpdate(LDUpdate update) {
+		if (update.getOperation() == null)
+			return;
+		
+		switch (update.getOperation()) {
+			case LINK_UPDATED:
+				this.addLink(new Link(update.getSrc(), update.getSrcPort(), update.getDst(), update.getDstPort()), update.getType(), System.currentTimeMillis(), true);
+				break;
+			case LINK_REMOVED:
+				this.removeLink(new Link(update.getSrc(), update.getSrcPort(), update.getDst(), update.getDstPort()));
+				break;
+			case SWITCH_REMOVED:
+				this.removeSwitch(update.getSrc());
+				break;
+			default:
+				break;
+		}
+	}
+	
+	/**
+	 * Gets the links that start or end at a switch. O(1), the
+	 * returned collection is a (read-only) view.
+	 * 
+	 * @param dpid The switch DPID.
+	 * @return The links of the switch.
+	 */
+	public Collection<LinkEntry> getLinks(long dpid) {
+		/* The links of the switch. */
+		Map<Link, LinkEntry> links = this.adjacency.get(dpid);
+		
+		// Return.
+		return (links != null) ? Collections.unmodifiableCollection(links.values()) : Collections.<LinkEntry>emptySet();
+	}
+	
+	/**
+	 * Gets the number of links. Takes constant time.
+	 * 
+	 * @return The number of links.
+	 */
+	public int getLinkCount() {
+		return this.linkCount.get();
+	}
+	
+	/**
+	 * Gets the DPIDs of all switches that have at least one link.
+	 * The returned set is a (read-only) view.
+	 * 
+	 * @return The DPIDs of all switches with links.
+	 */
+	public Set<Long> getSwitches() {
+		return Collections.unmodifiableSet(this.adjacency.keySet());
+	}
+	
+	/**
+	 * Gets all links. The returned iterable walks the adjacency view
+	 * directly and returns every link once, i.e. at its source switch.
+	 * 
+	 * @return All links.
+	 */
+	public Iterable<LinkEntry> getLinks() {
+		return new Iterable<LinkEntry>() {
+			@Override
+			public Iterator<LinkEntry> iterator() {
+				return new LinkIterator();
+			}
+		};
+	}
+	
+	/**
+	 * Adds (or updates) a link at its source and its destination switch.
+	 * 
+	 * @param link The link.
+	 * @param type The link type.
+	 * @param since The time in milliseconds since the epoch the link was discovered.
+	 * @param replace Whether to replace a link that is already known.
+	 */
+	private synchronized void addLink(Link link, LinkType type, long since, boolean replace) {
+		/* The previous entry of the link, if any. */
+		LinkEntry previous = this.getSwitchLinks(link.getSrc()).get(link);
+		
+		if (previous != null) {
+			// Keep the discovery time of links that are only updated.
+			if (!replace || previous.getType() == type)
+				return;
+			since = previous.getSince();
+		} else {
+			this.linkCount.incrementAndGet();
+		}
+		
+		LinkEntry entry = new LinkEntry(link, type, since);
+		this.getSwitchLinks(link.getSrc()).put(link, entry);
+		this.getSwitchLinks(link.getDst()).put(link, entry);
+	}
+	
+	/**
+	 * Removes a link from its source and its destination switch.
+	 * 
+	 * @param link The link.
+	 */
+	private synchronized void removeLink(Link link) {
+		if (this.removeSwitchLink(link.getSrc(), link))
+			this.linkCount.decrementAndGet();
+		this.removeSwitchLink(link.getDst(), link);
+	}
+	
+	/**
+	 * Removes a switch and all its links.
+	 * 
+	 * @param dpid The switch DPID.
+	 */
+	private synchronized void removeSwitch(long dpid) {
+		/* The links of the switch. */
+		Map<Link, LinkEntry> links = this.adjacency.remove(dpid);
+		
+		if (links == null)
+			return;
+		
+		for (Link link : links.keySet()) {
+			this.removeSwitchLink((link.getSrc() == dpid) ? link.getDst() : link.getSrc(), link);
+			this.linkCount.decrementAndGet();
+		}
+	}
+	
+	/**
+	 * Gets the links of a switch, and creates them if necessary.
+	 * 
+	 * @param dpid The switch DPID.
+	 * @return The (modifiable) links of the switch.
+	 */
+	private ConcurrentMap<Link, LinkEntry> getSwitchLinks(long dpid) {
+		/* The links of the switch. */
+		ConcurrentMap<Link, LinkEntry> links = this.adjacency.get(dpid);
+		
+		if (links == null) {
+			ConcurrentMap<Link, LinkEntry> newLinks = new ConcurrentHashMap<Link, LinkEntry>(8);
+			links = this.adjacency.putIfAbsent(dpid, newLinks);
+			if (links == null)
+				links = newLinks;
+		}
+		
+		// Return.
+		return links;
+	}
+	
+	/**
+	 * Removes a link from a switch, and the switch if it has no links left.
+	 * 
+	 * @param dpid The switch DPID.
+	 * @param link The link.
+	 * @return True if the switch had the link.
+	 */
+	private boolean removeSwitchLink(long dpid, Link link) {
+		/* The links of the switch. */
+		ConcurrentMap<Link, LinkEntry> links = this.adjacency.get(dpid);
+		/* Whether the switch had the link. */
+		boolean removed = false;
+		
+		if (links != null) {
+			removed = (links.remove(link) != null);
+			if (links.isEmpty())
+				this.adjacency.remove(dpid, links);
+		}
+		
+		// Return.
+		return removed;
+	}
+	
+	/**
+	 * Iterates over all links of the adjacency view without copying it.
+	 * Returns each link once, i.e. at its source switch.
+	 */
+	private class LinkIterator implements Iterator<LinkEntry> {
+		/** The iterator over all switches. */
+		private final Iterator<Map.Entry<Long, ConcurrentMap<Link, LinkEntry>>> switches = adjacency.entrySet().iterator();
+		/** The DPID of the current switch. */
+		private long dpid;
+		/** The iterator over the links of the current switch. */
+		private Iterator<LinkEntry> links = Collections.<LinkEntry>emptySet().iterator();
+		/** The next link. */
+		private LinkEntry next;
+		
+		@Override
+		public boolean hasNext() {
+			while (this.next == null) {
+				if (this.links.hasNext()) {
+					LinkEntry entry = this.links.next();
+					if (entry.getLink().getSrc() == this.dpid)
+						this.next = entry;
+				} else if (this.switches.hasNext()) {
+					Map.Entry<Long, ConcurrentMap<Link, LinkEntry>> entry = this.switches.next();
+					this.dpid = entry.getKey();
+					this.links = entry.getValue().values().iterator();
+				} else {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		@Override
+		public LinkEntry next() {
+			if (!this.hasNext())
+				throw new NoSuchElementException();
+			LinkEntry entry = this.next;
+			this.next = null;
+			return entry;
+		}
+		
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+}
@@ -31,6 +31,11 @@ package net.floodlightcontroller.cli.utils;
 * written permission.
 */
 
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -44,26 +49,85 @@ import java.util.List;
  *   data    data    data    data 
  *   data    data    data    data   
  * 
+ * The table is stored column by column: string columns share one
+ * char buffer per column with offsets into it, and numeric columns,
+ * e.g. VLANs, ports, DPIDs, or timestamps, are stored as primitive
+ * longs. Cells are formatted only when a row is rendered, and every
+ * cell can be accessed in O(1). Thus, a table of 100k hosts takes a
+ * handful of arrays instead of millions of small objects.
+ * 
+ * If a maximum width is set, e.g. the width of the terminal, the
+ * table is fitted to it: columns of low priority are hidden first,
+ * then the widest columns are shrunk, and longer cells are truncated
+ * and marked with "~". The column widths are then estimated from a
+ * sample of the rows, such that not every cell has to be measured.
+ * 
+ * Large tables can be written in chunks: the column widths are fixed
+ * from the header and the first chunk of rows, and the cells of later
+ * rows that do not fit are truncated and marked.
+ * 
  * @author Michael Bredel <michael.bredel@cern.ch>
  */
 public class StringTable {
+	/** The type of a column, i.e. how its cells are stored and formated. */
+	public enum ColumnType {
+		/** Strings, stored in a shared char buffer. */
+		STRING,
+		/** Decimal numbers, e.g. VLANs, ports, or counters. */
+		NUMBER,
+		/** Switch DPIDs, formated as 00:00:00:00:00:00:00:01. */
+		DPID,
+		/** MAC addresses, formated as 00:00:00:00:00:01. */
+		MAC,
+		/** IPv4 addresses, formated as 10.0.0.1. */
+		IP,
+		/** Timestamps in milliseconds, formated as yyyy-MM-dd HH:mm:ss z. */
+		TIMESTAMP;
+	}
+	
+	/** The minimum width of a column that is adapted to the content. */
+	private static final int MIN_WIDTH = 5;
+	/** The initial number of rows the columns have room for. */
+	private static final int INITIAL_CAPACITY = 16;
+	/** The number of rows sampled to estimate the column widths of a fitted table. */
+	private static final int SAMPLE_SIZE = 1024;
+	/** The minimum width a column is shrunk to. */
+	private static final int MIN_TRUNCATED_WIDTH = 4;
+	/** The mark of truncated cells. */
+	private static final char TRUNCATION_MARK = '~';
 	/** List containing all header entries. */
 	private List<String> header;
 	/** List containing all footer entries. */
 	private List<String> footer;
-	/** List containing all rows or the table. */
-	private List<List<String>> table;
+	/** The columns of the table. Null entries are empty columns. */
+	private Column[] table;
+	/** The types of the columns, or null if all columns are string columns. */
+	private ColumnType[] columnTypes;
+	/** Number of rows in the table. */
+	private int rows;
+	/** Number of rows the columns have room for. */
+	private int capacity;
 	/** Number of columns in the table. */
 	private int columns;
+	/** Fixed column widths, or null if the widths are adapted to the content. */
+	private int[] columnWidths;
+	/** The priorities of the columns, or null if no column may be hidden. */
+	private int[] columnPriorities;
+	/** The maximum width of the table, or 0 if the table is not fitted. */
+	private int maxWidth;
+	/** Whether cells longer than their column are truncated. */
+	private boolean truncate;
 	
 	/**
 	 * Constructor
 	 */
 	public StringTable() {
 		this.columns = 0;
+		this.rows = 0;
+		this.capacity = INITIAL_CAPACITY;
 		this.header = new LinkedList<String>();
 		this.footer = new LinkedList<String>();
-		this.table  = new LinkedList<List<String>>();
+		this.table  = new Column[0];
 	}
 	
 	/**
@@ -72,7 +136,7 @@ public class StringTable {
 	 * @return The number of rows in the table.
 	 */
 	public int getRowLength() {
-		return this.table.size();
+		return this.rows;
 	}
 	
 	/**
@@ -84,6 +148,23 @@ public class StringTable {
 		return this.columns;
 	}
 	
+	/**
+	 * Getter for a specific cell in the table.
+	 * 
+	 * @param row The index of the table row.
+	 * @param column The index of the table column.
+	 * @return The formated cell, or an empty string if the cell is not set.
+	 */
+	public String getCell(int row, int column) {
+		if (row < 0 || row >= this.rows)
+			throw new IndexOutOfBoundsException("Row: " + row + ", rows: " + this.rows);
+		if (column >= this.table.length || this.table[column] == null)
+			return "";
+		
+		// Return.
+		return this.table[column].get(row);
+	}
+	
 	/**
 	 * Getter for a specific row in the table.
 	 * 
@@ -91,7 +172,16 @@ public class StringTable {
 	 * @return A specific table row. 
 	 */
 	public List<String> getRow(int index) {
-		return this.table.get(index);
+		/* A list of entries in a table row. */
+		List<String> row = new ArrayList<String>(this.columns);
+		
+		// Populate the row list.
+		for (int column = 0; column < this.columns; column++) {
+			row.add(this.getCell(index, column));
+		}
+		
+		// Return.
+		return row;
 	}
 	
 	/**
@@ -102,25 +192,97 @@ public class StringTable {
 	 */
 	public List<String> getColumn(int index) {
 		/* A list of entries in a table column. */
-		List<String> column = new LinkedList<String>();
+		List<String> column = new ArrayList<String>(this.rows);
 		
 		// Populate the column list.
-		for (List<String> row : table) {
-			column.add(row.get(index));
+		for (int row = 0; row < this.rows; row++) {
+			column.add(this.getCell(row, index));
 		}
 		
 		// Return.
 		return column;
 	}
 	
+	/**
+	 * Setter for the types of the columns. Columns without a type are
+	 * string columns. Must be called before rows are added.
+	 * 
+	 * @param columnTypes The types of the columns.
+	 */
+	public void setColumnTypes(ColumnType... columnTypes) {
+		if (this.rows > 0)
+			throw new IllegalStateException("Column types must be set before rows are added");
+		
+		this.columnTypes = columnTypes;
+		this.table = new Column[0];
+		this.columns = Math.max(this.columns, columnTypes.length);
+	}
+	
 	/**
 	 * Adds a row to the table.
 	 * 
 	 * @param row The list of entries that is added to the table.
 	 */
 	public void addRow(List<String> row) {
-		this.table.add(row);
-		this.columns = Math.max(this.columns, row.size());
+		/* The index of the new row. */
+		int index = this.addRow();
+		/* The index of the current column. */
+		int column = 0;
+		
+		for (String cell : row) {
+			if (cell != null)
+				this.getOrCreateColumn(column).set(index, cell);
+			column++;
+		}
+	}
+	
+	/**
+	 * Adds an empty row to the table. Its cells are set by the set
+	 * methods afterwards, e.g.
+	 * 
+	 *   stringTable.addRow();
+	 *   stringTable.set(0, device.getMACAddress());
+	 *   stringTable.set(1, "unknown");
+	 * 
+	 * @return The index of the new row.
+	 */
+	public int addRow() {
+		if (this.rows == this.capacity) {
+			this.capacity = this.capacity * 2;
+			for (Column column : this.table) {
+				if (column != null)
+					column.grow(this.capacity);
+			}
+		}
+		
+		// Return.
+		return this.rows++;
+	}
+	
+	/**
+	 * Sets a string cell of the last row.
+	 * 
+	 * @param column The index of the column.
+	 * @param value The string.
+	 */
+	public void set(int column, String value) {
+		if (this.rows == 0)
+			throw new IllegalStateException("No row added");
+		if (value != null)
+			this.getOrCreateColumn(column).set(this.rows - 1, value);
+	}
+	
+	/**
+	 * Sets a numeric cell of the last row. The value is formated
+	 * according to the column type when the row is rendered.
+	 * 
+	 * @param column The index of the column.
+	 * @param value The value.
+	 */
+	public void set(int column, long value) {
+		if (this.rows == 0)
+			throw new IllegalStateException("No row added");
+		this.getOrCreateColumn(column).set(this.rows - 1, value);
 	}
 	
 	/**
@@ -143,29 +305,131 @@ public class StringTable {
 		this.columns = Math.max(this.columns, footer.size());
 	}
 	
-	@Override
-	public String toString() {
-		/* String builder that contains a representation of the table content. */
+	/**
+	 * Setter for fixed column widths. Fixed widths allow for printing
+	 * a table in chunks, e.g. while its rows are still received, where
+	 * all chunks are aligned. Longer strings are not truncated.
+	 * 
+	 * @param columnWidths The widths of all columns, or null to adapt the widths to the content.
+	 */
+	public void setColumnWidths(int... columnWidths) {
+		this.columnWidths = columnWidths;
+		if (columnWidths != null)
+			this.columns = Math.max(this.columns, columnWidths.length);
+	}
+	
+	/**
+	 * Setter for the priorities of the columns. If the table does not
+	 * fit into its maximum width, columns with the highest priority
+	 * number are hidden first. Columns with priority 0 are never hidden.
+	 * 
+	 * @param columnPriorities The priorities of all columns, or null to never hide columns.
+	 */
+	public void setColumnPriorities(int... columnPriorities) {
+		this.columnPriorities = columnPriorities;
+	}
+	
+	/**
+	 * Setter for the maximum width of the table, usually the width of
+	 * the terminal. Lines are kept shorter than the maximum width, since
+	 * a line that fills the terminal makes some terminals wrap.
+	 * 
+	 * @param maxWidth The maximum width in characters, or 0 to not fit the table.
+	 */
+	public void setMaxWidth(int maxWidth) {
+		this.maxWidth = maxWidth;
+	}
+	
+	/**
+	 * Fixes the column widths from the header, the footer, and the rows
+	 * added so far, e.g. the first chunk of a large table. Thus, the
+	 * table can be written chunk by chunk without measuring all rows
+	 * first. Cells of later rows that do not fit are truncated and marked.
+	 */
+	public void fixColumnWidths() {
+		this.columnWidths = null;
+		this.columnWidths = this.getColumnWidths();
+		this.truncate = true;
+	}
+	
+	/**
+	 * Removes all rows from the table, but keeps header, footer,
+	 * column types, and column widths. Allows for re-using the table
+	 * for the next chunk of rows.
+	 */
+	public void clearRows() {
+		for (Column column : this.table) {
+			if (column != null)
+				column.clear();
+		}
+		this.rows = 0;
+	}
+	
+	/**
+	 * Returns a formated string that contains the header (if
+	 * available) and the separator of the table.
+	 * 
+	 * @return The header of the table as formated string.
+	 */
+	public String headerToString() {
+		/* String builder that contains a representation of the table header. */
 		StringBuilder stringBuilder = new StringBuilder();
-		/* Format string to format the table rows. */
-		String formatString = this.generateFormatString();
+		/* The widths of the columns. */
+		int[] widths = this.getColumnWidths();
 		
 		// Add header if available.
 		if (!this.header.isEmpty())
-			stringBuilder.append(String.format(formatString, this.header.toArray()));
+			this.appendCells(stringBuilder, this.header, widths);
 		
 		// Add separator.
-		stringBuilder.append(this.generateSeparator());
+		this.appendSeparator(stringBuilder, widths);
+		
+		// Return.
+		return stringBuilder.toString();
+	}
+	
+	/**
+	 * Returns a formated string that contains only the rows of
+	 * the table, without header, separator, and footer.
+	 * 
+	 * @return The rows of the table as formated string.
+	 */
+	public String rowsToString() {
+		/* String builder that contains a representation of the table rows. */
+		StringBuilder stringBuilder = new StringBuilder();
+		/* The widths of the columns. */
+		int[] widths = this.getColumnWidths();
 		
 		// Add table contend.
-		for (List<String> row : this.table) {
-			stringBuilder.append(String.format(formatString, row.toArray()));
+		for (int row = 0; row < this.rows; row++) {
+			this.appendRow(stringBuilder, row, widths);
+		}
+		
+		// Return.
+		return stringBuilder.toString();
+	}
+	
+	@Override
+	public String toString() {
+		/* String builder that contains a representation of the table content. */
+		StringBuilder stringBuilder = new StringBuilder();
+		/* The widths of the columns. */
+		int[] widths = this.getColumnWidths();
+		
+		// Add header and separator.
+		if (!this.header.isEmpty())
+			this.appendCells(stringBuilder, this.header, widths);
+		this.appendSeparator(stringBuilder, widths);
+		
+		// Add table contend.
+		for (int row = 0; row < this.rows; row++) {
+			this.appendRow(stringBuilder, row, widths);
 		}
 		
 		// Add footer if available.
 		if (!this.footer.isEmpty()) {
-			stringBuilder.append(this.generateSeparator());
-			stringBuilder.append(String.format(formatString, this.footer.toArray()));
+			this.appendSeparator(stringBuilder, widths);
+			this.appendCells(stringBuilder, this.footer, widths);
 		}
 		
 		// Return.
@@ -173,97 +437,513 @@ public class StringTable {
 	}
 	
 	/**
-	 * Generates a separator to separate the header and the footer
+	 * Gets a column, or creates it according to its type.
+	 * 
+	 * @param index The index of the column.
+	 * @return The column.
+	 */
+	private Column getOrCreateColumn(int index) {
+		if (index >= this.table.length)
+			this.table = Arrays.copyOf(this.table, index + 1);
+		if (this.table[index] == null) {
+			ColumnType type = (this.columnTypes != null && index < this.columnTypes.length && this.columnTypes[index] != null) ? this.columnTypes[index] : ColumnType.STRING;
+			this.table[index] = (type == ColumnType.STRING) ? new StringColumn(this.capacity) : new NumberColumn(type, this.capacity);
+		}
+		this.columns = Math.max(this.columns, index + 1);
+		
+		// Return.
+		return this.table[index];
+	}
+	
+	/**
+	 * Appends a separator to separate the header and the footer
 	 * (if available) from the table content. The separator looks
 	 * like:
 	 * 
 	 *   -----|--------|-----|------
 	 *   
-	 * and is adapted to the column width that equals the length
-	 * of the longest string the the column.
+	 * and is adapted to the column widths.
 	 * 
-	 * @return separator string
+	 * @param stringBuilder The string builder to append to.
+	 * @param widths The widths of the columns.
 	 */
-	private String generateSeparator() {
-		/* String builder to generate the separation string. */
-		StringBuilder stringBuilder = new StringBuilder();
-
-		// Generate the separation string.
-		for (int index=0; index<this.columns; index++) {
-			for (int j=0; j<this.getMaxStringLength(index); j++) {
-				stringBuilder.append("-");
+	private void appendSeparator(StringBuilder stringBuilder, int[] widths) {
+		/* Whether a column was appended. */
+		boolean appended = false;
+		
+		for (int index = 0; index < this.columns; index++) {
+			if (widths[index] < 0)
+				continue;
+			if (appended)
+				stringBuilder.append('|');
+			for (int j = 0; j < widths[index]; j++) {
+				stringBuilder.append('-');
 			}
-			stringBuilder.append("|");
+			appended = true;
+		}
+		if (appended)
+			stringBuilder.append('\n');
+	}
+	
+	/**
+	 * Appends a row of the table, where each cell is padded to the
+	 * width of its column.
+	 * 
+	 * @param stringBuilder The string builder to append to.
+	 * @param row The index of the row.
+	 * @param widths The widths of the columns.
+	 */
+	private void appendRow(StringBuilder stringBuilder, int row, int[] widths) {
+		/* Whether a column was appended. */
+		boolean appended = false;
+		
+		for (int index = 0; index < this.columns; index++) {
+			if (widths[index] < 0)
+				continue;
+			if (appended)
+				stringBuilder.append(' ');
+			int start = stringBuilder.length();
+			if (index < this.table.length && this.table[index] != null)
+				this.table[index].append(stringBuilder, row);
+			this.fit(stringBuilder, start, widths[index]);
+			appended = true;
+		}
+		if (appended)
+			stringBuilder.append('\n');
+	}
+	
+	/**
+	 * Appends a list of cells, e.g. the header, where each cell is
+	 * padded to the width of its column.
+	 * 
+	 * @param stringBuilder The string builder to append to.
+	 * @param cells The cells.
+	 * @param widths The widths of the columns.
+	 */
+	private void appendCells(StringBuilder stringBuilder, List<String> cells, int[] widths) {
+		/* Whether a column was appended. */
+		boolean appended = false;
+		
+		for (int index = 0; index < this.columns; index++) {
+			if (widths[index] < 0)
+				continue;
+			if (appended)
+				stringBuilder.append(' ');
+			int start = stringBuilder.length();
+			if (index < cells.size() && cells.get(index) != null)
+				stringBuilder.append(cells.get(index));
+			this.fit(stringBuilder, start, widths[index]);
+			appended = true;
+		}
+		if (appended)
+			stringBuilder.append('\n');
+	}
+	
+	/**
+	 * Fits the cell that was just appended to the width of its column,
+	 * i.e. pads it with spaces, or truncates and marks it if the table
+	 * is fitted to a maximum width or its column widths were fixed.
+	 * 
+	 * @param stringBuilder The string builder the cell was appended to.
+	 * @param start The start of the cell in the string builder.
+	 * @param width The width of the column.
+	 */
+	private void fit(StringBuilder stringBuilder, int start, int width) {
+		/* The length of the cell. */
+		int length = stringBuilder.length() - start;
+		
+		if (length > width && (this.maxWidth > 0 || this.truncate)) {
+			stringBuilder.setLength(start + Math.max(0, width - 1));
+			if (width > 0)
+				stringBuilder.append(TRUNCATION_MARK);
+		}
+		for (int i = length; i < width; i++) {
+			stringBuilder.append(' ');
 		}
+	}
+	
+	/**
+	 * Gets the widths of all columns, i.e. the fixed widths or the
+	 * lengths of the longest cells.
+	 * 
+	 * @return The widths of the columns.
+	 */
+	private int[] getColumnWidths() {
+		/* The widths of the columns. */
+		int[] widths = new int[this.columns];
+		/* The distance of the rows that are measured. */
+		int stride = (this.maxWidth > 0 && this.rows > SAMPLE_SIZE) ? this.rows / SAMPLE_SIZE : 1;
 		
-		// Replace the last character by CR.
-		int length = stringBuilder.length();
-		if (length > 0)
-			stringBuilder.replace(length-1, length, "\n");
+		for (int index = 0; index < this.columns; index++) {
+			widths[index] = this.getMaxStringLength(index, stride);
+		}
+		if (this.maxWidth > 0)
+			this.fitColumnWidths(widths, this.maxWidth - 1);
 		
 		// Return.
-		return stringBuilder.toString();
+		return widths;
 	}
 	
 	/**
-	 * Generates a format string to format the rows of the 
-	 * table. The format string looks like:
+	 * Fits the column widths to a line width. First, columns are
+	 * hidden by priority, then the widest columns are shrunk.
 	 * 
-	 *   %1$-23s|%2$-12s|%3$-6s|%4$-11s|%5$-23s\n";
-	 *   
-	 * and is adapted to the column width that equals the length
-	 * of the longest string the the column.
+	 * @param widths The widths of the columns. Hidden columns are set to -1.
+	 * @param lineWidth The maximum line width.
+	 */
+	private void fitColumnWidths(int[] widths, int lineWidth) {
+		/* The current line width. */
+		int total = this.getLineWidth(widths);
+		
+		// Hide the columns of the highest priority number first.
+		while (total > lineWidth) {
+			int hide = -1;
+			for (int index = 0; index < widths.length; index++) {
+				if (widths[index] >= 0 && this.getPriority(index) > 0 && (hide < 0 || this.getPriority(index) >= this.getPriority(hide)))
+					hide = index;
+			}
+			if (hide < 0)
+				break;
+			widths[hide] = -1;
+			total = this.getLineWidth(widths);
+		}
+		
+		// Shrink the widest columns.
+		while (total > lineWidth) {
+			int widest = -1;
+			for (int index = 0; index < widths.length; index++) {
+				if (widths[index] >= 0 && (widest < 0 || widths[index] > widths[widest]))
+					widest = index;
+			}
+			if (widest < 0 || widths[widest] <= MIN_TRUNCATED_WIDTH)
+				break;
+			widths[widest]--;
+			total--;
+		}
+	}
+	
+	/**
+	 * Gets the width of a line, i.e. the widths of all visible columns
+	 * and their separators.
 	 * 
-	 * @return format string.
+	 * @param widths The widths of the columns. Hidden columns are -1.
+	 * @return The line width.
 	 */
-	private String generateFormatString() {
-		/* String builder to generate the separation string. */
-		StringBuilder stringBuilder = new StringBuilder();
+	private int getLineWidth(int[] widths) {
+		/* The line width. */
+		int total = -1;
 		
-		// Generate the format string.
-		for (int index = 0; index < this.columns; index++) {
-			stringBuilder.append("%");
-			stringBuilder.append(index+1);
-			stringBuilder.append("$-");
-			stringBuilder.append(this.getMaxStringLength(index));
-			stringBuilder.append("s ");
+		for (int width : widths) {
+			if (width >= 0)
+				total += width + 1;
 		}
 		
-		// Replace the last character by CR.
-		int length = stringBuilder.length();
-		if (length > 0)
-			stringBuilder.replace(length-1, length, "\n");
-
 		// Return.
-		return stringBuilder.toString();
+		return Math.max(0, total);
+	}
+	
+	/**
+	 * Gets the priority of a column.
+	 * 
+	 * @param index The index of the column.
+	 * @return The priority, or 0 if the column is never hidden.
+	 */
+	private int getPriority(int index) {
+		return (this.columnPriorities != null && index < this.columnPriorities.length) ? this.columnPriorities[index] : 0;
 	}
 	
 	/**
 	 * Gets the maximum length over all strings stored in
-	 * a column.
+	 * a column, or in a sample of its rows.
 	 * 
 	 * @param index The index of the column.
+	 * @param stride The distance of the rows that are measured, 1 to measure all rows.
 	 * @return the maximum length of all strings stored in the columm.
 	 */
-	private int getMaxStringLength(int index) {
+	private int getMaxStringLength(int index, int stride) {
+		// Use the fixed column width if available.
+		if (this.columnWidths != null && index < this.columnWidths.length)
+			return this.columnWidths[index];
+		
 		/* Maximum length of the strings an the column. */
-		int maxStringLength = 5;
-		/* A list of all strings in a column. */
-		List<String> column = getColumn(index);
+		int maxStringLength = MIN_WIDTH;
 		
 		// Calculate the length of the column by looking at its longest string.
-		for (String string : column) {
-			maxStringLength = Math.max(maxStringLength, string.length());
+		if (index < this.table.length && this.table[index] != null) {
+			for (int row = 0; row < this.rows; row += stride) {
+				maxStringLength = Math.max(maxStringLength, this.table[index].length(row));
+			}
 		}
 		
 		// Take header and footer into account.
-		if (!this.header.isEmpty())
+		if (index < this.header.size() && this.header.get(index) != null)
 			maxStringLength = Math.max(maxStringLength, this.header.get(index).length());
-		if (!this.footer.isEmpty())
+		if (index < this.footer.size() && this.footer.get(index) != null)
 			maxStringLength = Math.max(maxStringLength, this.footer.get(index).length());
 		
 		// Return.
 		return maxStringLength;
 	}
 	
+	/**
+	 * A column of the table.
+	 */
+	private static abstract class Column {
+		/**
+		 * Sets a string cell.
+		 * 
+		 * @param row The index of the row.
+		 * @param value The string.
+		 */
+		abstract void set(int row, String value);
+		
+		/**
+		 * Sets a numeric cell.
+		 * 
+		 * @param row The index of the row.
+		 * @param value The value.
+		 */
+		abstract void set(int row, long value);
+		
+		/**
+		 * Gets the length of a formated cell without formating it.
+		 * 
+		 * @param row The index of the row.
+		 * @return The length of the cell, or 0 if it is not set.
+		 */
+		abstract int length(int row);
+		
+		/**
+		 * Appends a formated cell.
+		 * 
+		 * @param stringBuilder The string builder to append to.
+		 * @param row The index of the row.
+		 */
+		abstract void append(StringBuilder stringBuilder, int row);
+		
+		/**
+		 * Makes room for more rows.
+		 * 
+		 * @param capacity The new number of rows.
+		 */
+		abstract void grow(int capacity);
+		
+		/**
+		 * Removes all cells.
+		 */
+		abstract void clear();
+		
+		/**
+		 * Gets a formated cell.
+		 * 
+		 * @param row The index of the row.
+		 * @return The formated cell.
+		 */
+		String get(int row) {
+			StringBuilder stringBuilder = new StringBuilder(this.length(row));
+			this.append(stringBuilder, row);
+			return stringBuilder.toString();
+		}
+	}
+	
+	/**
+	 * A column of strings. All strings share one char buffer, and each
+	 * cell is an offset and a length into it.
+	 */
+	private static class StringColumn extends Column {
+		/** The chars of all cells. */
+		private char[] chars = new char[256];
+		/** The number of chars used. */
+		private int used = 0;
+		/** The offsets of the cells in the char buffer. */
+		private int[] offsets;
+		/** The lengths of the cells. */
+		private int[] lengths;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param capacity The number of rows.
+		 */
+		StringColumn(int capacity) {
+			this.offsets = new int[capacity];
+			this.lengths = new int[capacity];
+		}
+		
+		@Override
+		void set(int row, String value) {
+			if (this.used + value.length() > this.chars.length)
+				this.chars = Arrays.copyOf(this.chars, Math.max(this.chars.length * 2, this.used + value.length()));
+			value.getChars(0, value.length(), this.chars, this.used);
+			this.offsets[row] = this.used;
+			this.lengths[row] = value.length();
+			this.used += value.length();
+		}
+		
+		@Override
+		void set(int row, long value) {
+			this.set(row, Long.toString(value));
+		}
+		
+		@Override
+		int length(int row) {
+			return this.lengths[row];
+		}
+		
+		@Override
+		void append(StringBuilder stringBuilder, int row) {
+			stringBuilder.append(this.chars, this.offsets[row], this.lengths[row]);
+		}
+		
+		@Override
+		void grow(int capacity) {
+			this.offsets = Arrays.copyOf(this.offsets, capacity);
+			this.lengths = Arrays.copyOf(this.lengths, capacity);
+		}
+		
+		@Override
+		void clear() {
+			Arrays.fill(this.lengths, 0);
+			this.used = 0;
+		}
+	}
+	
+	/**
+	 * A column of numbers, formated according to the column type.
+	 */
+	private static class NumberColumn extends Column {
+		/** The hex digits. */
+		private static final char[] HEX = "0123456789abcdef".toCharArray();
+		/** The type of the column. */
+		private final ColumnType type;
+		/** The values of the cells. */
+		private long[] values;
+		/** Whether the cells are set. */
+		private boolean[] present;
+		/** The date format of timestamps, or null. */
+		private SimpleDateFormat dateFormat;
+		/** The length of formated timestamps, or 0. */
+		private int dateLength;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param type The type of the column.
+		 * @param capacity The number of rows.
+		 */
+		NumberColumn(ColumnType type, int capacity) {
+			this.type = type;
+			this.values = new long[capacity];
+			this.present = new boolean[capacity];
+			if (type == ColumnType.TIMESTAMP) {
+				this.dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss z");
+				// Winter and summer time may have time zone names of different lengths.
+				Calendar calendar = Calendar.getInstance();
+				calendar.set(Calendar.MONTH, Calendar.JANUARY);
+				this.dateLength = this.dateFormat.format(calendar.getTime()).length();
+				calendar.set(Calendar.MONTH, Calendar.JULY);
+				this.dateLength = Math.max(this.dateLength, this.dateFormat.format(calendar.getTime()).length());
+			}
+		}
+		
+		@Override
+		void set(int row, String value) {
+			throw new IllegalArgumentException("Not a string column: " + this.type);
+		}
+		
+		@Override
+		void set(int row, long value) {
+			this.values[row] = value;
+			this.present[row] = true;
+		}
+		
+		@Override
+		int length(int row) {
+			if (!this.present[row])
+				return 0;
+			
+			long value = this.values[row];
+			switch (this.type) {
+				case DPID:
+					return 23;
+				case MAC:
+					return 17;
+				case IP:
+					return this.digits((value >>> 24) & 0xff) + this.digits((value >>> 16) & 0xff) + this.digits((value >>> 8) & 0xff) + this.digits(value & 0xff) + 3;
+				case TIMESTAMP:
+					return this.dateLength;
+				default:
+					return (value < 0) ? this.digits(-value) + 1 : this.digits(value);
+			}
+		}
+		
+		@Override
+		void append(StringBuilder stringBuilder, int row) {
+			if (!this.present[row])
+				return;
+			
+			long value = this.values[row];
+			switch (this.type) {
+				case DPID:
+					this.appendHex(stringBuilder, value, 8);
+					break;
+				case MAC:
+					this.appendHex(stringBuilder, value, 6);
+					break;
+				case IP:
+					stringBuilder.append((value >>> 24) & 0xff).append('.').append((value >>> 16) & 0xff).append('.');
+					stringBuilder.append((value >>> 8) & 0xff).append('.').append(value & 0xff);
+					break;
+				case TIMESTAMP:
+					stringBuilder.append(this.dateFormat.format(new Date(value)));
+					break;
+				default:
+					stringBuilder.append(value);
+			}
+		}
+		
+		@Override
+		void grow(int capacity) {
+			this.values = Arrays.copyOf(this.values, capacity);
+			this.present = Arrays.copyOf(this.present, capacity);
+		}
+		
+		@Override
+		void clear() {
+			Arrays.fill(this.present, false);
+		}
+		
+		/**
+		 * Appends the lower bytes of a value as colon separated hex
+		 * string, e.g. 00:00:00:00:00:01.
+		 * 
+		 * @param stringBuilder The string builder to append to.
+		 * @param value The value.
+		 * @param bytes The number of bytes.
+		 */
+		private void appendHex(StringBuilder stringBuilder, long value, int bytes) {
+			for (int i = bytes - 1; i >= 0; i--) {
+				int b = (int) (value >>> (i * 8)) & 0xff;
+				stringBuilder.append(HEX[b >>> 4]).append(HEX[b & 0xf]);
+				if (i > 0)
+					stringBuilder.append(':');
+			}
+		}
+		
+		/**
+		 * Counts the decimal digits of a non-negative value.
+		 * 
+		 * @param value The value.
+		 * @return The number of digits.
+		 */
+		private int digits(long value) {
+			int digits = 1;
+			while (value >= 10) {
+				value /= 10;
+				digits++;
+			}
+			return digits;
+		}
+	}
+	
 }
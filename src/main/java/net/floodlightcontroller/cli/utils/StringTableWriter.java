@@ -0,0 +1,156 @@
+package net.floodlightcontroller.cli.utils;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+
+import net.floodlightcontroller.cli.IConsole;
+
+/**
+ * Writes a string table to a console chunk by chunk, such that the
+ * first rows of a large table are shown before all rows are formated.
+ * The table is re-used for each chunk. Unless the column widths are
+ * fixed by the caller, they are fixed from the first chunk, and cells
+ * of later rows that do not fit are truncated.
+ * 
+ *   StringTableWriter writer = new StringTableWriter(console, stringTable);
+ *   for (IDevice device : devices) {
+ *       stringTable.addRow();
+ *       ...
+ *       writer.writeIfFull();
+ *   }
+ *   return writer.finish("hosts");
+ */
+public class StringTableWriter {
+	/** The number of rows written to the console at once. */
+	public static final int CHUNK_SIZE = 256;
+	/** The console to write to. */
+	private final IConsole console;
+	/** The string table that is re-used for each chunk. */
+	private final StringTable stringTable;
+	/** Whether the header was written. */
+	private boolean headerWritten;
+	/** The number of rows written so far. */
+	private int rows;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param console The console to write to.
+	 * @param stringTable The string table the rows are added to.
+	 */
+	public StringTableWriter(IConsole console, StringTable stringTable) {
+		this.console = console;
+		this.stringTable = stringTable;
+	}
+	
+	/**
+	 * Getter for the number of rows written so far.
+	 * 
+	 * @return The number of rows written to the console.
+	 */
+	public int getRows() {
+		return this.rows;
+	}
+	
+	/**
+	 * Writes the header and the separator of the table. Only needed for
+	 * tables with fixed column widths that show the header before the
+	 * first row is known, since the header is written with the first
+	 * chunk otherwise.
+	 * 
+	 * @throws IOException If the console is closed.
+	 */
+	public void writeHeader() throws IOException {
+		this.console.write(chomp(this.stringTable.headerToString()));
+		this.headerWritten = true;
+	}
+	
+	/**
+	 * Writes the rows added so far if they make a full chunk.
+	 * 
+	 * @throws IOException If the console is closed.
+	 */
+	public void writeIfFull() throws IOException {
+		if (this.stringTable.getRowLength() >= CHUNK_SIZE)
+			this.writeRows();
+	}
+	
+	/**
+	 * Writes the rows added so far and removes them from the table.
+	 * The first rows written fix the column widths and are preceded by
+	 * the header.
+	 * 
+	 * @throws IOException If the console is closed.
+	 */
+	public void writeRows() throws IOException {
+		if (!this.headerWritten) {
+			this.stringTable.fixColumnWidths();
+			this.writeHeader();
+		}
+		if (this.stringTable.getRowLength() > 0)
+			this.console.write(chomp(this.stringTable.rowsToString()));
+		this.rows += this.stringTable.getRowLength();
+		this.stringTable.clearRows();
+	}
+	
+	/**
+	 * Finishes the table. If nothing was written yet, the table fits
+	 * into one chunk and is returned as a whole, with column widths
+	 * adapted to all its rows. Otherwise, the remaining rows are written
+	 * and the number of rows is returned.
+	 * 
+	 * @param what What the rows are, e.g. "hosts".
+	 * @return The whole table, or the number of rows, e.g. "300 hosts".
+	 * @throws IOException If the console is closed.
+	 */
+	public String finish(String what) throws IOException {
+		if (!this.headerWritten)
+			return this.stringTable.toString();
+		
+		this.writeRows();
+		
+		// Return.
+		return this.rows + " " + what;
+	}
+	
+	/**
+	 * Removes the trailing line feed of a string, since the console
+	 * adds one itself.
+	 * 
+	 * @param string The string.
+	 * @return The string without trailing line feed.
+	 */
+	public static String chomp(String string) {
+		return (string.endsWith("\n")) ? string.substring(0, string.length() - 1) : string;
+	}
+	
+}
@@ -0,0 +1,309 @@
+package net.floodlightcontroller.cli;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.floodlightcontroller.cli.auth.Role;
+import net.floodlightcontroller.cli.commands.CommandHandler;
+import net.floodlightcontroller.cli.commands.ShowHostCmd;
+import net.floodlightcontroller.core.module.FloodlightModuleContext;
+import net.floodlightcontroller.devicemanager.IDeviceService;
+
+import org.apache.sshd.SshClient;
+import org.apache.sshd.SshServer;
+import org.apache.sshd.common.Compression;
+import org.apache.sshd.common.NamedFactory;
+import org.apache.sshd.common.compression.CompressionNone;
+import org.apache.sshd.server.PasswordAuthenticator;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.server.session.ServerSession;
+
+/**
+ * Compares the wire bytes and the latency of "show host" over SSH with
+ * and without compression. The SSH server offers the compressions of
+ * the compression module parameter, and SSHD's client negotiates
+ * either none or zlib@openssh.com. The client connects through a
+ * loopback relay that counts the bytes on the wire and optionally
+ * throttles the link to emulate a WAN. The first run of each mode
+ * warms up the JIT and is not counted.
+ * 
+ * Usage, with the jars of lib/ and the compiled classes on the class path:
+ * 
+ *   java [-Dbandwidth=4194304] [-Dthreshold=256] \
+ *       net.floodlightcontroller.cli.CompressionBenchmark [HOSTS] [RUNS]
+ * 
+ * The bandwidth of the link is in bytes per second per direction and
+ * unlimited by default. The threshold is the compressionthreshold
+ * module parameter. HOSTS defaults to 100000, RUNS to 3.
+ */
+public class CompressionBenchmark {
+	/** The size of the relay buffers in bytes. */
+	private static final int BUFFER_SIZE = 16384;
+	
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args The number of hosts and the number of runs.
+	 * @throws Exception if the SSH server, the client, or the relay fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		/* The number of hosts and runs. */
+		int hosts = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+		int runs = (args.length > 1) ? Integer.parseInt(args[1]) : 3;
+		/* The bandwidth of the link in bytes per second, or 0 if unlimited. */
+		long bandwidth = Long.getLong("bandwidth", 0);
+		/* The compression threshold in bytes. */
+		int threshold = Integer.getInteger("threshold", 256);
+		/* The loopback port of the SSH server. */
+		int port = ShowHostBenchmark.getFreePort();
+		
+		// Set up the CLI with a device manager of the given size.
+		FloodlightModuleContext context = new FloodlightModuleContext();
+		context.addService(IDeviceService.class, ShowHostBenchmark.createDeviceService(hosts));
+		CommandHandler.getInstance().addCommand(new ShowHostCmd(context));
+		
+		// Start the SSH server with the compressions of the compression module parameter.
+		List<NamedFactory<Compression>> compressions = new ArrayList<NamedFactory<Compression>>();
+		compressions.add(new ZlibCompression.Factory("zlib@openssh.com", true, threshold));
+		compressions.add(new ZlibCompression.Factory("zlib", false, threshold));
+		compressions.add(new CompressionNone.Factory());
+		SshServer sshd = SshServer.setUpDefaultServer();
+		sshd.setPort(port);
+		sshd.setKeyPairProvider(new SimpleGeneratorHostKeyProvider());
+		sshd.setPasswordAuthenticator(new PasswordAuthenticator() {
+			@Override
+			public boolean authenticate(String username, String password, ServerSession session) {
+				return true;
+			}
+		});
+		sshd.setCompressionFactories(compressions);
+		sshd.setShellFactory(new FloodlightShellFactory(EnumSet.allOf(Role.class)));
+		sshd.start();
+		
+		// Start the relay that counts and throttles the wire bytes.
+		Relay relay = new Relay(port, bandwidth);
+		relay.start();
+		
+		try {
+			CompressionBenchmark.measure("none", new CompressionNone.Factory(), relay, runs);
+			CompressionBenchmark.measure("zlib@openssh.com", new ZlibCompression.Factory("zlib@openssh.com", true, threshold), relay, runs);
+		} finally {
+			relay.stop();
+			sshd.stop(true);
+		}
+		System.out.printf("%d hosts, bandwidth %s, threshold %d bytes%n", hosts, (bandwidth > 0) ? bandwidth + " bytes/s" : "unlimited", threshold);
+		System.exit(0);
+	}
+	
+	/**
+	 * Measures the wire bytes and the latency of "show host" with a
+	 * compression.
+	 * 
+	 * @param name The name of the compression.
+	 * @param compression The compression the client negotiates.
+	 * @param relay The relay the client connects through.
+	 * @param runs The number of runs.
+	 * @throws Exception if the SSH session fails.
+	 */
+	private static void measure(String name, NamedFactory<Compression> compression, Relay relay, int runs) throws Exception {
+		/* The SSH client. */
+		SshClient client = SshClient.setUpDefaultClient();
+		/* The latencies of the runs in milliseconds. */
+		List<Double> latencies = new ArrayList<Double>();
+		/* The wire bytes and the output bytes of the last run. */
+		long wireBytes = 0, outputBytes = 0;
+		
+		client.setCompressionFactories(Collections.<NamedFactory<Compression>>singletonList(compression));
+		client.start();
+		try {
+			for (int run = 0; run <= runs; run++) {
+				relay.reset();
+				long[] result = ShowHostBenchmark.run(client, relay.getPort());
+				outputBytes = result[0];
+				wireBytes = relay.getBytes();
+				if (run > 0)
+					latencies.add(result[1] / 1e6);
+			}
+		} finally {
+			client.stop();
+		}
+		
+		Collections.sort(latencies);
+		System.out.printf("%-17s %d output bytes, %d wire bytes (%.1f%%), median latency %.0f ms%n",
+				name, outputBytes, wireBytes, 100.0 * wireBytes / outputBytes, latencies.get(latencies.size() / 2));
+	}
+	
+	/**
+	 * A loopback TCP relay to the SSH server. It counts the bytes it
+	 * relays in both directions and limits the bandwidth of each
+	 * direction of each connection.
+	 */
+	private static class Relay implements Runnable {
+		/** The port of the SSH server. */
+		private final int target;
+		/** The bandwidth in bytes per second, or 0 if unlimited. */
+		private final long bandwidth;
+		/** The number of relayed bytes. */
+		private final AtomicLong bytes = new AtomicLong();
+		/** The listening socket of the relay. */
+		private final ServerSocket serverSocket;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param target The port of the SSH server.
+		 * @param bandwidth The bandwidth in bytes per second, or 0 if unlimited.
+		 * @throws IOException if the listening socket cannot be created.
+		 */
+		private Relay(int target, long bandwidth) throws IOException {
+			this.target = target;
+			this.bandwidth = bandwidth;
+			this.serverSocket = new ServerSocket();
+			this.serverSocket.bind(new InetSocketAddress("127.0.0.1", 0));
+		}
+		
+		/**
+		 * Starts accepting connections.
+		 */
+		private void start() {
+			Thread thread = new Thread(this, "CompressionBenchmarkRelay");
+			thread.setDaemon(true);
+			thread.start();
+		}
+		
+		/**
+		 * Stops accepting connections.
+		 * 
+		 * @throws IOException if the listening socket cannot be closed.
+		 */
+		private void stop() throws IOException {
+			this.serverSocket.close();
+		}
+		
+		/**
+		 * Gets the port of the relay.
+		 * 
+		 * @return The port clients connect to.
+		 */
+		private int getPort() {
+			return this.serverSocket.getLocalPort();
+		}
+		
+		/**
+		 * Gets the number of bytes relayed since the last reset.
+		 * 
+		 * @return The number of bytes in both directions.
+		 */
+		private long getBytes() {
+			return this.bytes.get();
+		}
+		
+		/**
+		 * Resets the number of relayed bytes.
+		 */
+		private void reset() {
+			this.bytes.set(0);
+		}
+		
+		@Override
+		public void run() {
+			while (!this.serverSocket.isClosed()) {
+				try {
+					Socket client = this.serverSocket.accept();
+					Socket server = new Socket("127.0.0.1", this.target);
+					client.setTcpNoDelay(true);
+					server.setTcpNoDelay(true);
+					this.pump(client, server);
+					this.pump(server, client);
+				} catch (IOException e) {
+					// The relay is stopped.
+				}
+			}
+		}
+		
+		/**
+		 * Relays one direction of a connection in a new thread.
+		 * 
+		 * @param from The socket to read from.
+		 * @param to The socket to write to.
+		 */
+		private void pump(final Socket from, final Socket to) {
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					/* The relay buffer. */
+					byte[] buffer = new byte[BUFFER_SIZE];
+					/* The start time and the number of bytes relayed in this direction. */
+					long start = System.nanoTime(), relayed = 0;
+					
+					try {
+						InputStream in = from.getInputStream();
+						OutputStream out = to.getOutputStream();
+						int length;
+						while ((length = in.read(buffer)) >= 0) {
+							out.write(buffer, 0, length);
+							bytes.addAndGet(length);
+							relayed += length;
+							if (bandwidth > 0) {
+								long delay = relayed * 1000000000L / bandwidth - (System.nanoTime() - start);
+								if (delay > 0)
+									Thread.sleep(delay / 1000000, (int) (delay % 1000000));
+							}
+						}
+					} catch (Exception e) {
+						// The connection is closed.
+					} finally {
+						try {
+							from.close();
+							to.close();
+						} catch (IOException e) {
+							// Ignore.
+						}
+					}
+				}
+			}, "CompressionBenchmarkPump");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+}
@@ -0,0 +1,153 @@
+package net.floodlightcontroller.cli;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import net.floodlightcontroller.cli.auth.Role;
+import net.floodlightcontroller.cli.commands.CommandHandler;
+
+/**
+ * Checks the heap retained by console sessions. It opens N consoles,
+ * writes to each of them, and measures the heap retained per live
+ * session. Then it closes them and measures what is still retained.
+ * The check fails, i.e. exits with status 1, if a live session
+ * retains more than the budget or a closed session retains more than
+ * 1 KB.
+ * 
+ * Usage, with the jars of lib/ and the compiled classes on the class path:
+ * 
+ *   java net.floodlightcontroller.cli.ConsoleHeapBudgetCheck [SESSIONS] [BUDGET]
+ * 
+ * SESSIONS defaults to 500, BUDGET to 64512 bytes (63 KB).
+ */
+public class ConsoleHeapBudgetCheck {
+	/** The default heap budget of a live session in bytes. */
+	private static final long DEFAULT_BUDGET = 63 * 1024;
+	/** The heap a closed session may retain in bytes, i.e. measurement noise. */
+	private static final long CLOSED_BUDGET = 1024;
+	
+	/**
+	 * Runs the check.
+	 * 
+	 * @param args The number of sessions and the budget per live session in bytes.
+	 * @throws Exception if a console cannot be created.
+	 */
+	public static void main(String[] args) throws Exception {
+		/* The number of sessions and the budget per live session. */
+		int sessions = (args.length > 0) ? Integer.parseInt(args[0]) : 500;
+		long budget = (args.length > 1) ? Long.parseLong(args[1]) : DEFAULT_BUDGET;
+		/* The command handler all consoles register with. */
+		CommandHandler commander = CommandHandler.getInstance();
+		/* The open consoles. */
+		List<Console> consoles = new ArrayList<Console>(sessions);
+		
+		// Warm up, such that classes and shared structures are not counted.
+		for (int i = 0; i < 10; i++) {
+			ConsoleHeapBudgetCheck.open(commander, -1 - i).close();
+		}
+		
+		long before = ConsoleHeapBudgetCheck.usedHeap();
+		for (int i = 0; i < sessions; i++) {
+			consoles.add(ConsoleHeapBudgetCheck.open(commander, i));
+		}
+		long live = (ConsoleHeapBudgetCheck.usedHeap() - before) / sessions;
+		
+		for (Console console : consoles) {
+			console.close();
+		}
+		consoles.clear();
+		long closed = (ConsoleHeapBudgetCheck.usedHeap() - before) / sessions;
+		
+		System.out.printf("%d sessions: %d bytes per live session (budget %d), %d bytes per closed session (budget %d)%n",
+				sessions, live, budget, closed, CLOSED_BUDGET);
+		if (live > budget || closed > CLOSED_BUDGET) {
+			System.out.println("FAILED: heap budget exceeded");
+			System.exit(1);
+		}
+		System.out.println("OK");
+		System.exit(0);
+	}
+	
+	/**
+	 * Opens a console on in-memory streams and writes to it once, such
+	 * that its output buffers are in use.
+	 * 
+	 * @param commander The command handler.
+	 * @param id The id of the session.
+	 * @return The console.
+	 * @throws Exception if the console cannot be created.
+	 */
+	private static Console open(CommandHandler commander, long id) throws Exception {
+		/* The session of the console. */
+		CliSession session = new CliSession(id, "benchmark", "local", EnumSet.allOf(Role.class));
+		/* The console. */
+		Console console = new Console(commander, session, new ByteArrayInputStream(new byte[0]), new ByteArrayOutputStream(), null, "UTF-8");
+		
+		console.write("hello");
+		console.flush();
+		
+		// Return.
+		return console;
+	}
+	
+	/**
+	 * Gets the used heap after garbage collection. Collects until the
+	 * used heap no longer shrinks, since a single collection may leave
+	 * garbage behind.
+	 * 
+	 * @return The used heap in bytes.
+	 * @throws InterruptedException if interrupted while waiting for a collection.
+	 */
+	private static long usedHeap() throws InterruptedException {
+		/* The Java runtime. */
+		Runtime runtime = Runtime.getRuntime();
+		/* The used heap after the last collection. */
+		long used = Long.MAX_VALUE;
+		
+		for (int i = 0; i < 20; i++) {
+			System.gc();
+			Thread.sleep(50);
+			long current = runtime.totalMemory() - runtime.freeMemory();
+			if (current >= used)
+				break;
+			used = current;
+		}
+		
+		// Return.
+		return used;
+	}
+
+}
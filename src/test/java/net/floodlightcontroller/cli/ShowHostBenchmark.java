@@ -0,0 +1,266 @@
+package net.floodlightcontroller.cli;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+
+import net.floodlightcontroller.cli.auth.Role;
+import net.floodlightcontroller.cli.commands.CommandHandler;
+import net.floodlightcontroller.cli.commands.ShowHostCmd;
+import net.floodlightcontroller.core.module.FloodlightModuleContext;
+import net.floodlightcontroller.devicemanager.IDevice;
+import net.floodlightcontroller.devicemanager.IDeviceService;
+import net.floodlightcontroller.devicemanager.SwitchPort;
+
+import org.apache.sshd.ClientChannel;
+import org.apache.sshd.ClientSession;
+import org.apache.sshd.SshClient;
+import org.apache.sshd.SshServer;
+import org.apache.sshd.common.Cipher;
+import org.apache.sshd.common.FactoryManager;
+import org.apache.sshd.common.NamedFactory;
+import org.apache.sshd.server.PasswordAuthenticator;
+import org.apache.sshd.server.keyprovider.SimpleGeneratorHostKeyProvider;
+import org.apache.sshd.server.session.ServerSession;
+
+/**
+ * Measures the throughput of "show host" over SSH on the loopback
+ * interface. An SSH server with the CLI shell lists a device manager
+ * with a given number of hosts, and SSHD's client logs in, runs
+ * "show host", and counts the output bytes until the channel closes.
+ * The first run warms up the JIT and is not counted.
+ * 
+ * Usage, with the jars of lib/ and the compiled classes on the class path:
+ * 
+ *   java [-Dcipher=aes128-ctr] [-Dwindowsize=2097152] [-Dpacketsize=32768] \
+ *       net.floodlightcontroller.cli.ShowHostBenchmark [HOSTS] [RUNS]
+ * 
+ * The cipher is the one the client negotiates, the window and packet
+ * sizes are set on the server like the windowsize and packetsize
+ * module parameters. HOSTS defaults to 100000, RUNS to 5.
+ */
+public class ShowHostBenchmark {
+	
+	/**
+	 * Runs the benchmark.
+	 * 
+	 * @param args The number of hosts and the number of runs.
+	 * @throws Exception if the SSH server or client fails.
+	 */
+	public static void main(String[] args) throws Exception {
+		/* The number of hosts and runs. */
+		int hosts = (args.length > 0) ? Integer.parseInt(args[0]) : 100000;
+		int runs = (args.length > 1) ? Integer.parseInt(args[1]) : 5;
+		/* The loopback port of the SSH server. */
+		int port = ShowHostBenchmark.getFreePort();
+		/* The throughput of each run in MB/s. */
+		List<Double> throughputs = new ArrayList<Double>();
+		
+		// Set up the CLI with a device manager of the given size.
+		FloodlightModuleContext context = new FloodlightModuleContext();
+		context.addService(IDeviceService.class, ShowHostBenchmark.createDeviceService(hosts));
+		CommandHandler.getInstance().addCommand(new ShowHostCmd(context));
+		
+		// Start the SSH server.
+		SshServer sshd = SshServer.setUpDefaultServer();
+		sshd.setPort(port);
+		sshd.setKeyPairProvider(new SimpleGeneratorHostKeyProvider());
+		sshd.setPasswordAuthenticator(new PasswordAuthenticator() {
+			@Override
+			public boolean authenticate(String username, String password, ServerSession session) {
+				return true;
+			}
+		});
+		if (System.getProperty("windowsize") != null)
+			sshd.getProperties().put(FactoryManager.WINDOW_SIZE, System.getProperty("windowsize"));
+		if (System.getProperty("packetsize") != null)
+			sshd.getProperties().put(FactoryManager.MAX_PACKET_SIZE, System.getProperty("packetsize"));
+		sshd.setShellFactory(new FloodlightShellFactory(EnumSet.allOf(Role.class)));
+		sshd.start();
+		
+		// Start the SSH client.
+		SshClient client = SshClient.setUpDefaultClient();
+		if (System.getProperty("cipher") != null) {
+			NamedFactory<Cipher> cipher = NamedFactory.Utils.get(client.getCipherFactories(), System.getProperty("cipher"));
+			if (cipher == null)
+				throw new IllegalArgumentException("Unsupported cipher: " + System.getProperty("cipher"));
+			client.setCipherFactories(Collections.<NamedFactory<Cipher>>singletonList(cipher));
+		}
+		client.start();
+		
+		try {
+			for (int run = 0; run <= runs; run++) {
+				/* The number of output bytes and the time of the run. */
+				long[] result = ShowHostBenchmark.run(client, port);
+				double throughput = result[0] / 1048576.0 / (result[1] / 1e9);
+				System.out.printf("%s %d bytes in %.0f ms, %.1f MB/s%n", (run == 0) ? "warm-up" : "run " + run, result[0], result[1] / 1e6, throughput);
+				if (run > 0)
+					throughputs.add(throughput);
+			}
+		} finally {
+			client.stop();
+			sshd.stop(true);
+		}
+		
+		Collections.sort(throughputs);
+		System.out.printf("%d hosts, cipher %s: median %.1f MB/s%n", hosts,
+				(System.getProperty("cipher") != null) ? System.getProperty("cipher") : "default", throughputs.get(throughputs.size() / 2));
+		System.exit(0);
+	}
+	
+	/**
+	 * Logs in, runs "show host", and reads the output until the shell
+	 * exits.
+	 * 
+	 * @param client The SSH client.
+	 * @param port The port of the SSH server.
+	 * @return The number of output bytes and the time in nanoseconds.
+	 * @throws Exception if the SSH session fails.
+	 */
+	static long[] run(SshClient client, int port) throws Exception {
+		/* The number of output bytes. */
+		final long[] bytes = new long[1];
+		/* The start time of the run. */
+		long start = System.nanoTime();
+		
+		ClientSession session = client.connect("localhost", port).await().getSession();
+		try {
+			session.authPassword("benchmark", "benchmark").await();
+			ClientChannel channel = session.createChannel(ClientChannel.CHANNEL_SHELL);
+			channel.setIn(new ByteArrayInputStream("show host\nexit\n".getBytes("US-ASCII")));
+			channel.setOut(new OutputStream() {
+				@Override
+				public void write(int b) {
+					bytes[0]++;
+				}
+				
+				@Override
+				public void write(byte[] b, int off, int len) {
+					bytes[0] += len;
+				}
+			});
+			channel.setErr(new OutputStream() {
+				@Override
+				public void write(int b) {
+					// Discard.
+				}
+			});
+			channel.open().await();
+			channel.waitFor(ClientChannel.CLOSED, 0);
+		} finally {
+			session.close(true);
+		}
+		
+		// Return.
+		return new long[] {bytes[0], System.nanoTime() - start};
+	}
+	
+	/**
+	 * Creates a device manager that knows a given number of hosts.
+	 * 
+	 * @param hosts The number of hosts.
+	 * @return The device manager.
+	 */
+	static IDeviceService createDeviceService(int hosts) {
+		/* The hosts. */
+		final List<IDevice> devices = new ArrayList<IDevice>(hosts);
+		
+		for (int i = 0; i < hosts; i++) {
+			devices.add(ShowHostBenchmark.createDevice(i));
+		}
+		
+		// Return.
+		return (IDeviceService) Proxy.newProxyInstance(ShowHostBenchmark.class.getClassLoader(), new Class<?>[] {IDeviceService.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				return (method.getName().equals("getAllDevices")) ? devices : null;
+			}
+		});
+	}
+	
+	/**
+	 * Creates a host with a MAC address, an IP address, and an
+	 * attachment point.
+	 * 
+	 * @param i The number of the host.
+	 * @return The host.
+	 */
+	private static IDevice createDevice(final int i) {
+		/* The time the host was last seen. */
+		final Date lastSeen = new Date();
+		
+		// Return.
+		return (IDevice) Proxy.newProxyInstance(ShowHostBenchmark.class.getClassLoader(), new Class<?>[] {IDevice.class}, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if (method.getName().equals("getMACAddress"))
+					return 0x020000000000L + i;
+				if (method.getName().equals("getVlanId"))
+					return new Short[] {(short) (i % 4096)};
+				if (method.getName().equals("getIPv4Addresses"))
+					return new Integer[] {0x0a000000 + i};
+				if (method.getName().equals("getAttachmentPoints"))
+					return new SwitchPort[0];
+				if (method.getName().equals("getLastSeen"))
+					return lastSeen;
+				if (method.getName().equals("toString"))
+					return "host" + i;
+				return null;
+			}
+		});
+	}
+	
+	/**
+	 * Finds a free port on the loopback interface.
+	 * 
+	 * @return The port.
+	 * @throws Exception if no port is free.
+	 */
+	static int getFreePort() throws Exception {
+		ServerSocket socket = new ServerSocket(0);
+		try {
+			return socket.getLocalPort();
+		} finally {
+			socket.close();
+		}
+	}
+
+}
@@ -0,0 +1,288 @@
+package net.floodlightcontroller.cli.cluster;
+
+/*
+* Copyright (c) 2013, California Institute of Technology
+* ALL RIGHTS RESERVED.
+* Based on Government Sponsored Research DE-SC0007346
+* 
+* Licensed under the Apache License, Version 2.0 (the "License");
+* you may not use this file except in compliance with the License.
+* You may obtain a copy of the License at
+* 
+*     http://www.apache.org/licenses/LICENSE-2.0
+* 
+* THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+* "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+* LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+* A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+* HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+* INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+* BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS
+* OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED
+* AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT
+* LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY
+* WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+* POSSIBILITY OF SUCH DAMAGE.
+* 
+* Neither the name of the California Institute of Technology
+* (Caltech) nor the names of its contributors may be used to endorse
+* or promote products derived from this software without specific prior
+* written permission.
+*/
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import jline.console.completer.Completer;
+import net.floodlightcontroller.cli.CliSession;
+import net.floodlightcontroller.cli.IConsole;
+import net.floodlightcontroller.cli.commands.ClusterShowCmd;
+import net.floodlightcontroller.cli.commands.CommandMode;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Checks "cluster show" against local stub controllers. Five peers are
+ * configured: a fast one, a slow one that answers after a second, a hung
+ * one that answers after the timeout, one that answers HTTP 500, and a
+ * port nobody listens on. Each stub serves the Floodlight REST API paths
+ * of the cluster views with canned JSON. For each view, the check
+ * verifies that
+ * 
+ *  - the rows of the fast and the slow peer are merged into one table,
+ *  - the fast peer's rows are written before the slow peer answers,
+ *  - the hung, failing, and refused peers are reported with their reason,
+ *  - the command returns within the timeout plus one second.
+ * 
+ * The check exits with status 1 if any verification fails.
+ * 
+ * Usage, with the jars of lib/ (and Jackson) and the compiled classes on the class path:
+ * 
+ *   java net.floodlightcontroller.cli.cluster.ClusterStubServerCheck
+ */
+public class ClusterStubServerCheck {
+	/** The timeout of the cluster queries in milliseconds. */
+	private static final long TIMEOUT = 2000;
+	/** The delay of the slow peer in milliseconds. */
+	private static final long SLOW_DELAY = 1000;
+	/** The delay of the hung peer in milliseconds, i.e. beyond the timeout. */
+	private static final long HUNG_DELAY = 10000;
+	/** The number of failed verifications. */
+	private static int failures = 0;
+	
+	/**
+	 * Runs the check.
+	 * 
+	 * @param args Not used.
+	 * @throws Exception if a stub server cannot be started.
+	 */
+	public static void main(String[] args) throws Exception {
+		/* The stub controllers. */
+		HttpServer fast = ClusterStubServerCheck.startStub(0, 200, 2);
+		HttpServer slow = ClusterStubServerCheck.startStub(SLOW_DELAY, 200, 300);
+		HttpServer hung = ClusterStubServerCheck.startStub(HUNG_DELAY, 200, 1);
+		HttpServer error = ClusterStubServerCheck.startStub(0, 500, 1);
+		/* A port nobody listens on. */
+		ServerSocket socket = new ServerSocket(0);
+		int refusedPort = socket.getLocalPort();
+		socket.close();
+		
+		String peers = "fast=http://127.0.0.1:" + fast.getAddress().getPort()
+				+ ",slow=http://127.0.0.1:" + slow.getAddress().getPort()
+				+ ",hung=http://127.0.0.1:" + hung.getAddress().getPort()
+				+ ",error=http://127.0.0.1:" + error.getAddress().getPort()
+				+ ",refused=http://127.0.0.1:" + refusedPort;
+		ClusterShowCmd command = new ClusterShowCmd(new ClusterClient(ClusterPeer.parseList(peers)), TIMEOUT);
+		
+		ClusterStubServerCheck.check(command, "switch", 302);
+		ClusterStubServerCheck.check(command, "host", 2);
+		ClusterStubServerCheck.check(command, "link", 2);
+		ClusterStubServerCheck.check(command, "summary", 2);
+		
+		System.out.println((failures == 0) ? "OK" : "FAILED: " + failures + " verifications failed");
+		System.exit((failures == 0) ? 0 : 1);
+	}
+	
+	/**
+	 * Runs "cluster show" for a view and verifies the result.
+	 * 
+	 * @param command The cluster show command.
+	 * @param view The view, e.g. "switch".
+	 * @param rows The number of rows the fast and the slow peer return together.
+	 */
+	private static void check(ClusterShowCmd command, String view, int rows) {
+		/* The console that records the output. */
+		RecordingConsole console = new RecordingConsole();
+		/* The start time of the command. */
+		long start = System.currentTimeMillis();
+		/* The report of the command. */
+		String report = command.execute(console, view);
+		/* The duration of the command. */
+		long duration = System.currentTimeMillis() - start;
+		
+		System.out.println("cluster show " + view + " (" + duration + " ms):");
+		System.out.println(report);
+		ClusterStubServerCheck.verify(report.contains(rows + " rows from 2 of 5 controllers"), "rows of the fast and the slow peer are merged");
+		ClusterStubServerCheck.verify(console.getTime("fast ") >= 0 && console.getTime("fast ") < SLOW_DELAY,
+				"rows of the fast peer are written after " + console.getTime("fast ") + " ms, before the slow peer answers");
+		ClusterStubServerCheck.verify(console.getTime("slow ") >= SLOW_DELAY, "rows of the slow peer are written after " + console.getTime("slow ") + " ms");
+		ClusterStubServerCheck.verify(report.contains("hung: timed out after " + TIMEOUT + " ms"), "hung peer times out");
+		ClusterStubServerCheck.verify(report.contains("error: HTTP 500"), "HTTP 500 is reported");
+		ClusterStubServerCheck.verify(report.contains("refused: Connection refused"), "refused connection is reported");
+		ClusterStubServerCheck.verify(duration < TIMEOUT + 1000, "command returns within the timeout");
+		System.out.println();
+	}
+	
+	/**
+	 * Prints the result of a verification and counts failures.
+	 * 
+	 * @param condition The verified condition.
+	 * @param description The description of the verification.
+	 */
+	private static void verify(boolean condition, String description) {
+		System.out.println(((condition) ? "  ok      " : "  FAILED  ") + description);
+		if (!condition)
+			failures++;
+	}
+	
+	/**
+	 * Starts a stub controller that serves the REST API paths of the
+	 * cluster views on the loopback interface.
+	 * 
+	 * @param delay The delay of each answer in milliseconds.
+	 * @param status The HTTP status of each answer.
+	 * @param switches The number of switches the stub lists.
+	 * @return The started HTTP server.
+	 * @throws IOException if the server cannot be started.
+	 */
+	private static HttpServer startStub(final long delay, final int status, final int switches) throws IOException {
+		/* The stub server. */
+		HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		
+		server.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				try {
+					Thread.sleep(delay);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				byte[] body = ClusterStubServerCheck.getBody(exchange.getRequestURI().getPath(), switches).getBytes("UTF-8");
+				exchange.getResponseHeaders().set("Content-Type", "application/json");
+				exchange.sendResponseHeaders(status, body.length);
+				exchange.getResponseBody().write(body);
+				exchange.close();
+			}
+		});
+		server.start();
+		
+		// Return.
+		return server;
+	}
+	
+	/**
+	 * Gets the canned JSON answer of a REST API path.
+	 * 
+	 * @param path The path, e.g. "/wm/core/controller/switches/json".
+	 * @param switches The number of switches to list.
+	 * @return The JSON answer.
+	 */
+	private static String getBody(String path, int switches) {
+		if (path.startsWith("/wm/core/controller/switches")) {
+			StringBuilder body = new StringBuilder("[");
+			for (int i = 0; i < switches; i++) {
+				if (i > 0)
+					body.append(",");
+				body.append("{\"dpid\":\"00:00:00:00:00:00:").append(String.format("%02x:%02x", i >> 8, i & 0xff))
+						.append("\",\"inetAddress\":\"/10.0.").append(i >> 8).append(".").append(i & 0xff)
+						.append(":").append(50000 + i).append("\",\"connectedSince\":1370000000000}");
+			}
+			return body.append("]").toString();
+		}
+		if (path.startsWith("/wm/device"))
+			return "[{\"mac\":[\"00:00:00:00:00:01\"],\"ipv4\":[\"10.0.0.1\"],\"vlan\":[],\"attachmentPoint\":"
+					+ "[{\"switchDPID\":\"00:00:00:00:00:00:00:01\",\"port\":1,\"errorStatus\":null}],\"lastSeen\":1370000000000}]";
+		if (path.startsWith("/wm/topology/links"))
+			return "[{\"src-switch\":\"00:00:00:00:00:00:00:01\",\"src-port\":1,\"dst-switch\":\"00:00:00:00:00:00:00:02\",\"dst-port\":2,\"type\":\"internal\"}]";
+		return "{\"# Switches\":2,\"# hosts\":3,\"# quarantine ports\":0,\"# inter-switch links\":1}";
+	}
+	
+	/**
+	 * A console that records when lines starting with a prefix were
+	 * first written.
+	 */
+	private static class RecordingConsole implements IConsole {
+		/** The start time of the command. */
+		private final long start = System.currentTimeMillis();
+		/** The written lines and the times they were written at. */
+		private final List<Object[]> lines = new ArrayList<Object[]>();
+		
+		/**
+		 * Gets the time a line starting with a prefix was first written.
+		 * 
+		 * @param prefix The prefix, e.g. the name of a peer.
+		 * @return The time in milliseconds since the start of the command, or -1.
+		 */
+		private synchronized long getTime(String prefix) {
+			for (Object[] line : this.lines) {
+				if (((String) line[0]).startsWith(prefix))
+					return (Long) line[1];
+			}
+			return -1;
+		}
+		
+		@Override
+		public synchronized void write(String string) {
+			for (String line : string.split("\n")) {
+				this.lines.add(new Object[] {line, System.currentTimeMillis() - this.start});
+			}
+		}
+		
+		@Override
+		public void flush() {
+			// Nothing to flush.
+		}
+		
+		@Override
+		public void setPrompt(String prompt) {
+			// No prompt.
+		}
+		
+		@Override
+		public String getPrompt() {
+			return "";
+		}
+		
+		@Override
+		public Collection<Completer> getCompleters() {
+			return null;
+		}
+		
+		@Override
+		public CliSession getSession() {
+			return null;
+		}
+		
+		@Override
+		public int getWidth() {
+			return 0;
+		}
+		
+		@Override
+		public CommandMode getMode() {
+			return CommandMode.EXEC;
+		}
+		
+		@Override
+		public void setMode(CommandMode mode) {
+			// The mode does not change.
+		}
+	}
+
+}